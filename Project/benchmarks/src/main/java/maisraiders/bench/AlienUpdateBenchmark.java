@@ -0,0 +1,87 @@
+package maisraiders.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import maisraiders.entities.Alien;
+import maisraiders.entities.AlienPlanner;
+import maisraiders.entities.Farmer;
+import maisraiders.panel.Board;
+import maisraiders.util.Point;
+
+/**
+ * One tick of alien updates on a large maze: each alien in turn, and planned in parallel
+ * through AlienPlanner.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class AlienUpdateBenchmark {
+    private static final int SIDE = 256;
+
+    @Param({"16", "128"})
+    public int alienCount;
+
+    private Board board;
+    private Farmer farmer;
+    private List<Alien> aliens;
+    private AlienPlanner sequential;
+    private AlienPlanner parallel;
+
+    @Setup
+    public void setUp() {
+        board = Mazes.create(SIDE, SIDE, 1L);
+        farmer = new Farmer(new Point(SIDE / 2 + 1, SIDE / 2 + 1), 4);
+        aliens = new ArrayList<>();
+        Random random = new Random(7L);
+        while (aliens.size() < alienCount) {
+            Point spawn = new Point(random.nextInt(SIDE), random.nextInt(SIDE));
+            if (!board.isBlocked(spawn)) {
+                aliens.add(new Alien(spawn, 3));
+            }
+        }
+        sequential = new AlienPlanner(ForkJoinPool.commonPool(), Integer.MAX_VALUE);
+        parallel = new AlienPlanner(ForkJoinPool.commonPool(), 1);
+    }
+
+    /**
+     * Start every iteration from the spawns so both variants see the same searches.
+     */
+    @Setup(Level.Iteration)
+    public void resetAliens() {
+        for (Alien alien : aliens) {
+            alien.resetPosition();
+        }
+    }
+
+    @Benchmark
+    public List<Alien> updateSequential() {
+        sequential.update(aliens, board, farmer, null);
+        return aliens;
+    }
+
+    @Benchmark
+    public List<Alien> updateParallel() {
+        parallel.update(aliens, board, farmer, null);
+        return aliens;
+    }
+}
@@ -0,0 +1,81 @@
+package maisraiders.bench;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import maisraiders.panel.Board;
+
+/**
+ * Builds large seeded mazes for the pathfinding benchmarks.
+ */
+public final class Mazes {
+    // map values understood by MapLoader.getCellFillFromMapValue
+    private static final int OPEN = 0;
+    private static final int BARRIER = 1;
+
+    private Mazes() {
+    }
+
+    /**
+     * Carve a maze with a randomised depth-first search, then knock out some extra walls so
+     * there is more than one route between most cells (a perfect maze makes every heuristic
+     * look the same).
+     * @param cols number of columns (rounded down to odd)
+     * @param rows number of rows (rounded down to odd)
+     * @param seed random seed, the same seed always gives the same maze
+     * @return board holding the maze, open cells at odd coordinates
+     */
+    public static Board create(int cols, int rows, long seed) {
+        cols = (cols - 1) | 1;
+        rows = (rows - 1) | 1;
+        Random random = new Random(seed);
+        int[][] layout = new int[cols][rows];
+        for (int[] column : layout) {
+            Arrays.fill(column, BARRIER);
+        }
+
+        int[] stack = new int[cols * rows];
+        int top = 0;
+        stack[top++] = 1 * rows + 1;
+        layout[1][1] = OPEN;
+        int[] dc = {0, 2, 0, -2};
+        int[] dr = {-2, 0, 2, 0};
+        int[] order = {0, 1, 2, 3};
+        while (top > 0) {
+            int cell = stack[top - 1];
+            int c = cell / rows;
+            int r = cell % rows;
+            shuffle(order, random);
+            boolean carved = false;
+            for (int d : order) {
+                int nc = c + dc[d];
+                int nr = r + dr[d];
+                if (nc <= 0 || nc >= cols - 1 || nr <= 0 || nr >= rows - 1) continue;
+                if (layout[nc][nr] == OPEN) continue;
+                layout[c + dc[d] / 2][r + dr[d] / 2] = OPEN;
+                layout[nc][nr] = OPEN;
+                stack[top++] = nc * rows + nr;
+                carved = true;
+                break;
+            }
+            if (!carved) top--;
+        }
+
+        int extraOpenings = cols * rows / 20;
+        for (int i = 0; i < extraOpenings; i++) {
+            int c = 1 + random.nextInt(cols - 2);
+            int r = 1 + random.nextInt(rows - 2);
+            if ((c + r) % 2 == 1) layout[c][r] = OPEN;
+        }
+        return new Board(layout);
+    }
+
+    private static void shuffle(int[] values, Random random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+    }
+}
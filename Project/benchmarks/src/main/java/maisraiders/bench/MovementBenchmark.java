@@ -0,0 +1,89 @@
+package maisraiders.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import maisraiders.entities.Alien;
+import maisraiders.entities.Farmer;
+import maisraiders.enums.Direction;
+import maisraiders.panel.Board;
+import maisraiders.ui.WindowSetting;
+import maisraiders.util.Point;
+import maisraiders.util.SpatialHash;
+
+/**
+ * Per-tick entity work: one movement step and the farmer's collision/exit update.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MovementBenchmark {
+    private Board board;
+    private Farmer farmer;
+    private List<Alien> aliens;
+    private SpatialHash<Alien> alienIndex;
+
+    @Setup
+    public void setUp() {
+        board = new Board(WindowSetting.maxScreenCol, WindowSetting.maxScreenRow);
+        farmer = new Farmer(new Point(9, 7), 4);
+        aliens = new ArrayList<>();
+        aliens.add(new Alien(new Point(1, 1), 3));
+        aliens.add(new Alien(new Point(15, 5), 3));
+        alienIndex = new SpatialHash<>(64, 64);
+        for (Alien alien : aliens) {
+            alienIndex.put(alien, alien.getSubPositionX(), alien.getSubPositionY());
+        }
+    }
+
+    /**
+     * One step east and one step back west, so the farmer stays on the same tiles.
+     */
+    @Benchmark
+    @OperationsPerInvocation(2)
+    public void moveWithBoardMask(Blackhole bh) {
+        farmer.move(Direction.E, board);
+        farmer.move(Direction.W, board);
+        bh.consume(farmer.getSubPositionX());
+    }
+
+    /**
+     * Same steps through the older Cell[] neighbour overload.
+     */
+    @Benchmark
+    @OperationsPerInvocation(2)
+    public void moveWithNeighbourCells(Blackhole bh) {
+        farmer.move(Direction.E, board.getNeighbours(farmer.getPosition()));
+        farmer.move(Direction.W, board.getNeighbours(farmer.getPosition()));
+        bh.consume(farmer.getSubPositionX());
+    }
+
+    @Benchmark
+    public boolean farmerUpdateList() {
+        farmer.update(aliens, board);
+        return farmer.hasAlienCollision();
+    }
+
+    @Benchmark
+    public boolean farmerUpdateSpatialHash() {
+        farmer.update(alienIndex, board);
+        return farmer.hasAlienCollision();
+    }
+}
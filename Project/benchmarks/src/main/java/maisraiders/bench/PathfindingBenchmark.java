@@ -0,0 +1,107 @@
+package maisraiders.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import maisraiders.entities.AStar;
+import maisraiders.entities.HierarchicalPathfinder;
+import maisraiders.panel.Board;
+import maisraiders.ui.WindowSetting;
+import maisraiders.util.Point;
+
+/**
+ * A* on the stock map and on generated mazes, with both heuristics the aliens use.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PathfindingBenchmark {
+
+    /** "stock" is the shipped 20x16 map, a number is the side of a generated maze. */
+    @Param({"stock", "64", "256"})
+    public String map;
+
+    @Param({"octile", "manhattan"})
+    public String heuristic;
+
+    private Board board;
+    private AStar.Heuristic h;
+    private Point start;
+    private Point goal;
+    private AStar arena;
+    private HierarchicalPathfinder hierarchical;
+    private int[] pathBuffer;
+    private int startIdx;
+    private int goalIdx;
+
+    @Setup
+    public void setUp() {
+        if (map.equals("stock")) {
+            board = new Board(WindowSetting.maxScreenCol, WindowSetting.maxScreenRow);
+            // alien spawn to farmer spawn
+            start = new Point(1, 1);
+            goal = new Point(9, 7);
+        } else {
+            int side = Integer.parseInt(map);
+            board = Mazes.create(side, side, 1L);
+            start = new Point(1, 1);
+            goal = new Point(board.getCols() - 2, board.getRows() - 2);
+        }
+        h = heuristic.equals("octile") ? AStar.octileHeuristic : AStar.manhattanHeuristic;
+        arena = new AStar(board);
+        hierarchical = new HierarchicalPathfinder(board, HierarchicalPathfinder.DEFAULT_SECTOR_SIZE);
+        pathBuffer = AStar.newPathBuffer(board);
+        startIdx = board.index(start);
+        goalIdx = board.index(goal);
+        if (arena.search(startIdx, goalIdx, h, pathBuffer) == 0) {
+            throw new IllegalStateException("No path on map " + map);
+        }
+    }
+
+    /**
+     * The list-returning entry point (allocates the result).
+     */
+    @Benchmark
+    public List<Point> findPath() {
+        return AStar.findPath(board, start, goal, h);
+    }
+
+    /**
+     * The allocation-free search the aliens call every replan.
+     */
+    @Benchmark
+    public int search() {
+        return arena.search(startIdx, goalIdx, h, pathBuffer);
+    }
+
+    /**
+     * The same search with Jump Point Search.
+     */
+    @Benchmark
+    public int jumpSearch() {
+        return arena.jumpSearch(startIdx, goalIdx, h, pathBuffer);
+    }
+
+    /**
+     * The same search planned across sectors (HPA*), as aliens do on large boards.
+     */
+    @Benchmark
+    public int hierarchicalSearch() {
+        return hierarchical.search(startIdx, goalIdx, h, pathBuffer);
+    }
+}
@@ -0,0 +1,127 @@
+package maisraiders.bench;
+
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import maisraiders.panel.Board;
+import maisraiders.ui.StaticBoardLayer;
+import maisraiders.ui.TileRenderer;
+import maisraiders.ui.WindowSetting;
+
+/**
+ * Drawing the whole stock board into an offscreen image, tile by tile and from the cached layer,
+ * and drawing a window-sized view that scrolls across a very large level.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class TileRenderBenchmark {
+    // tile size of the default window (GameLoop.tileSize)
+    private static final int TILE_SIZE = 64;
+    // pixels the view moves per frame in the scrolling benchmark, about the farmer's speed
+    private static final int SCROLL_STEP = 4;
+
+    private Board board;
+    private TileRenderer renderer;
+    private StaticBoardLayer layer;
+    private BufferedImage image;
+    private Graphics2D g2;
+
+    @Setup
+    public void setUp() {
+        board = new Board(WindowSetting.maxScreenCol, WindowSetting.maxScreenRow);
+        renderer = new TileRenderer(TILE_SIZE);
+        layer = new StaticBoardLayer(renderer);
+        image = new BufferedImage(TILE_SIZE * board.getCols(), TILE_SIZE * board.getRows(),
+                BufferedImage.TYPE_INT_ARGB);
+        g2 = image.createGraphics();
+    }
+
+    @TearDown
+    public void tearDown() {
+        g2.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage drawBoard() {
+        renderer.drawBoard(g2, board);
+        return image;
+    }
+
+    /**
+     * What the window does per frame now: copy the cached tile layer (headless, so the
+     * BufferedImage fallback rather than a VolatileImage).
+     */
+    @Benchmark
+    public BufferedImage drawCachedLayer() {
+        layer.draw(g2, board, null);
+        return image;
+    }
+
+    /**
+     * A 4096 x 4096 level and a window-sized view of it.
+     */
+    @State(Scope.Thread)
+    public static class LargeLevel {
+        static final int SIZE = 4096;
+        Board board;
+        StaticBoardLayer layer;
+        BufferedImage view;
+        Graphics2D g2;
+        AffineTransform identity;
+        int cameraX = 0;
+
+        @Setup
+        public void setUp() {
+            int[][] layout = new int[SIZE][SIZE];
+            for (int c = 0; c < SIZE; c++) {
+                for (int r = 0; r < SIZE; r++) {
+                    layout[c][r] = (c * 31 + r * 17) % 13 == 0 ? 1 : 0;
+                }
+            }
+            board = new Board(layout);
+            layer = new StaticBoardLayer(new TileRenderer(TILE_SIZE));
+            view = new BufferedImage(WindowSetting.maxScreenCol * TILE_SIZE, WindowSetting.maxScreenRow * TILE_SIZE,
+                    BufferedImage.TYPE_INT_RGB);
+            g2 = view.createGraphics();
+            g2.setClip(0, 0, view.getWidth(), view.getHeight());
+            identity = g2.getTransform();
+        }
+
+        @TearDown
+        public void tearDown() {
+            g2.dispose();
+        }
+    }
+
+    /**
+     * One frame of a view scrolling diagonally across the large level: only the blocks in view
+     * are drawn, and new ones are rasterised as they scroll in.
+     */
+    @Benchmark
+    public BufferedImage drawLargeLevelView(LargeLevel level) {
+        int limit = LargeLevel.SIZE * TILE_SIZE - level.view.getWidth();
+        level.cameraX = (level.cameraX + SCROLL_STEP) % limit;
+        level.g2.setTransform(level.identity);
+        level.g2.translate(-level.cameraX, -level.cameraX);
+        level.layer.draw(level.g2, level.board, null);
+        return level.view;
+    }
+}
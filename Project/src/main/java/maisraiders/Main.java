@@ -1,16 +1,118 @@
 package maisraiders;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Random;
+
+import maisraiders.assets.AssetPreloader;
+import maisraiders.enums.Direction;
 import maisraiders.enums.GameState;
+import maisraiders.metrics.MetricsServer;
+import maisraiders.movement.ScriptedInput;
 import maisraiders.panel.Game;
+import maisraiders.panel.GameLoop;
+import maisraiders.replay.Replay;
 
 
 /**
  * A class to run the game
  */
 public class Main {
+    private static final int DEFAULT_MATCHES = 1000;
+    private static final int DEFAULT_MAX_TICKS = 60 * 60 * 3;
+    private static final int TICKS_PER_TURN = 30;
+    // -Dmaisraiders.assetTimings=true prints how long each asset took to load
+    private static final String ASSET_REPORT_PROPERTY = "maisraiders.assetTimings";
+    private static final long ASSET_REPORT_TIMEOUT_MS = 30_000;
+
     public static void main(String[] args) {
+        // -Dmaisraiders.metricsPort=9400 serves Prometheus metrics on localhost
+        MetricsServer.startFromProperty();
+        if (args.length > 0 && args[0].equals("--headless")) {
+            int matches = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_MATCHES;
+            int maxTicks = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_MAX_TICKS;
+            runHeadless(matches, maxTicks);
+            return;
+        }
+        if (args.length > 1 && args[0].equals("--replay")) {
+            playReplay(args[1]);
+            return;
+        }
+        AssetPreloader assets = AssetPreloader.startGameAssets();
+        if (!assets.awaitCritical(AssetPreloader.DEFAULT_CRITICAL_BUDGET_MS)) {
+            System.err.println("Title screen assets not ready after "
+                    + AssetPreloader.DEFAULT_CRITICAL_BUDGET_MS + " ms, loading the rest on demand");
+        }
         Game game = new Game();
         game.setGameState(GameState.TITLE);
         game.StartGame();
+        if (Boolean.getBoolean(ASSET_REPORT_PROPERTY) && assets.awaitAll(ASSET_REPORT_TIMEOUT_MS)) {
+            System.out.print(assets.report());
+        }
+    }
+
+    /**
+     * Play a recorded match back without a window at full speed and print how it ended.
+     * @param file replay file
+     */
+    private static void playReplay(String file) {
+        System.setProperty("java.awt.headless", "true");
+        Replay replay;
+        try {
+            replay = Replay.load(Paths.get(file));
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        long startTime = System.nanoTime();
+        Game game = new Game();
+        GameLoop loop = game.startReplay(replay);
+        GameState state = game.getGameState();
+        while (state == GameState.RUNNING && game.getTick() < replay.getEndTick()) {
+            state = loop.step();
+        }
+        long elapsedMs = (System.nanoTime() - startTime) / 1_000_000;
+        System.out.println("state=" + state + " score=" + game.getScore() + " ticks=" + game.getTick()
+                + " recordedTicks=" + replay.getEndTick() + " ms=" + elapsedMs);
+    }
+
+    /**
+     * Play matches without a window as fast as possible, with a farmer that wanders randomly,
+     * and print how they ended.
+     * @param matches number of matches to play
+     * @param maxTicks ticks after which an unfinished match counts as a timeout
+     */
+    private static void runHeadless(int matches, int maxTicks) {
+        System.setProperty("java.awt.headless", "true");
+        int wins = 0;
+        int losses = 0;
+        int timeouts = 0;
+        long ticks = 0;
+        long startTime = System.nanoTime();
+        for (int i = 0; i < matches; i++) {
+            Random random = new Random(i);
+            Direction[] directions = Direction.values();
+            Direction[] held = {Direction.NONE};
+            ScriptedInput input = new ScriptedInput(tick -> {
+                if (tick % TICKS_PER_TURN == 0) {
+                    held[0] = directions[random.nextInt(directions.length)];
+                }
+                return held[0];
+            });
+
+            Game game = new Game();
+            GameLoop loop = game.startHeadless(input, i);
+            GameState state = game.getGameState();
+            while (state == GameState.RUNNING && game.getTick() < maxTicks) {
+                state = loop.step();
+            }
+            ticks += game.getTick();
+            if (state == GameState.WIN) wins++;
+            else if (state == GameState.LOSE) losses++;
+            else timeouts++;
+        }
+        long elapsedMs = (System.nanoTime() - startTime) / 1_000_000;
+        System.out.println("matches=" + matches + " wins=" + wins + " losses=" + losses
+                + " timeouts=" + timeouts + " ticks=" + ticks + " ms=" + elapsedMs);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,207 @@
+package maisraiders.assets;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import maisraiders.sound.Sound;
+import maisraiders.sound.SoundMixer;
+import maisraiders.ui.SpriteAtlas;
+import maisraiders.ui.Ui;
+
+/**
+ * Loads the game's images, font and sounds in parallel at launch.
+ *
+ * Assets are split into critical ones (everything the title screen draws or plays) and the rest.
+ * The launcher waits for the critical ones up to a time budget, then opens the window while the
+ * rest keep loading in the background. Anything not loaded yet when the game asks for it is
+ * loaded on demand, exactly as without the preloader. Every asset's load time is recorded.
+ */
+public class AssetPreloader {
+    public static final long DEFAULT_CRITICAL_BUDGET_MS = 1500;
+    private static final int MAX_THREADS = 4;
+    // the title screen only plays the cursor sound
+    private static final int TITLE_SOUND = 7;
+
+    private final ExecutorService executor;
+    private final long startNanos = System.nanoTime();
+    private final List<Future<?>> criticalTasks = new ArrayList<>();
+    private final List<Future<?>> allTasks = new ArrayList<>();
+    private final Queue<AssetTiming> timings = new ConcurrentLinkedQueue<>();
+
+    /**
+     * AssetPreloader constructor.
+     * @param threads number of loader threads
+     */
+    public AssetPreloader(int threads) {
+        executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "asset-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Start loading every game asset on a pool sized to the machine (at most MAX_THREADS).
+     * @return preloader to wait on
+     */
+    public static AssetPreloader startGameAssets() {
+        int threads = Math.max(1, Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors()));
+        AssetPreloader preloader = new AssetPreloader(threads);
+        preloader.submitGameAssets();
+        preloader.shutdown();
+        return preloader;
+    }
+
+    /**
+     * Queue the sprite atlas, the font, the sound mixer and the sounds.
+     */
+    void submitGameAssets() {
+        // small critical assets first, background ones last
+        submit("/font/x12y16pxMaruMonica.ttf", true, Ui::loadFont);
+        // open the effects line here, so the first effect played doesn't open it on the game thread
+        submit("sound mixer", true, () -> SoundMixer.shared().start() ? Boolean.TRUE : null);
+        submitSound(TITLE_SOUND, true);
+
+        // each PNG is decoded on its own task, the atlas task packs them once they are all done
+        Map<String, Future<BufferedImage>> images = new LinkedHashMap<>();
+        for (String path : SpriteAtlas.getSpritePaths()) {
+            images.put(path, submit(path, true, () -> SpriteAtlas.decode(path)));
+        }
+        // queued after every image task, so with a FIFO pool they have all started before it waits
+        submit("sprite atlas", true, () -> {
+            Map<String, BufferedImage> decoded = new LinkedHashMap<>();
+            for (Map.Entry<String, Future<BufferedImage>> image : images.entrySet()) {
+                BufferedImage result = image.getValue().get();
+                if (result != null) decoded.put(image.getKey(), result);
+            }
+            SpriteAtlas.install(decoded);
+            return SpriteAtlas.shared();
+        });
+
+        for (int i = 0; i < Sound.getSoundCount(); i++) {
+            // music is streamed by MusicStream, never loaded whole
+            if (i != TITLE_SOUND && !Sound.isMusic(i)) submitSound(i, false);
+        }
+    }
+
+    private void submitSound(int sound, boolean critical) {
+        submit(Sound.getSoundPath(sound), critical, () -> Sound.preload(sound) ? Boolean.TRUE : null);
+    }
+
+    /**
+     * Queue one asset, timing how long it takes.
+     * @param name asset name for the report
+     * @param critical true if the title screen needs it
+     * @param loader loads the asset, returning null if it failed
+     * @return future for the loaded asset
+     */
+    public <T> Future<T> submit(String name, boolean critical, Callable<T> loader) {
+        Future<T> future = executor.submit(() -> {
+            long start = System.nanoTime();
+            T result = null;
+            try {
+                result = loader.call();
+                return result;
+            } finally {
+                long end = System.nanoTime();
+                timings.add(new AssetTiming(name, critical, start - startNanos, end - start, result != null));
+            }
+        });
+        allTasks.add(future);
+        if (critical) criticalTasks.add(future);
+        return future;
+    }
+
+    /**
+     * Stop accepting assets; loader threads exit once the queued ones are done.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Wait until every critical asset is loaded, but no longer than the budget.
+     * @param budgetMillis longest time to wait
+     * @return true if everything critical finished in time
+     */
+    public boolean awaitCritical(long budgetMillis) {
+        return await(criticalTasks, budgetMillis);
+    }
+
+    /**
+     * Wait until every asset is loaded, but no longer than the timeout.
+     * @param timeoutMillis longest time to wait
+     * @return true if everything finished in time
+     */
+    public boolean awaitAll(long timeoutMillis) {
+        return await(allTasks, timeoutMillis);
+    }
+
+    private static boolean await(List<Future<?>> tasks, long millis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        for (Future<?> task : tasks) {
+            try {
+                task.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                return false;
+            } catch (ExecutionException e) {
+                // a broken asset is reported in the timings and loaded (or not) on demand later
+                e.getCause().printStackTrace();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the load times recorded so far, in the order the assets started loading.
+     * @return asset timings
+     */
+    public List<AssetTiming> getTimings() {
+        List<AssetTiming> list = new ArrayList<>(timings);
+        list.sort(Comparator.comparingLong(AssetTiming::getStartNanos));
+        return list;
+    }
+
+    /**
+     * Format the load times as a table, slowest assets first (critical assets marked with *).
+     * @return report text
+     */
+    public String report() {
+        List<AssetTiming> list = getTimings();
+        long busy = 0;
+        long finished = 0;
+        long criticalFinished = 0;
+        for (AssetTiming timing : list) {
+            busy += timing.getDurationNanos();
+            long end = timing.getStartNanos() + timing.getDurationNanos();
+            finished = Math.max(finished, end);
+            if (timing.isCritical()) criticalFinished = Math.max(criticalFinished, end);
+        }
+        list.sort(Comparator.comparingLong(AssetTiming::getDurationNanos).reversed());
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("assets=%d critical ready=%.2f ms all ready=%.2f ms load time=%.2f ms%n",
+                list.size(), criticalFinished / 1e6, finished / 1e6, busy / 1e6));
+        sb.append(String.format("%11s  %10s  %s%n", "load", "start", "asset"));
+        for (AssetTiming timing : list) {
+            sb.append(timing).append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+}
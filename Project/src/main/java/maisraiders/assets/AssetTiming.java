@@ -0,0 +1,62 @@
+package maisraiders.assets;
+
+/**
+ * How long one asset took to load.
+ */
+public class AssetTiming {
+    private final String name;
+    private final boolean critical;
+    private final long startNanos;
+    private final long durationNanos;
+    private final boolean loaded;
+
+    /**
+     * AssetTiming constructor.
+     * @param name asset name (usually its resource path)
+     * @param critical true if the title screen waits for this asset
+     * @param startNanos when loading started, relative to the preloader's start
+     * @param durationNanos how long loading took
+     * @param loaded false if the asset failed to load
+     */
+    public AssetTiming(String name, boolean critical, long startNanos, long durationNanos, boolean loaded) {
+        this.name = name;
+        this.critical = critical;
+        this.startNanos = startNanos;
+        this.durationNanos = durationNanos;
+        this.loaded = loaded;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isCritical() {
+        return critical;
+    }
+
+    /**
+     * Get when loading started, relative to the preloader's start.
+     * @return start offset in nanoseconds
+     */
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    /**
+     * Get how long loading took.
+     * @return duration in nanoseconds
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%8.2f ms  +%7.2f ms  %s%s%s", durationNanos / 1e6, startNanos / 1e6,
+                critical ? "* " : "  ", name, loaded ? "" : "  (FAILED)");
+    }
+}
@@ -1,37 +1,150 @@
 package maisraiders.entities;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.PriorityQueue;
+import java.util.concurrent.atomic.LongAdder;
 
+import maisraiders.enums.Direction;
+import maisraiders.enums.PathSearch;
 import maisraiders.panel.Board;
-import maisraiders.panel.Cell;
 import maisraiders.util.Point;
 
 /**
- * Finds path from one cell to another using A* algorithm
+ * Finds path from one cell to another using A* algorithm.
+ * An AStar instance is a reusable search arena for one board: all per-node state is kept in
+ * flat arrays stamped with a search generation, so a search never allocates or clears them.
+ * That state costs about 41 bytes per board cell (45 with the thread's scratch path buffer),
+ * and every thread that plans keeps its own, which is why levels are capped at Level.MAX_TILES
+ * (2048x2048, about 190 MB per planning thread).
  */
 public class AStar {
+    /** Returned by continueSearch() while the search still has nodes to expand. */
+    public static final int IN_PROGRESS = -1;
     private static final double DIAGONAL_COST = Math.sqrt(2.0);
     private static final double STRAIGHT_COST = 1.0;
 
-    private static final int[][] neighbors = {
-            {-1,  0}, // N
-            { 1,  0}, // S
-            { 0, -1}, // W
-            { 0,  1}, // E
-            {-1, -1}, // NW
-            {-1,  1}, // NE
-            { 1, -1}, // SW
-            { 1,  1}  // SE
+    // step cost per Direction ordinal (odd ordinals are the diagonals)
+    private static final double[] STEP_COST = {
+            STRAIGHT_COST, DIAGONAL_COST, STRAIGHT_COST, DIAGONAL_COST,
+            STRAIGHT_COST, DIAGONAL_COST, STRAIGHT_COST, DIAGONAL_COST
     };
 
+    // one arena per thread, rebuilt only when that thread searches a different board
+    private static final ThreadLocal<AStar> ARENAS = new ThreadLocal<>();
+    // one full-size path buffer per thread, for callers that keep only the path they get back
+    private static final ThreadLocal<int[]> SCRATCH_PATHS = new ThreadLocal<>();
+    private static final Direction[] DIRECTIONS = Direction.values();
+    // process-wide totals over every arena, read by the metrics exporter
+    private static final LongAdder SEARCHES = new LongAdder();
+    private static final LongAdder EXPANDED = new LongAdder();
+
+    private final Board board;
+    private final int cols;
+
+    // node state, valid only where stamp[i] == generation
+    private final int[] stamp;
+    private final boolean[] closed;
+    private final double[] gCost;
+    private final double[] fCost;
+    private final double[] hCost;
+    private final int[] parent;
+    private final IndexHeap open;
+    private int generation = 0;
+    // nodes taken off the open list by the last search
+    private int expanded = 0;
+    // search begun by startSearch()
+    private int activeGoal;
+    private Heuristic activeHeuristic;
+
+    /**
+     * Create a search arena sized to the given board.
+     * @param board game board
+     */
+    public AStar(Board board) {
+        this.board = board;
+        this.cols = board.getCols();
+        int size = board.getCellCount();
+        this.stamp = new int[size];
+        this.closed = new boolean[size];
+        this.gCost = new double[size];
+        this.fCost = new double[size];
+        this.hCost = new double[size];
+        this.parent = new int[size];
+        this.open = new IndexHeap(size, fCost, hCost);
+    }
+
+    /**
+     * Get the board this arena searches.
+     * @return game board
+     */
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * Get the calling thread's arena for a board (created on first use).
+     * @param board game board
+     * @return reusable search arena
+     */
+    public static AStar arenaFor(Board board) {
+        AStar arena = ARENAS.get();
+        if (arena == null || arena.board != board) {
+            arena = new AStar(board);
+            ARENAS.set(arena);
+        }
+        return arena;
+    }
+
+    /**
+     * Allocate a path buffer large enough for any path on the board.
+     * @param board game board
+     * @return empty path buffer
+     */
+    public static int[] newPathBuffer(Board board) {
+        return new int[board.getCellCount()];
+    }
+
+    /**
+     * Get the calling thread's path buffer, large enough for any path on the board. Search into
+     * it and copy out the cells to keep, rather than holding a full-size buffer per caller.
+     * @param board game board
+     * @return reusable path buffer
+     */
+    public static int[] scratchPathBuffer(Board board) {
+        int[] buffer = SCRATCH_PATHS.get();
+        if (buffer == null || buffer.length < board.getCellCount()) {
+            buffer = newPathBuffer(board);
+            SCRATCH_PATHS.set(buffer);
+        }
+        return buffer;
+    }
+
+    /**
+     * Find a path the way PATH-mode aliens do: Jump Point Search or A* through the shared
+     * PathCache, or the hierarchical planner for A* on large boards. Safe to call from any thread.
+     * @param board game board
+     * @param startIdx starting cell index
+     * @param goalIdx goal cell index
+     * @param heuristic supplied heuristic function
+     * @param pathSearch grid search
+     * @param pathOut buffer receiving cell indices from start to goal (at least board.getCellCount() long)
+     * @return number of cells written, 0 if goal is unreachable
+     */
+    public static int planPath(Board board, int startIdx, int goalIdx, Heuristic heuristic, PathSearch pathSearch,
+                               int[] pathOut) {
+        if (pathSearch == PathSearch.ASTAR && board.getCellCount() >= HierarchicalPathfinder.MIN_CELLS) {
+            // large level: plan across sectors instead of over every cell
+            return HierarchicalPathfinder.forBoard(board).search(startIdx, goalIdx, heuristic, pathOut);
+        }
+        return PathCache.shared().search(board, startIdx, goalIdx, heuristic, pathSearch, pathOut);
+    }
+
     /**
      * Find path from start to goal (default heuristic).
      * @param board game board
-     * @param start stating grid point 
+     * @param start stating grid point
      * @param goal goal grid point
      * @return list of points from start to goal
      */
@@ -41,68 +154,345 @@ public class AStar {
 
     /**
      * Find path from start to goal (supplied heuristic).
+     * Searches go through the shared PathCache.
+     * Convenience wrapper that copies the result into a new list; per-tick callers should use
+     * {@link #search(int, int, Heuristic, int[])} with their own buffer instead.
      * @param board game board
-     * @param start stating grid point 
+     * @param start stating grid point
      * @param goal goal grid point
      * @param heuristic supplied heuristic function
      * @return list of points from start to goal
      */
     public static List<Point> findPath(Board board, Point start, Point goal, Heuristic heuristic) {
-        
-        int rows = board.getRows();
+        if (start.equals(goal)) {
+            return Collections.singletonList(start);
+        }
         int cols = board.getCols();
+        if (board.isOutOfBounds(start) || board.isOutOfBounds(goal)) {
+            return Collections.emptyList();
+        }
 
-        int startRow = start.getRow();
-        int startCol = start.getCol();
-        int goalRow = goal.getRow();
-        int goalCol = goal.getCol();
+        int[] buffer = newPathBuffer(board);
+        int length = PathCache.shared().search(board, start.getRow() * cols + start.getCol(),
+                goal.getRow() * cols + goal.getCol(), heuristic, buffer);
 
-        if (startRow == goalRow && startCol == goalCol) {
-            return Collections.singletonList(start);
+        List<Point> path = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            path.add(new Point(buffer[i] % cols, buffer[i] / cols));
+        }
+        return path;
+    }
+
+    /**
+     * Search from start to goal and write the path into a caller-supplied buffer.
+     * Cell indices are row * cols + col. Does not allocate.
+     * @param startIdx starting cell index
+     * @param goalIdx goal cell index
+     * @param heuristic supplied heuristic function
+     * @param pathOut buffer receiving cell indices from start to goal (at least board.getCellCount() long)
+     * @return number of cells written, 0 if goal is unreachable
+     */
+    public int search(int startIdx, int goalIdx, Heuristic heuristic, int[] pathOut) {
+        if (startIdx == goalIdx) {
+            pathOut[0] = startIdx;
+            return 1;
+        }
+        startSearch(startIdx, goalIdx, heuristic);
+        return continueSearch(Integer.MAX_VALUE, pathOut);
+    }
+
+    /**
+     * Begin a search that is run in slices with continueSearch(). Starting another search
+     * (of any kind) on this arena abandons it.
+     * @param startIdx starting cell index
+     * @param goalIdx goal cell index
+     * @param heuristic supplied heuristic function
+     */
+    public void startSearch(int startIdx, int goalIdx, Heuristic heuristic) {
+        nextGeneration();
+        open.clear();
+        expanded = 0;
+        activeGoal = goalIdx;
+        activeHeuristic = heuristic;
+
+        touch(startIdx);
+        gCost[startIdx] = 0;
+        hCost[startIdx] = heuristic.heuristic(startIdx % cols, startIdx / cols, goalIdx % cols, goalIdx / cols);
+        fCost[startIdx] = hCost[startIdx];
+        parent[startIdx] = -1;
+        open.push(startIdx);
+    }
+
+    /**
+     * Expand up to a number of nodes of the search begun by startSearch().
+     * @param maxExpansions most nodes to expand before returning
+     * @param pathOut buffer receiving cell indices from start to goal (at least board.getCellCount() long)
+     * @return IN_PROGRESS if the budget ran out first, otherwise the path length (0 if the goal is unreachable)
+     */
+    public int continueSearch(int maxExpansions, int[] pathOut) {
+        int before = expanded;
+        int length = expand(maxExpansions, pathOut);
+        EXPANDED.add(expanded - before);
+        if (length != IN_PROGRESS) SEARCHES.increment();
+        return length;
+    }
+
+    private int expand(int maxExpansions, int[] pathOut) {
+        int goalIdx = activeGoal;
+        Heuristic heuristic = activeHeuristic;
+        int goalRow = goalIdx / cols;
+        int goalCol = goalIdx % cols;
+        int budget = maxExpansions;
+
+        while (!open.isEmpty()) {
+            if (budget-- <= 0) return IN_PROGRESS;
+            int cur = open.poll();
+            if (cur == goalIdx) {
+                open.clear();
+                return reconstructPath(cur, pathOut);
+            }
+            closed[cur] = true;
+            expanded++;
+
+            double curG = gCost[cur];
+
+            // walkable, on-board neighbours come precomputed from the board
+            int mask = board.neighbourMask(cur);
+            while (mask != 0) {
+                int d = Integer.numberOfTrailingZeros(mask);
+                mask &= mask - 1;
+
+                int next = cur + board.neighbourOffset(d);
+                boolean seen = stamp[next] == generation;
+                if (seen && closed[next]) continue;
+
+                double tentativeGCost = curG + STEP_COST[d];
+
+                if (!seen) {
+                    touch(next);
+                    hCost[next] = heuristic.heuristic(next % cols, next / cols, goalCol, goalRow);
+                } else if (tentativeGCost >= gCost[next]) {
+                    continue;
+                }
+                gCost[next] = tentativeGCost;
+                fCost[next] = tentativeGCost + hCost[next];
+                parent[next] = cur;
+                open.push(next);
+            }
         }
+        return 0;
+    }
 
-        boolean[][] closed = new boolean[rows][cols];
-        double[][] gCost = new double[rows][cols];
-        for (double[] rowArr : gCost) Arrays.fill(rowArr, Double.POSITIVE_INFINITY);
+    /**
+     * Search like search(), but with Jump Point Search: straight and diagonal runs across open
+     * ground are skipped in one jump, and only cells where the shortest path may turn (next to a
+     * wall corner) are put on the open list. Gives paths of the same optimal cost with far fewer
+     * expansions on open maps. Diagonal steps follow the board's rule (allowed whenever the
+     * diagonal cell is walkable).
+     * @param startIdx starting cell index
+     * @param goalIdx goal cell index
+     * @param heuristic supplied heuristic function
+     * @param pathOut buffer receiving cell indices from start to goal (at least board.getCellCount() long)
+     * @return number of cells written, 0 if goal is unreachable
+     */
+    public int jumpSearch(int startIdx, int goalIdx, Heuristic heuristic, int[] pathOut) {
+        if (startIdx == goalIdx) {
+            pathOut[0] = startIdx;
+            return 1;
+        }
+        int length = runJumpSearch(startIdx, goalIdx, heuristic, pathOut);
+        EXPANDED.add(expanded);
+        SEARCHES.increment();
+        return length;
+    }
+
+    private int runJumpSearch(int startIdx, int goalIdx, Heuristic heuristic, int[] pathOut) {
+        nextGeneration();
+        open.clear();
+        expanded = 0;
 
-        Node[][] nodes = new Node[rows][cols];
+        int goalRow = goalIdx / cols;
+        int goalCol = goalIdx % cols;
 
-        PriorityQueue<Node> open = new PriorityQueue<>();
-        Node startNode = new Node(startCol, startRow, 0, heuristic.heuristic(startCol, startRow, goalCol, goalRow), null);
-        gCost[startRow][startCol] = 0;
-        nodes[startRow][startCol] = startNode;
-        open.add(startNode);
+        touch(startIdx);
+        gCost[startIdx] = 0;
+        hCost[startIdx] = heuristic.heuristic(startIdx % cols, startIdx / cols, goalCol, goalRow);
+        fCost[startIdx] = hCost[startIdx];
+        parent[startIdx] = -1;
+        open.push(startIdx);
 
         while (!open.isEmpty()) {
-            Node cur = open.poll();
-            if (closed[cur.r][cur.c]) continue;
-            if (cur.c == goalCol && cur.r == goalRow ) {
-                return reconstructPath(cur);
+            int cur = open.poll();
+            if (cur == goalIdx) {
+                open.clear();
+                return reconstructJumpPath(cur, pathOut);
+            }
+            closed[cur] = true;
+            expanded++;
+
+            int c = cur % cols;
+            int r = cur / cols;
+            int from = parent[cur];
+            int dirs;
+            if (from < 0) {
+                dirs = board.neighbourMask(cur);
+            } else {
+                dirs = prunedDirections(c, r, Integer.signum(c - from % cols), Integer.signum(r - from / cols));
+            }
+            while (dirs != 0) {
+                int d = Integer.numberOfTrailingZeros(dirs);
+                dirs &= dirs - 1;
+
+                int next = jump(c, r, DIRECTIONS[d].getColStep(), DIRECTIONS[d].getRowStep(), goalIdx);
+                if (next < 0) continue;
+                boolean seen = stamp[next] == generation;
+                if (seen && closed[next]) continue;
+
+                double tentativeGCost = gCost[cur] + octileDistance(cur, next);
+                if (!seen) {
+                    touch(next);
+                    hCost[next] = heuristic.heuristic(next % cols, next / cols, goalCol, goalRow);
+                } else if (tentativeGCost >= gCost[next]) {
+                    continue;
+                }
+                gCost[next] = tentativeGCost;
+                fCost[next] = tentativeGCost + hCost[next];
+                parent[next] = cur;
+                open.push(next);
             }
-            closed[cur.r][cur.c] = true;
-
-            for (int[] d : neighbors) {
-                int nr = cur.r + d[0];
-                int nc = cur.c + d[1];
-                if (nr < 0 || nr >= rows || nc < 0 || nc >= cols) continue;
-
-                Cell cell = board.getCell(new Point(nc, nr));
-                if (cell == null) continue;
-                if (cell.isBlocked()) continue;
-
-                double stepCost = (d[0] == 0 || d[1] == 0) ? STRAIGHT_COST : DIAGONAL_COST;
-                double tentativeGCost = cur.g + stepCost;
-
-                if (tentativeGCost < gCost[nr][nc]) {
-                    gCost[nr][nc] = tentativeGCost;
-                    double h = heuristic.heuristic(nc, nr, goalCol, goalRow);
-                    Node neighbor = new Node(nc, nr, tentativeGCost, tentativeGCost + h, cur);
-                    nodes[nr][nc] = neighbor;
-                    open.add(neighbor);
+        }
+        return 0;
+    }
+
+    /**
+     * Get # of searches finished by every arena since start-up.
+     * @return search count
+     */
+    public static long getTotalSearches() {
+        return SEARCHES.sum();
+    }
+
+    /**
+     * Get # of nodes expanded by every arena since start-up.
+     * @return expanded node count
+     */
+    public static long getTotalExpanded() {
+        return EXPANDED.sum();
+    }
+
+    /**
+     * Get how many nodes the last search expanded.
+     * @return expanded node count
+     */
+    public int getExpandedCount() {
+        return expanded;
+    }
+
+    /**
+     * Directions worth searching from a cell reached by moving (dx, dy): the natural ones
+     * plus any forced by a wall beside the move.
+     * @return bit mask of Direction ordinals
+     */
+    private int prunedDirections(int c, int r, int dx, int dy) {
+        int dirs = 0;
+        if (dx != 0 && dy != 0) {
+            if (walkable(c, r + dy)) dirs |= bit(0, dy);
+            if (walkable(c + dx, r)) dirs |= bit(dx, 0);
+            if (walkable(c + dx, r + dy)) dirs |= bit(dx, dy);
+            if (!walkable(c - dx, r) && walkable(c - dx, r + dy)) dirs |= bit(-dx, dy);
+            if (!walkable(c, r - dy) && walkable(c + dx, r - dy)) dirs |= bit(dx, -dy);
+        } else if (dx != 0) {
+            if (walkable(c + dx, r)) dirs |= bit(dx, 0);
+            if (!walkable(c, r + 1) && walkable(c + dx, r + 1)) dirs |= bit(dx, 1);
+            if (!walkable(c, r - 1) && walkable(c + dx, r - 1)) dirs |= bit(dx, -1);
+        } else {
+            if (walkable(c, r + dy)) dirs |= bit(0, dy);
+            if (!walkable(c + 1, r) && walkable(c + 1, r + dy)) dirs |= bit(1, dy);
+            if (!walkable(c - 1, r) && walkable(c - 1, r + dy)) dirs |= bit(-1, dy);
+        }
+        return dirs;
+    }
+
+    /**
+     * Move from a cell in one direction until reaching the goal, a cell with a forced neighbour
+     * (a jump point) or a wall.
+     * @return index of the jump point, or -1 if the run hits a wall or the board edge
+     */
+    private int jump(int c, int r, int dx, int dy, int goalIdx) {
+        while (true) {
+            c += dx;
+            r += dy;
+            if (!walkable(c, r)) return -1;
+            int idx = r * cols + c;
+            if (idx == goalIdx) return idx;
+            if (dx != 0 && dy != 0) {
+                if ((!walkable(c - dx, r) && walkable(c - dx, r + dy))
+                        || (!walkable(c, r - dy) && walkable(c + dx, r - dy))) {
+                    return idx;
+                }
+                // a diagonal run stops where a straight run from it finds something
+                if (jump(c, r, dx, 0, goalIdx) >= 0 || jump(c, r, 0, dy, goalIdx) >= 0) {
+                    return idx;
+                }
+            } else if (dx != 0) {
+                if ((!walkable(c, r + 1) && walkable(c + dx, r + 1))
+                        || (!walkable(c, r - 1) && walkable(c + dx, r - 1))) {
+                    return idx;
+                }
+            } else {
+                if ((!walkable(c + 1, r) && walkable(c + 1, r + dy))
+                        || (!walkable(c - 1, r) && walkable(c - 1, r + dy))) {
+                    return idx;
                 }
             }
         }
-        return Collections.emptyList();
+    }
+
+    private boolean walkable(int c, int r) {
+        return c >= 0 && c < cols && r >= 0 && r < board.getRows() && !board.isBlocked(r * cols + c);
+    }
+
+    private static int bit(int dx, int dy) {
+        for (int d = 0; d < 8; d++) {
+            if (DIRECTIONS[d].getColStep() == dx && DIRECTIONS[d].getRowStep() == dy) return 1 << d;
+        }
+        return 0;
+    }
+
+    /**
+     * Cost of a straight or diagonal run between two cells.
+     */
+    private double octileDistance(int from, int to) {
+        int dx = Math.abs(from % cols - to % cols);
+        int dy = Math.abs(from / cols - to / cols);
+        int min = Math.min(dx, dy);
+        return min * DIAGONAL_COST + (Math.max(dx, dy) - min) * STRAIGHT_COST;
+    }
+
+    /**
+     * Write the path through the jump points into the buffer, filling in the cells between them.
+     * @param node end node index
+     * @param pathOut buffer receiving cell indices
+     * @return path length
+     */
+    private int reconstructJumpPath(int node, int[] pathOut) {
+        int length = 1;
+        for (int cur = node; parent[cur] != -1; cur = parent[cur]) {
+            int from = parent[cur];
+            length += Math.max(Math.abs(cur % cols - from % cols), Math.abs(cur / cols - from / cols));
+        }
+        int i = length;
+        int cur = node;
+        for (; parent[cur] != -1; cur = parent[cur]) {
+            int from = parent[cur];
+            int dx = Integer.signum(from % cols - cur % cols);
+            int dy = Integer.signum(from / cols - cur / cols);
+            for (int cell = cur; cell != from; cell += dy * cols + dx) {
+                pathOut[--i] = cell;
+            }
+        }
+        pathOut[--i] = cur;
+        return length;
     }
 
     /**
@@ -127,42 +517,45 @@ public class AStar {
     /**
      * Manhattan heuristic.
      */
-    public static final Heuristic manhattanHeuristic = (c, r, gc, gr) -> 
+    public static final Heuristic manhattanHeuristic = (c, r, gc, gr) ->
         Math.abs(c - gc) + Math.abs(r - gr);
 
     /**
-     * Build final path from the reached node to start node
-     * @param node end node
-     * @return list of grid points from start to goal
+     * Advance the generation stamp, wiping the stamps only when the counter wraps.
      */
-    private static List<Point> reconstructPath(Node node) {
-        LinkedList<Point> path = new LinkedList<>();
-        Node cur = node;
-        while (cur != null) {
-            path.addFirst(new Point(cur.c, cur.r));
-            cur = cur.parent;
+    private void nextGeneration() {
+        generation++;
+        if (generation == 0) {
+            Arrays.fill(stamp, 0);
+            generation = 1;
         }
-        return path;
     }
 
     /**
-     * Basic node used in A* (column, row, costs, and parent node)
+     * Mark a node as belonging to the current search.
+     * @param idx cell index
      */
-    private static class Node implements Comparable<Node> {
-        // col, row of this node
-        final int c, r; 
-        // g = cost, f = g + h    
-        final double g, f;
-        final Node parent;
-        Node(int c, int r, double g, double f, Node parent) {
-            this.r = r; this.c = c; this.g = g; this.f = f; this.parent = parent;
-        }
+    private void touch(int idx) {
+        stamp[idx] = generation;
+        closed[idx] = false;
+    }
 
-        @Override
-        public int compareTo(Node other) {
-            return Double.compare(this.f, other.f);
+    /**
+     * Write the path from start to the reached node into the buffer
+     * @param node end node index
+     * @param pathOut buffer receiving cell indices
+     * @return path length
+     */
+    private int reconstructPath(int node, int[] pathOut) {
+        int length = 0;
+        for (int cur = node; cur != -1; cur = parent[cur]) {
+            length++;
         }
+        int i = length;
+        for (int cur = node; cur != -1; cur = parent[cur]) {
+            pathOut[--i] = cur;
+        }
+        return length;
     }
 }
 
-
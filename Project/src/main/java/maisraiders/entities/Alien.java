@@ -2,31 +2,47 @@ package maisraiders.entities;
 
 import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
-import java.io.IOException;
-import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-
-import javax.imageio.ImageIO;
 
 import maisraiders.enums.Direction;
+import maisraiders.enums.PathSearch;
+import maisraiders.enums.PursuitMode;
 import maisraiders.panel.Board;
-import maisraiders.panel.Cell;
+import maisraiders.panel.GameLoop;
+import maisraiders.ui.SpriteAtlas;
 import maisraiders.util.Point;
 
 /**
  * Alien (moving enemy) that pursues player.
  */
 public class Alien extends MovingEntity {
-    private List<Point> path = new ArrayList<>();
+    // cell indices (row * cols + col) from the alien's cell to the farmer's cell, sized to the
+    // board once so searches write straight into it
+    private int[] path;
+    private int pathLength = 0;
     private int pathIndex = 0;
     private final AStar.Heuristic heuristic;
+    private PathSearch pathSearch = PathSearch.ASTAR;
+    private PursuitMode pursuitMode = PursuitMode.PATH;
+    private FlowField flowField;
+    private DStarLite incrementalPlanner;
+    // when set, PATH mode asks this service for paths instead of searching in update
+    private PathService pathService;
+    private PathRequest pendingPath;
     private boolean isParalyzed = false;
-    private long paralysisEndTime = 0;
+    private int paralysisTicksLeft = 0;
 
     private int ticksSinceCompute = 0;
 
+    // result of plan(), applied by commit()
+    private Direction plannedDirection = Direction.NONE;
+    private boolean plannedAnimate = false;
+    // cell index to snap to on arrival at a path step, -1 if none
+    private int plannedArrival = -1;
+    // path request to send to the path service, start cell -1 if none; sent by commit(), so
+    // requests reach a shared service in alien order even when aliens plan in parallel
+    private int plannedRequestStart = -1;
+    private int plannedRequestGoal = -1;
+
     // tweak for performance/smoothness
     private final int recomputeTicks = 6; 
 
@@ -53,52 +69,98 @@ public class Alien extends MovingEntity {
     public Alien(Point startPosition, int startMoveSpeed, AStar.Heuristic heuristic) {
         super(startPosition, startMoveSpeed);
         this.heuristic = heuristic;
-        getAlienImage();
     }
 
     /**
-    * Load alien sprite image(s).
-    */
-    public final void getAlienImage() {
+     * Choose how this alien chases the farmer. FLOW_FIELD needs a flow field to be set,
+     * otherwise the alien keeps using its own A* path. INCREMENTAL keeps a D* Lite planner
+     * (with this alien's heuristic) between updates.
+     * @param mode pursuit mode
+     */
+    public void setPursuitMode(PursuitMode mode) {
+        this.pursuitMode = mode;
+    }
 
-        try {
-            BufferedImage[] up = loadFrames("/sprites/alien/alien-bw", IMAGE_CYCLE);
-            BufferedImage[] down = loadFrames("/sprites/alien/alien-fw", IMAGE_CYCLE);
-            BufferedImage[] left = loadFrames("/sprites/alien/alien-lw", IMAGE_CYCLE);
-            BufferedImage[] right = loadFrames("/sprites/alien/alien-rw", IMAGE_CYCLE);
-
-            up1 = up[0]; up2 = up[1]; up3 = up[2]; up4 = up[3];
-            down1 = down[0]; down2 = down[1]; down3 = down[2]; down4 = down[3];
-            right1 = right[0]; right2 = right[1]; right3 = right[2]; right4 = right[3];
-            left1 = left[0]; left2 = left[1]; left3 = left[2]; left4 = left[3];
-
-        } catch (IOException e) {
-            System.err.println("Failed to load alien sprites: " + e.getMessage());
+    /**
+     * Get how this alien chases the farmer.
+     * @return pursuit mode
+     */
+    public PursuitMode getPursuitMode() {
+        return pursuitMode;
+    }
+
+    /**
+     * Choose the grid search used for this alien's paths in PATH mode. JUMP_POINT is used on
+     * boards of any size; ASTAR switches to the hierarchical planner on large boards.
+     * @param pathSearch grid search
+     */
+    public void setPathSearch(PathSearch pathSearch) {
+        this.pathSearch = pathSearch;
+    }
+
+    /**
+     * Get the grid search used for this alien's paths.
+     * @return grid search
+     */
+    public PathSearch getPathSearch() {
+        return pathSearch;
+    }
+
+    /**
+     * Let a path service (time-sliced or background) search this alien's paths in PATH mode
+     * (null to search in update again). While a path is on its way the alien keeps following
+     * its previous one, or heads straight for the farmer if it has none; a path that arrives
+     * after the board or the farmer's cell changed is dropped and asked for again.
+     * @param service shared path service, or null
+     */
+    public void setPathService(PathService service) {
+        cancelPendingPath();
+        this.pathService = service;
+    }
+
+    private void cancelPendingPath() {
+        if (pendingPath != null) {
+            pendingPath.cancel();
+            pendingPath = null;
         }
     }
 
+    /**
+     * Set the flow field shared by aliens in FLOW_FIELD mode.
+     * @param flowField shared flow field
+     */
+    public void setFlowField(FlowField flowField) {
+        this.flowField = flowField;
+    }
+
+    /**
+    * Load alien sprite image(s). Called on the first draw, so an alien that is never drawn
+    * (e.g. in a headless match) never builds the sprite atlas.
+    */
+    public final void getAlienImage() {
+        BufferedImage[] up = loadFrames("/sprites/alien/alien-bw", IMAGE_CYCLE);
+        BufferedImage[] down = loadFrames("/sprites/alien/alien-fw", IMAGE_CYCLE);
+        BufferedImage[] left = loadFrames("/sprites/alien/alien-lw", IMAGE_CYCLE);
+        BufferedImage[] right = loadFrames("/sprites/alien/alien-rw", IMAGE_CYCLE);
+
+        up1 = up[0]; up2 = up[1]; up3 = up[2]; up4 = up[3];
+        down1 = down[0]; down2 = down[1]; down3 = down[2]; down4 = down[3];
+        right1 = right[0]; right2 = right[1]; right3 = right[2]; right4 = right[3];
+        left1 = left[0]; left2 = left[1]; left3 = left[2]; left4 = left[3];
+    }
+
 
    /**
-    * Load a cycle of frames from resources at the given path; throws on failure.
-    * @param path Image path
+    * Get a cycle of frames from the sprite atlas.
+    * @param path Image path without the frame number and extension
     * @param cycle The number of image cycles for a direction
     * @return An array of BufferedImages
-    * @throws IOException
     */
-    private BufferedImage[] loadFrames(String path, int cycle) throws IOException {
+    private BufferedImage[] loadFrames(String path, int cycle) {
+        SpriteAtlas atlas = SpriteAtlas.shared();
         BufferedImage[] frames = new BufferedImage[cycle];
         for (int i = 0; i < cycle; i++) {
-            String cyclePath = path + (i + 1) + ".png";
-            try (InputStream input = getClass().getResourceAsStream(cyclePath)) {
-                if (input == null) {
-                    throw new IOException("Resource not found on classpath: " + cyclePath);
-                }
-                BufferedImage img = ImageIO.read(input);
-                if (img == null) {
-                    throw new IOException("Failed to decode image: " + cyclePath);
-                }
-                frames[i] = img;
-            }
+            frames[i] = atlas.get(path + (i + 1) + ".png");
         }
         return frames;
     }
@@ -106,73 +168,81 @@ public class Alien extends MovingEntity {
     // --- Extracted helpers ---
 
     /**
-     * Compute path between two points using the configured A* heuristic; returns empty list on error.
+     * Compute path between two points into the alien's path buffer using the configured
+     * heuristic (AStar.planPath, or a D* Lite repair in INCREMENTAL mode); leaves an empty path on error.
      * @param board The game board
      * @param start The starting point
      * @param end The ending point
-     * @return List of points from start to end
+     * @return Number of cells in the new path
      */
-    private List<Point> computePath(Board board, Point start, Point end) {
+    private int computePath(Board board, Point start, Point end) {
+        int cols = board.getCols();
+        if (board.isOutOfBounds(start) || board.isOutOfBounds(end)) return 0;
+        int startIdx = start.getRow() * cols + start.getCol();
+        int endIdx = end.getRow() * cols + end.getCol();
+        ensurePathBuffer(board);
         try {
-            List<Point> np = AStar.findPath(board, start, end, this.heuristic);
-            return np == null ? Collections.emptyList() : np;
+            if (pursuitMode == PursuitMode.INCREMENTAL) {
+                if (incrementalPlanner == null) incrementalPlanner = new DStarLite(this.heuristic);
+                return incrementalPlanner.plan(board, startIdx, endIdx, path);
+            }
+            return AStar.planPath(board, startIdx, endIdx, this.heuristic, pathSearch, path);
         } catch (Exception e) {
             // defensive: return empty path on unexpected errors
-            return Collections.emptyList();
+            return 0;
+        }
+    }
+
+    private void ensurePathBuffer(Board board) {
+        if (path == null || path.length < board.getCellCount()) {
+            path = AStar.newPathBuffer(board);
         }
     }
 
     /**
      * Choose a safe next index into a newly computed path given the alien's current cell.
-     * @param newPath the newly computed path 
+     * @param length length of the newly computed path
      * @param myCell the alien's current logical grid cell
-     * @return an index into newPath representing the next step
-     *         
+     * @param cols board column count (for decoding cell indices)
+     * @return an index into the path representing the next step
      */
-    private int chooseNextPathIndex(List<Point> newPath, Point myCell) {
-        if (newPath == null || newPath.isEmpty()) return 0;
+    private int chooseNextPathIndex(int length, Point myCell, int cols) {
+        if (length == 0) return 0;
+        int myIdx = myCell.getRow() * cols + myCell.getCol();
         int idx = -1;
-        for (int i = 0; i < newPath.size(); i++) {
-            Point p = newPath.get(i);
-            if (p.getCol() == myCell.getCol() && p.getRow() == myCell.getRow()) { idx = i; break; }
+        for (int i = 0; i < length; i++) {
+            if (path[i] == myIdx) { idx = i; break; }
         }
         if (idx >= 0) {
-            return Math.min(idx + 1, newPath.size() - 1);
+            return Math.min(idx + 1, length - 1);
         } else {
             int bestI = 0;
             int bestDist = Integer.MAX_VALUE;
-            for (int i = 0; i < newPath.size(); i++) {
-                Point p = newPath.get(i);
-                int dx = p.getCol() - myCell.getCol();
-                int dy = p.getRow() - myCell.getRow();
+            for (int i = 0; i < length; i++) {
+                int dx = path[i] % cols - myCell.getCol();
+                int dy = path[i] / cols - myCell.getRow();
                 int d = dx*dx + dy*dy;
                 if (d < bestDist) { bestDist = d; bestI = i; }
             }
-            return Math.min(bestI + 1, newPath.size() - 1);
+            return Math.min(bestI + 1, length - 1);
         }
     }
 
     /**
-     * Check if alien has reached the center of given target tile and, if so,
-     * update the alien's logical grid position.
-     * @param target Alien's destination grid cell
+     * Check if alien has reached the center of given target tile.
+     * @param targetCol Alien's destination grid column
+     * @param targetRow Alien's destination grid row
      * @param tileSize Size of a single tile
      * @param halfTile Half of tileSize (used to compute tile center)
      * @return True if alien was close enough to the tile center; false otherwise
      */
-    private boolean advanceIfArrived(Point target, int tileSize, int halfTile) {
+    private boolean hasArrived(int targetCol, int targetRow, int tileSize, int halfTile) {
         int subX = getSubPositionX();
         int subY = getSubPositionY();
-        int targetCenterX = target.getCol() * tileSize + halfTile;
-        int targetCenterY = target.getRow() * tileSize + halfTile;
-        if (Math.abs(subX - targetCenterX) <= ARRIVE_THRESHOLD &&
-            Math.abs(subY - targetCenterY) <= ARRIVE_THRESHOLD) {
-            try {
-                this.setPosition(new Point(target.getCol(), target.getRow()));
-            } catch (Throwable ignored) {}
-            return true;
-        }
-        return false;
+        int targetCenterX = targetCol * tileSize + halfTile;
+        int targetCenterY = targetRow * tileSize + halfTile;
+        return Math.abs(subX - targetCenterX) <= ARRIVE_THRESHOLD &&
+               Math.abs(subY - targetCenterY) <= ARRIVE_THRESHOLD;
     }
 
     /**
@@ -187,9 +257,7 @@ public class Alien extends MovingEntity {
         if (fdx != 0 || fdy != 0) {
             Direction dir = directionFromDelta(fdx, fdy);
             if (dir != null && dir != Direction.NONE) {
-                Cell[] neighbours = buildNeighboursArray(board, logicalCell);
-                move(dir, neighbours);
-                directionEnum = dir;
+                plannedDirection = dir;
             }
         }
     }
@@ -217,21 +285,46 @@ public class Alien extends MovingEntity {
     }
 
     /**
-     * Return neighbour cells for the given grid cell from the board. 
-     * @param board The game board
-     * @param cell Current cell
-     * @return Current cell's neighbours
+     * A function to paralyze the alien when catching the farmer with a pitchfork.
+     * Counted in game ticks rather than wall-clock time, so pauses and replays see the same freeze.
+     * @param durationMs freeze length in milliseconds of game time
      */
-    private Cell[] buildNeighboursArray(Board board, Point cell) {
-        return board.getNeighbours(cell);
+    public void paralyze(int durationMs) {
+        isParalyzed = true;
+        paralysisTicksLeft = (durationMs * GameLoop.TICKS_PER_SECOND + 999) / 1000;
     }
 
     /**
-     * A function to paralyze the alien when catching the farmer with a pitchfork
+     * Check if the alien is frozen.
+     * @return true while paralyzed
      */
-    public void paralyze(int durationMs) {
-        isParalyzed = true;
-        paralysisEndTime = System.currentTimeMillis() + durationMs;
+    public boolean isParalyzed() {
+        return isParalyzed;
+    }
+
+    /**
+     * Put the alien back in its starting state for a new match: starting position,
+     * no paralysis and no remembered path or planner state.
+     */
+    @Override
+    public void resetPosition() {
+        super.resetPosition();
+        isParalyzed = false;
+        paralysisTicksLeft = 0;
+        pathLength = 0;
+        pathIndex = 0;
+        ticksSinceCompute = 0;
+        incrementalPlanner = null;
+        cancelPendingPath();
+        clearPlan();
+    }
+
+    private void clearPlan() {
+        plannedDirection = Direction.NONE;
+        plannedAnimate = false;
+        plannedArrival = -1;
+        plannedRequestStart = -1;
+        plannedRequestGoal = -1;
     }
 
     /**
@@ -240,11 +333,25 @@ public class Alien extends MovingEntity {
     * @param farmer the player being chased
     */
     public void update(Board board, Farmer farmer) {
+        plan(board, farmer);
+        commit(board);
+    }
+
+    /**
+     * Decide this tick's move without moving: refresh the path and pick a direction.
+     * Only this alien's own planning state is written and the board and farmer are only read,
+     * so different aliens can plan at the same time (a shared flow field must already be up to
+     * date for the farmer's cell). commit() applies the result.
+     * @param board the game board
+     * @param farmer the player being chased
+     */
+    public void plan(Board board, Farmer farmer) {
+        clearPlan();
         // is the alien catches the farmer with the pitchfork, pause alien movement
         if (isParalyzed) {
-            long now = System.currentTimeMillis();
-            if (now < paralysisEndTime) {
+            if (paralysisTicksLeft > 0) {
                 // Skip ALL movement and behavior
+                paralysisTicksLeft--;
                 return;
             } else {
                 // Paralysis has expired
@@ -252,63 +359,74 @@ public class Alien extends MovingEntity {
             }
         }
 
+        if (pursuitMode == PursuitMode.FLOW_FIELD && flowField != null) {
+            followFlowField(board, farmer);
+            return;
+        }
+
         ticksSinceCompute++;
 
         Point myCell = getPosition();
         Point farmerCell = farmer.getPosition();
         int tileSize = 64;
         int halfTile = tileSize / 2;
-
+        int cols = board.getCols();
+        int farmerIdx = farmerCell.getRow() * cols + farmerCell.getCol();
+        boolean requested = pathService != null && pursuitMode == PursuitMode.PATH;
+
+        if (requested && pendingPath != null && pendingPath.isDone()) {
+            if (pendingPath.isStale(board, farmerIdx)) {
+                // searched against an old board or farmer cell: ask again below
+                ticksSinceCompute = recomputeTicks;
+            } else {
+                // the requested path arrived: switch to it
+                ensurePathBuffer(board);
+                pathLength = pendingPath.copyPath(path);
+                pathIndex = Math.max(0, Math.min(chooseNextPathIndex(pathLength, myCell, cols), Math.max(0, pathLength - 1)));
+            }
+            pendingPath = null;
+        }
 
         boolean needRecompute = ticksSinceCompute >= recomputeTicks
                 || path == null
-                || path.isEmpty()
-                || !path.get(path.size() - 1).equals(farmerCell)
-                || ticksSinceCompute >= recomputeTicks;
-
-        if (needRecompute) {
-            List<Point> newPath = computePath(board, myCell, farmerCell);
-            int newIndex = chooseNextPathIndex(newPath, myCell);
+                || pathLength == 0
+                || path[pathLength - 1] != farmerIdx;
+
+        if (requested) {
+            if (needRecompute && pendingPath == null
+                    && !board.isOutOfBounds(myCell) && !board.isOutOfBounds(farmerCell)) {
+                plannedRequestStart = board.index(myCell);
+                plannedRequestGoal = farmerIdx;
+                ticksSinceCompute = 0;
+            }
+        } else if (needRecompute) {
+            pathLength = computePath(board, myCell, farmerCell);
+            int newIndex = chooseNextPathIndex(pathLength, myCell, cols);
 
-            path = newPath == null ? Collections.emptyList() : newPath;
-            pathIndex = Math.max(0, Math.min(newIndex, (path == null ? 0 : Math.max(0, path.size()-1))));
+            pathIndex = Math.max(0, Math.min(newIndex, Math.max(0, pathLength - 1)));
             ticksSinceCompute = 0;
         }
 
-        if (path != null && !path.isEmpty() && pathIndex >= 0 && pathIndex < path.size()) {
-            Point target = path.get(pathIndex);
+        if (path != null && pathLength > 0 && pathIndex >= 0 && pathIndex < pathLength) {
+            int targetCol = path[pathIndex] % cols;
+            int targetRow = path[pathIndex] / cols;
 
             Point approxCell = getPosition();
             
-            int dx = target.getCol() - approxCell.getCol();
-            int dy = target.getRow() - approxCell.getRow();
+            int dx = targetCol - approxCell.getCol();
+            int dy = targetRow - approxCell.getRow();
 
-            if (advanceIfArrived(target, tileSize, halfTile)) {
-                pathIndex++;
+            if (hasArrived(targetCol, targetRow, tileSize, halfTile)) {
+                plannedArrival = path[pathIndex];
                 return;
             }
 
             Direction dir = directionFromDelta(dx, dy);
             if (dir != null && dir != Direction.NONE) {
-                Cell[] neighbours = buildNeighboursArray(board, approxCell);
-                move(dir, neighbours);
-                directionEnum = dir;
+                plannedDirection = dir;
             }
-          
-            //update animation
-            if(spriteCounter > 10) { // hold each sprite animation frame
-                switch (spriteNum) {
-                    case 1 -> spriteNum = 2;
-                    case 2 -> spriteNum = 3;
-                    case 3 -> spriteNum = 4;
-                    case 4 -> spriteNum = 1;
-                    default -> {
-                    }
 
-                }
-                spriteCounter = 0;
-            }
-            spriteCounter++;
+            plannedAnimate = true;
             return;
         }
 
@@ -316,11 +434,104 @@ public class Alien extends MovingEntity {
     }
 
     /**
-    * Draw alien sprite centred on pixel position
+     * Apply the move chosen by the last plan(): send its path request, then snap to a reached
+     * path cell, or step and animate.
+     * @param board the game board
+     */
+    public void commit(Board board) {
+        if (plannedRequestStart >= 0) {
+            pendingPath = pathService.request(board, plannedRequestStart, plannedRequestGoal, this.heuristic,
+                    pathSearch);
+        }
+        if (plannedArrival >= 0) {
+            int cols = board.getCols();
+            this.setPosition(new Point(plannedArrival % cols, plannedArrival / cols));
+            pathIndex++;
+        } else if (plannedDirection != Direction.NONE) {
+            move(plannedDirection, board);
+            directionEnum = plannedDirection;
+        }
+        if (plannedAnimate) {
+            animate();
+        }
+        clearPlan();
+    }
+
+    /**
+     * Choose a step towards the farmer using the shared flow field. The field is rebuilt at most
+     * once per farmer move, no matter how many aliens read it.
+     * @param board the game board
+     * @param farmer the player being chased
+     */
+    private void followFlowField(Board board, Farmer farmer) {
+        flowField.update(board, farmer.getPosition());
+
+        Point myCell = getPosition();
+        if (board.isOutOfBounds(myCell)) {
+            greedyFallback(board, farmer);
+            return;
+        }
+        int next = flowField.nextCell(board.index(myCell));
+
+        // aim at the next cell's centre, or straight at the farmer once in the same cell
+        int targetX;
+        int targetY;
+        if (next >= 0) {
+            int tileSize = getTileSize();
+            targetX = (next % board.getCols()) * tileSize + tileSize / 2;
+            targetY = (next / board.getCols()) * tileSize + tileSize / 2;
+        } else if (myCell.equals(farmer.getPosition())) {
+            targetX = farmer.getSubPositionX();
+            targetY = farmer.getSubPositionY();
+        } else {
+            greedyFallback(board, farmer);
+            return;
+        }
+
+        int dx = targetX - getSubPositionX();
+        int dy = targetY - getSubPositionY();
+        Direction dir = directionFromDelta(Math.abs(dx) <= ARRIVE_THRESHOLD ? 0 : dx,
+                                           Math.abs(dy) <= ARRIVE_THRESHOLD ? 0 : dy);
+        plannedDirection = dir;
+        plannedAnimate = true;
+    }
+
+    /**
+     * Advance the walking animation by one tick.
+     */
+    private void animate() {
+        if(spriteCounter > 10) { // hold each sprite animation frame
+            switch (spriteNum) {
+                case 1 -> spriteNum = 2;
+                case 2 -> spriteNum = 3;
+                case 3 -> spriteNum = 4;
+                case 4 -> spriteNum = 1;
+                default -> {
+                }
+
+            }
+            spriteCounter = 0;
+        }
+        spriteCounter++;
+    }
+
+    /**
+    * Draw alien sprite at its current pixel position
     * @param g2 Image renderer
     * @param size drawing size
     */
     public void draw(Graphics2D g2, int size) {
+        draw(g2, size, 1.0);
+    }
+
+    /**
+    * Draw alien sprite centred on pixel position
+    * @param g2 Image renderer
+    * @param size drawing size
+    * @param alpha how far between the previous and current tick to draw (1 draws the current position)
+    */
+    public void draw(Graphics2D g2, int size, double alpha) {
+        if (up1 == null) getAlienImage();
         BufferedImage image = null;
 
             if(null !=directionEnum ) switch (directionEnum) {
@@ -370,8 +581,8 @@ public class Alien extends MovingEntity {
         }
 
         // Draw centered: subtract half the size from subPosition to center the sprite
-        int drawX = getSubPositionX() - (size / 2);
-        int drawY = getSubPositionY() - (size / 2);
-        g2.drawImage(image, drawX, drawY, size, size, null);
+        int drawX = getRenderX(alpha) - (size / 2);
+        int drawY = getRenderY(alpha) - (size / 2);
+        SpriteAtlas.draw(g2, image, drawX, drawY, size, size);
     }
 }
\ No newline at end of file
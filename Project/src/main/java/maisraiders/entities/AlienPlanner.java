@@ -0,0 +1,130 @@
+package maisraiders.entities;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import maisraiders.enums.PursuitMode;
+import maisraiders.enums.TickPhase;
+import maisraiders.panel.Board;
+import maisraiders.util.TickProfiler;
+
+/**
+ * Runs the alien update in two phases: every alien plans its move (path search and direction
+ * choice) in parallel on a ForkJoinPool, then the moves are committed one by one in list order.
+ *
+ * During planning the board and the farmer are not written by anyone, and each alien only writes
+ * its own planning state, so the result is the same as updating the aliens one after another.
+ * A* arenas are per thread, so workers don't share search buffers. Requests to a shared path
+ * service are only sent while committing, so they are queued in list order too.
+ */
+public class AlienPlanner {
+    // below this many aliens, handing work to the pool costs more than it saves
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 8;
+    // aliens planned by one task without splitting further
+    private static final int LEAF_SIZE = 2;
+
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+    // times each alien's plan (the whole phase when planning in parallel); off unless the game's
+    // profiler is plugged in
+    private TickProfiler profiler = new TickProfiler();
+
+    /**
+     * AlienPlanner constructor (common pool, default threshold).
+     */
+    public AlienPlanner() {
+        this(ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * AlienPlanner constructor.
+     * @param pool pool the planning phase runs on
+     * @param parallelThreshold smallest number of aliens planned in parallel
+     */
+    public AlienPlanner(ForkJoinPool pool, int parallelThreshold) {
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * Time each alien's plan with a profiler (recorded as TickPhase.ALIEN). When the aliens plan
+     * in parallel the whole planning phase is recorded once, from the calling thread, since the
+     * profiler is not shared between threads.
+     * @param profiler tick profiler
+     */
+    public void setProfiler(TickProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * Update aliens by one tick: plan all of them, then commit their moves in order.
+     * @param aliens aliens to update
+     * @param board the game board
+     * @param farmer the player being chased
+     * @param flowField field shared by FLOW_FIELD aliens (brought up to date before planning), or null
+     */
+    public void update(List<Alien> aliens, Board board, Farmer farmer, FlowField flowField) {
+        if (flowField != null && usesFlowField(aliens)) {
+            flowField.update(board, farmer.getPosition());
+        }
+        if (aliens.size() < parallelThreshold) {
+            for (Alien alien : aliens) {
+                plan(alien, board, farmer, profiler);
+            }
+        } else {
+            long start = profiler.begin();
+            pool.invoke(new PlanTask(aliens, 0, aliens.size(), board, farmer));
+            profiler.end(TickPhase.ALIEN, start);
+        }
+        for (Alien alien : aliens) {
+            alien.commit(board);
+        }
+    }
+
+    private static void plan(Alien alien, Board board, Farmer farmer, TickProfiler profiler) {
+        long start = profiler.begin();
+        alien.plan(board, farmer);
+        profiler.end(TickPhase.ALIEN, start);
+    }
+
+    private static boolean usesFlowField(List<Alien> aliens) {
+        for (Alien alien : aliens) {
+            if (alien.getPursuitMode() == PursuitMode.FLOW_FIELD) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Plans a range of aliens, splitting it in half until it is small.
+     */
+    @SuppressWarnings("serial")
+    private static class PlanTask extends RecursiveAction {
+        private final List<Alien> aliens;
+        private final int from;
+        private final int to;
+        private final Board board;
+        private final Farmer farmer;
+
+        PlanTask(List<Alien> aliens, int from, int to, Board board, Farmer farmer) {
+            this.aliens = aliens;
+            this.from = from;
+            this.to = to;
+            this.board = board;
+            this.farmer = farmer;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_SIZE) {
+                for (int i = from; i < to; i++) {
+                    aliens.get(i).plan(board, farmer);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new PlanTask(aliens, from, mid, board, farmer),
+                      new PlanTask(aliens, mid, to, board, farmer));
+        }
+    }
+}
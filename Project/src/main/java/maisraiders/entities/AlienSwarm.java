@@ -0,0 +1,408 @@
+package maisraiders.entities;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+import maisraiders.enums.Direction;
+import maisraiders.panel.Board;
+import maisraiders.panel.GameLoop;
+import maisraiders.ui.Camera;
+import maisraiders.ui.SpriteAtlas;
+import maisraiders.util.Point;
+
+/**
+ * Store for swarm levels with thousands of aliens: every alien's state lives in parallel
+ * primitive arrays indexed by alien id, and the whole swarm is updated in one loop.
+ *
+ * Swarm aliens have no objects, boxed Points or sprite fields of their own. They all chase the
+ * farmer through one shared flow field, move with the same collision rules as MovingEntity and
+ * animate like Alien; sprite frames are loaded once for the whole swarm.
+ */
+public class AlienSwarm {
+    private static final int TILE_SIZE = 64;
+    // same as Alien: pixels from a tile centre that count as arrived
+    private static final int ARRIVE_THRESHOLD = 4;
+    private static final int IMAGE_CYCLE = 4;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    // walking frames shared by every swarm alien, [up, down, left, right][frame]
+    private static BufferedImage[][] frames;
+
+    private int count = 0;
+    // logical grid cell
+    private int[] col = new int[INITIAL_CAPACITY];
+    private int[] row = new int[INITIAL_CAPACITY];
+    private int[] startCol = new int[INITIAL_CAPACITY];
+    private int[] startRow = new int[INITIAL_CAPACITY];
+    // pixel position now and at the start of the tick (for interpolation)
+    private int[] subX = new int[INITIAL_CAPACITY];
+    private int[] subY = new int[INITIAL_CAPACITY];
+    private int[] prevX = new int[INITIAL_CAPACITY];
+    private int[] prevY = new int[INITIAL_CAPACITY];
+    private int[] speed = new int[INITIAL_CAPACITY];
+    private int[] diagonalSpeed = new int[INITIAL_CAPACITY];
+    // Direction ordinal of the last step, NONE before the first one
+    private byte[] direction = new byte[INITIAL_CAPACITY];
+    private byte[] spriteNum = new byte[INITIAL_CAPACITY];
+    private int[] spriteCounter = new int[INITIAL_CAPACITY];
+    private int[] paralysisTicks = new int[INITIAL_CAPACITY];
+    // cell index the alien is walking towards, -1 if none
+    private int[] nextCell = new int[INITIAL_CAPACITY];
+
+    /**
+     * Add an alien to the swarm.
+     * @param startPosition starting grid position
+     * @param moveSpeed movement speed in pixels per tick
+     * @return the new alien's id
+     */
+    public int add(Point startPosition, int moveSpeed) {
+        if (count == col.length) {
+            grow(count * 2);
+        }
+        int id = count++;
+        startCol[id] = startPosition.getCol();
+        startRow[id] = startPosition.getRow();
+        speed[id] = moveSpeed;
+        diagonalSpeed[id] = (int) Math.round(moveSpeed / Math.sqrt(2));
+        reset(id);
+        return id;
+    }
+
+    private void grow(int capacity) {
+        col = Arrays.copyOf(col, capacity);
+        row = Arrays.copyOf(row, capacity);
+        startCol = Arrays.copyOf(startCol, capacity);
+        startRow = Arrays.copyOf(startRow, capacity);
+        subX = Arrays.copyOf(subX, capacity);
+        subY = Arrays.copyOf(subY, capacity);
+        prevX = Arrays.copyOf(prevX, capacity);
+        prevY = Arrays.copyOf(prevY, capacity);
+        speed = Arrays.copyOf(speed, capacity);
+        diagonalSpeed = Arrays.copyOf(diagonalSpeed, capacity);
+        direction = Arrays.copyOf(direction, capacity);
+        spriteNum = Arrays.copyOf(spriteNum, capacity);
+        spriteCounter = Arrays.copyOf(spriteCounter, capacity);
+        paralysisTicks = Arrays.copyOf(paralysisTicks, capacity);
+        nextCell = Arrays.copyOf(nextCell, capacity);
+    }
+
+    private void reset(int id) {
+        col[id] = startCol[id];
+        row[id] = startRow[id];
+        subX[id] = col[id] * TILE_SIZE + TILE_SIZE / 2;
+        subY[id] = row[id] * TILE_SIZE + TILE_SIZE / 2;
+        prevX[id] = subX[id];
+        prevY[id] = subY[id];
+        direction[id] = (byte) Direction.NONE.ordinal();
+        spriteNum[id] = 1;
+        spriteCounter[id] = 0;
+        paralysisTicks[id] = 0;
+        nextCell[id] = -1;
+    }
+
+    /**
+     * Put every alien back in its starting state for a new match.
+     */
+    public void reset() {
+        for (int id = 0; id < count; id++) {
+            reset(id);
+        }
+    }
+
+    /**
+     * Get # of aliens in the swarm.
+     * @return alien count
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Remember every alien's pixel position as the start of the next tick (called before each update).
+     */
+    public void savePreviousPositions() {
+        System.arraycopy(subX, 0, prevX, 0, count);
+        System.arraycopy(subY, 0, prevY, 0, count);
+    }
+
+    /**
+     * Freeze every alien, like Alien.paralyze.
+     * @param durationMs freeze length in milliseconds of game time
+     */
+    public void paralyze(int durationMs) {
+        Arrays.fill(paralysisTicks, 0, count, (durationMs * GameLoop.TICKS_PER_SECOND + 999) / 1000);
+    }
+
+    /**
+     * Move the swarm one tick towards the farmer along the shared flow field.
+     * @param board the game board
+     * @param farmer the player being chased
+     * @param flowField pursuit field shared with the other aliens
+     * @param activeChunkRadius aliens further than this many board chunks from the farmer's chunk stay put
+     */
+    public void update(Board board, Farmer farmer, FlowField flowField, int activeChunkRadius) {
+        if (count == 0) return;
+        Point farmerCell = farmer.getPosition();
+        flowField.update(board, farmerCell);
+        int farmerCol = farmerCell.getCol();
+        int farmerRow = farmerCell.getRow();
+        int farmerChunkCol = farmerCol >> Board.CHUNK_SHIFT;
+        int farmerChunkRow = farmerRow >> Board.CHUNK_SHIFT;
+        int cols = board.getCols();
+
+        for (int id = 0; id < count; id++) {
+            if (Math.abs((col[id] >> Board.CHUNK_SHIFT) - farmerChunkCol) > activeChunkRadius
+                    || Math.abs((row[id] >> Board.CHUNK_SHIFT) - farmerChunkRow) > activeChunkRadius) {
+                continue;
+            }
+            if (paralysisTicks[id] > 0) {
+                paralysisTicks[id]--;
+                continue;
+            }
+
+            int c = col[id];
+            int r = row[id];
+            boolean onBoard = c >= 0 && c < cols && r >= 0 && r < board.getRows();
+            int next = onBoard ? flowField.nextCell(board.index(c, r)) : -1;
+            nextCell[id] = next;
+
+            // aim at the next cell's centre, or straight at the farmer once in the same cell
+            int targetX;
+            int targetY;
+            if (next >= 0) {
+                targetX = (next % cols) * TILE_SIZE + TILE_SIZE / 2;
+                targetY = (next / cols) * TILE_SIZE + TILE_SIZE / 2;
+            } else if (onBoard && c == farmerCol && r == farmerRow) {
+                targetX = farmer.getSubPositionX();
+                targetY = farmer.getSubPositionY();
+            } else {
+                // no route: head straight for the farmer's cell (without animating, like Alien)
+                Direction dir = directionFromDelta(farmerCol - c, farmerRow - r);
+                if (dir != Direction.NONE) {
+                    move(id, dir, board);
+                    direction[id] = (byte) dir.ordinal();
+                }
+                continue;
+            }
+
+            int dx = targetX - subX[id];
+            int dy = targetY - subY[id];
+            Direction dir = directionFromDelta(Math.abs(dx) <= ARRIVE_THRESHOLD ? 0 : dx,
+                                               Math.abs(dy) <= ARRIVE_THRESHOLD ? 0 : dy);
+            if (dir != Direction.NONE) {
+                move(id, dir, board);
+                direction[id] = (byte) dir.ordinal();
+            }
+            animate(id);
+        }
+    }
+
+    /**
+     * Convert a delta into a movement direction.
+     * @param dx Horizontal difference (positive = right)
+     * @param dy Vertical difference (positive = down)
+     * @return direction with the same signs, NONE for no movement
+     */
+    private static Direction directionFromDelta(int dx, int dy) {
+        int sx = Integer.signum(dx);
+        int sy = Integer.signum(dy);
+        for (Direction d : DIRECTIONS) {
+            if (d.getColStep() == sx && d.getRowStep() == sy) return d;
+        }
+        return Direction.NONE;
+    }
+
+    /**
+     * Take one step and resolve collisions against the four orthogonal neighbours,
+     * with the same rules as MovingEntity.move(Direction, Board).
+     * @param id alien id
+     * @param dir direction to move
+     * @param board the game board
+     */
+    private void move(int id, Direction dir, Board board) {
+        int c = col[id];
+        int r = row[id];
+        boolean northBlocked = isBlocked(board, c, r - 1);
+        boolean southBlocked = isBlocked(board, c, r + 1);
+        boolean eastBlocked = isBlocked(board, c + 1, r);
+        boolean westBlocked = isBlocked(board, c - 1, r);
+
+        boolean diagonal = dir.getColStep() != 0 && dir.getRowStep() != 0;
+        int step = diagonal ? diagonalSpeed[id] : speed[id];
+        subX[id] += dir.getColStep() * step;
+        subY[id] += dir.getRowStep() * step;
+
+        int leftBound = c * TILE_SIZE;
+        int rightBound = (c + 1) * TILE_SIZE;
+        int topBound = r * TILE_SIZE - TILE_SIZE / 4;
+        int bottomBound = (r + 1) * TILE_SIZE - TILE_SIZE / 4;
+
+        if (subY[id] < topBound) {
+            if (northBlocked) subY[id] = topBound;
+            else row[id] = r - 1;
+        } else if (subY[id] > bottomBound) {
+            if (southBlocked) subY[id] = bottomBound;
+            else row[id] = r + 1;
+        }
+
+        // like MovingEntity, a horizontal crossing sets the cell from the starting row
+        if (subX[id] > rightBound) {
+            if (eastBlocked) {
+                subX[id] = rightBound;
+            } else {
+                col[id] = c + 1;
+                row[id] = r;
+            }
+        } else if (subX[id] < leftBound) {
+            if (westBlocked) {
+                subX[id] = leftBound;
+            } else {
+                col[id] = c - 1;
+                row[id] = r;
+            }
+        }
+    }
+
+    /**
+     * Check a neighbour for collisions (cells off the board don't block, as in MovingEntity).
+     */
+    private static boolean isBlocked(Board board, int c, int r) {
+        if (c < 0 || c >= board.getCols() || r < 0 || r >= board.getRows()) return false;
+        return board.isBlocked(board.index(c, r));
+    }
+
+    /**
+     * Advance one alien's walking animation by one tick.
+     * @param id alien id
+     */
+    private void animate(int id) {
+        if (spriteCounter[id] > 10) { // hold each sprite animation frame
+            spriteNum[id] = (byte) (spriteNum[id] % IMAGE_CYCLE + 1);
+            spriteCounter[id] = 0;
+        }
+        spriteCounter[id]++;
+    }
+
+    /**
+     * Check if any swarm alien touches the farmer (same tile, or within 20 pixels on both axes,
+     * as Farmer checks other aliens).
+     * @param farmer the player
+     * @return true if the farmer is caught
+     */
+    public boolean collidesWith(Farmer farmer) {
+        int farmerCol = farmer.getPosition().getCol();
+        int farmerRow = farmer.getPosition().getRow();
+        int farmerX = farmer.getSubPositionX();
+        int farmerY = farmer.getSubPositionY();
+        for (int id = 0; id < count; id++) {
+            if (col[id] == farmerCol && row[id] == farmerRow) return true;
+            if (Math.abs(farmerX - subX[id]) <= 20 && Math.abs(farmerY - subY[id]) <= 20) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Draw the aliens the camera can see, centred on their interpolated pixel positions.
+     * @param g2 renderer, already translated by the camera
+     * @param size drawing size
+     * @param alpha how far between the previous and current tick to draw (1 draws the current position)
+     * @param camera view used to skip aliens off screen
+     */
+    public void draw(Graphics2D g2, int size, double alpha, Camera camera) {
+        if (count == 0) return;
+        BufferedImage[][] images = getFrames();
+        for (int id = 0; id < count; id++) {
+            int x = (int) Math.round(prevX[id] + (subX[id] - prevX[id]) * alpha);
+            int y = (int) Math.round(prevY[id] + (subY[id] - prevY[id]) * alpha);
+            if (camera != null && !camera.isVisible(x, y, size)) continue;
+            int facing = facing(DIRECTIONS[direction[id]]);
+            if (facing < 0) continue;
+            SpriteAtlas.draw(g2, images[facing][spriteNum[id] - 1], x - size / 2, y - size / 2, size, size);
+        }
+    }
+
+    /**
+     * Pick the sprite row for a direction, as Alien.draw does.
+     * @return 0 up, 1 down, 2 left, 3 right, -1 for no sprite
+     */
+    private static int facing(Direction dir) {
+        return switch (dir) {
+            case N, NW, NE -> 0;
+            case S, SW, SE -> 1;
+            case W -> 2;
+            case E -> 3;
+            default -> -1;
+        };
+    }
+
+    private static synchronized BufferedImage[][] getFrames() {
+        if (frames == null) {
+            String[] paths = {"/sprites/alien/alien-bw", "/sprites/alien/alien-fw",
+                              "/sprites/alien/alien-lw", "/sprites/alien/alien-rw"};
+            SpriteAtlas atlas = SpriteAtlas.shared();
+            frames = new BufferedImage[paths.length][IMAGE_CYCLE];
+            for (int i = 0; i < paths.length; i++) {
+                for (int f = 0; f < IMAGE_CYCLE; f++) {
+                    frames[i][f] = atlas.get(paths[i] + (f + 1) + ".png");
+                }
+            }
+        }
+        return frames;
+    }
+
+    /**
+     * Get an alien's grid column.
+     * @param id alien id
+     * @return column
+     */
+    public int getCol(int id) {
+        return col[id];
+    }
+
+    /**
+     * Get an alien's grid row.
+     * @param id alien id
+     * @return row
+     */
+    public int getRow(int id) {
+        return row[id];
+    }
+
+    /**
+     * Get an alien's pixel X position.
+     * @param id alien id
+     * @return pixel X position
+     */
+    public int getSubPositionX(int id) {
+        return subX[id];
+    }
+
+    /**
+     * Get an alien's pixel Y position.
+     * @param id alien id
+     * @return pixel Y position
+     */
+    public int getSubPositionY(int id) {
+        return subY[id];
+    }
+
+    /**
+     * Get the direction of an alien's last step.
+     * @param id alien id
+     * @return direction, NONE before it first moves
+     */
+    public Direction getDirection(int id) {
+        return DIRECTIONS[direction[id]];
+    }
+
+    /**
+     * Get the cell an alien was last heading for.
+     * @param id alien id
+     * @return cell index, or -1 if it had no flow-field step
+     */
+    public int getNextCell(int id) {
+        return nextCell[id];
+    }
+}
@@ -0,0 +1,109 @@
+package maisraiders.entities;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import maisraiders.enums.PathSearch;
+import maisraiders.panel.Board;
+
+/**
+ * Path planning on a small pool of worker threads, off the game thread. Each worker searches
+ * with its own A* arena (through the shared PathCache, or the hierarchical planner on large
+ * boards) and tags the path with the board version it searched; the alien drops paths that
+ * come back after the board or the farmer's cell has changed.
+ *
+ * The game tick never waits on a search, but when a path arrives depends on thread timing,
+ * so games played with background planning don't replay move for move.
+ */
+public class BackgroundPathPlanner implements PathService {
+    /** Worker threads: one spare core, at most two, at least one. */
+    public static final int DEFAULT_THREADS =
+            Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() - 1));
+
+    private final ExecutorService executor;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong delivered = new AtomicLong();
+
+    /**
+     * BackgroundPathPlanner constructor.
+     * @param threads number of worker threads
+     */
+    public BackgroundPathPlanner(int threads) {
+        executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "path-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queue a path search on the workers. The path arrives whenever a worker finishes it.
+     * @param board game board
+     * @param startIdx starting cell index
+     * @param goalIdx goal cell index
+     * @param heuristic supplied heuristic function
+     * @param pathSearch grid search
+     * @return request to poll for the result
+     */
+    @Override
+    public PathRequest request(Board board, int startIdx, int goalIdx, AStar.Heuristic heuristic,
+                               PathSearch pathSearch) {
+        PathRequest request = new PathRequest(board, startIdx, goalIdx, heuristic, pathSearch);
+        pending.incrementAndGet();
+        try {
+            executor.execute(() -> run(request));
+        } catch (RejectedExecutionException e) {
+            // closed: the request just never arrives
+            pending.decrementAndGet();
+        }
+        return request;
+    }
+
+    private void run(PathRequest request) {
+        try {
+            if (request.isCancelled()) return;
+            Board board = request.getBoard();
+            int version = board.getVersion();
+            int[] buffer = AStar.scratchPathBuffer(board);
+            int length;
+            try {
+                length = AStar.planPath(board, request.getStart(), request.getGoal(), request.getHeuristic(),
+                        request.getPathSearch(), buffer);
+            } catch (RuntimeException e) {
+                // defensive: hand back an empty path rather than leave the alien waiting
+                e.printStackTrace();
+                length = 0;
+            }
+            request.complete(buffer, length, version);
+            delivered.incrementAndGet();
+        } finally {
+            pending.decrementAndGet();
+        }
+    }
+
+    /**
+     * Get # of requests queued or being searched.
+     * @return pending request count
+     */
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    /**
+     * Get # of paths delivered so far.
+     * @return delivered count
+     */
+    public long getDeliveredCount() {
+        return delivered.get();
+    }
+
+    /**
+     * Stop the workers; queued searches are dropped.
+     */
+    public void close() {
+        pending.addAndGet(-executor.shutdownNow().size());
+    }
+}
@@ -0,0 +1,427 @@
+package maisraiders.entities;
+
+import java.util.Arrays;
+
+import maisraiders.panel.Board;
+
+/**
+ * Incremental planner (Moving Target D* Lite) that keeps its search state between calls.
+ * The search is rooted at the mover (the alien) and aimed at the goal (the farmer):
+ * - when the farmer moves, g-values from the alien are still correct, so only the key modifier changes;
+ * - when the alien moves along its path, the part of the search tree below its new cell is kept and
+ *   only the rest is thrown away (only the cells the search has reached are visited, never the
+ *   whole board);
+ * - when a cell's CellFill changes, only the vertices around it are repaired.
+ */
+public class DStarLite {
+    private static final double DIAGONAL_COST = Math.sqrt(2.0);
+    private static final double STRAIGHT_COST = 1.0;
+    private static final double INF = Double.POSITIVE_INFINITY;
+
+    private static final byte UNKNOWN = 0;
+    private static final byte IN_TREE = 1;
+    private static final byte OUT_OF_TREE = 2;
+    private static final byte VISITING = 3;
+
+    private final AStar.Heuristic heuristic;
+
+    private Board board;
+    private int cols;
+    private double[] g;
+    private double[] rhs;
+    private int[] parent;
+    private double[] key1;
+    private double[] key2;
+    private IndexHeap open;
+    private byte[] treeState;
+    private int[] chain;
+    // cells given a finite value since the last reset (bit set in reachedBits), so re-rooting
+    // and resetting only visit the searched region
+    private int[] reached = new int[256];
+    private int reachedCount;
+    private long[] reachedBits;
+    // the board's bitset as last seen, and the buffer the next snapshot is taken into
+    private long[] knownBlocked;
+    private long[] nextBlocked;
+    private int knownVersion;
+
+    private int start = -1;
+    private int goal = -1;
+    private double km = 0;
+    private int expansions = 0;
+
+    /**
+     * DStarLite constructor.
+     * @param heuristic heuristic used to focus the search (same contract as A*)
+     */
+    public DStarLite(AStar.Heuristic heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    /**
+     * Plan (or repair) a path and write it into a caller-supplied buffer.
+     * @param board game board
+     * @param startIdx current cell of the mover
+     * @param goalIdx cell being chased
+     * @param pathOut buffer receiving cell indices from start to goal (at least board.getCellCount() long)
+     * @return number of cells written, 0 if goal is unreachable
+     */
+    public int plan(Board board, int startIdx, int goalIdx, int[] pathOut) {
+        expansions = 0;
+        if (board != this.board) {
+            allocate(board);
+            reset(startIdx, goalIdx);
+        } else {
+            if (goalIdx != goal) {
+                // Keys already queued stay lower bounds because the heuristic is consistent
+                km += h(goal, goalIdx);
+                goal = goalIdx;
+            }
+            if (startIdx != start) {
+                moveStart(startIdx);
+            }
+            if (board.getVersion() != knownVersion) {
+                applyCellChanges();
+            }
+        }
+        computeShortestPath();
+        return extractPath(pathOut);
+    }
+
+    /**
+     * Get the number of vertices expanded by the last plan() call.
+     * @return expansion count
+     */
+    public int getLastExpansions() {
+        return expansions;
+    }
+
+    /**
+     * Get the number of cells the search currently holds values for.
+     * @return searched cell count
+     */
+    public int getReachedCount() {
+        return reachedCount;
+    }
+
+    /**
+     * Size the arrays for a new board.
+     */
+    private void allocate(Board board) {
+        this.board = board;
+        this.cols = board.getCols();
+        int size = board.getCellCount();
+        g = new double[size];
+        rhs = new double[size];
+        parent = new int[size];
+        key1 = new double[size];
+        key2 = new double[size];
+        treeState = new byte[size];
+        chain = new int[size];
+        open = new IndexHeap(size, key1, key2);
+        Arrays.fill(g, INF);
+        Arrays.fill(rhs, INF);
+        Arrays.fill(parent, -1);
+        reachedBits = new long[(size + 63) >>> 6];
+        reachedCount = 0;
+        knownBlocked = null;
+        nextBlocked = null;
+    }
+
+    /**
+     * Throw away all search state and start again from a single root.
+     */
+    private void reset(int startIdx, int goalIdx) {
+        for (int i = 0; i < reachedCount; i++) {
+            clearCell(reached[i]);
+        }
+        reachedCount = 0;
+        open.clear();
+        knownBlocked = board.copyBlockedBits(knownBlocked);
+        knownVersion = board.getVersion();
+
+        start = startIdx;
+        goal = goalIdx;
+        km = 0;
+        rhs[start] = 0;
+        reach(start);
+        queue(start);
+    }
+
+    /**
+     * Re-root the search at the mover's new cell (MT-D* Lite basic deletion). Every reached cell
+     * whose search-tree parent chain runs through the new start keeps its values, which stay
+     * measured from the old root (the new root keeps its own as the offset, so every key moves by
+     * the same constant). The other reached cells are cleared and re-seeded from the kept subtree.
+     */
+    private void moveStart(int newStart) {
+        if (g[newStart] == INF || g[newStart] != rhs[newStart]) {
+            // Not settled in the current tree, nothing worth keeping
+            reset(newStart, goal);
+            return;
+        }
+
+        treeState[newStart] = IN_TREE;
+        for (int i = 0; i < reachedCount; i++) {
+            if (treeState[reached[i]] == UNKNOWN) classify(reached[i]);
+        }
+
+        // move the cells outside the new subtree to the end of the reached list
+        int kept = reachedCount;
+        for (int i = 0; i < kept; ) {
+            int s = reached[i];
+            if (treeState[s] == IN_TREE) {
+                i++;
+            } else {
+                reached[i] = reached[--kept];
+                reached[kept] = s;
+            }
+        }
+        int deleted = 0;
+        for (int i = kept; i < reachedCount; i++) {
+            int s = reached[i];
+            treeState[s] = UNKNOWN;
+            open.remove(s);
+            clearCell(s);
+            chain[deleted++] = s;
+        }
+        reachedCount = kept;
+        for (int i = 0; i < kept; i++) {
+            treeState[reached[i]] = UNKNOWN;
+        }
+        treeState[newStart] = UNKNOWN;
+
+        start = newStart;
+        parent[start] = -1;
+        for (int i = 0; i < deleted; i++) {
+            int s = chain[i];
+            if (!board.isBlocked(s)) {
+                updateRhs(s);
+                if (rhs[s] != INF) queue(s);
+            }
+        }
+    }
+
+    /**
+     * Note that a cell now holds a finite value.
+     */
+    private void reach(int s) {
+        long bit = 1L << s;
+        if ((reachedBits[s >>> 6] & bit) != 0) return;
+        reachedBits[s >>> 6] |= bit;
+        if (reachedCount == reached.length) {
+            reached = Arrays.copyOf(reached, reachedCount * 2);
+        }
+        reached[reachedCount++] = s;
+    }
+
+    /**
+     * Forget a cell's values and take it off the reached set (the caller fixes up the list).
+     */
+    private void clearCell(int s) {
+        g[s] = INF;
+        rhs[s] = INF;
+        parent[s] = -1;
+        reachedBits[s >>> 6] &= ~(1L << s);
+    }
+
+    /**
+     * Follow a cell's parent chain until it reaches a classified cell and give every cell
+     * on the way the same answer.
+     */
+    private void classify(int s) {
+        int length = 0;
+        int cur = s;
+        byte result;
+        while (true) {
+            if (cur < 0) {
+                result = OUT_OF_TREE;
+                break;
+            }
+            byte state = treeState[cur];
+            if (state == IN_TREE || state == OUT_OF_TREE) {
+                result = state;
+                break;
+            }
+            if (state == VISITING) {
+                // Stale pointers can loop while a repair is pending, such cells are not kept
+                result = OUT_OF_TREE;
+                break;
+            }
+            treeState[cur] = VISITING;
+            chain[length++] = cur;
+            cur = parent[cur];
+        }
+        for (int i = 0; i < length; i++) {
+            treeState[chain[i]] = result;
+        }
+    }
+
+    /**
+     * Diff the board's bitset against the last one seen and repair around every changed cell.
+     */
+    private void applyCellChanges() {
+        nextBlocked = board.copyBlockedBits(nextBlocked);
+        long[] current = nextBlocked;
+        int size = board.getCellCount();
+        for (int w = 0; w < current.length; w++) {
+            long diff = current[w] ^ knownBlocked[w];
+            while (diff != 0) {
+                int idx = (w << 6) + Long.numberOfTrailingZeros(diff);
+                diff &= diff - 1;
+                if (idx >= size) continue;
+                updateVertex(idx);
+                int c = idx % cols;
+                int r = idx / cols;
+                for (int nr = Math.max(0, r - 1); nr <= Math.min(board.getRows() - 1, r + 1); nr++) {
+                    for (int nc = Math.max(0, c - 1); nc <= Math.min(cols - 1, c + 1); nc++) {
+                        int n = nr * cols + nc;
+                        if (n != idx) updateVertex(n);
+                    }
+                }
+            }
+        }
+        // the old snapshot becomes the buffer for the next one
+        nextBlocked = knownBlocked;
+        knownBlocked = current;
+        knownVersion = board.getVersion();
+    }
+
+    /**
+     * Main D* Lite loop: expand until the goal cell is locally consistent.
+     */
+    private void computeShortestPath() {
+        while (!open.isEmpty()) {
+            int u = open.peek();
+            double goalK2 = Math.min(g[goal], rhs[goal]);
+            double goalK1 = goalK2 + km;
+            boolean topBeforeGoal = key1[u] < goalK1 || (key1[u] == goalK1 && key2[u] < goalK2);
+            if (!topBeforeGoal && rhs[goal] <= g[goal]) break;
+
+            double oldK1 = key1[u];
+            double oldK2 = key2[u];
+            double newK2 = Math.min(g[u], rhs[u]);
+            double newK1 = newK2 + h(u, goal) + km;
+            expansions++;
+
+            if (oldK1 < newK1 || (oldK1 == newK1 && oldK2 < newK2)) {
+                key1[u] = newK1;
+                key2[u] = newK2;
+                open.push(u);
+            } else if (g[u] > rhs[u]) {
+                g[u] = rhs[u];
+                open.remove(u);
+                updateNeighbours(u);
+            } else {
+                g[u] = INF;
+                updateVertex(u);
+                updateNeighbours(u);
+            }
+        }
+    }
+
+    /**
+     * Update every walkable neighbour of a cell.
+     */
+    private void updateNeighbours(int u) {
+        int mask = board.neighbourMask(u);
+        while (mask != 0) {
+            int d = Integer.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+            updateVertex(u + board.neighbourOffset(d));
+        }
+    }
+
+    /**
+     * Recompute a cell's one-step lookahead and (re)queue it if it became inconsistent.
+     */
+    private void updateVertex(int u) {
+        if (u != start) {
+            updateRhs(u);
+        }
+        if (g[u] != rhs[u]) {
+            queue(u);
+        } else {
+            open.remove(u);
+        }
+    }
+
+    /**
+     * Set a cell's rhs to the cheapest way in from a walkable neighbour and remember that neighbour.
+     */
+    private void updateRhs(int u) {
+        double best = INF;
+        int bestParent = -1;
+        if (!board.isBlocked(u)) {
+            int mask = board.neighbourMask(u);
+            while (mask != 0) {
+                int d = Integer.numberOfTrailingZeros(mask);
+                mask &= mask - 1;
+                int n = u + board.neighbourOffset(d);
+                double cost = g[n] + stepCost(d);
+                if (cost < best) {
+                    best = cost;
+                    bestParent = n;
+                }
+            }
+        }
+        rhs[u] = best;
+        parent[u] = bestParent;
+        if (best != INF) reach(u);
+    }
+
+    /**
+     * Write the current key of a cell and put it on the open list.
+     */
+    private void queue(int u) {
+        key2[u] = Math.min(g[u], rhs[u]);
+        key1[u] = key2[u] + h(u, goal) + km;
+        open.push(u);
+    }
+
+    /**
+     * Walk back from the goal along the cheapest predecessors, then reverse into start-to-goal order.
+     */
+    private int extractPath(int[] pathOut) {
+        // The loop stops as soon as rhs(goal) is settled, so g(goal) itself may still be infinite
+        if (rhs[goal] == INF) return 0;
+        int length = 0;
+        int cur = goal;
+        pathOut[length++] = cur;
+        int limit = board.getCellCount();
+        while (cur != start && length < limit) {
+            int best = -1;
+            double bestCost = INF;
+            int mask = board.neighbourMask(cur);
+            while (mask != 0) {
+                int d = Integer.numberOfTrailingZeros(mask);
+                mask &= mask - 1;
+                int prev = cur + board.neighbourOffset(d);
+                double cost = g[prev] + stepCost(d);
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    best = prev;
+                }
+            }
+            if (best < 0) return 0;
+            cur = best;
+            pathOut[length++] = cur;
+        }
+        if (cur != start) return 0;
+
+        for (int i = 0, j = length - 1; i < j; i++, j--) {
+            int tmp = pathOut[i];
+            pathOut[i] = pathOut[j];
+            pathOut[j] = tmp;
+        }
+        return length;
+    }
+
+    private double h(int from, int to) {
+        return heuristic.heuristic(from % cols, from / cols, to % cols, to / cols);
+    }
+
+    private static double stepCost(int dirOrdinal) {
+        return (dirOrdinal & 1) == 0 ? STRAIGHT_COST : DIAGONAL_COST;
+    }
+}
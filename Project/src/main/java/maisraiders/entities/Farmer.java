@@ -2,19 +2,21 @@ package maisraiders.entities;
 
 import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
-import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
-import javax.imageio.ImageIO;
-
 import maisraiders.panel.Board;
+import maisraiders.ui.SpriteAtlas;
 import maisraiders.util.Point;
+import maisraiders.util.SpatialHash;
 
 public class Farmer extends MovingEntity {
     private boolean hasPitchfork = false;
     private boolean alienCollision = false;
     private boolean exitReached = false;
     public int pitchforkCounter = 0;
+    // reused every tick for the aliens near the farmer
+    private final List<Alien> nearbyAliens = new ArrayList<>();
     // Default constructor for testing purposes
     public Farmer() {
         super();
@@ -26,7 +28,6 @@ public class Farmer extends MovingEntity {
      */
     public Farmer(Point startPosition, int startMoveSpeed) {
         super(startPosition, startMoveSpeed);
-        getFarmerImage();
         this.direction = "down";
     }
     /**
@@ -36,6 +37,7 @@ public class Farmer extends MovingEntity {
         updateAlienCollision(false);
         updatePitchfork(false);
         updateExitStatus(false);
+        pitchforkCounter = 0;
     }
     /**
      * Set if farmer has pitchfork.
@@ -82,41 +84,59 @@ public class Farmer extends MovingEntity {
         }
     }
     /**
-     * Load farmer sprite image(s).
+     * Load farmer sprite image(s). Called on the first draw, so a farmer that is never drawn
+     * (e.g. in a headless match) never builds the sprite atlas.
      */
     public final void getFarmerImage() {
-        try {
-            up1 = ImageIO.read(getClass().getResourceAsStream("/sprites/farmer/farmer-bw1.png"));
-            up2 = ImageIO.read(getClass().getResourceAsStream("/sprites/farmer/farmer-bw2.png"));
-            up3 = ImageIO.read(getClass().getResourceAsStream("/sprites/farmer/farmer-bw3.png"));
-            up4 = ImageIO.read(getClass().getResourceAsStream("/sprites/farmer/farmer-bw4.png"));
-
-            down1 = ImageIO.read(getClass().getResourceAsStream("/sprites/farmer/farmer-fw1.png"));
-            down2 = ImageIO.read(getClass().getResourceAsStream("/sprites/farmer/farmer-fw2.png"));
-            down3 = ImageIO.read(getClass().getResourceAsStream("/sprites/farmer/farmer-fw3.png"));
-            down4 = ImageIO.read(getClass().getResourceAsStream("/sprites/farmer/farmer-fw4.png"));
-
-            right1 = ImageIO.read(getClass().getResourceAsStream("/sprites/farmer/farmer-rw1.png"));
-            right2 = ImageIO.read(getClass().getResourceAsStream("/sprites/farmer/farmer-rw2.png"));
-            right3 = ImageIO.read(getClass().getResourceAsStream("/sprites/farmer/farmer-rw3.png"));
-            right4 = ImageIO.read(getClass().getResourceAsStream("/sprites/farmer/farmer-rw4.png"));
-
-            left1 = ImageIO.read(getClass().getResourceAsStream("/sprites/farmer/farmer-lw1.png"));
-            left2 = ImageIO.read(getClass().getResourceAsStream("/sprites/farmer/farmer-lw2.png"));
-            left3 = ImageIO.read(getClass().getResourceAsStream("/sprites/farmer/farmer-lw3.png"));
-            left4 = ImageIO.read(getClass().getResourceAsStream("/sprites/farmer/farmer-lw4.png"));
-        }catch(IOException e) {
-            e.printStackTrace();
-        }
+        SpriteAtlas atlas = SpriteAtlas.shared();
+        up1 = atlas.get("/sprites/farmer/farmer-bw1.png");
+        up2 = atlas.get("/sprites/farmer/farmer-bw2.png");
+        up3 = atlas.get("/sprites/farmer/farmer-bw3.png");
+        up4 = atlas.get("/sprites/farmer/farmer-bw4.png");
+
+        down1 = atlas.get("/sprites/farmer/farmer-fw1.png");
+        down2 = atlas.get("/sprites/farmer/farmer-fw2.png");
+        down3 = atlas.get("/sprites/farmer/farmer-fw3.png");
+        down4 = atlas.get("/sprites/farmer/farmer-fw4.png");
+
+        right1 = atlas.get("/sprites/farmer/farmer-rw1.png");
+        right2 = atlas.get("/sprites/farmer/farmer-rw2.png");
+        right3 = atlas.get("/sprites/farmer/farmer-rw3.png");
+        right4 = atlas.get("/sprites/farmer/farmer-rw4.png");
 
+        left1 = atlas.get("/sprites/farmer/farmer-lw1.png");
+        left2 = atlas.get("/sprites/farmer/farmer-lw2.png");
+        left3 = atlas.get("/sprites/farmer/farmer-lw3.png");
+        left4 = atlas.get("/sprites/farmer/farmer-lw4.png");
     }
     
     /**
      * Update farmer animation and check for collisions.
-     * @param alien1 the alien to check collision for
+     * @param aliens the aliens to check collision for
      * @param gameBoard the game board for exit detection
      */
     public void update(List<Alien> aliens, Board gameBoard) {
+        animate();
+        updateAlienCollision(collidesWithAny(aliens));
+        updateExit(gameBoard);
+    }
+
+    /**
+     * Update farmer animation and check for collisions, only looking at aliens in nearby tiles.
+     * @param alienIndex spatial index the aliens are registered in
+     * @param gameBoard the game board for exit detection
+     */
+    public void update(SpatialHash<Alien> alienIndex, Board gameBoard) {
+        animate();
+        alienIndex.queryNear(getSubPositionX(), getSubPositionY(), nearbyAliens);
+        updateAlienCollision(collidesWithAny(nearbyAliens));
+        updateExit(gameBoard);
+    }
+
+    /**
+     * Advance the walking animation.
+     */
+    private void animate() {
         // Sprite animation, sprite counter is updated in player movement
         if(spriteCounter > 10) { // hold each sprite animation frame
             switch (spriteNum) {
@@ -129,51 +149,58 @@ public class Farmer extends MovingEntity {
             }
             spriteCounter = 0;
         }
-        
-        // Check collision with alien
+    }
+
+    /**
+     * Check collision with aliens (same tile, or within 20 pixels on both axes).
+     * @param aliens aliens to check
+     * @return true if any alien touches the farmer
+     */
+    private boolean collidesWithAny(List<Alien> aliens) {
         int farmerX = getSubPositionX();
         int farmerY = getSubPositionY();
 
-        boolean collided = false;
         if (aliens != null) {
             for (Alien a : aliens) {
                 if (a == null) continue;
                 if (this.getPosition().equals(a.getPosition())) {
-                    collided = true;
-                    break;
+                    return true;
                 }
                 int absDifX = Math.abs(farmerX - a.getSubPositionX());
                 int absDifY = Math.abs(farmerY - a.getSubPositionY());
                 if (absDifX <= 20 && absDifY <= 20) {
-                    collided = true;
-                    break;
+                    return true;
                 }
             }
         }
-        updateAlienCollision(collided);
-        
-        // Check if farmer reached the exit - use pixel-based collision
-        // Exit is at grid position (18, 1), convert to pixels
-        int exitCenterX = 18 * 64 + 32;  // col * tileSize + half tile
-        int exitCenterY = 2 * 64 + 32;   // row * tileSize + half tile
-        
-        int exitDifX = Math.abs(farmerX - exitCenterX);
-        int exitDifY = Math.abs(farmerY - exitCenterY);
-        
-        // If farmer is within 32 pixels (half tile) of exit center
-        if(exitDifX <= 32 && exitDifY <= 32) {
-            updateExitStatus(true);
-        }else{
-            updateExitStatus(false);
-        }
+        return false;
     }
 
     /**
-     * Draw farmer sprite centred on pixel position
+     * Check if farmer reached the exit.
+     * @param gameBoard the game board, whose EXIT tiles count
+     */
+    private void updateExit(Board gameBoard) {
+        updateExitStatus(gameBoard != null && gameBoard.isExit(getPosition()));
+    }
+
+    /**
+     * Draw farmer sprite at its current pixel position
      * @param g2 Image renderer
      * @param size drawing size
      */
     public void draw(Graphics2D g2, int size) {
+        draw(g2, size, 1.0);
+    }
+
+    /**
+     * Draw farmer sprite centred on pixel position
+     * @param g2 Image renderer
+     * @param size drawing size
+     * @param alpha how far between the previous and current tick to draw (1 draws the current position)
+     */
+    public void draw(Graphics2D g2, int size, double alpha) {
+        if (up1 == null) getFarmerImage();
         BufferedImage image = null;
 
         switch(direction) {
@@ -219,8 +246,8 @@ public class Farmer extends MovingEntity {
             }
         }
         // Draw centered: subtract half the size from subPosition to center the sprite
-        int drawX = getSubPositionX() - (size / 2);
-        int drawY = getSubPositionY() - (size / 2);
-        g2.drawImage(image, drawX, drawY, size, size, null);
+        int drawX = getRenderX(alpha) - (size / 2);
+        int drawY = getRenderY(alpha) - (size / 2);
+        SpriteAtlas.draw(g2, image, drawX, drawY, size, size);
     }
 }
\ No newline at end of file
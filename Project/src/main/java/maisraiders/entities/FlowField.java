@@ -0,0 +1,144 @@
+package maisraiders.entities;
+
+import java.util.Arrays;
+
+import maisraiders.enums.Direction;
+import maisraiders.panel.Board;
+import maisraiders.util.Point;
+
+/**
+ * Shared pursuit field: one reverse Dijkstra search from the farmer's cell gives every cell the
+ * next step along a shortest path to the farmer, so any number of aliens can read their move in O(1).
+ * The field is only rebuilt when the goal cell or the board changes.
+ */
+public class FlowField {
+    private static final double DIAGONAL_COST = Math.sqrt(2.0);
+    private static final double STRAIGHT_COST = 1.0;
+
+    private Board board;
+    private int cols;
+    private double[] distance;
+    private int[] nextCell;
+    private IndexHeap open;
+    private int goalIdx = -1;
+    private int boardVersion = -1;
+    private int version = 0;
+
+    /**
+     * Rebuild the field if the goal, the board or any board cell changed since the last call.
+     * @param board game board
+     * @param goal grid point every path leads to (the farmer's cell)
+     * @return true if the field was rebuilt
+     */
+    public boolean update(Board board, Point goal) {
+        if (board.isOutOfBounds(goal)) return false;
+        int idx = board.index(goal);
+        if (board == this.board && idx == goalIdx && board.getVersion() == boardVersion) return false;
+
+        if (board != this.board) {
+            allocate(board);
+        }
+        goalIdx = idx;
+        boardVersion = board.getVersion();
+        rebuild();
+        version++;
+        return true;
+    }
+
+    /**
+     * Get the next cell on a shortest path from a cell to the goal.
+     * @param idx cell index
+     * @return next cell index, or -1 if the cell is the goal or cannot reach it
+     */
+    public int nextCell(int idx) {
+        if (board == null || idx < 0 || idx >= nextCell.length) return -1;
+        return nextCell[idx];
+    }
+
+    /**
+     * Get the direction of the next step from a cell towards the goal.
+     * @param idx cell index
+     * @return direction of the next step, NONE if there is none
+     */
+    public Direction directionFrom(int idx) {
+        int next = nextCell(idx);
+        if (next < 0) return Direction.NONE;
+        int dc = next % cols - idx % cols;
+        int dr = next / cols - idx / cols;
+        for (Direction d : Direction.values()) {
+            if (d.getColStep() == dc && d.getRowStep() == dr) return d;
+        }
+        return Direction.NONE;
+    }
+
+    /**
+     * Get the path cost from a cell to the goal.
+     * @param idx cell index
+     * @return cost, or Double.POSITIVE_INFINITY if unreachable
+     */
+    public double distanceFrom(int idx) {
+        if (board == null || idx < 0 || idx >= distance.length) return Double.POSITIVE_INFINITY;
+        return distance[idx];
+    }
+
+    /**
+     * Get the goal cell the field currently leads to.
+     * @return goal cell index, -1 before the first update
+     */
+    public int getGoal() {
+        return goalIdx;
+    }
+
+    /**
+     * Get how many times the field has been rebuilt (changes whenever paths may have changed).
+     * @return rebuild counter
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Size the arrays for a new board.
+     * @param board game board
+     */
+    private void allocate(Board board) {
+        this.board = board;
+        this.cols = board.getCols();
+        int size = board.getCellCount();
+        distance = new double[size];
+        nextCell = new int[size];
+        open = new IndexHeap(size, distance, null);
+    }
+
+    /**
+     * Reverse Dijkstra from the goal. Movement costs are symmetric (a step is allowed when the
+     * destination is walkable, and aliens only stand on walkable cells), so the walkable-neighbour
+     * masks can be followed backwards.
+     */
+    private void rebuild() {
+        Arrays.fill(distance, Double.POSITIVE_INFINITY);
+        Arrays.fill(nextCell, -1);
+        open.clear();
+
+        distance[goalIdx] = 0;
+        open.push(goalIdx);
+        while (!open.isEmpty()) {
+            int cur = open.poll();
+            double curDist = distance[cur];
+
+            int mask = board.neighbourMask(cur);
+            while (mask != 0) {
+                int d = Integer.numberOfTrailingZeros(mask);
+                mask &= mask - 1;
+
+                int prev = cur + board.neighbourOffset(d);
+                double tentative = curDist + ((d & 1) == 0 ? STRAIGHT_COST : DIAGONAL_COST);
+                if (tentative < distance[prev]) {
+                    distance[prev] = tentative;
+                    nextCell[prev] = cur;
+                    open.push(prev);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,591 @@
+package maisraiders.entities;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import maisraiders.enums.Direction;
+import maisraiders.panel.Board;
+
+/**
+ * Hierarchical A* (HPA*) for large boards.
+ *
+ * The board is cut into square sectors. Where two neighbouring sectors share a run of walkable
+ * border cells, that entrance gets one transition (two at the ends of a long one), and each
+ * transition is a pair of abstract nodes, one on either side. Nodes in the same sector are joined
+ * by their distance inside the sector. A query links the start and goal to the nodes of their
+ * sectors, runs A* on this small abstract graph and then refines each abstract step with an A*
+ * confined to one sector, so the work per query depends on the sectors crossed, not on the
+ * size of the board. Paths are close to, but not always exactly, the shortest.
+ *
+ * The abstract graph is built on first use and rebuilt when the board changes; after that it is
+ * only read, so any number of threads can query at once.
+ */
+public class HierarchicalPathfinder {
+    public static final int DEFAULT_SECTOR_SIZE = 16;
+    /** Boards with at least this many cells are worth planning hierarchically. */
+    public static final int MIN_CELLS = 64 * 64;
+    // entrances at least this long get a transition at each end instead of one in the middle
+    private static final int LONG_ENTRANCE = 6;
+    private static final double DIAGONAL_COST = Math.sqrt(2.0);
+    private static final double STRAIGHT_COST = 1.0;
+    private static final double INF = Double.POSITIVE_INFINITY;
+    private static final AStar.Heuristic NO_HEURISTIC = (c, r, gc, gr) -> 0;
+
+    // step per Direction ordinal
+    private static final int[] COL_STEP = new int[8];
+    private static final int[] ROW_STEP = new int[8];
+    private static final double[] STEP_COST = new double[8];
+    static {
+        Direction[] dirs = Direction.values();
+        for (int d = 0; d < 8; d++) {
+            COL_STEP[d] = dirs[d].getColStep();
+            ROW_STEP[d] = dirs[d].getRowStep();
+            STEP_COST[d] = COL_STEP[d] != 0 && ROW_STEP[d] != 0 ? DIAGONAL_COST : STRAIGHT_COST;
+        }
+    }
+
+    private static HierarchicalPathfinder shared;
+
+    private final Board board;
+    private final int sectorSize;
+    private final int cols;
+    private final int rows;
+    private final int sectorCols;
+    private final int sectorRows;
+    private volatile Graph graph;
+    // per-thread search state, so queries never share buffers
+    private final ThreadLocal<Search> searches = ThreadLocal.withInitial(Search::new);
+
+    /**
+     * HierarchicalPathfinder constructor.
+     * @param board game board
+     * @param sectorSize side of a sector in tiles
+     */
+    public HierarchicalPathfinder(Board board, int sectorSize) {
+        this.board = board;
+        this.sectorSize = sectorSize;
+        this.cols = board.getCols();
+        this.rows = board.getRows();
+        this.sectorCols = (cols + sectorSize - 1) / sectorSize;
+        this.sectorRows = (rows + sectorSize - 1) / sectorSize;
+    }
+
+    /**
+     * Get the shared planner for a board (created on first use, default sector size).
+     * @param board game board
+     * @return planner for that board
+     */
+    public static synchronized HierarchicalPathfinder forBoard(Board board) {
+        if (shared == null || shared.board != board) {
+            shared = new HierarchicalPathfinder(board, DEFAULT_SECTOR_SIZE);
+        }
+        return shared;
+    }
+
+    /**
+     * Find a path and write it into a caller-supplied buffer, like AStar.search.
+     * Falls back to a full A* when the sectors can't connect the two cells (only possible
+     * through a diagonal squeeze across a sector corner).
+     * @param startIdx starting cell index
+     * @param goalIdx goal cell index
+     * @param heuristic supplied heuristic function
+     * @param pathOut buffer receiving cell indices from start to goal (at least board.getCellCount() long)
+     * @return number of cells written, 0 if goal is unreachable
+     */
+    public int search(int startIdx, int goalIdx, AStar.Heuristic heuristic, int[] pathOut) {
+        if (startIdx == goalIdx) {
+            pathOut[0] = startIdx;
+            return 1;
+        }
+        if (board.isBlocked(startIdx) || board.isBlocked(goalIdx)) {
+            return AStar.arenaFor(board).search(startIdx, goalIdx, heuristic, pathOut);
+        }
+        int length = searches.get().search(getGraph(), startIdx, goalIdx, heuristic, pathOut);
+        if (length == 0) {
+            length = AStar.arenaFor(board).search(startIdx, goalIdx, heuristic, pathOut);
+        }
+        return length;
+    }
+
+    /**
+     * Get # of abstract nodes (building the graph if needed).
+     * @return node count
+     */
+    public int getNodeCount() {
+        return getGraph().nodeCount;
+    }
+
+    /**
+     * Get the abstract graph for the board as it is now.
+     * @return up-to-date graph
+     */
+    private Graph getGraph() {
+        Graph current = graph;
+        if (current != null && current.version == board.getVersion()) return current;
+        synchronized (this) {
+            if (graph == null || graph.version != board.getVersion()) {
+                graph = build();
+            }
+            return graph;
+        }
+    }
+
+    private int sectorOf(int cell) {
+        return (cell / cols / sectorSize) * sectorCols + (cell % cols) / sectorSize;
+    }
+
+    /**
+     * Find the entrances between sectors and the distances inside each sector.
+     * @return new abstract graph
+     */
+    private Graph build() {
+        int version = board.getVersion();
+        EdgeList inter = new EdgeList();
+        Map<Integer, Integer> transitions = new HashMap<>();
+
+        for (int sy = 0; sy < sectorRows; sy++) {
+            for (int sx = 0; sx < sectorCols; sx++) {
+                int left = sx * sectorSize;
+                int top = sy * sectorSize;
+                if (sx + 1 < sectorCols) {
+                    // border with the sector to the east
+                    int c = left + sectorSize - 1;
+                    scanEntrance(c, top, 0, 1, Math.min(sectorSize, rows - top), 1, 0, inter, transitions);
+                }
+                if (sy + 1 < sectorRows) {
+                    // border with the sector to the south
+                    int r = top + sectorSize - 1;
+                    scanEntrance(left, r, 1, 0, Math.min(sectorSize, cols - left), 0, 1, inter, transitions);
+                }
+            }
+        }
+
+        // number the nodes sector by sector
+        long[] order = new long[transitions.size()];
+        int k = 0;
+        for (int cell : transitions.keySet()) {
+            order[k++] = ((long) sectorOf(cell) << 32) | cell;
+        }
+        Arrays.sort(order);
+        Graph g = new Graph(version, order.length, sectorCols * sectorRows);
+        for (int id = 0; id < order.length; id++) {
+            int cell = (int) order[id];
+            g.nodeCell[id] = cell;
+            transitions.put(cell, id);
+            g.sectorStart[sectorOf(cell) + 1]++;
+        }
+        for (int s = 0; s < sectorCols * sectorRows; s++) {
+            g.sectorStart[s + 1] += g.sectorStart[s];
+        }
+
+        EdgeList edges = new EdgeList();
+        for (int i = 0; i < inter.size; i++) {
+            int a = transitions.get(inter.from[i]);
+            int b = transitions.get(inter.to[i]);
+            edges.add(a, b, inter.cost[i]);
+            edges.add(b, a, inter.cost[i]);
+        }
+        Search search = searches.get();
+        for (int s = 0; s < sectorCols * sectorRows; s++) {
+            for (int a = g.sectorStart[s]; a < g.sectorStart[s + 1]; a++) {
+                search.searchSector(s, g.nodeCell[a], -1, NO_HEURISTIC);
+                for (int b = g.sectorStart[s]; b < g.sectorStart[s + 1]; b++) {
+                    if (a == b) continue;
+                    double d = search.localDistance(g.nodeCell[b]);
+                    if (d < INF) edges.add(a, b, d);
+                }
+            }
+        }
+        g.setEdges(edges);
+        return g;
+    }
+
+    /**
+     * Walk one sector border and add transitions for each run of cells walkable on both sides.
+     * @param col first cell on the near side
+     * @param row first cell on the near side
+     * @param stepCol column step along the border
+     * @param stepRow row step along the border
+     * @param length cells along the border
+     * @param crossCol column step across the border
+     * @param crossRow row step across the border
+     */
+    private void scanEntrance(int col, int row, int stepCol, int stepRow, int length, int crossCol, int crossRow,
+                              EdgeList inter, Map<Integer, Integer> transitions) {
+        int runStart = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean open = false;
+            if (i < length) {
+                int c = col + i * stepCol;
+                int r = row + i * stepRow;
+                int nc = c + crossCol;
+                int nr = r + crossRow;
+                open = nc < cols && nr < rows && !board.isBlocked(board.index(c, r)) && !board.isBlocked(board.index(nc, nr));
+            }
+            if (open && runStart < 0) {
+                runStart = i;
+            } else if (!open && runStart >= 0) {
+                int runEnd = i - 1;
+                if (runEnd - runStart + 1 < LONG_ENTRANCE) {
+                    addTransition((runStart + runEnd) / 2, col, row, stepCol, stepRow, crossCol, crossRow, inter, transitions);
+                } else {
+                    addTransition(runStart, col, row, stepCol, stepRow, crossCol, crossRow, inter, transitions);
+                    addTransition(runEnd, col, row, stepCol, stepRow, crossCol, crossRow, inter, transitions);
+                }
+                runStart = -1;
+            }
+        }
+    }
+
+    private void addTransition(int i, int col, int row, int stepCol, int stepRow, int crossCol, int crossRow,
+                               EdgeList inter, Map<Integer, Integer> transitions) {
+        int c = col + i * stepCol;
+        int r = row + i * stepRow;
+        int near = board.index(c, r);
+        int far = board.index(c + crossCol, r + crossRow);
+        transitions.put(near, -1);
+        transitions.put(far, -1);
+        inter.add(near, far, STRAIGHT_COST);
+    }
+
+    /**
+     * The abstract graph: nodes grouped by sector, edges in compressed rows.
+     */
+    private static final class Graph {
+        final int version;
+        final int nodeCount;
+        final int[] nodeCell;
+        // nodes of sector s are sectorStart[s] .. sectorStart[s + 1] - 1
+        final int[] sectorStart;
+        // edges of node n are edgeStart[n] .. edgeStart[n + 1] - 1
+        int[] edgeStart;
+        int[] edgeTarget;
+        double[] edgeCost;
+
+        Graph(int version, int nodeCount, int sectorCount) {
+            this.version = version;
+            this.nodeCount = nodeCount;
+            this.nodeCell = new int[nodeCount];
+            this.sectorStart = new int[sectorCount + 1];
+        }
+
+        void setEdges(EdgeList edges) {
+            edgeStart = new int[nodeCount + 1];
+            edgeTarget = new int[edges.size];
+            edgeCost = new double[edges.size];
+            for (int i = 0; i < edges.size; i++) {
+                edgeStart[edges.from[i] + 1]++;
+            }
+            for (int n = 0; n < nodeCount; n++) {
+                edgeStart[n + 1] += edgeStart[n];
+            }
+            int[] fill = Arrays.copyOf(edgeStart, nodeCount);
+            for (int i = 0; i < edges.size; i++) {
+                int at = fill[edges.from[i]]++;
+                edgeTarget[at] = edges.to[i];
+                edgeCost[at] = edges.cost[i];
+            }
+        }
+    }
+
+    /**
+     * Growable list of weighted edges used while building.
+     */
+    private static final class EdgeList {
+        int[] from = new int[64];
+        int[] to = new int[64];
+        double[] cost = new double[64];
+        int size = 0;
+
+        void add(int a, int b, double c) {
+            if (size == from.length) {
+                from = Arrays.copyOf(from, size * 2);
+                to = Arrays.copyOf(to, size * 2);
+                cost = Arrays.copyOf(cost, size * 2);
+            }
+            from[size] = a;
+            to[size] = b;
+            cost[size] = c;
+            size++;
+        }
+    }
+
+    /**
+     * One thread's search state: an A* confined to one sector, and an A* over the abstract graph.
+     * All arrays are stamped with a generation, so searches never clear them.
+     */
+    private final class Search {
+        // sector-local search, local index = (row - top) * sectorSize + (col - left)
+        private final double[] localG;
+        private final double[] localF;
+        private final int[] localParent;
+        private final int[] localStamp;
+        private final boolean[] localClosed;
+        private final IndexHeap localOpen;
+        private int localGeneration = 0;
+        private int left;
+        private int top;
+
+        // abstract search, nodes 0 .. nodeCount - 1 plus START and GOAL
+        private Graph abstractGraph;
+        private double[] g;
+        private double[] f;
+        private int[] parent;
+        private int[] stamp;
+        private boolean[] closed;
+        private double[] startCost;
+        private double[] goalCost;
+        private IndexHeap open;
+        private int[] chain = new int[64];
+        private int generation = 0;
+
+        Search() {
+            int area = sectorSize * sectorSize;
+            localG = new double[area];
+            localF = new double[area];
+            localParent = new int[area];
+            localStamp = new int[area];
+            localClosed = new boolean[area];
+            localOpen = new IndexHeap(area, localF, null);
+        }
+
+        /**
+         * A* from one cell inside a sector, never leaving it.
+         * @param sector sector to search
+         * @param from starting cell (in the sector)
+         * @param target cell to stop at, or -1 to reach every cell of the sector
+         * @param heuristic heuristic towards the target
+         * @return true if the target was reached (always true when exploring the whole sector)
+         */
+        boolean searchSector(int sector, int from, int target, AStar.Heuristic heuristic) {
+            left = (sector % sectorCols) * sectorSize;
+            top = (sector / sectorCols) * sectorSize;
+            int right = Math.min(cols, left + sectorSize);
+            int bottom = Math.min(rows, top + sectorSize);
+            localGeneration++;
+            if (localGeneration == 0) {
+                Arrays.fill(localStamp, 0);
+                localGeneration = 1;
+            }
+            int targetCol = target >= 0 ? target % cols : 0;
+            int targetRow = target >= 0 ? target / cols : 0;
+
+            int start = local(from);
+            localStamp[start] = localGeneration;
+            localClosed[start] = false;
+            localG[start] = 0;
+            localF[start] = heuristic.heuristic(from % cols, from / cols, targetCol, targetRow);
+            localParent[start] = -1;
+            localOpen.push(start);
+
+            while (!localOpen.isEmpty()) {
+                int cur = localOpen.poll();
+                int c = left + cur % sectorSize;
+                int r = top + cur / sectorSize;
+                if (target >= 0 && board.index(c, r) == target) {
+                    localOpen.clear();
+                    return true;
+                }
+                localClosed[cur] = true;
+                int mask = board.neighbourMask(board.index(c, r));
+                while (mask != 0) {
+                    int d = Integer.numberOfTrailingZeros(mask);
+                    mask &= mask - 1;
+                    int nc = c + COL_STEP[d];
+                    int nr = r + ROW_STEP[d];
+                    if (nc < left || nc >= right || nr < top || nr >= bottom) continue;
+                    int next = (nr - top) * sectorSize + (nc - left);
+                    boolean seen = localStamp[next] == localGeneration;
+                    if (seen && localClosed[next]) continue;
+                    double tentative = localG[cur] + STEP_COST[d];
+                    if (seen && tentative >= localG[next]) continue;
+                    if (!seen) {
+                        localStamp[next] = localGeneration;
+                        localClosed[next] = false;
+                    }
+                    localG[next] = tentative;
+                    localF[next] = tentative + heuristic.heuristic(nc, nr, targetCol, targetRow);
+                    localParent[next] = cur;
+                    localOpen.push(next);
+                }
+            }
+            return target < 0;
+        }
+
+        private int local(int cell) {
+            return (cell / cols - top) * sectorSize + (cell % cols - left);
+        }
+
+        /**
+         * Distance to a cell found by the last whole-sector search.
+         * @param cell cell in the searched sector
+         * @return distance, or INF if it wasn't reached
+         */
+        double localDistance(int cell) {
+            int l = local(cell);
+            return localStamp[l] == localGeneration ? localG[l] : INF;
+        }
+
+        /**
+         * Append the last sector search's path to a cell, without its first cell.
+         * @return new path length, or -1 if the buffer is too small
+         */
+        private int appendLocalPath(int cell, int[] out, int length) {
+            int steps = 0;
+            for (int l = local(cell); localParent[l] != -1; l = localParent[l]) {
+                steps++;
+            }
+            if (length + steps > out.length) return -1;
+            int i = length + steps;
+            for (int l = local(cell); localParent[l] != -1; l = localParent[l]) {
+                out[--i] = board.index(left + l % sectorSize, top + l / sectorSize);
+            }
+            return length + steps;
+        }
+
+        /**
+         * Plan on the abstract graph, then refine it into cells.
+         * @return path length, 0 if the sectors don't connect start and goal
+         */
+        int search(Graph graph, int startIdx, int goalIdx, AStar.Heuristic heuristic, int[] out) {
+            int startSector = sectorOf(startIdx);
+            int goalSector = sectorOf(goalIdx);
+            if (startSector == goalSector && searchSector(startSector, startIdx, goalIdx, heuristic)) {
+                out[0] = startIdx;
+                return appendLocalPath(goalIdx, out, 1);
+            }
+
+            prepare(graph);
+            int goalNode = graph.nodeCount + 1;
+            // link start and goal to the nodes of their sectors
+            searchSector(goalSector, goalIdx, -1, NO_HEURISTIC);
+            for (int m = graph.sectorStart[goalSector]; m < graph.sectorStart[goalSector + 1]; m++) {
+                goalCost[m] = localDistance(graph.nodeCell[m]);
+            }
+            searchSector(startSector, startIdx, -1, NO_HEURISTIC);
+            for (int m = graph.sectorStart[startSector]; m < graph.sectorStart[startSector + 1]; m++) {
+                startCost[m] = localDistance(graph.nodeCell[m]);
+            }
+
+            int found = plan(graph, startIdx, goalIdx, startSector, heuristic);
+
+            Arrays.fill(goalCost, graph.sectorStart[goalSector], graph.sectorStart[goalSector + 1], INF);
+            Arrays.fill(startCost, graph.sectorStart[startSector], graph.sectorStart[startSector + 1], INF);
+            if (found < 0) return 0;
+
+            // abstract nodes from start to goal
+            int count = 0;
+            for (int node = goalNode; node != -1; node = parent[node]) {
+                if (count == chain.length) chain = Arrays.copyOf(chain, count * 2);
+                chain[count++] = node;
+            }
+            int length = 0;
+            out[length++] = startIdx;
+            int previous = startIdx;
+            for (int i = count - 2; i >= 0; i--) {
+                int node = chain[i];
+                int cell = node == goalNode ? goalIdx : graph.nodeCell[node];
+                if (cell == previous) continue;
+                if (sectorOf(cell) != sectorOf(previous)) {
+                    // crossing an entrance: the cells are neighbours
+                    if (length == out.length) return 0;
+                    out[length++] = cell;
+                } else {
+                    if (!searchSector(sectorOf(previous), previous, cell, heuristic)) return 0;
+                    length = appendLocalPath(cell, out, length);
+                    if (length < 0) return 0;
+                }
+                previous = cell;
+            }
+            return length;
+        }
+
+        /**
+         * A* over the abstract nodes plus the start and goal.
+         * @return the goal node, or -1 if it can't be reached
+         */
+        private int plan(Graph graph, int startIdx, int goalIdx, int startSector, AStar.Heuristic heuristic) {
+            int n = graph.nodeCount;
+            int startNode = n;
+            int goalNode = n + 1;
+            int goalCol = goalIdx % cols;
+            int goalRow = goalIdx / cols;
+            generation++;
+            if (generation == 0) {
+                Arrays.fill(stamp, 0);
+                generation = 1;
+            }
+            stamp[startNode] = generation;
+            closed[startNode] = false;
+            g[startNode] = 0;
+            f[startNode] = heuristic.heuristic(startIdx % cols, startIdx / cols, goalCol, goalRow);
+            parent[startNode] = -1;
+            open.push(startNode);
+
+            while (!open.isEmpty()) {
+                int cur = open.poll();
+                if (cur == goalNode) {
+                    open.clear();
+                    return cur;
+                }
+                closed[cur] = true;
+                if (cur == startNode) {
+                    for (int m = graph.sectorStart[startSector]; m < graph.sectorStart[startSector + 1]; m++) {
+                        relax(graph, cur, m, startCost[m], goalCol, goalRow, heuristic);
+                    }
+                    continue;
+                }
+                for (int e = graph.edgeStart[cur]; e < graph.edgeStart[cur + 1]; e++) {
+                    relax(graph, cur, graph.edgeTarget[e], graph.edgeCost[e], goalCol, goalRow, heuristic);
+                }
+                if (goalCost[cur] < INF) {
+                    relax(graph, cur, goalNode, goalCost[cur], goalCol, goalRow, heuristic);
+                }
+            }
+            return -1;
+        }
+
+        private void relax(Graph graph, int cur, int next, double cost, int goalCol, int goalRow,
+                           AStar.Heuristic heuristic) {
+            if (cost == INF) return;
+            boolean seen = stamp[next] == generation;
+            if (seen && closed[next]) return;
+            double tentative = g[cur] + cost;
+            if (seen && tentative >= g[next]) return;
+            if (!seen) {
+                stamp[next] = generation;
+                closed[next] = false;
+            }
+            g[next] = tentative;
+            double h = 0;
+            if (next < graph.nodeCount) {
+                int cell = graph.nodeCell[next];
+                h = heuristic.heuristic(cell % cols, cell / cols, goalCol, goalRow);
+            }
+            f[next] = tentative + h;
+            parent[next] = cur;
+            open.push(next);
+        }
+
+        /**
+         * Size the abstract search arrays for a (new) graph.
+         */
+        private void prepare(Graph graph) {
+            if (graph == abstractGraph) return;
+            abstractGraph = graph;
+            int size = graph.nodeCount + 2;
+            g = new double[size];
+            f = new double[size];
+            parent = new int[size];
+            stamp = new int[size];
+            closed = new boolean[size];
+            startCost = new double[size];
+            goalCost = new double[size];
+            Arrays.fill(startCost, INF);
+            Arrays.fill(goalCost, INF);
+            open = new IndexHeap(size, f, null);
+            generation = 0;
+        }
+    }
+}
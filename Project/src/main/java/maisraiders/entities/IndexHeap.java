@@ -0,0 +1,143 @@
+package maisraiders.entities;
+
+/**
+ * Binary min-heap of int node indices used by the path searches.
+ * Priorities live in caller-owned arrays so no objects are created per push.
+ */
+final class IndexHeap {
+    private final int[] heap;
+    // position + 1 of each node inside heap (0 = not queued)
+    private final int[] pos;
+    private final double[] primary;
+    private final double[] secondary;
+    private int size = 0;
+
+    /**
+     * IndexHeap constructor.
+     * @param capacity number of distinct node indices
+     * @param primary primary priority per node (smaller first)
+     * @param secondary tie-break priority per node, or null
+     */
+    IndexHeap(int capacity, double[] primary, double[] secondary) {
+        this.heap = new int[capacity];
+        this.pos = new int[capacity];
+        this.primary = primary;
+        this.secondary = secondary;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean contains(int node) {
+        return pos[node] != 0;
+    }
+
+    /**
+     * Node with the smallest priority (heap must not be empty).
+     * @return node index
+     */
+    int peek() {
+        return heap[0];
+    }
+
+    /**
+     * Insert a node, or re-position it if it is already queued.
+     * @param node node index whose priority was just written
+     */
+    void push(int node) {
+        int p = pos[node];
+        if (p != 0) {
+            update(p - 1);
+            return;
+        }
+        heap[size] = node;
+        pos[node] = size + 1;
+        siftUp(size++);
+    }
+
+    /**
+     * Remove and return the node with the smallest priority.
+     * @return node index
+     */
+    int poll() {
+        int top = heap[0];
+        removeAt(0);
+        return top;
+    }
+
+    /**
+     * Remove a node if it is queued.
+     * @param node node index
+     */
+    void remove(int node) {
+        int p = pos[node];
+        if (p != 0) removeAt(p - 1);
+    }
+
+    /**
+     * Empty the heap. Only touches queued entries, so cost is O(size).
+     */
+    void clear() {
+        for (int i = 0; i < size; i++) pos[heap[i]] = 0;
+        size = 0;
+    }
+
+    private void removeAt(int i) {
+        int node = heap[i];
+        pos[node] = 0;
+        size--;
+        if (i == size) return;
+        int last = heap[size];
+        heap[i] = last;
+        pos[last] = i + 1;
+        update(i);
+    }
+
+    private void update(int i) {
+        if (i > 0 && less(heap[i], heap[(i - 1) >>> 1])) siftUp(i);
+        else siftDown(i);
+    }
+
+    private void siftUp(int i) {
+        int node = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            int p = heap[parent];
+            if (!less(node, p)) break;
+            heap[i] = p;
+            pos[p] = i + 1;
+            i = parent;
+        }
+        heap[i] = node;
+        pos[node] = i + 1;
+    }
+
+    private void siftDown(int i) {
+        int node = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && less(heap[right], heap[child])) child = right;
+            int c = heap[child];
+            if (!less(c, node)) break;
+            heap[i] = c;
+            pos[c] = i + 1;
+            i = child;
+        }
+        heap[i] = node;
+        pos[node] = i + 1;
+    }
+
+    private boolean less(int a, int b) {
+        double pa = primary[a];
+        double pb = primary[b];
+        if (pa != pb) return pa < pb;
+        return secondary != null && secondary[a] < secondary[b];
+    }
+}
@@ -1,6 +1,7 @@
 package maisraiders.entities;
 
 import maisraiders.enums.Direction;
+import maisraiders.panel.Board;
 import maisraiders.panel.Cell;
 import maisraiders.util.Point;
 
@@ -8,6 +9,8 @@ public abstract class MovingEntity extends Entity {
     
     private int subPositionX; // Sub-cell values (pixel position)
     private int subPositionY;
+    private int previousSubPositionX; // pixel position at the start of the current tick
+    private int previousSubPositionY;
     private final int baseSpeed;
     private int moveSpeed;
     private int moveSpeedDiagonal;
@@ -24,6 +27,7 @@ public abstract class MovingEntity extends Entity {
         // Initialize at CENTER of tile
         this.subPositionX = (this.getPosition().getCol() * TILE_SIZE) + (TILE_SIZE / 2);
         this.subPositionY = (this.getPosition().getRow() * TILE_SIZE) + (TILE_SIZE / 2);
+        savePreviousPosition();
         this.baseSpeed = startMoveSpeed;
         this.moveSpeed = this.baseSpeed;
 
@@ -51,6 +55,33 @@ public abstract class MovingEntity extends Entity {
     public int getSubPositionY(){
         return this.subPositionY;
     }
+
+    /**
+     * Remember the current pixel position as the start of the next tick (called before each update).
+     */
+    public void savePreviousPosition() {
+        this.previousSubPositionX = this.subPositionX;
+        this.previousSubPositionY = this.subPositionY;
+    }
+
+    /**
+     * Get pixel X position for drawing between two ticks.
+     * @param alpha how far between the previous tick (0) and the current one (1)
+     * @return interpolated pixel X position
+     */
+    public int getRenderX(double alpha) {
+        return (int) Math.round(previousSubPositionX + (subPositionX - previousSubPositionX) * alpha);
+    }
+
+    /**
+     * Get pixel Y position for drawing between two ticks.
+     * @param alpha how far between the previous tick (0) and the current one (1)
+     * @return interpolated pixel Y position
+     */
+    public int getRenderY(double alpha) {
+        return (int) Math.round(previousSubPositionY + (subPositionY - previousSubPositionY) * alpha);
+    }
+
     // set subpositions methods: for testing purposes to 'move' farmer
     public void setSubPositionX(int subPositionX){ this.subPositionX = subPositionX * TILE_SIZE + (TILE_SIZE/2); }
     public void setSubPositionY(int subPositionY){ this.subPositionY = subPositionY * TILE_SIZE+ (TILE_SIZE/2); }
@@ -92,7 +123,49 @@ public abstract class MovingEntity extends Entity {
      */
     public void move(Direction direction, Cell[] neighbours){
         if (neighbours == null) return;
-        
+
+        // neighbours: [0] = North, [1] = East, [2] = South, [3] = West
+        boolean northBlocked = neighbours.length > 0 && neighbours[0] != null && neighbours[0].isBlocked();
+        boolean southBlocked = neighbours.length > 2 && neighbours[2] != null && neighbours[2].isBlocked();
+        boolean eastBlocked = neighbours.length > 3 && neighbours[1] != null && neighbours[1].isBlocked();
+        boolean westBlocked = neighbours.length > 1 && neighbours[3] != null && neighbours[3].isBlocked();
+        applyMove(direction, northBlocked, southBlocked, eastBlocked, westBlocked);
+    }
+
+    /**
+     * Move entity in a specific direction using the board's precomputed neighbour mask
+     * (same collision rules as move(Direction, Cell[]) without building a Cell array).
+     * @param direction direction to move
+     * @param board the game board
+     */
+    public void move(Direction direction, Board board){
+        if (board == null) return;
+        int col = this.getPosition().getCol();
+        int row = this.getPosition().getRow();
+        if (board.isOutOfBounds(this.getPosition())) {
+            move(direction, board.getNeighbours(this.getPosition()));
+            return;
+        }
+
+        // a missing bit means blocked unless the neighbour is off the board
+        int mask = board.neighbourMask(board.index(col, row));
+        boolean northBlocked = row > 0 && (mask & (1 << Direction.N.ordinal())) == 0;
+        boolean southBlocked = row < board.getRows() - 1 && (mask & (1 << Direction.S.ordinal())) == 0;
+        boolean eastBlocked = col < board.getCols() - 1 && (mask & (1 << Direction.E.ordinal())) == 0;
+        boolean westBlocked = col > 0 && (mask & (1 << Direction.W.ordinal())) == 0;
+        applyMove(direction, northBlocked, southBlocked, eastBlocked, westBlocked);
+    }
+
+    /**
+     * Apply one movement step and resolve collisions against the four orthogonal neighbours.
+     * @param direction direction to move
+     * @param northBlocked true if the cell to the north may not be entered
+     * @param southBlocked true if the cell to the south may not be entered
+     * @param eastBlocked true if the cell to the east may not be entered
+     * @param westBlocked true if the cell to the west may not be entered
+     */
+    private void applyMove(Direction direction, boolean northBlocked, boolean southBlocked,
+                           boolean eastBlocked, boolean westBlocked){
         // Apply movement
         switch (direction) {
             case N -> this.subPositionY -= this.moveSpeed;
@@ -129,13 +202,11 @@ public abstract class MovingEntity extends Entity {
         int topBound = currentRow * TILE_SIZE - TILE_SIZE/4;
         int bottomBound = (currentRow + 1) * TILE_SIZE - TILE_SIZE/4;
         
-        
-        // neighbours: [0] = North, [1] = West, [2] = South, [3] = East
 
         // Check vertical collision (North / South)
         if (this.subPositionY < topBound) {
             // Moving North - check if we can enter next tile
-            if (neighbours.length > 0 && neighbours[0] != null && neighbours[0].isBlocked()) {
+            if (northBlocked) {
                 // Blocked! Snap back to boundary
                 this.hasBarrierCollision = true;
                 this.subPositionY = topBound;
@@ -148,7 +219,7 @@ public abstract class MovingEntity extends Entity {
 
         else if (this.subPositionY > bottomBound) {
             // Moving South - check if we can enter next tile
-            if (neighbours.length > 2 && neighbours[2] != null && neighbours[2].isBlocked()) {
+            if (southBlocked) {
                 // Blocked! Snap back to boundary
                 this.hasBarrierCollision = true;
                 this.subPositionY = bottomBound;
@@ -162,7 +233,7 @@ public abstract class MovingEntity extends Entity {
         // Check horizontal collision (West / East)
         if (this.subPositionX > rightBound) {
             // Moving East - check if we can enter next tile
-            if (neighbours.length > 3 && neighbours[1] != null && neighbours[1].isBlocked()) {
+            if (eastBlocked) {
                 // Blocked! Snap back to boundary
                 this.hasBarrierCollision = true;
                 this.subPositionX = rightBound;
@@ -174,7 +245,7 @@ public abstract class MovingEntity extends Entity {
         }
         else if (this.subPositionX < leftBound) {
             // Moving West - check if we can enter next tile
-            if (neighbours.length > 1 && neighbours[3] != null && neighbours[3].isBlocked()) {
+            if (westBlocked) {
                 // Blocked! Snap back to boundary
                 this.hasBarrierCollision = true;
                 this.subPositionX = leftBound;
@@ -194,6 +265,7 @@ public abstract class MovingEntity extends Entity {
         // Reset pixel positions to center of default tile
         this.subPositionX = (this.getPosition().getCol() * TILE_SIZE) + (TILE_SIZE / 2);
         this.subPositionY = (this.getPosition().getRow() * TILE_SIZE) + (TILE_SIZE / 2);
+        savePreviousPosition();
     }
 
     /**
@@ -205,6 +277,7 @@ public abstract class MovingEntity extends Entity {
         // Update sub-position to match grid position
         this.subPositionX = newPosition.getCol() * TILE_SIZE + TILE_SIZE / 2;
         this.subPositionY = newPosition.getRow() * TILE_SIZE + TILE_SIZE / 2;
+        savePreviousPosition();
     }
         
 }
\ No newline at end of file
@@ -0,0 +1,182 @@
+package maisraiders.entities;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import maisraiders.enums.PathSearch;
+import maisraiders.panel.Board;
+
+/**
+ * Bounded LRU cache of A* results keyed by (start cell, goal cell, heuristic, search).
+ *
+ * Aliens standing in the same cell and chasing the same farmer cell, or one alien re-planning
+ * before it has left its cell, ask for the same search again; those become an array copy.
+ * Everything is dropped when the board or any of its cells changes. Safe to share between the
+ * threads that plan alien moves; the search itself runs outside the lock.
+ */
+public class PathCache {
+    /** Number of paths kept by the shared cache. */
+    public static final int DEFAULT_CAPACITY = 256;
+    private static final int[] NO_PATH = new int[0];
+
+    private static final PathCache shared = new PathCache(DEFAULT_CAPACITY);
+
+    private final int capacity;
+    private final LinkedHashMap<Key, int[]> paths;
+    private Board board;
+    private int boardVersion;
+    private long hits = 0;
+    private long misses = 0;
+
+    /**
+     * PathCache constructor.
+     * @param capacity most paths kept before the least recently used one is dropped
+     */
+    public PathCache(int capacity) {
+        this.capacity = capacity;
+        this.paths = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, int[]> eldest) {
+                return size() > PathCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Get the cache the aliens share.
+     * @return shared path cache
+     */
+    public static PathCache shared() {
+        return shared;
+    }
+
+    /**
+     * Find a path, from the cache if the same search was done on this board version,
+     * otherwise with the calling thread's A* arena.
+     * @param board game board
+     * @param startIdx starting cell index
+     * @param goalIdx goal cell index
+     * @param heuristic supplied heuristic function (compared by identity)
+     * @param pathOut buffer receiving cell indices from start to goal (at least board.getCellCount() long)
+     * @return number of cells written, 0 if goal is unreachable
+     */
+    public int search(Board board, int startIdx, int goalIdx, AStar.Heuristic heuristic, int[] pathOut) {
+        return search(board, startIdx, goalIdx, heuristic, PathSearch.ASTAR, pathOut);
+    }
+
+    /**
+     * Find a path with the given grid search, from the cache if the same search was done on
+     * this board version.
+     * @param board game board
+     * @param startIdx starting cell index
+     * @param goalIdx goal cell index
+     * @param heuristic supplied heuristic function (compared by identity)
+     * @param pathSearch plain A* or Jump Point Search
+     * @param pathOut buffer receiving cell indices from start to goal (at least board.getCellCount() long)
+     * @return number of cells written, 0 if goal is unreachable
+     */
+    public int search(Board board, int startIdx, int goalIdx, AStar.Heuristic heuristic, PathSearch pathSearch,
+                      int[] pathOut) {
+        Key key = new Key(startIdx, goalIdx, heuristic, pathSearch);
+        int[] cached;
+        synchronized (this) {
+            checkBoard(board);
+            cached = paths.get(key);
+            if (cached != null) hits++;
+            else misses++;
+        }
+        if (cached != null) {
+            System.arraycopy(cached, 0, pathOut, 0, cached.length);
+            return cached.length;
+        }
+
+        int version = board.getVersion();
+        AStar arena = AStar.arenaFor(board);
+        int length = pathSearch == PathSearch.JUMP_POINT
+                ? arena.jumpSearch(startIdx, goalIdx, heuristic, pathOut)
+                : arena.search(startIdx, goalIdx, heuristic, pathOut);
+        int[] copy = length == 0 ? NO_PATH : new int[length];
+        System.arraycopy(pathOut, 0, copy, 0, length);
+        synchronized (this) {
+            // a board changed during the search can't be cached
+            if (board == this.board && version == boardVersion) {
+                paths.put(key, copy);
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Drop every path if the board is a different one or has changed.
+     * @param board board about to be searched
+     */
+    private void checkBoard(Board board) {
+        if (board != this.board || board.getVersion() != boardVersion) {
+            paths.clear();
+            this.board = board;
+            this.boardVersion = board.getVersion();
+        }
+    }
+
+    /**
+     * Drop every cached path (the hit and miss counts are kept).
+     */
+    public synchronized void clear() {
+        paths.clear();
+        board = null;
+    }
+
+    /**
+     * Get # of searches answered from the cache.
+     * @return hit count
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Get # of searches that had to run A*.
+     * @return miss count
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Get # of paths currently cached.
+     * @return cached path count
+     */
+    public synchronized int size() {
+        return paths.size();
+    }
+
+    /**
+     * Cache key: one search.
+     */
+    private static final class Key {
+        private final int start;
+        private final int goal;
+        private final AStar.Heuristic heuristic;
+        private final PathSearch pathSearch;
+
+        Key(int start, int goal, AStar.Heuristic heuristic, PathSearch pathSearch) {
+            this.start = start;
+            this.goal = goal;
+            this.heuristic = heuristic;
+            this.pathSearch = pathSearch;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return start == other.start && goal == other.goal && heuristic == other.heuristic
+                    && pathSearch == other.pathSearch;
+        }
+
+        @Override
+        public int hashCode() {
+            return ((start * 31 + goal) * 31 + System.identityHashCode(heuristic)) * 31 + pathSearch.ordinal();
+        }
+    }
+}
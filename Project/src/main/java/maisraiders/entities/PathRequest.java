@@ -0,0 +1,124 @@
+package maisraiders.entities;
+
+import maisraiders.enums.PathSearch;
+import maisraiders.panel.Board;
+
+/**
+ * One path search handed to a PathService and, once done, its result. The result is tagged
+ * with the board version it was searched on and the goal (farmer) cell it leads to, so a path
+ * that arrives after the board or the farmer's cell has changed can be recognised and dropped.
+ */
+public final class PathRequest {
+    private final Board board;
+    private final int start;
+    private final int goal;
+    private final AStar.Heuristic heuristic;
+    private final PathSearch pathSearch;
+    private volatile boolean done = false;
+    private volatile boolean cancelled = false;
+    // written before done is set, so readers that saw done also see these
+    private int[] path;
+    private int boardVersion;
+
+    PathRequest(Board board, int start, int goal, AStar.Heuristic heuristic, PathSearch pathSearch) {
+        this.board = board;
+        this.start = start;
+        this.goal = goal;
+        this.heuristic = heuristic;
+        this.pathSearch = pathSearch;
+    }
+
+    Board getBoard() {
+        return board;
+    }
+
+    int getStart() {
+        return start;
+    }
+
+    int getGoal() {
+        return goal;
+    }
+
+    AStar.Heuristic getHeuristic() {
+        return heuristic;
+    }
+
+    PathSearch getPathSearch() {
+        return pathSearch;
+    }
+
+    /**
+     * Hand over the finished path.
+     * @param cells buffer holding the path
+     * @param length path length, 0 if the goal was unreachable
+     * @param version board version the path was searched on
+     */
+    void complete(int[] cells, int length, int version) {
+        int[] copy = new int[length];
+        System.arraycopy(cells, 0, copy, 0, length);
+        path = copy;
+        boardVersion = version;
+        done = true;
+    }
+
+    /**
+     * Check if the path has been delivered.
+     * @return true once the search has finished
+     */
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * Check if the request was dropped.
+     * @return true after cancel()
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Drop the request; a search already under way is abandoned or its result ignored.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Check if a delivered path no longer fits the game: the board has changed since it was
+     * searched, or the farmer has left the goal cell.
+     * @param currentBoard board the alien is on now
+     * @param goalIdx cell index of the farmer now
+     * @return true if the path should be thrown away
+     */
+    public boolean isStale(Board currentBoard, int goalIdx) {
+        return currentBoard != board || currentBoard.getVersion() != boardVersion || goalIdx != goal;
+    }
+
+    /**
+     * Get the board version the path was searched on (only valid once isDone()).
+     * @return board version
+     */
+    public int getBoardVersion() {
+        return boardVersion;
+    }
+
+    /**
+     * Get the length of the delivered path (only valid once isDone()).
+     * @return path length, 0 if the goal was unreachable
+     */
+    public int getPathLength() {
+        return path.length;
+    }
+
+    /**
+     * Copy the delivered path into a buffer (only valid once isDone()).
+     * @param pathOut buffer receiving cell indices from start to goal
+     * @return path length, 0 if the goal was unreachable
+     */
+    public int copyPath(int[] pathOut) {
+        System.arraycopy(path, 0, pathOut, 0, path.length);
+        return path.length;
+    }
+}
@@ -0,0 +1,28 @@
+package maisraiders.entities;
+
+import maisraiders.enums.PathSearch;
+import maisraiders.panel.Board;
+
+/**
+ * Somewhere aliens can send path searches instead of running them inside their update.
+ * The path arrives later through the returned request.
+ */
+public interface PathService {
+
+    /**
+     * Queue a path search.
+     * @param board game board
+     * @param startIdx starting cell index
+     * @param goalIdx goal cell index
+     * @param heuristic supplied heuristic function
+     * @param pathSearch grid search the alien asked for (a service may only support some)
+     * @return request to poll for the result
+     */
+    PathRequest request(Board board, int startIdx, int goalIdx, AStar.Heuristic heuristic, PathSearch pathSearch);
+
+    /**
+     * Do this tick's share of work on the game thread (nothing by default).
+     */
+    default void tick() {
+    }
+}
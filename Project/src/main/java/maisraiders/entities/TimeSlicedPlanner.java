@@ -0,0 +1,134 @@
+package maisraiders.entities;
+
+import java.util.ArrayDeque;
+
+import maisraiders.enums.PathSearch;
+import maisraiders.panel.Board;
+
+/**
+ * Path planning spread over ticks: aliens queue path requests, and every tick the planner
+ * expands at most a fixed number of A* nodes in total, working through the queue in order and
+ * carrying an unfinished search over to the next tick. Finished paths are handed back through
+ * the request, so one long search on a big map costs several ticks instead of one long frame.
+ *
+ * tick() runs on the game thread between alien updates; request() may be called from the
+ * threads that plan alien moves.
+ */
+public class TimeSlicedPlanner implements PathService {
+    /** Node expansions per tick, a little under a millisecond of A* on a cluttered map. */
+    public static final int DEFAULT_BUDGET = 2000;
+
+    private final int budget;
+    private final ArrayDeque<PathRequest> queue = new ArrayDeque<>();
+    private PathRequest current;
+    private int currentVersion;
+    // own arena, so a search left half-done is never disturbed by other A* calls on this thread
+    private AStar arena;
+    private int[] buffer;
+    private long delivered = 0;
+
+    /**
+     * TimeSlicedPlanner constructor.
+     * @param expansionsPerTick most A* node expansions per tick, over all requests
+     */
+    public TimeSlicedPlanner(int expansionsPerTick) {
+        this.budget = expansionsPerTick;
+    }
+
+    /**
+     * Queue a plain A* path request. The path arrives during a later tick().
+     * @param board game board
+     * @param startIdx starting cell index
+     * @param goalIdx goal cell index
+     * @param heuristic supplied heuristic function
+     * @return request to poll for the result
+     */
+    public PathRequest request(Board board, int startIdx, int goalIdx, AStar.Heuristic heuristic) {
+        return request(board, startIdx, goalIdx, heuristic, PathSearch.ASTAR);
+    }
+
+    /**
+     * Queue a path request. Only plain A* can be paused between ticks, so the search is always
+     * A* whatever pathSearch asks for.
+     * @param board game board
+     * @param startIdx starting cell index
+     * @param goalIdx goal cell index
+     * @param heuristic supplied heuristic function
+     * @param pathSearch ignored
+     * @return request to poll for the result
+     */
+    @Override
+    public synchronized PathRequest request(Board board, int startIdx, int goalIdx, AStar.Heuristic heuristic,
+                                            PathSearch pathSearch) {
+        PathRequest request = new PathRequest(board, startIdx, goalIdx, heuristic, PathSearch.ASTAR);
+        queue.add(request);
+        return request;
+    }
+
+    /**
+     * Spend this tick's expansion budget on the queued requests.
+     */
+    @Override
+    public synchronized void tick() {
+        int left = budget;
+        while (left > 0) {
+            if (current == null && !startNext()) return;
+            if (current.isCancelled()) {
+                current = null;
+                continue;
+            }
+            if (current.getBoard().getVersion() != currentVersion) {
+                // the board changed under the search: start it again
+                begin(current);
+            }
+            int before = arena.getExpandedCount();
+            int length = arena.continueSearch(left, buffer);
+            left -= Math.max(1, arena.getExpandedCount() - before);
+            if (length == AStar.IN_PROGRESS) return;
+            current.complete(buffer, length, currentVersion);
+            delivered++;
+            current = null;
+        }
+    }
+
+    /**
+     * Take the next live request off the queue and begin its search.
+     * @return false if nothing is waiting
+     */
+    private boolean startNext() {
+        PathRequest next;
+        do {
+            next = queue.poll();
+            if (next == null) return false;
+        } while (next.isCancelled());
+        begin(next);
+        return true;
+    }
+
+    private void begin(PathRequest request) {
+        current = request;
+        Board board = request.getBoard();
+        currentVersion = board.getVersion();
+        if (arena == null || arena.getBoard() != board) {
+            arena = new AStar(board);
+            buffer = AStar.newPathBuffer(board);
+        }
+        arena.startSearch(request.getStart(), request.getGoal(), request.getHeuristic());
+    }
+
+    /**
+     * Get # of requests waiting, including the one being searched.
+     * @return pending request count
+     */
+    public synchronized int getPendingCount() {
+        return queue.size() + (current != null ? 1 : 0);
+    }
+
+    /**
+     * Get # of paths delivered so far.
+     * @return delivered count
+     */
+    public synchronized long getDeliveredCount() {
+        return delivered;
+    }
+}
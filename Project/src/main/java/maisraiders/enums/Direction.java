@@ -4,13 +4,45 @@ package maisraiders.enums;
  * Type of movement directions.
  */
 public enum Direction {
-    N,
-    NE,
-    E,
-    SE,
-    S,
-    SW,
-    W,
-    NW,
-    NONE,
+    N(0, -1),
+    NE(1, -1),
+    E(1, 0),
+    SE(1, 1),
+    S(0, 1),
+    SW(-1, 1),
+    W(-1, 0),
+    NW(-1, -1),
+    NONE(0, 0);
+
+    private final int colStep;
+    private final int rowStep;
+
+    Direction(int colStep, int rowStep) {
+        this.colStep = colStep;
+        this.rowStep = rowStep;
+    }
+
+    /**
+     * Get column change of one step in this direction.
+     * @return -1, 0 or 1
+     */
+    public int getColStep() {
+        return colStep;
+    }
+
+    /**
+     * Get row change of one step in this direction.
+     * @return -1, 0 or 1
+     */
+    public int getRowStep() {
+        return rowStep;
+    }
+
+    /**
+     * Check if this is one of the four diagonal directions.
+     * @return true for NE, SE, SW and NW
+     */
+    public boolean isDiagonal() {
+        return colStep != 0 && rowStep != 0;
+    }
 }
@@ -0,0 +1,11 @@
+package maisraiders.enums;
+
+/**
+ * Grid search an alien uses to plan its path.
+ */
+public enum PathSearch {
+    // plain A*, every neighbour of every node
+    ASTAR,
+    // Jump Point Search: same optimal paths, skips symmetric runs across open ground
+    JUMP_POINT,
+}
@@ -0,0 +1,13 @@
+package maisraiders.enums;
+
+/**
+ * Ways an alien can chase the farmer.
+ */
+public enum PursuitMode {
+    // per-alien A* search with the alien's own heuristic
+    PATH,
+    // shared flow field computed once from the farmer's cell
+    FLOW_FIELD,
+    // per-alien D* Lite that repairs its previous path instead of re-planning
+    INCREMENTAL,
+}
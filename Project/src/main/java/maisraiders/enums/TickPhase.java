@@ -0,0 +1,39 @@
+package maisraiders.enums;
+
+/**
+ * Part of a game tick (or frame) timed by the TickProfiler.
+ */
+public enum TickPhase {
+    // the whole tick, from input to game state
+    TICK("tick"),
+    // reading keys or replay input
+    INPUT("input"),
+    // applying the input to the farmer
+    PLAYER_MOVE("player"),
+    // Farmer.update: walls, objects and alien collisions
+    FARMER("farmer"),
+    // one Alien plan (recorded per alien)
+    ALIEN("alien"),
+    // every named and swarm alien, with path planning and indexing
+    ALIENS("aliens"),
+    // AssetSetter.updateObjects and the disappearing reward
+    OBJECTS("objects"),
+    // Game.updateGameState
+    GAME_STATE("state"),
+    // SpriteDrawer.paintComponent, on the Swing thread
+    PAINT("paint");
+
+    private final String label;
+
+    TickPhase(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Get the short name shown in the overlay.
+     * @return phase label
+     */
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,281 @@
+package maisraiders.map;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import maisraiders.util.Point;
+
+/**
+ * A level read from its compact binary file: the tile grid plus where objects and entities spawn.
+ *
+ * Files are memory-mapped and read in place, so opening even a very large level costs nothing
+ * until tiles are looked at. File layout (big-endian): magic "MRLV", format version, columns,
+ * rows, object count, entity count (six ints), then one (kind, col, row) int triple per object
+ * and per entity, then one byte per tile in row-major order (index = row * cols + col) holding
+ * the MapLoader map value.
+ */
+public class Level {
+    public static final int OBJECT_CORN = 0;
+    public static final int OBJECT_PITCHFORK = 1;
+    public static final int OBJECT_MUD_TRAP = 2;
+    /** Where the bonus corn bundles appear during a match. */
+    public static final int OBJECT_CORN_BUNDLE = 3;
+
+    public static final int ENTITY_FARMER = 0;
+    /** Alien using the default (octile) A* heuristic. */
+    public static final int ENTITY_ALIEN = 1;
+    public static final int ENTITY_ALIEN_MANHATTAN = 2;
+    /** Alien in the level's swarm (AlienSwarm), for levels with very many aliens. */
+    public static final int ENTITY_SWARM_ALIEN = 3;
+
+    /**
+     * Most tiles a playable level may have (2048 x 2048). Path planners keep per-tile search
+     * state (see AStar), so larger levels are rejected up front instead of running out of memory.
+     */
+    public static final int MAX_TILES = 2048 * 2048;
+
+    /** Classpath location of the stock level. */
+    public static final String DEFAULT_RESOURCE = "/maps/default.mrl";
+
+    private static final int MAGIC = 0x4D524C56; // "MRLV"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 6 * Integer.BYTES;
+    private static final int SPAWN_BYTES = 3 * Integer.BYTES;
+
+    private static Level defaultLevel;
+
+    private final ByteBuffer data;
+    private final int cols;
+    private final int rows;
+    private final int objectCount;
+    private final int entityCount;
+    private final int tilesOffset;
+
+    /**
+     * Level constructor.
+     * @param data whole level file (a mapped or heap buffer, position 0)
+     * @throws IOException if the data is not a level this version can read
+     */
+    public Level(ByteBuffer data) throws IOException {
+        this.data = data.duplicate().order(ByteOrder.BIG_ENDIAN);
+        if (this.data.capacity() < HEADER_BYTES || this.data.getInt(0) != MAGIC) {
+            throw new IOException("Not a level file");
+        }
+        int version = this.data.getInt(4);
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported level version " + version);
+        }
+        cols = this.data.getInt(8);
+        rows = this.data.getInt(12);
+        objectCount = this.data.getInt(16);
+        entityCount = this.data.getInt(20);
+        if (cols <= 0 || rows <= 0 || objectCount < 0 || entityCount < 0) {
+            throw new IOException("Corrupt level header");
+        }
+        checkSize(cols, rows);
+        long offset = HEADER_BYTES + (long) (objectCount + entityCount) * SPAWN_BYTES;
+        long size = offset + (long) cols * rows;
+        if (size != this.data.capacity() || (long) cols * rows > Integer.MAX_VALUE) {
+            throw new IOException("Level size doesn't match its header");
+        }
+        tilesOffset = (int) offset;
+    }
+
+    /**
+     * Map a level file into memory.
+     * @param file level file
+     * @return the level
+     * @throws IOException if the file can't be read or is not a level
+     */
+    public static Level open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            return new Level(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Load a level from the classpath, mapping it when it is a plain file (not inside a jar).
+     * @param resource resource path
+     * @return the level
+     * @throws IOException if the resource is missing, unreadable or not a level
+     */
+    public static Level fromResource(String resource) throws IOException {
+        URL url = Level.class.getResource(resource);
+        if (url == null) {
+            throw new IOException("Missing level " + resource);
+        }
+        if ("file".equals(url.getProtocol())) {
+            try {
+                return open(Paths.get(url.toURI()));
+            } catch (URISyntaxException e) {
+                throw new IOException(e);
+            }
+        }
+        try (InputStream in = url.openStream()) {
+            return new Level(ByteBuffer.wrap(in.readAllBytes()));
+        }
+    }
+
+    /**
+     * Get the stock level (loaded once and shared).
+     * @return default level
+     */
+    public static synchronized Level getDefault() {
+        if (defaultLevel == null) {
+            try {
+                defaultLevel = fromResource(DEFAULT_RESOURCE);
+            } catch (IOException e) {
+                // shipped with the game, so this only happens with a broken build
+                throw new UncheckedIOException(e);
+            }
+        }
+        return defaultLevel;
+    }
+
+    /**
+     * Write a level in the binary format.
+     * @param out stream to write to (not closed)
+     * @param mapLayout map values indexed [col][row], as returned by MapLoader.getMapLayout()
+     * @param objects {kind, col, row} per object
+     * @param entities {kind, col, row} per entity
+     * @throws IOException if writing fails
+     */
+    public static void write(OutputStream out, int[][] mapLayout, int[][] objects, int[][] entities)
+            throws IOException {
+        int cols = mapLayout.length;
+        int rows = mapLayout[0].length;
+        checkSize(cols, rows);
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(FORMAT_VERSION);
+        data.writeInt(cols);
+        data.writeInt(rows);
+        data.writeInt(objects.length);
+        data.writeInt(entities.length);
+        for (int[] spawn : objects) {
+            writeSpawn(data, spawn);
+        }
+        for (int[] spawn : entities) {
+            writeSpawn(data, spawn);
+        }
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                data.writeByte(mapLayout[c][r]);
+            }
+        }
+        data.flush();
+    }
+
+    /**
+     * Reject levels with more tiles than MAX_TILES.
+     * @throws IOException if the level is too large
+     */
+    private static void checkSize(int cols, int rows) throws IOException {
+        if ((long) cols * rows > MAX_TILES) {
+            throw new IOException("Level is " + cols + "x" + rows + " tiles, at most " + MAX_TILES
+                    + " tiles (2048x2048) are supported");
+        }
+    }
+
+    private static void writeSpawn(DataOutputStream data, int[] spawn) throws IOException {
+        data.writeInt(spawn[0]);
+        data.writeInt(spawn[1]);
+        data.writeInt(spawn[2]);
+    }
+
+    /**
+     * Get # of columns.
+     * @return # of columns
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Get # of rows.
+     * @return # of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Get the map value of a tile (see MapLoader.getCellFillFromMapValue).
+     * @param c Column index
+     * @param r Row index
+     * @return map value
+     */
+    public int getTile(int c, int r) {
+        return data.get(tilesOffset + r * cols + c) & 0xFF;
+    }
+
+    /**
+     * Get # of object spawns.
+     * @return object count
+     */
+    public int getObjectCount() {
+        return objectCount;
+    }
+
+    /**
+     * Get what an object spawn creates.
+     * @param i object number
+     * @return one of the OBJECT_ constants
+     */
+    public int getObjectKind(int i) {
+        return data.getInt(spawnOffset(i));
+    }
+
+    /**
+     * Get where an object spawns.
+     * @param i object number
+     * @return grid position
+     */
+    public Point getObjectPosition(int i) {
+        int at = spawnOffset(i);
+        return new Point(data.getInt(at + 4), data.getInt(at + 8));
+    }
+
+    /**
+     * Get # of entity spawns.
+     * @return entity count
+     */
+    public int getEntityCount() {
+        return entityCount;
+    }
+
+    /**
+     * Get what an entity spawn creates.
+     * @param i entity number
+     * @return one of the ENTITY_ constants
+     */
+    public int getEntityKind(int i) {
+        return data.getInt(spawnOffset(objectCount + i));
+    }
+
+    /**
+     * Get where an entity spawns.
+     * @param i entity number
+     * @return grid position
+     */
+    public Point getEntityPosition(int i) {
+        int at = spawnOffset(objectCount + i);
+        return new Point(data.getInt(at + 4), data.getInt(at + 8));
+    }
+
+    private static int spawnOffset(int spawn) {
+        return HEADER_BYTES + spawn * SPAWN_BYTES;
+    }
+}
@@ -1,5 +1,12 @@
 package maisraiders.map;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
 import maisraiders.enums.CellFill;
 
 /**
@@ -79,6 +86,29 @@ public class MapLoader {
     // REASON: Replaces 17-line if-else chain with simple array lookup.
     //         Easier to understand and modify. More scalable.
     private static final int[] HOUSE_TILES = {-1, HOUSE_1, HOUSE_2, HOUSE_3, HOUSE_4};
+
+    // Spawns written into the default level file, {kind, col, row}
+    private static final int[][] DEFAULT_OBJECTS = {
+        {Level.OBJECT_CORN, 3, 5},
+        {Level.OBJECT_CORN, 6, 1},
+        {Level.OBJECT_CORN, 10, 2},
+        {Level.OBJECT_CORN, 8, 12},
+        {Level.OBJECT_CORN, 12, 10},
+        {Level.OBJECT_CORN, 14, 4},
+        {Level.OBJECT_CORN, 5, 8},
+        {Level.OBJECT_CORN, 2, 9},
+        {Level.OBJECT_PITCHFORK, 16, 12},
+        {Level.OBJECT_MUD_TRAP, 7, 5},
+        {Level.OBJECT_MUD_TRAP, 4, 10},
+        {Level.OBJECT_MUD_TRAP, 16, 7},
+        {Level.OBJECT_CORN_BUNDLE, 1, 14},
+        {Level.OBJECT_CORN_BUNDLE, 18, 7}
+    };
+    private static final int[][] DEFAULT_ENTITIES = {
+        {Level.ENTITY_FARMER, 9, 7},
+        {Level.ENTITY_ALIEN, 1, 1},
+        {Level.ENTITY_ALIEN_MANHATTAN, 15, 5}
+    };
     
     /**
      * REFACTORED: Build map layout with improved structure
@@ -287,6 +317,28 @@ public class MapLoader {
         return col >= 0 && col < MAP_COLS && row >= 0 && row < MAP_ROWS;
     }
     
+    /**
+     * Write the default layout and spawns as a level file (the file shipped as Level.DEFAULT_RESOURCE).
+     * @param out stream to write to (not closed)
+     * @throws IOException if writing fails
+     */
+    public static void writeDefaultLevel(OutputStream out) throws IOException {
+        Level.write(out, getMapLayout(), DEFAULT_OBJECTS, DEFAULT_ENTITIES);
+    }
+
+    /**
+     * Regenerate the default level file after changing the layout or spawns here.
+     * @param args path to write, src/main/resources/maps/default.mrl if omitted
+     * @throws IOException if writing fails
+     */
+    public static void main(String[] args) throws IOException {
+        Path file = Paths.get(args.length > 0 ? args[0] : "src/main/resources" + Level.DEFAULT_RESOURCE);
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            writeDefaultLevel(out);
+        }
+    }
+
     /**
      * Convert map value to a CellFill
      * 
@@ -0,0 +1,93 @@
+package maisraiders.metrics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import maisraiders.entities.AStar;
+import maisraiders.object.GameObject;
+import maisraiders.sound.SoundMixer;
+import maisraiders.util.LatencyHistogram;
+
+/**
+ * Operational metrics for the game loops running in this process, read by MetricsServer.
+ * Shared by every loop, so a headless run that plays match after match (or several matches at
+ * once) reports one set of totals. Loops feed it through their own TickRecorder, which keeps
+ * the per-loop state; everything here is safe to update from several game threads.
+ */
+public class GameMetrics {
+    private static final GameMetrics shared = new GameMetrics();
+
+    private final MetricsRegistry registry = new MetricsRegistry();
+    private final LatencyHistogram tickDuration = new LatencyHistogram();
+    private final LatencyHistogram tickLag = new LatencyHistogram();
+    // objects of the loop that ticked last
+    private volatile GameObject objects;
+
+    /**
+     * GameMetrics constructor: registers the game's metrics.
+     */
+    public GameMetrics() {
+        registry.summary("maisraiders_tick_duration_seconds", "Time spent in one logic tick.", tickDuration);
+        registry.summary("maisraiders_tick_lag_seconds", "How late ticks started against the fixed-step schedule.",
+                tickLag);
+        registry.counter("maisraiders_path_searches_total", "A* searches finished.", AStar::getTotalSearches);
+        registry.counter("maisraiders_path_nodes_expanded_total", "A* nodes expanded.", AStar::getTotalExpanded);
+        registry.gauge("maisraiders_sound_voices_active", "Sound mixer voices playing.",
+                () -> SoundMixer.shared().getActiveVoices());
+        registry.gauge("maisraiders_objects", "Live game objects by type.", "type", this::countObjects);
+    }
+
+    /**
+     * Get the metrics every game loop feeds.
+     * @return shared metrics
+     */
+    public static GameMetrics shared() {
+        return shared;
+    }
+
+    /**
+     * Get the registry to scrape.
+     * @return metrics registry
+     */
+    public MetricsRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Record how late a tick started.
+     * @param nanos time since the tick was due
+     */
+    void recordLag(long nanos) {
+        tickLag.record(nanos);
+    }
+
+    /**
+     * Record a finished tick.
+     * @param nanos time the tick took
+     * @param liveObjects the loop's objects
+     */
+    void recordTick(long nanos, GameObject liveObjects) {
+        tickDuration.record(nanos);
+        objects = liveObjects;
+    }
+
+    /**
+     * Get the timings of every tick recorded so far.
+     * @return tick duration histogram
+     */
+    public LatencyHistogram getTickDuration() {
+        return tickDuration;
+    }
+
+    private Map<String, Integer> countObjects() {
+        Map<String, Integer> counts = new TreeMap<>();
+        GameObject source = objects;
+        if (source == null) return counts;
+        List<GameObject> instances = source.getInstances();
+        for (GameObject object : instances) {
+            counts.merge(object.getClass().getSimpleName(), 1, Integer::sum);
+        }
+        return counts;
+    }
+}
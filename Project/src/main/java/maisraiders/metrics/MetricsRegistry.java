@@ -0,0 +1,112 @@
+package maisraiders.metrics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import maisraiders.util.LatencyHistogram;
+
+/**
+ * Named metrics read on demand and written in the Prometheus text exposition format.
+ * A metric is registered with a function reading its current value, so nothing is stored
+ * here and scraping never touches the game thread's data structures beyond those reads.
+ */
+public class MetricsRegistry {
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    private final List<Metric> metrics = new CopyOnWriteArrayList<>();
+
+    /**
+     * One metric family.
+     */
+    private interface Metric {
+        void write(StringBuilder out);
+    }
+
+    /**
+     * Add a counter (a total that only goes up).
+     * @param name metric name, ending in _total
+     * @param help one-line description
+     * @param value reads the current total
+     */
+    public void counter(String name, String help, LongSupplier value) {
+        metrics.add(out -> {
+            header(out, name, help, "counter");
+            out.append(name).append(' ').append(value.getAsLong()).append('\n');
+        });
+    }
+
+    /**
+     * Add a gauge (a value that goes up and down).
+     * @param name metric name
+     * @param help one-line description
+     * @param value reads the current value
+     */
+    public void gauge(String name, String help, DoubleSupplier value) {
+        metrics.add(out -> {
+            header(out, name, help, "gauge");
+            out.append(name).append(' ').append(value.getAsDouble()).append('\n');
+        });
+    }
+
+    /**
+     * Add a gauge with one sample per value of a label.
+     * @param name metric name
+     * @param help one-line description
+     * @param label label name
+     * @param values reads the current value for each label value
+     */
+    public void gauge(String name, String help, String label, Supplier<Map<String, ? extends Number>> values) {
+        metrics.add(out -> {
+            header(out, name, help, "gauge");
+            for (Map.Entry<String, ? extends Number> entry : values.get().entrySet()) {
+                out.append(name).append('{').append(label).append("=\"").append(escape(entry.getKey()))
+                        .append("\"} ").append(entry.getValue().doubleValue()).append('\n');
+            }
+        });
+    }
+
+    /**
+     * Add a summary of nanosecond timings, exported in seconds with its 50th, 90th and 99th
+     * percentiles.
+     * @param name metric name, ending in _seconds
+     * @param help one-line description
+     * @param histogram timings since start-up
+     */
+    public void summary(String name, String help, LatencyHistogram histogram) {
+        metrics.add(out -> {
+            header(out, name, help, "summary");
+            for (double quantile : QUANTILES) {
+                out.append(name).append("{quantile=\"").append(quantile).append("\"} ")
+                        .append(histogram.getValueAtPercentile(quantile * 100) / NANOS_PER_SECOND).append('\n');
+            }
+            out.append(name).append("_sum ").append(histogram.getSum() / NANOS_PER_SECOND).append('\n');
+            out.append(name).append("_count ").append(histogram.getCount()).append('\n');
+        });
+    }
+
+    /**
+     * Write every metric in registration order.
+     * @return metrics in the Prometheus text format
+     */
+    public String scrape() {
+        StringBuilder out = new StringBuilder(1024);
+        for (Metric metric : metrics) {
+            metric.write(out);
+        }
+        return out.toString();
+    }
+
+    private static void header(StringBuilder out, String name, String help, String type) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static String escape(String labelValue) {
+        return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,90 @@
+package maisraiders.metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Serves a metrics registry at /metrics on the loopback interface, in the Prometheus text
+ * format, from one daemon thread. Meant for headless game servers; start it by setting the
+ * maisraiders.metricsPort property.
+ */
+public class MetricsServer {
+    /** Property naming the port to serve metrics on. */
+    public static final String PORT_PROPERTY = "maisraiders.metricsPort";
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * MetricsServer constructor: binds and starts serving.
+     * @param port local port, 0 for any free one
+     * @param registry metrics to serve
+     * @throws IOException if the port can't be bound
+     */
+    public MetricsServer(int port, MetricsRegistry registry) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/metrics", exchange -> respond(exchange, registry));
+        executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Serve the shared game metrics if the maisraiders.metricsPort property is set.
+     * @return running server, or null if the property is unset or the port can't be used
+     */
+    public static MetricsServer startFromProperty() {
+        String port = System.getProperty(PORT_PROPERTY);
+        if (port == null) return null;
+        try {
+            return new MetricsServer(Integer.parseInt(port.trim()), GameMetrics.shared().getRegistry());
+        } catch (IOException | NumberFormatException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private static void respond(HttpExchange exchange, MetricsRegistry registry) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = registry.scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    /**
+     * Get the port being served.
+     * @return local port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stop serving.
+     */
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
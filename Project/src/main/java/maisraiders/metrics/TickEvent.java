@@ -0,0 +1,42 @@
+package maisraiders.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for one game tick, spanning the tick's logic. Costs next to nothing unless a
+ * recording has it enabled, e.g. java -XX:StartFlightRecording or jcmd JFR.start.
+ */
+@Name("maisraiders.Tick")
+@Label("Game Tick")
+@Category("Mais Raiders")
+@Description("One fixed-step logic tick")
+@StackTrace(false)
+public class TickEvent extends Event {
+    @Label("Tick")
+    long tick;
+
+    @Label("Lag")
+    @Description("How late the tick started against the fixed-step schedule")
+    @Timespan(Timespan.NANOSECONDS)
+    long lag;
+
+    @Label("Path Searches")
+    @Description("A* searches finished since the previous tick")
+    long pathSearches;
+
+    @Label("Nodes Expanded")
+    @Description("A* nodes expanded since the previous tick")
+    long nodesExpanded;
+
+    @Label("Active Voices")
+    int activeVoices;
+
+    @Label("Objects")
+    int objects;
+}
@@ -0,0 +1,81 @@
+package maisraiders.metrics;
+
+import jdk.jfr.EventType;
+
+import maisraiders.entities.AStar;
+import maisraiders.object.GameObject;
+import maisraiders.sound.SoundMixer;
+
+/**
+ * One game loop's feed into the shared GameMetrics and its per-tick JFR events. Holds the state
+ * that belongs to a single loop (the lag of the tick about to run, the search totals seen at the
+ * previous tick), so loops running side by side don't disturb each other. Used only by the
+ * loop's own thread.
+ *
+ * A* totals are process-wide, so with several loops running at once an event's search and
+ * expansion counts include the other loops' searches over the same tick.
+ */
+public class TickRecorder {
+    private static final EventType TICK_EVENT = EventType.getEventType(TickEvent.class);
+
+    private final GameMetrics metrics;
+    private long pendingLag = 0;
+    private long lastSearches = AStar.getTotalSearches();
+    private long lastExpanded = AStar.getTotalExpanded();
+
+    /**
+     * TickRecorder constructor.
+     * @param metrics metrics shared by every loop
+     */
+    public TickRecorder(GameMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Note how late the next tick starts (only ticks run on the real-time schedule have one).
+     * @param nanos time since the tick was due
+     */
+    public void recordLag(long nanos) {
+        pendingLag = Math.max(0, nanos);
+        metrics.recordLag(pendingLag);
+    }
+
+    /**
+     * Begin the JFR event for a tick, if a recording has tick events enabled.
+     * @return begun event, or null (and nothing allocated) when no recording wants it
+     */
+    public TickEvent beginTick() {
+        if (!TICK_EVENT.isEnabled()) return null;
+        TickEvent event = new TickEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Record a finished tick and commit its JFR event if a recording wants it.
+     * @param nanos time the tick took
+     * @param tick game tick number
+     * @param liveObjects the loop's objects
+     * @param event event from beginTick(), or null if it returned none
+     */
+    public void recordTick(long nanos, long tick, GameObject liveObjects, TickEvent event) {
+        metrics.recordTick(nanos, liveObjects);
+        long searches = AStar.getTotalSearches();
+        long expanded = AStar.getTotalExpanded();
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.tick = tick;
+                event.lag = pendingLag;
+                event.pathSearches = searches - lastSearches;
+                event.nodesExpanded = expanded - lastExpanded;
+                event.activeVoices = SoundMixer.shared().getActiveVoices();
+                event.objects = liveObjects.getInstances().size();
+                event.commit();
+            }
+        }
+        lastSearches = searches;
+        lastExpanded = expanded;
+        pendingLag = 0;
+    }
+}
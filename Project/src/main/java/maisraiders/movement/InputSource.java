@@ -0,0 +1,38 @@
+package maisraiders.movement;
+
+/**
+ * Source of the player's directional input. KeyHandler reads it from the keyboard;
+ * headless runs plug in scripted or simulated input instead.
+ */
+public interface InputSource {
+
+    /**
+     * Called once at the start of every game tick, before the flags are read.
+     * @param tick current game tick
+     */
+    default void poll(long tick) { }
+
+    /**
+     * Check if up is held.
+     * @return true if up is held
+     */
+    boolean isUpPressed();
+
+    /**
+     * Check if down is held.
+     * @return true if down is held
+     */
+    boolean isDownPressed();
+
+    /**
+     * Check if left is held.
+     * @return true if left is held
+     */
+    boolean isLeftPressed();
+
+    /**
+     * Check if right is held.
+     * @return true if right is held
+     */
+    boolean isRightPressed();
+}
@@ -10,7 +10,7 @@ import java.awt.event.KeyListener;
 /**
  * Implements KeyListener to get player inputs for movement
  */
-public class KeyHandler implements KeyListener {
+public class KeyHandler implements KeyListener, InputSource {
     Game game;
     GameLoop gl;
     public boolean upPressed, downPressed, leftPressed, rightPressed;
@@ -74,6 +74,9 @@ public class KeyHandler implements KeyListener {
                     game.setGameState(GameState.PAUSE);
                 }
             }
+            if (code == KeyEvent.VK_F3) {
+                gl.toggleProfilerOverlay();
+            }
         }
         //PAUSE STATE
         if (game.getGameState() == GameState.PAUSE){
@@ -126,6 +129,8 @@ public class KeyHandler implements KeyListener {
                 }
             }
         }
+        // menus park the game thread, let it react to this key
+        gl.wake();
     }
 
     /**
@@ -149,6 +154,18 @@ public class KeyHandler implements KeyListener {
         }
     }
 
+    @Override
+    public boolean isUpPressed() { return upPressed; }
+
+    @Override
+    public boolean isDownPressed() { return downPressed; }
+
+    @Override
+    public boolean isLeftPressed() { return leftPressed; }
+
+    @Override
+    public boolean isRightPressed() { return rightPressed; }
+
     /**
      * TEST HOOK to return ui state
      * @return gl.ui.commandNum (cursor position)
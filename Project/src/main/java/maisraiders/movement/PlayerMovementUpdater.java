@@ -12,34 +12,34 @@ public class PlayerMovementUpdater {
     private int moveY;
 
     /**
-     * Reads KeyHandler flags and moves the farmer based on said flag.
-     * @param keyH current keyboard flags
+     * Reads input flags and moves the farmer based on said flag.
+     * @param keyH current input flags (keyboard or scripted)
      * @param gameFarmer The farmer
      * @param gameBoard Game board for collision handling
      */
-    public void updatePlayerMovement(KeyHandler keyH, Farmer gameFarmer, Board gameBoard){
+    public void updatePlayerMovement(InputSource keyH, Farmer gameFarmer, Board gameBoard){
         moveX = 0;
         moveY = 0;
         // top left corner is (0,0)
         // X values increase to the right, Y values increase downwards
         //      ^ This is brain-breaking - Will
 
-        if(keyH.upPressed) {
+        if(keyH.isUpPressed()) {
             moveY--;
             gameFarmer.direction = "up";
             gameFarmer.spriteCounter++;
         }
-        if(keyH.downPressed) {
+        if(keyH.isDownPressed()) {
             moveY++;
             gameFarmer.direction = "down";
             gameFarmer.spriteCounter++;
         }
-        if(keyH.leftPressed) {
+        if(keyH.isLeftPressed()) {
             moveX--;
             gameFarmer.direction = "left";
             gameFarmer.spriteCounter++;
         }
-        if(keyH.rightPressed) {
+        if(keyH.isRightPressed()) {
             moveX++;
             gameFarmer.direction = "right";
             gameFarmer.spriteCounter++;
@@ -47,16 +47,16 @@ public class PlayerMovementUpdater {
 
         if ((moveX != 0) || (moveY != 0)) {
             if ((moveX != 0) && (moveY != 0)) {
-                if (moveX + moveY > 0) { gameFarmer.move(Direction.SE, gameBoard.getNeighbours(gameFarmer.getPosition())); }
-                else if (moveX + moveY < 0) { gameFarmer.move(Direction.NW, gameBoard.getNeighbours(gameFarmer.getPosition())); }
-                else if (moveX > 0) { gameFarmer.move(Direction.NE, gameBoard.getNeighbours(gameFarmer.getPosition())); }
-                else { gameFarmer.move(Direction.SW, gameBoard.getNeighbours(gameFarmer.getPosition())); }
+                if (moveX + moveY > 0) { gameFarmer.move(Direction.SE, gameBoard); }
+                else if (moveX + moveY < 0) { gameFarmer.move(Direction.NW, gameBoard); }
+                else if (moveX > 0) { gameFarmer.move(Direction.NE, gameBoard); }
+                else { gameFarmer.move(Direction.SW, gameBoard); }
             }
             else {
-                if (moveY < 0) { gameFarmer.move(Direction.N, gameBoard.getNeighbours(gameFarmer.getPosition())); }
-                else if (moveY > 0) { gameFarmer.move(Direction.S, gameBoard.getNeighbours(gameFarmer.getPosition())); }
-                else if (moveX > 0) { gameFarmer.move(Direction.E, gameBoard.getNeighbours(gameFarmer.getPosition())); }
-                else { gameFarmer.move(Direction.W, gameBoard.getNeighbours(gameFarmer.getPosition())); }
+                if (moveY < 0) { gameFarmer.move(Direction.N, gameBoard); }
+                else if (moveY > 0) { gameFarmer.move(Direction.S, gameBoard); }
+                else if (moveX > 0) { gameFarmer.move(Direction.E, gameBoard); }
+                else { gameFarmer.move(Direction.W, gameBoard); }
             }
         }
     }
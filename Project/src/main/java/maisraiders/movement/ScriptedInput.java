@@ -0,0 +1,72 @@
+package maisraiders.movement;
+
+import java.util.function.LongFunction;
+
+import maisraiders.enums.Direction;
+
+/**
+ * Input source without a keyboard, for headless runs. The held direction is either set directly
+ * or asked from a script once per tick.
+ */
+public class ScriptedInput implements InputSource {
+    private final LongFunction<Direction> script;
+    private Direction held = Direction.NONE;
+
+    /**
+     * ScriptedInput constructor for input that is set by hand with setDirection().
+     */
+    public ScriptedInput() {
+        this(null);
+    }
+
+    /**
+     * ScriptedInput constructor.
+     * @param script gives the direction to hold for each tick (null to set it by hand)
+     */
+    public ScriptedInput(LongFunction<Direction> script) {
+        this.script = script;
+    }
+
+    @Override
+    public void poll(long tick) {
+        if (script != null) {
+            setDirection(script.apply(tick));
+        }
+    }
+
+    /**
+     * Hold the keys for a direction (diagonals hold two keys), NONE releases everything.
+     * @param direction direction to hold
+     */
+    public void setDirection(Direction direction) {
+        held = direction == null ? Direction.NONE : direction;
+    }
+
+    /**
+     * Get the direction currently held.
+     * @return held direction
+     */
+    public Direction getDirection() {
+        return held;
+    }
+
+    @Override
+    public boolean isUpPressed() {
+        return held.getRowStep() < 0;
+    }
+
+    @Override
+    public boolean isDownPressed() {
+        return held.getRowStep() > 0;
+    }
+
+    @Override
+    public boolean isLeftPressed() {
+        return held.getColStep() < 0;
+    }
+
+    @Override
+    public boolean isRightPressed() {
+        return held.getColStep() > 0;
+    }
+}
@@ -1,10 +1,12 @@
 package maisraiders.object;
 
 import java.awt.Point;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 
 import maisraiders.entities.Farmer;
+import maisraiders.map.Level;
 import maisraiders.panel.Game;
 import maisraiders.panel.GameLoop;
 import maisraiders.ui.Ui;
@@ -15,9 +17,12 @@ import maisraiders.ui.Ui;
 public class AssetSetter {
     GameLoop gl;
     List<GameObject> objects;
-    private CornBundle cornbund1;
-    private CornBundle cornbund2;
-    // integers for random corn spawning
+    // reused every tick for the objects near the farmer
+    private final List<GameObject> nearby = new ArrayList<>();
+    // bonus bundles on the board, and the tiles the level lets them spawn on
+    private final List<CornBundle> bundles = new ArrayList<>();
+    private final List<Point> bundleSpawns = new ArrayList<>();
+    // game ticks for random corn spawning
     private long spawnTime = -1;
     private long removeTime = -1;
     private boolean cornSpawned = false;
@@ -32,64 +37,71 @@ public class AssetSetter {
     }
 
     /**
-     * Initialize + add objects to game.
+     * Initialize + add the level's objects to game; every regular corn placed has to be
+     * collected before the exit counts.
      */
     public void setObject() {
-        // screen size is 16 rows x 20 cols ( x <= 20, y <= 16)
-        Corn corn1 = new Corn(new Point(3*gl.tileSize,5*gl.tileSize));
-        Corn corn2 = new Corn(new Point(6*gl.tileSize,1*gl.tileSize));
-        Corn corn3 = new Corn(new Point(10*gl.tileSize,2*gl.tileSize));
-        Corn corn4 = new Corn(new Point(8*gl.tileSize,12*gl.tileSize));
-        Corn corn5 = new Corn(new Point(12*gl.tileSize,10*gl.tileSize));
-        Corn corn6 = new Corn(new Point(14*gl.tileSize,4*gl.tileSize));
-        Corn corn7 = new Corn(new Point(5*gl.tileSize,8*gl.tileSize));
-        Corn corn8 = new Corn(new Point(2*gl.tileSize,9*gl.tileSize));
-        Pitchfork pitchfork = new Pitchfork(new Point(16*gl.tileSize,12*gl.tileSize));
-        MudTrap trap1 = new MudTrap(new Point(7*gl.tileSize,5*gl.tileSize));
-        MudTrap trap2 = new MudTrap(new Point(4*gl.tileSize,10*gl.tileSize));
-        MudTrap trap3 = new MudTrap(new Point(16*gl.tileSize,7*gl.tileSize));
-
-        gl.objects.addObject(corn1);
-        gl.objects.addObject(corn2);
-        gl.objects.addObject(corn3);
-        gl.objects.addObject(corn4);
-        gl.objects.addObject(corn5);
-        gl.objects.addObject(corn6);
-        gl.objects.addObject(corn7);
-        gl.objects.addObject(corn8);
-        gl.objects.addObject(pitchfork);
-        gl.objects.addObject(trap1);
-        gl.objects.addObject(trap2);
-        gl.objects.addObject(trap3);
+        Level level = gl.getLevel();
+        bundleSpawns.clear();
+        int corn = 0;
+        for (int i = 0; i < level.getObjectCount(); i++) {
+            maisraiders.util.Point tile = level.getObjectPosition(i);
+            Point at = new Point(tile.getCol() * gl.tileSize, tile.getRow() * gl.tileSize);
+            switch (level.getObjectKind(i)) {
+                case Level.OBJECT_CORN -> {
+                    gl.objects.addObject(new Corn(at));
+                    corn++;
+                }
+                case Level.OBJECT_PITCHFORK -> gl.objects.addObject(new Pitchfork(at));
+                case Level.OBJECT_MUD_TRAP -> gl.objects.addObject(new MudTrap(at));
+                case Level.OBJECT_CORN_BUNDLE -> bundleSpawns.add(at);
+                default -> { } // kinds this version doesn't know are skipped
+            }
+        }
+        Game game = gl.getGame();
+        if (game != null) {
+            game.setRequiredRegular(corn);
+        }
     }
     /**
-     * A method that spawns in the bundles corn that disappear
+     * Seed the random spawn timings, so a match can be replayed exactly.
+     * @param seed seed for the spawn timer
      */
-    public void setDisappearingReward(Ui ui) {
-        long currentTime = System.currentTimeMillis();
+    public void setSeed(long seed) {
+        rand.setSeed(seed);
+    }
 
+    /**
+     * A method that spawns in the bundles corn that disappear
+     * @param ui The game UI
+     * @param currentTime current game tick
+     */
+    public void setDisappearingReward(Ui ui, long currentTime) {
         // between 6 and 11 seconds of this function being called spawn corn
         if (spawnTime == -1) {
             int spawnDelay = 6 + rand.nextInt(6);
-            spawnTime = currentTime + spawnDelay * 1000L; // convert to ms
+            spawnTime = currentTime + spawnDelay * (long) GameLoop.TICKS_PER_SECOND; // convert to ticks
         }
         // Check if it's time to spawn the corn
         if (!cornSpawned && currentTime >= spawnTime) {
-            ui.showMessage("A Special Bonus Rewards has spawned!");
-            cornbund1 = new CornBundle(new Point(1 * gl.tileSize, 14 * gl.tileSize));
-            cornbund2 = new CornBundle(new Point(18 * gl.tileSize, 7 * gl.tileSize));
-            gl.objects.addObject(cornbund1);
-            gl.objects.addObject(cornbund2);
+            if (ui != null) ui.showMessage("A Special Bonus Rewards has spawned!");
+            bundles.clear();
+            for (Point at : bundleSpawns) {
+                CornBundle bundle = new CornBundle(new Point(at));
+                bundles.add(bundle);
+                gl.objects.addObject(bundle);
+            }
             cornSpawned = true;
 
             // Schedule removal
             int removeDelay = 7 + rand.nextInt(6);
-            removeTime = currentTime + removeDelay * 1000L;
+            removeTime = currentTime + removeDelay * (long) GameLoop.TICKS_PER_SECOND;
         }
             // Check if it's time to remove the corn
             if (cornSpawned && currentTime >= removeTime) {
-                gl.objects.removeObject(cornbund1);
-                gl.objects.removeObject(cornbund2);
+                for (CornBundle bundle : bundles) {
+                    gl.objects.removeObject(bundle);
+                }
                 //cornSpawned = false;
 
                 // Reset times so this can happen again if desired
@@ -99,26 +111,24 @@ public class AssetSetter {
     }
 
     /**
-     * Update every object once every tick
+     * Update the objects near the farmer once every tick (objects further away can't be touched)
      * @param farmer The player
      * @param game The game state
      * @param ui The game UI
      */
     public void updateObjects(Farmer farmer, Game game, Ui ui) {
         boolean onMud = false;
-        objects = gl.objects.getInstances();
-        if (objects != null) {
-            for (GameObject object : objects) {
-                object.updateObject(farmer, game, ui);
+        gl.objects.getObjectsNear(farmer.getSubPositionX(), farmer.getSubPositionY(), nearby);
+        for (GameObject object : nearby) {
+            object.updateObject(farmer, game, ui);
 
-                if(object instanceof MudTrap && object.isTriggered){
-                    onMud = true;
-                }
-            }
-            if(!onMud){
-                farmer.resetMoveSpeed();
+            if(object instanceof MudTrap && object.isTriggered){
+                onMud = true;
             }
         }
+        if(!onMud){
+            farmer.resetMoveSpeed();
+        }
     }
 
     /**
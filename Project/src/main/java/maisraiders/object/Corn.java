@@ -5,9 +5,6 @@ import maisraiders.panel.Game;
 import maisraiders.ui.Ui;
 
 import java.awt.Point;
-import java.io.IOException;
-
-import javax.imageio.ImageIO;
 
 /**
  * Collectible corn object.
@@ -20,11 +17,7 @@ public class Corn extends GameObject {
     public Corn(Point point) {
         this.setPosition(point);
         this.setSubPosition(point);
-        try { // get image
-            image = ImageIO.read(getClass().getResourceAsStream("/objects/corn3.png"));
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        imagePath = "/objects/corn3.png";
     }
     /**
      * checks if the player had collided with the corn object
@@ -53,8 +46,8 @@ public class Corn extends GameObject {
                     gl.sound.playSE(1);
                 }
                 this.removeObject(this);
-                ui.showMessage("you collected a corn!");
-                if (game.getCollectedRegular() == game.getRequiredRegular()) {
+                if (ui != null) ui.showMessage("you collected a corn!");
+                if (ui != null && game.getCollectedRegular() == game.getRequiredRegular()) {
                     ui.showMessage("Enough corn collected, find the Exit!");
                 }
         }
@@ -5,9 +5,6 @@ import maisraiders.panel.Game;
 import maisraiders.ui.Ui;
 
 import java.awt.Point;
-import java.io.IOException;
-
-import javax.imageio.ImageIO;
 
 /**
  * Collectible corn object.
@@ -20,11 +17,7 @@ public class CornBundle extends GameObject {
     public CornBundle(Point point) {
         this.setPosition(point);
         this.setSubPosition(point);
-        try { // get image
-            image = ImageIO.read(getClass().getResourceAsStream("/objects/rainbowcorn.png"));
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        imagePath = "/objects/rainbowcorn.png";
     }
     /**
      * checks if the player had collided with the  rainbow corn object
@@ -52,7 +45,7 @@ public class CornBundle extends GameObject {
                     gl.sound.playSE(1);
                 }
                 this.removeObject(this);
-                ui.showMessage("you collected a special corn!");
+                if (ui != null) ui.showMessage("you collected a special corn!");
             }
     }
 }
@@ -9,7 +9,9 @@ import java.util.concurrent.CopyOnWriteArrayList;
 import maisraiders.entities.Farmer;
 import maisraiders.panel.Game;
 import maisraiders.panel.GameLoop;
+import maisraiders.ui.SpriteAtlas;
 import maisraiders.ui.Ui;
+import maisraiders.util.SpatialHash;
 
 
 /**
@@ -20,7 +22,15 @@ public class GameObject {
     private Point position;
     private Point subPosition;
     private static final CopyOnWriteArrayList<GameObject> objectInstances = new CopyOnWriteArrayList<>();
-    public BufferedImage image;
+    // on the loop's holder: its objects bucketed by tile, so pickups near the farmer and the
+    // objects in view can be found without scanning them all (created on first use, one per
+    // holder, never shared between loops; locked on the holder, since the renderer reads it too)
+    private SpatialHash<GameObject> objectIndex;
+    // holder this object was added to, whose index it sits in
+    private GameObject owner;
+    // atlas sprite drawn for this object, fetched on first draw so headless matches never build the atlas
+    protected String imagePath;
+    private BufferedImage image;
     public boolean isCollected = false;
     public boolean isTriggered = false;
     GameLoop gl;
@@ -34,7 +44,18 @@ public class GameObject {
         this.gl = gl;
         // FIXED: Draw at actual position without incorrect offsets
         // Objects are positioned in pixels already from AssetSetter
-        g2.drawImage(image, position.x, position.y, gl.tileSize, gl.tileSize, null);
+        SpriteAtlas.draw(g2, getImage(), position.x, position.y, gl.tileSize, gl.tileSize);
+    }
+
+    /**
+     * Get the object's sprite, fetching it from the atlas the first time.
+     * @return sprite, or null for an object without one
+     */
+    public BufferedImage getImage() {
+        if (image == null && imagePath != null) {
+            image = SpriteAtlas.shared().get(imagePath);
+        }
+        return image;
     }
     
     /**
@@ -51,6 +72,10 @@ public class GameObject {
      */
     public void addObject(GameObject object) {
         objectInstances.add(object);
+        object.owner = this;
+        synchronized (this) {
+            index().put(object, object.getSubPosition().x, object.getSubPosition().y);
+        }
     }
 
     /**
@@ -59,6 +84,45 @@ public class GameObject {
      */
     public void removeObject( GameObject object) {
         objectInstances.remove(object);
+        // objects remove themselves, so go through the holder they were added to
+        GameObject holder = object.owner != null ? object.owner : this;
+        synchronized (holder) {
+            holder.index().remove(object);
+        }
+        object.owner = null;
+    }
+
+    /**
+     * Collect the live objects within about one tile of a pixel position
+     * (every object's pickup/trigger range is smaller than that).
+     * @param x pixel X position
+     * @param y pixel Y position
+     * @param out list to fill (cleared first)
+     * @return out
+     */
+    public synchronized List<GameObject> getObjectsNear(int x, int y, List<GameObject> out) {
+        return index().queryNear(x, y, out);
+    }
+
+    /**
+     * Collect the live objects whose center lies in a pixel rectangle (give or take a tile).
+     * @param minX left pixel X
+     * @param minY top pixel Y
+     * @param maxX right pixel X
+     * @param maxY bottom pixel Y
+     * @param out list to fill (cleared first)
+     * @return out
+     */
+    public synchronized List<GameObject> getObjectsIn(int minX, int minY, int maxX, int maxY,
+            List<GameObject> out) {
+        return index().queryRect(minX, minY, maxX, maxY, out);
+    }
+
+    private synchronized SpatialHash<GameObject> index() {
+        if (objectIndex == null) {
+            objectIndex = new SpatialHash<>(64, 512);
+        }
+        return objectIndex;
     }
 
     /**
@@ -5,9 +5,6 @@ import maisraiders.panel.Game;
 import maisraiders.ui.Ui;
 
 import java.awt.Point;
-import java.io.IOException;
-
-import javax.imageio.ImageIO;
 
 public class MudTrap extends GameObject{
     
@@ -17,11 +14,7 @@ public class MudTrap extends GameObject{
     public MudTrap(Point point) {
         this.setPosition(point);
         this.setSubPosition(point);
-        try { // draw image
-            image = ImageIO.read(getClass().getResourceAsStream("/traps/mudtrap.png"));
-        }catch(IOException e){
-            e.printStackTrace();
-        }
+        imagePath = "/traps/mudtrap.png";
     }
 
     /**
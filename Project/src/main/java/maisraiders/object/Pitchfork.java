@@ -5,9 +5,6 @@ import maisraiders.panel.Game;
 import maisraiders.ui.Ui;
 
 import java.awt.Point;
-import java.io.IOException;
-
-import javax.imageio.ImageIO;
 
 public class Pitchfork extends GameObject{
 
@@ -17,11 +14,7 @@ public class Pitchfork extends GameObject{
     public Pitchfork(Point point) {
         this.setPosition(point);
         this.setSubPosition(point);
-        try { // draw image
-            image = ImageIO.read(getClass().getResourceAsStream("/objects/pitchfork2.png"));
-        }catch(IOException e){
-            e.printStackTrace();
-        }
+        imagePath = "/objects/pitchfork2.png";
     }
 
     /**
@@ -50,7 +43,7 @@ public class Pitchfork extends GameObject{
                    gl.sound.playSE(8);
                }
                 farmer.updatePitchfork(true);
-                ui.showMessage("You collected the pitchfork!");
+                if (ui != null) ui.showMessage("You collected the pitchfork!");
             }
 
     }
@@ -1,14 +1,45 @@
 package maisraiders.panel;
 
+import java.util.function.IntBinaryOperator;
+
 import maisraiders.enums.CellFill;
+import maisraiders.enums.Direction;
+import maisraiders.map.Level;
 import maisraiders.map.MapLoader;
 import maisraiders.util.Point;
 
-public class Board {
+/**
+ * The level's tiles, kept in chunks of one byte per tile, plus the walkability bitset and 8-way
+ * neighbour masks the path planners read.
+ */
+public final class Board {
+    /** Tiles are stored in square chunks of CHUNK_SIZE x CHUNK_SIZE. */
+    public static final int CHUNK_SHIFT = 5;
+    public static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final CellFill[] FILLS = CellFill.values();
+
     private final int rows;
     private final int cols;
+    private final int chunkCols;
+    private final int chunkRows;
 
-    private final Cell[][] grid;
+    // one CellFill ordinal per tile, chunk index = chunkRow * chunkCols + chunkCol,
+    // tile within a chunk = (row % CHUNK_SIZE) * CHUNK_SIZE + col % CHUNK_SIZE
+    private final byte[][] chunks;
+    // bumped when a tile in the chunk changes, so cached chunk images know they are stale
+    private final int[] chunkVersions;
+    // Cells handed out by getCell, per chunk, built on first request and dropped when the tile changes
+    private final Cell[][] chunkCells;
+
+    // Index-based walkability, cell index = row * cols + col.
+    // bit i of blockedBits is set when cell i is blocked (same rule as Cell.isBlocked())
+    private long[] blockedBits;
+    // bit d is set when the neighbour in Direction.values()[d] is on the board and walkable
+    private byte[] neighbourMasks;
+    private int[] neighbourOffsets;
+    // bumped on every cell change so planners can tell their cached state is stale
+    private int version = 0;
 
     /**
      * Board constructor.
@@ -16,20 +47,46 @@ public class Board {
      * @param startRows # of rows
      */
     public Board(int startCols, int startRows){
+        // Get the map layout from MapLoader
+        this(MapLoader.getMapLayout(), startCols, startRows);
+    }
+
+    /**
+     * Board constructor for a layout other than the stock map.
+     * @param mapLayout map values indexed [col][row], as returned by MapLoader.getMapLayout()
+     */
+    public Board(int[][] mapLayout) {
+        this(mapLayout, mapLayout.length, mapLayout[0].length);
+    }
+
+    /**
+     * Board constructor for a level file, at whatever size the level is.
+     * @param level loaded level
+     */
+    public Board(Level level) {
+        this(level::getTile, level.getCols(), level.getRows());
+    }
+
+    private Board(int[][] mapLayout, int startCols, int startRows) {
+        this((c, r) -> mapLayout[c][r], startCols, startRows);
+    }
+
+    private Board(IntBinaryOperator mapValue, int startCols, int startRows) {
         this.rows = startRows;
         this.cols = startCols;
-        
-        // Create a Matrix of Cells using the MapLoader
-        this.grid = new Cell[this.cols][this.rows];
-        
-        // Get the map layout from MapLoader
-        int[][] mapLayout = MapLoader.getMapLayout();
+        this.chunkCols = (cols + CHUNK_MASK) >> CHUNK_SHIFT;
+        this.chunkRows = (rows + CHUNK_MASK) >> CHUNK_SHIFT;
+
+        // Store the map layout as tile ids, one small array per chunk
+        this.chunks = new byte[chunkCols * chunkRows][CHUNK_SIZE * CHUNK_SIZE];
+        this.chunkVersions = new int[chunks.length];
+        this.chunkCells = new Cell[chunks.length][];
 
         for (int c = 0; c < cols; c++){
             for (int r = 0; r < rows; r++){
                 // Get the cell fill type from the map
-                CellFill fillType = MapLoader.getCellFillFromMapValue(mapLayout[c][r]);
-                this.grid[c][r] = new Cell(new Point(c, r), fillType);
+                CellFill fillType = MapLoader.getCellFillFromMapValue(mapValue.applyAsInt(c, r));
+                chunks[chunkIndex(c, r)][tileInChunk(c, r)] = (byte) fillType.ordinal();
                 
                 // Optional: Print barrier locations for debugging
                 /*if (fillType == CellFill.BARRIER) {
@@ -39,6 +96,145 @@ public class Board {
                 }*/
             }
         }
+        buildWalkability();
+    }
+
+    /**
+     * Pack walkability into a bitset and precompute 8-way neighbour masks.
+     */
+    private void buildWalkability() {
+        int size = cols * rows;
+        blockedBits = new long[(size + 63) >>> 6];
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                if (Cell.isBlocked(getCellFill(c, r))) {
+                    int idx = r * cols + c;
+                    blockedBits[idx >>> 6] |= 1L << idx;
+                }
+            }
+        }
+
+        Direction[] dirs = Direction.values();
+        neighbourOffsets = new int[8];
+        for (int d = 0; d < 8; d++) {
+            neighbourOffsets[d] = dirs[d].getRowStep() * cols + dirs[d].getColStep();
+        }
+
+        neighbourMasks = new byte[size];
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                refreshNeighbourMask(c, r);
+            }
+        }
+    }
+
+    /**
+     * Recompute the neighbour mask of one cell from the bitset.
+     * @param c Column index
+     * @param r Row index
+     */
+    private void refreshNeighbourMask(int c, int r) {
+        Direction[] dirs = Direction.values();
+        int mask = 0;
+        for (int d = 0; d < 8; d++) {
+            int nc = c + dirs[d].getColStep();
+            int nr = r + dirs[d].getRowStep();
+            if (nc < 0 || nc >= cols || nr < 0 || nr >= rows) continue;
+            if (!isBlocked(nr * cols + nc)) mask |= 1 << d;
+        }
+        neighbourMasks[r * cols + c] = (byte) mask;
+    }
+
+    /**
+     * Change what a cell contains, keeping the bitset and neighbour masks in sync.
+     * @param position Grid Point (ignored if outside the board)
+     * @param fill New cell content
+     */
+    public void setCellFill(Point position, CellFill fill) {
+        if (isOutOfBounds(position)) return;
+        int c = position.getCol();
+        int r = position.getRow();
+        int chunk = chunkIndex(c, r);
+        int tile = tileInChunk(c, r);
+        chunks[chunk][tile] = (byte) fill.ordinal();
+        chunkVersions[chunk]++;
+        if (chunkCells[chunk] != null) chunkCells[chunk][tile] = null;
+
+        int idx = r * cols + c;
+        if (Cell.isBlocked(fill)) blockedBits[idx >>> 6] |= 1L << idx;
+        else blockedBits[idx >>> 6] &= ~(1L << idx);
+
+        for (int nr = Math.max(0, r - 1); nr <= Math.min(rows - 1, r + 1); nr++) {
+            for (int nc = Math.max(0, c - 1); nc <= Math.min(cols - 1, c + 1); nc++) {
+                refreshNeighbourMask(nc, nr);
+            }
+        }
+        version++;
+    }
+
+    /**
+     * Get the board version, which changes whenever a cell changes.
+     * @return version counter
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    private int chunkIndex(int c, int r) {
+        return (r >> CHUNK_SHIFT) * chunkCols + (c >> CHUNK_SHIFT);
+    }
+
+    private static int tileInChunk(int c, int r) {
+        return ((r & CHUNK_MASK) << CHUNK_SHIFT) | (c & CHUNK_MASK);
+    }
+
+    /**
+     * Get # of chunk columns (the last chunk may be only partly on the board).
+     * @return # of chunk columns
+     */
+    public int getChunkCols() {
+        return chunkCols;
+    }
+
+    /**
+     * Get # of chunk rows (the last chunk may be only partly on the board).
+     * @return # of chunk rows
+     */
+    public int getChunkRows() {
+        return chunkRows;
+    }
+
+    /**
+     * Get the version of one chunk, which changes whenever a tile in it changes.
+     * @param chunkCol chunk column
+     * @param chunkRow chunk row
+     * @return chunk version counter
+     */
+    public int getChunkVersion(int chunkCol, int chunkRow) {
+        return chunkVersions[chunkRow * chunkCols + chunkCol];
+    }
+
+    /**
+     * Get what the tile at a column and row contains, without creating a Cell.
+     * @param c Column index (must be on the board)
+     * @param r Row index (must be on the board)
+     * @return CellFill of the tile
+     */
+    public CellFill getCellFill(int c, int r) {
+        return FILLS[chunks[chunkIndex(c, r)][tileInChunk(c, r)]];
+    }
+
+    /**
+     * Copy the packed walkability bitset (bit i set = cell i blocked).
+     * @param out Array to copy into, reused if large enough
+     * @return the filled array
+     */
+    public long[] copyBlockedBits(long[] out) {
+        if (out == null || out.length < blockedBits.length) {
+            out = new long[blockedBits.length];
+        }
+        System.arraycopy(blockedBits, 0, out, 0, blockedBits.length);
+        return out;
     }
 
     /**
@@ -47,15 +243,35 @@ public class Board {
      * @return Cell at that postion (null if doesn't exist)
      */
     public Cell getCell(Point position){
-        int c = position.getCol();
-        int r = position.getRow();
-        
+        return getCell(position.getCol(), position.getRow());
+    }
+
+    /**
+     * Get cell at given column and row (no Point needed).
+     * The same Cell is returned until the tile changes.
+     * @param c Column index
+     * @param r Row index
+     * @return Cell at that postion (null if doesn't exist)
+     */
+    public Cell getCell(int c, int r){
         // Bounds checking
         if (c < 0 || c >= cols || r < 0 || r >= rows) {
             return null;
         }
-        
-        return this.grid[c][r];
+
+        int chunk = chunkIndex(c, r);
+        Cell[] cells = chunkCells[chunk];
+        if (cells == null) {
+            cells = new Cell[CHUNK_SIZE * CHUNK_SIZE];
+            chunkCells[chunk] = cells;
+        }
+        int tile = tileInChunk(c, r);
+        Cell cell = cells[tile];
+        if (cell == null) {
+            cell = new Cell(new Point(c, r), getCellFill(c, r));
+            cells[tile] = cell;
+        }
+        return cell;
     }
 
     /**
@@ -74,6 +290,61 @@ public class Board {
         return rows;
     }
 
+    /**
+     * Get total # of cells (largest cell index + 1).
+     * @return cols * rows
+     */
+    public int getCellCount() {
+        return cols * rows;
+    }
+
+    /**
+     * Get cell index of a column and row.
+     * @param c Column index
+     * @param r Row index
+     * @return row * cols + col
+     */
+    public int index(int c, int r) {
+        return r * cols + c;
+    }
+
+    /**
+     * Get cell index of a grid Point.
+     * @param position Grid Point
+     * @return row * cols + col
+     */
+    public int index(Point position) {
+        return position.getRow() * cols + position.getCol();
+    }
+
+    /**
+     * Check if the cell at an index is blocked (same rule as Cell.isBlocked()).
+     * @param idx Cell index (must be on the board)
+     * @return true if cell is blocked
+     */
+    public boolean isBlocked(int idx) {
+        return (blockedBits[idx >>> 6] & (1L << idx)) != 0;
+    }
+
+    /**
+     * Get walkable neighbours of a cell as a bit mask.
+     * Bit d is set when the neighbour one step in Direction.values()[d] is on the board and not blocked.
+     * @param idx Cell index (must be on the board)
+     * @return 8-bit neighbour mask
+     */
+    public int neighbourMask(int idx) {
+        return neighbourMasks[idx] & 0xFF;
+    }
+
+    /**
+     * Get index offset of one step in a direction.
+     * @param dirOrdinal Direction ordinal (0-7)
+     * @return amount to add to a cell index to reach that neighbour
+     */
+    public int neighbourOffset(int dirOrdinal) {
+        return neighbourOffsets[dirOrdinal];
+    }
+
     /**
      * Get four neightbouring cells around given grid Point.
      * @param position Grid Point
@@ -90,10 +361,10 @@ public class Board {
         int c = position.getCol();
         int r = position.getRow();
 
-        neighbours[0] = getCell(new Point(c, r - 1)); // North
-        neighbours[1] = getCell(new Point(c + 1, r)); // East
-        neighbours[2] = getCell(new Point(c, r + 1)); // South
-        neighbours[3] = getCell(new Point(c - 1, r)); // West
+        neighbours[0] = getCell(c, r - 1); // North
+        neighbours[1] = getCell(c + 1, r); // East
+        neighbours[2] = getCell(c, r + 1); // South
+        neighbours[3] = getCell(c - 1, r); // West
 
         return neighbours;
     }
@@ -109,7 +380,7 @@ public class Board {
     }
 
     /**
-     * Check if grid Point is blocked.
+     * Check if grid Point is blocked (same rule as Cell.isBlocked()).
      * @param position Grid Point
      * @return true if tile is blocked (player may not walk onto it)
      */
@@ -117,14 +388,8 @@ public class Board {
         if (isOutOfBounds(position)) {
             return true;
         }
-        
-        Cell cell = getCell(position);
-        if (cell == null) {
-            return true;
-        }
-        
-        CellFill checkedCellFill = cell.getCellFill();
-        return (checkedCellFill == CellFill.BARRIER);
+
+        return isBlocked(index(position));
     }
     
     /**
@@ -135,11 +400,6 @@ public class Board {
             return false;
         }
         
-        Cell cell = getCell(position);
-        if (cell == null) {
-            return false;
-        }
-        
-        return (cell.getCellFill() == CellFill.EXIT);
+        return (getCellFill(position.getCol(), position.getRow()) == CellFill.EXIT);
     }
 }
\ No newline at end of file
@@ -3,8 +3,12 @@ package maisraiders.panel;
 import maisraiders.enums.CellFill;
 import maisraiders.util.Point;
 
-public class Cell {
-    private Point position;
+/**
+ * One tile of the board as handed out by Board.getCell(). Cells are immutable; the board builds
+ * each one on first request and keeps it until the tile changes.
+ */
+public final class Cell {
+    private final Point position;
     private final CellFill cellFill;
 
     /**
@@ -25,14 +29,6 @@ public class Cell {
         return position;
     }
 
-    /**
-     * Set the cell's grid positon.
-     * @param newPosition Cell's new Point
-     */
-    public void setPosition(Point newPosition){
-        this.position = newPosition;
-    }
-
     /**
      * Get what this cell contains.
      * @return CellFill enum
@@ -43,10 +39,19 @@ public class Cell {
 
 
     /**
-     * Checks if cell is blocked (if CellFill == BARRIER).
+     * Checks if cell is blocked (anything but START, EXIT or NULL).
      * @return true of cell is wall/barrier
      */
     public boolean isBlocked(){
-        return !(getCellFill() == CellFill.START || getCellFill() == CellFill.EXIT || getCellFill() == CellFill.NULL);
+        return isBlocked(getCellFill());
+    }
+
+    /**
+     * Checks if a cell with this content is blocked.
+     * @param fill cell content
+     * @return true if the player may not walk onto it
+     */
+    public static boolean isBlocked(CellFill fill){
+        return !(fill == CellFill.START || fill == CellFill.EXIT || fill == CellFill.NULL);
     }
 }
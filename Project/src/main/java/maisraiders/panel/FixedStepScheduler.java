@@ -0,0 +1,108 @@
+package maisraiders.panel;
+
+/**
+ * Decides how many fixed-length logic ticks to run for each rendered frame.
+ * Real time is accumulated and spent in whole ticks; when frames fall behind, at most
+ * maxCatchUpTicks are run in one go and the rest of the backlog is dropped, so a long stall slows
+ * the game down for a moment instead of making it run in fast-forward.
+ * Whatever is left over is exposed as an interpolation factor for rendering between ticks.
+ */
+public class FixedStepScheduler {
+    private final long tickNanos;
+    private final int maxCatchUpTicks;
+    private long lastTime;
+    private long accumulator;
+    private long droppedTicks;
+    private boolean started = false;
+
+    /**
+     * FixedStepScheduler constructor.
+     * @param ticksPerSecond logic tick rate
+     * @param maxCatchUpTicks most ticks run for a single frame
+     */
+    public FixedStepScheduler(int ticksPerSecond, int maxCatchUpTicks) {
+        if (ticksPerSecond <= 0 || maxCatchUpTicks <= 0) {
+            throw new IllegalArgumentException("Tick rate and catch-up limit must be positive");
+        }
+        this.tickNanos = 1_000_000_000L / ticksPerSecond;
+        this.maxCatchUpTicks = maxCatchUpTicks;
+    }
+
+    /**
+     * Start counting from a point in time, forgetting any backlog (used at start and after a pause).
+     * @param now current time in nanoseconds
+     */
+    public void reset(long now) {
+        lastTime = now;
+        accumulator = 0;
+        started = true;
+    }
+
+    /**
+     * Add the time since the last call and take whole ticks out of it.
+     * @param now current time in nanoseconds
+     * @return number of ticks to run before the next frame
+     */
+    public int advance(long now) {
+        if (!started) {
+            reset(now);
+            return 0;
+        }
+        accumulator += Math.max(0, now - lastTime);
+        lastTime = now;
+
+        long due = accumulator / tickNanos;
+        if (due > maxCatchUpTicks) {
+            droppedTicks += due - maxCatchUpTicks;
+            accumulator = maxCatchUpTicks * tickNanos + accumulator % tickNanos;
+            due = maxCatchUpTicks;
+        }
+        accumulator -= due * tickNanos;
+        return (int) due;
+    }
+
+    /**
+     * Get how far real time is between the last tick and the next one.
+     * @return interpolation factor in [0, 1)
+     */
+    public double getAlpha() {
+        return (double) accumulator / tickNanos;
+    }
+
+    /**
+     * Get the time until the next tick is due.
+     * @param now current time in nanoseconds
+     * @return nanoseconds until the next tick, 0 if one is already due
+     */
+    public long nanosUntilNextTick(long now) {
+        long elapsed = accumulator + Math.max(0, now - lastTime);
+        return Math.max(0, tickNanos - elapsed);
+    }
+
+    /**
+     * Get when one of the ticks handed out by the last advance() was due, to measure how late
+     * it actually ran.
+     * @param tick position of the tick in the batch, from 0
+     * @param ticks batch size returned by advance()
+     * @return due time in nanoseconds
+     */
+    public long getDueTime(int tick, int ticks) {
+        return lastTime - accumulator - (long) (ticks - 1 - tick) * tickNanos;
+    }
+
+    /**
+     * Get the length of one tick.
+     * @return tick length in nanoseconds
+     */
+    public long getTickNanos() {
+        return tickNanos;
+    }
+
+    /**
+     * Get how many ticks were skipped because frames fell too far behind.
+     * @return dropped tick count
+     */
+    public long getDroppedTicks() {
+        return droppedTicks;
+    }
+}
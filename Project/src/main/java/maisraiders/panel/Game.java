@@ -2,6 +2,9 @@ package maisraiders.panel;
 
 import maisraiders.entities.Farmer;
 import maisraiders.enums.GameState;
+import maisraiders.movement.InputSource;
+import maisraiders.replay.Replay;
+import maisraiders.replay.ReplayInput;
 import maisraiders.ui.Ui;
 
 
@@ -9,7 +12,8 @@ public class Game {
     private GameState state;
     private int score = 0;
     private long tick;
-    private final int requiredRegular = 8;
+    // corn needed to open the exit, set from the level's corn spawns
+    private int requiredRegular = 8;
     private int collectedRegular;
     private boolean exitMessageShown = false;
     public String losseMsg = " ";
@@ -22,6 +26,50 @@ public class Game {
         gameLoop.startGameThread();
     }
 
+    /**
+     * Start a match with no window, sound or game thread; advance it with gl.step().
+     * @param input player input read every tick
+     * @return the game loop driving this match
+     */
+    public GameLoop startHeadless(InputSource input) {
+        GameLoop gameLoop = new GameLoop();
+        this.gl = gameLoop;
+        gameLoop.startHeadless(this, input);
+        resetGame();
+        return gameLoop;
+    }
+
+    /**
+     * Start a headless match with a chosen random seed.
+     * @param input player input read every tick
+     * @param seed seed for the match's random events
+     * @return the game loop driving this match
+     */
+    public GameLoop startHeadless(InputSource input, long seed) {
+        GameLoop gameLoop = new GameLoop();
+        this.gl = gameLoop;
+        gameLoop.setNextSeed(seed);
+        gameLoop.startHeadless(this, input);
+        resetGame();
+        return gameLoop;
+    }
+
+    /**
+     * Start a headless match that plays back a recording; stepping it to the replay's end tick
+     * reproduces the recorded match exactly.
+     * @param replay recording to play
+     * @return the game loop driving this match
+     */
+    public GameLoop startReplay(Replay replay) {
+        GameLoop gameLoop = new GameLoop();
+        this.gl = gameLoop;
+        gameLoop.setMapId(replay.getMapId());
+        gameLoop.setNextSeed(replay.getSeed());
+        gameLoop.startHeadless(this, new ReplayInput(replay));
+        resetGame();
+        return gameLoop;
+    }
+
     // GameState Methods
     public GameState getGameState() {
         return state;
@@ -68,6 +116,14 @@ public class Game {
     public int getRequiredRegular() {
         return requiredRegular;
     }
+
+    /**
+     * Set how much regular corn has to be collected before the exit counts.
+     * @param required corn needed to win
+     */
+    public void setRequiredRegular(int required) {
+        this.requiredRegular = required;
+    }
     
     public int getCollectedRegular() { 
         return collectedRegular;
@@ -77,11 +133,14 @@ public class Game {
         this.collectedRegular += 1;
     }
     public void resetGame(){
+    this.tick = 0;
     this.collectedRegular = 0;
     this.score = 0;
     this.exitMessageShown = false;  
-    gl.ui.resetPlayTime();          
-    gl.ui.commandNum = 0;            
+    if (gl.ui != null) {
+        gl.ui.resetPlayTime();
+        gl.ui.commandNum = 0;
+    }
     setGameState(GameState.RUNNING);
     gl.resetGameThread();
 }
@@ -132,8 +191,7 @@ public class Game {
                 //ui.showMessage("Used pitchfork to escape alien!");
                 if (ui != null) ui.showMessage("Used pitchfork to escape alien!");
                 if (gl != null){
-                    gl.alien1.paralyze(250);  // 0.5 seconds freeze
-                    gl.alien2.paralyze(250);
+                    gl.paralyzeAliens(250);  // 0.5 seconds freeze
                 }
 
                 farmer.removePitchfork();
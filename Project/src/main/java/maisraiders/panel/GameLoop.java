@@ -1,49 +1,112 @@
 package maisraiders.panel;
 
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
 
 import maisraiders.entities.AStar;
 import maisraiders.entities.Alien;
+import maisraiders.entities.AlienPlanner;
+import maisraiders.entities.AlienSwarm;
 import maisraiders.entities.Farmer;
+import maisraiders.entities.FlowField;
+import maisraiders.entities.BackgroundPathPlanner;
+import maisraiders.entities.PathService;
+import maisraiders.entities.TimeSlicedPlanner;
 import maisraiders.enums.GameState;
+import maisraiders.enums.PursuitMode;
+import maisraiders.enums.TickPhase;
+import maisraiders.map.Level;
+import maisraiders.metrics.GameMetrics;
+import maisraiders.metrics.TickEvent;
+import maisraiders.metrics.TickRecorder;
+import maisraiders.movement.InputSource;
 import maisraiders.movement.KeyHandler;
 import maisraiders.movement.PlayerMovementUpdater;
 import maisraiders.object.AssetSetter;
 import maisraiders.object.GameObject;
+import maisraiders.replay.Replay;
+import maisraiders.replay.ReplayRecorder;
 import maisraiders.sound.Sound;
+import maisraiders.ui.SpriteAtlas;
 import maisraiders.ui.SpriteDrawer;
 import maisraiders.ui.Ui;
-import maisraiders.ui.WindowSetting;
 import maisraiders.util.Point;
+import maisraiders.util.SpatialHash;
+import maisraiders.util.TickProfiler;
 
 
 /**
  * Implements runnable to run game logic
  */
 public class GameLoop implements Runnable {
-    Thread gameThread;
+    volatile Thread gameThread;
     GameWindow gameWindow;
-    public boolean isRunning;
+    public volatile boolean isRunning;
     SpriteDrawer sprite;
     public int tileSize = 64;
-    int FPS;
+    public static final int TICKS_PER_SECOND = 60;
+    // built-in map; any other map id is the path of a level file
+    public static final String DEFAULT_MAP_ID = "default";
+    int FPS = TICKS_PER_SECOND; // logic ticks per second
+    int renderRate = 60; // frames per second, the display's refresh rate when known
+    private static final int MAX_CATCH_UP_TICKS = 5;
+    FixedStepScheduler scheduler;
     PlayerMovementUpdater playerMover;
     public Farmer gameFarmer;
     public Alien alien1;
     public Alien alien2;
-    List<Alien> aliens;
+    List<Alien> aliens = new ArrayList<>();
+    // one pursuit field shared by every alien in FLOW_FIELD mode
+    final FlowField flowField = new FlowField();
+    // aliens bucketed by tile so the farmer only checks the ones close by
+    final SpatialHash<Alien> alienIndex = new SpatialHash<>(64, 64);
+    // swarm aliens, kept as parallel arrays rather than one object each
+    final AlienSwarm swarm = new AlienSwarm();
+    // plans alien moves in parallel, then commits them in order
+    final AlienPlanner alienPlanner = new AlienPlanner();
+    // times the phases of each tick for the performance overlay (off until the overlay is shown)
+    final TickProfiler profiler = new TickProfiler();
+    // this loop's feed into the process-wide metrics and JFR
+    final TickRecorder metrics = new TickRecorder(GameMetrics.shared());
+    // spreads alien path searches over ticks when time-sliced planning is on
+    final TimeSlicedPlanner pathPlanner = new TimeSlicedPlanner(TimeSlicedPlanner.DEFAULT_BUDGET);
+    // searches alien paths on worker threads when background planning is on
+    private BackgroundPathPlanner backgroundPlanner;
+    // where aliens send their path searches, null to search in their own update
+    private PathService pathService;
+    // aliens close enough to the farmer to be updated this tick
+    private final List<Alien> activeAliens = new ArrayList<>();
     Board gameBoard;
     Game game;
     KeyHandler playerInput;
+    // input actually read each tick: the window's KeyHandler, or a scripted source when headless
+    InputSource input;
+    // samples the input once per tick and records it, the game reads its flags
+    final ReplayRecorder recorder = new ReplayRecorder();
+    String mapId = DEFAULT_MAP_ID;
+    private Level level;
+    private Long nextSeed = null;
+    private Replay lastReplay;
+    // set by update() when the match itself advanced (the game was RUNNING)
+    private boolean matchStepped;
+    boolean headless = false;
     public GameObject objects = new GameObject();
     public AssetSetter aSetter = new AssetSetter(this);
     public Ui ui;
     public Sound sound = new Sound();
     public boolean soundPlaying = false;
-    private long lastCollisionTime = 0;
-    private static final long COLLISION_COOLDOWN = 1000; // sound delay
+    private long lastCollisionTick = -TICKS_PER_SECOND;
+    private static final long COLLISION_COOLDOWN = TICKS_PER_SECOND; // sound delay in ticks
+    // aliens more than this many board chunks away from the farmer's chunk are not simulated
+    // (a chunk is wider than the window, so everything in view is always simulated)
+    private static final int ACTIVE_CHUNK_RADIUS = 1;
     public int screenWidth = 1280;
     public void setupGame(Game game) {
         this.game = game;
@@ -56,70 +119,352 @@ public class GameLoop implements Runnable {
         gameWindow = new GameWindow( game, this);
         sprite = gameWindow.getSpriteDrawer();
         tileSize = gameWindow.getTileSize();
+        // sprites fetched before this still draw correctly, just through a scaled blit
+        SpriteAtlas.shared().setTileSize(tileSize);
         FPS = gameWindow.getFPS();
-        playerMover = new PlayerMovementUpdater();
-        gameFarmer = new Farmer(new Point(9, 7), 4);
-        alien1 = new Alien(new Point(1, 1), 3);
-        alien2 = new Alien(new Point(15, 5), 3, AStar.manhattanHeuristic);
-        aliens = new ArrayList<>();
-        aliens.add(alien1);
-        aliens.add(alien2);
-        gameBoard = new Board(WindowSetting.maxScreenCol, WindowSetting.maxScreenRow);
+        renderRate = gameWindow.getRefreshRate();
+        scheduler = new FixedStepScheduler(FPS, MAX_CATCH_UP_TICKS);
+        createEntities();
         gameThread = new Thread(this);
         gameThread.start();
         sprite.setSpriteDrawer(this, game, ui);
         sprite.setBoard(gameBoard);  // Pass the board to sprite drawer
+        sprite.setSwarm(swarm);
+    }
+
+    /**
+     * Set up the game logic without a window, UI, renderer, sound or game thread.
+     * The caller drives the game one tick at a time with step().
+     * @param game game state holder
+     * @param input player input read every tick
+     */
+    public void startHeadless(Game game, InputSource input) {
+        this.game = game;
+        this.input = input;
+        headless = true;
+        sound.setMuted(true);
+        // no Ui: it loads fonts and title art, and every caller skips a null ui
+        ui = null;
+        createEntities();
+        isRunning = true;
+    }
+
+    /**
+     * Create the board, the farmer and the aliens.
+     */
+    private void createEntities() {
+        Level level = getLevel();
+        playerMover = new PlayerMovementUpdater();
+        gameFarmer = null;
+        aliens = new ArrayList<>();
+        for (int i = 0; i < level.getEntityCount(); i++) {
+            Point spawn = level.getEntityPosition(i);
+            switch (level.getEntityKind(i)) {
+                case Level.ENTITY_FARMER -> gameFarmer = new Farmer(spawn, 4);
+                case Level.ENTITY_ALIEN -> aliens.add(new Alien(spawn, 3));
+                case Level.ENTITY_ALIEN_MANHATTAN -> aliens.add(new Alien(spawn, 3, AStar.manhattanHeuristic));
+                case Level.ENTITY_SWARM_ALIEN -> swarm.add(spawn, 3);
+                default -> { } // kinds this version doesn't know are skipped
+            }
+        }
+        if (gameFarmer == null) {
+            throw new IllegalArgumentException("Map " + mapId + " has no farmer spawn");
+        }
+        alien1 = aliens.size() > 0 ? aliens.get(0) : null;
+        alien2 = aliens.size() > 1 ? aliens.get(1) : null;
+        for (Alien alien : aliens) {
+            alien.setFlowField(flowField);
+            alien.setPathService(pathService);
+        }
+        alienPlanner.setProfiler(profiler);
+        indexAliens();
+        gameBoard = new Board(level);
+    }
+
+    /**
+     * Load the level for a map id.
+     * @param mapId DEFAULT_MAP_ID or the path of a level file
+     * @return the level
+     */
+    private static Level loadLevel(String mapId) {
+        if (DEFAULT_MAP_ID.equals(mapId)) {
+            return Level.getDefault();
+        }
+        try {
+            return Level.open(Paths.get(mapId));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unknown map id: " + mapId, e);
+        }
+    }
+
+    /**
+     * Choose the map for the next match (must be called before the game starts).
+     * @param mapId DEFAULT_MAP_ID or the path of a level file
+     */
+    public void setMapId(String mapId) {
+        this.level = loadLevel(mapId);
+        this.mapId = mapId;
+    }
+
+    /**
+     * Get the game state holder this loop plays.
+     * @return current game
+     */
+    public Game getGame() {
+        return game;
+    }
+
+    /**
+     * Get the level being played (the object and entity spawns and the tiles).
+     * @return current level
+     */
+    public Level getLevel() {
+        if (level == null) {
+            level = loadLevel(mapId);
+        }
+        return level;
+    }
+
+    /**
+     * Fix the random seed of the next match instead of picking a fresh one (used for replays).
+     * @param seed seed for the next match
+     */
+    public void setNextSeed(long seed) {
+        this.nextSeed = seed;
+    }
+
+    /**
+     * Get the recording of the last match that ended.
+     * @return last finished replay, null if no match has ended yet
+     */
+    public Replay getLastReplay() {
+        return lastReplay;
+    }
+
+    /**
+     * Move every alien to its current bucket in the spatial index.
+     */
+    private void indexAliens() {
+        for (Alien alien : aliens) {
+            alienIndex.put(alien, alien.getSubPositionX(), alien.getSubPositionY());
+        }
+    }
+
+    /**
+     * Run exactly one game tick (headless runs call this as fast as they like).
+     * @return game state after the tick
+     */
+    public GameState step() {
+        tick();
+        return game.getGameState();
+    }
+
+    /**
+     * One logic tick: remember where everything was for interpolation, then update.
+     */
+    private void tick() {
+        long tickStart = profiler.begin();
+        TickEvent event = metrics.beginTick();
+        long startNanos = System.nanoTime();
+        gameFarmer.savePreviousPosition();
+        for (Alien alien : aliens) {
+            alien.savePreviousPosition();
+        }
+        swarm.savePreviousPositions();
+        matchStepped = false;
+        update();
+        // only ticks that ran the match count: pauses and menus leave no trace in the tick
+        // count, so the recorded key edges line up with the same ticks on playback
+        if (matchStepped) {
+            game.tickGame();
+        }
+        metrics.recordTick(System.nanoTime() - startNanos, game.getTick(), objects, event);
+        profiler.end(TickPhase.TICK, tickStart);
+        profiler.intervalTick();
+        GameState state = game.getGameState();
+        if (recorder.isRecording() && (state == GameState.WIN || state == GameState.LOSE)) {
+            lastReplay = recorder.finish(game.getTick());
+            saveReplay(lastReplay);
+        }
+    }
+
+    /**
+     * Start recording a new match with a fresh (or preset) seed.
+     */
+    private void startMatch() {
+        long seed = nextSeed != null ? nextSeed : new Random().nextLong();
+        nextSeed = null;
+        aSetter.setSeed(seed);
+        recorder.start(seed, mapId);
+        lastCollisionTick = -COLLISION_COOLDOWN;
+    }
+
+    /**
+     * Write a finished replay to the directory named by the maisraiders.replayDir property, if set.
+     * @param replay replay to save
+     */
+    private void saveReplay(Replay replay) {
+        String dir = System.getProperty("maisraiders.replayDir");
+        if (dir == null || replay == null) return;
+        try {
+            Path folder = Paths.get(dir);
+            Files.createDirectories(folder);
+            replay.save(folder.resolve("replay-" + Long.toHexString(replay.getSeed()) + ".mrr"));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Switch every alien between per-alien A* paths and the shared flow field.
+     * @param mode pursuit mode for all aliens
+     */
+    public void setPursuitMode(PursuitMode mode) {
+        for (Alien alien : aliens) {
+            alien.setPursuitMode(mode);
+        }
     }
+
+    /**
+     * Turn time-sliced path planning on or off for every alien. When on, PATH-mode aliens queue
+     * their searches and the planner spends at most TimeSlicedPlanner.DEFAULT_BUDGET node
+     * expansions per tick on them, instead of each alien searching to completion in its update.
+     * @param enabled true to plan paths over several ticks
+     */
+    public void setTimeSlicedPlanning(boolean enabled) {
+        if (enabled) {
+            usePathService(pathPlanner);
+        } else if (pathService == pathPlanner) {
+            usePathService(null);
+        }
+    }
+
+    /**
+     * Turn background path planning on or off for every alien. When on, PATH-mode aliens send
+     * their searches to a small pool of worker threads and the tick never waits on A*; paths
+     * that come back after the board or the farmer's cell changed are dropped. Arrival times
+     * depend on the threads, so replays are only exact with background planning off.
+     * @param enabled true to plan paths on worker threads
+     */
+    public void setBackgroundPlanning(boolean enabled) {
+        if (enabled) {
+            if (backgroundPlanner == null) {
+                backgroundPlanner = new BackgroundPathPlanner(BackgroundPathPlanner.DEFAULT_THREADS);
+            }
+            usePathService(backgroundPlanner);
+        } else if (backgroundPlanner != null) {
+            if (pathService == backgroundPlanner) {
+                usePathService(null);
+            }
+            backgroundPlanner.close();
+            backgroundPlanner = null;
+        }
+    }
+
+    private void usePathService(PathService service) {
+        pathService = service;
+        for (Alien alien : aliens) {
+            alien.setPathService(service);
+        }
+    }
+
     public void resetGameThread() {
 
         gameFarmer.resetPosition();
         gameFarmer.resetFarmerBooleans();
 
-        alien1.resetPosition();
-        alien2.resetPosition();
+        for (Alien alien : aliens) {
+            alien.resetPosition();
+        }
+        swarm.reset();
+        indexAliens();
         aSetter.resetObjects();
-        sprite.resetSprites();
+        startMatch();
+        if (sprite != null) {
+            sprite.resetSprites();
+        }
 
     }
     public void stopGameThread() {
         sound.stopMusic();
+        setBackgroundPlanning(false);
         isRunning = false;
-       gameThread = null;
+        Thread thread = gameThread;
+        gameThread = null;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
     }
+
+    /**
+     * Wake the game thread if it is parked (key input, state changes or resuming the loop).
+     */
+    public void wake() {
+        Thread thread = gameThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Check if the loop has nothing to animate and can sleep until woken.
+     * @return true outside the running state or while the loop is stopped
+     */
+    private boolean isIdle() {
+        return !isRunning || game.getGameState() != GameState.RUNNING;
+    }
+
+    /**
+     * Fixed-timestep loop: logic runs at FPS ticks per second (with bounded catch-up when frames
+     * are slow), frames are drawn at the display rate with entities interpolated between ticks,
+     * and menus and pauses park the thread until input arrives.
+     */
     @Override
     public void run() {
-        double drawInterval = 1000/FPS; // 60 FPS in ms
-        double nextDrawTime = System.currentTimeMillis() + drawInterval;
+        long frameNanos = 1_000_000_000L / renderRate;
+        scheduler.reset(System.nanoTime());
+        long nextFrameTime = System.nanoTime();
 
         while (gameThread != null) {
-            while (isRunning) {
-                // Two things need to be done in this loop
-                // 1 UPDATE: update the information such as character positions
-                update();
-                // 2 DRAW: draw the screen with the updated information
-
-                sprite.drawSprite(gameFarmer, alien1, alien2, tileSize, objects);
-
-                try {
-                    double remainingTime = nextDrawTime - System.currentTimeMillis();
-                    if (remainingTime < 0) {
-                        remainingTime = 0;
-                    }
-                    Thread.sleep((long) remainingTime);
-
-                    nextDrawTime += drawInterval;
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(e);
+            if (isRunning) {
+                int ticks = scheduler.advance(System.nanoTime());
+                for (int i = 0; i < ticks && isRunning; i++) {
+                    metrics.recordLag(System.nanoTime() - scheduler.getDueTime(i, ticks));
+                    tick();
                 }
+                sprite.drawSprite(gameFarmer, aliens, tileSize, objects, scheduler.getAlpha());
+            }
+
+            if (isIdle()) {
+                // Menus still need one update after each key press (music, end sounds), so run
+                // it when woken and then park again
+                LockSupport.park(this);
+                if (isRunning && game.getGameState() != GameState.RUNNING) {
+                    update();
+                }
+                scheduler.reset(System.nanoTime());
+                nextFrameTime = System.nanoTime();
+                continue;
+            }
+
+            nextFrameTime += frameNanos;
+            long sleepNanos = nextFrameTime - System.nanoTime();
+            if (sleepNanos > 0) {
+                LockSupport.parkNanos(this, sleepNanos);
+            } else {
+                // Running behind: don't try to make up lost frames
+                nextFrameTime = System.nanoTime();
             }
         }
     }
 
     public void update() {
+        long start = profiler.begin();
+        pollInput();
+        profiler.end(TickPhase.INPUT, start);
         //Check the game state
         // TITLE STATE
         if(game.getGameState() == GameState.TITLE){
-            playerInput = gameWindow.getKeyInput();
             if (!soundPlaying){
                 sound.playMusic(0);
                 soundPlaying = true;
@@ -128,6 +473,7 @@ public class GameLoop implements Runnable {
         //PLAY STATE
         if (game.getGameState() == GameState.RUNNING){
            updateRunning();
+           matchStepped = true;
         }
         // PAUSE STATE
         if(game.getGameState() == GameState.PAUSE){
@@ -144,44 +490,129 @@ public class GameLoop implements Runnable {
 
     }
 
+    /**
+     * Read this tick's input: the window's keys when there is a window, otherwise the plugged-in source.
+     */
+    private void pollInput() {
+        if (gameWindow != null) {
+            playerInput = gameWindow.getKeyInput();
+            input = playerInput;
+        }
+        recorder.setSource(input);
+        recorder.poll(game.getTick());
+    }
+
     /**
      * a method to update game elements during the run state
      */
     private void updateRunning() {
-        playerInput = gameWindow.getKeyInput();
-        playerMover.updatePlayerMovement(playerInput, gameFarmer, gameBoard);
-        gameFarmer.update(aliens, gameBoard);  // Pass gameBoard to farmer update
-        alien1.update(gameBoard, gameFarmer);
-        alien2.update(gameBoard, gameFarmer);
+        long start = profiler.begin();
+        playerMover.updatePlayerMovement(recorder, gameFarmer, gameBoard);
+        profiler.end(TickPhase.PLAYER_MOVE, start);
+        start = profiler.begin();
+        gameFarmer.update(alienIndex, gameBoard);  // Pass gameBoard to farmer update
+        profiler.end(TickPhase.FARMER, start);
+        start = profiler.begin();
+        if (swarm.collidesWith(gameFarmer)) {
+            gameFarmer.updateAlienCollision(true);
+        }
+        activeAliens.clear();
+        for (Alien alien : aliens) {
+            if (isNearFarmer(alien)) {
+                activeAliens.add(alien);
+            }
+        }
+        if (pathService != null) {
+            pathService.tick();
+        }
+        alienPlanner.update(activeAliens, gameBoard, gameFarmer, flowField);
+        swarm.update(gameBoard, gameFarmer, flowField, ACTIVE_CHUNK_RADIUS);
+        indexAliens();
+        profiler.end(TickPhase.ALIENS, start);
+        start = profiler.begin();
         aSetter.updateObjects(gameFarmer, game, ui);
-        aSetter.setDisappearingReward(ui);
+        aSetter.setDisappearingReward(ui, game.getTick());
+        profiler.end(TickPhase.OBJECTS, start);
+        if (ui != null) ui.updateTimers(FPS);
+        start = profiler.begin();
         game.updateGameState(gameFarmer, ui);  // Pass ui to game state update
+        profiler.end(TickPhase.GAME_STATE, start);
         if (!soundPlaying){
             sound.playMusic(0);
             soundPlaying = true;
         }
         if (gameFarmer.getBarrierCollision() || (gameFarmer.getExitStatus() && game.getCollectedRegular() < game.getRequiredRegular())) {
-            long currentTime = System.currentTimeMillis();
+            long currentTick = game.getTick();
 
             // Check if the cooldown period has passed
-            if (currentTime - lastCollisionTime > COLLISION_COOLDOWN) {
+            if (currentTick - lastCollisionTick > COLLISION_COOLDOWN) {
                 if(gameFarmer.getBarrierCollision()){
                     sound.playSE(2);
                 }else {
                     sound.playSE(9);
                 }
-                lastCollisionTime = currentTime;
+                lastCollisionTick = currentTick;
             }
         }
     }
+    /**
+     * Freeze every alien on the level, named and swarm alike.
+     * @param durationMs freeze length in milliseconds of game time
+     */
+    public void paralyzeAliens(int durationMs) {
+        for (Alien alien : aliens) {
+            alien.paralyze(durationMs);
+        }
+        swarm.paralyze(durationMs);
+    }
+
+    /**
+     * Get the profiler timing each tick's phases.
+     * @return tick profiler
+     */
+    public TickProfiler getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * Show or hide the performance overlay; phases are only timed while it is shown.
+     */
+    public void toggleProfilerOverlay() {
+        boolean show = !profiler.isEnabled();
+        profiler.setEnabled(show);
+        if (ui != null) {
+            ui.profilerOn = show;
+        }
+    }
+
+    /**
+     * Get the level's swarm aliens.
+     * @return swarm store (empty on levels without a swarm)
+     */
+    public AlienSwarm getSwarm() {
+        return swarm;
+    }
+
+    /**
+     * Check if an alien is in a board chunk close enough to the farmer's to be simulated.
+     * @param alien alien to check
+     * @return true if the alien should move this tick
+     */
+    private boolean isNearFarmer(Alien alien) {
+        Point farmerTile = gameFarmer.getPosition();
+        Point alienTile = alien.getPosition();
+        int chunkCols = Math.abs((alienTile.getCol() >> Board.CHUNK_SHIFT) - (farmerTile.getCol() >> Board.CHUNK_SHIFT));
+        int chunkRows = Math.abs((alienTile.getRow() >> Board.CHUNK_SHIFT) - (farmerTile.getRow() >> Board.CHUNK_SHIFT));
+        return chunkCols <= ACTIVE_CHUNK_RADIUS && chunkRows <= ACTIVE_CHUNK_RADIUS;
+    }
+
     /**
      * a method to update game elements during the pause state
      */
     private void updatePause() {
         // only want to display options, player and aliens shouldn't move
-        playerInput = gameWindow.getKeyInput();
         if (soundPlaying){
-            sound.stopMusic();
+            sound.pauseMusic();
             soundPlaying = false;
         }
     }
@@ -189,13 +620,20 @@ public class GameLoop implements Runnable {
      * a method to update game elements during the win/ lose state
      */
     private void updateEndState(int soundNumber) {
-        playerInput = gameWindow.getKeyInput();
         if (soundPlaying){
             sound.stopMusic();
             sound.playSE(soundNumber);
             soundPlaying = false;
         }
     }
+    /**
+     * Check if this loop runs without a window.
+     * @return true for headless runs
+     */
+    public boolean isHeadless() {
+        return headless;
+    }
+
     /**
      * TEST HOOK for game window
      * @return local game window
@@ -1,5 +1,9 @@
 package maisraiders.panel;
 
+import java.awt.DisplayMode;
+import java.awt.GraphicsEnvironment;
+import java.awt.HeadlessException;
+
 import javax.swing.JFrame;
 
 import maisraiders.movement.KeyHandler;
@@ -59,5 +63,22 @@ public class GameWindow {
      */
     public int getFPS() { return windowSetting.getFPS();}
 
+    /**
+     * Get the display's refresh rate, used as the render rate.
+     * @return refresh rate in Hz, or the FPS if the display doesn't report one
+     */
+    public int getRefreshRate() {
+        try {
+            DisplayMode mode = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                    .getDefaultScreenDevice().getDisplayMode();
+            if (mode.getRefreshRate() != DisplayMode.REFRESH_RATE_UNKNOWN) {
+                return mode.getRefreshRate();
+            }
+        } catch (HeadlessException e) {
+            // no display: expected when headless, fall through to the tick rate
+        }
+        return getFPS();
+    }
+
 
 }
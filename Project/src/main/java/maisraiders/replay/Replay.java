@@ -0,0 +1,216 @@
+package maisraiders.replay;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Everything needed to play a match again tick for tick: the random seed, the map id and the
+ * tick-indexed press/release edges of the four movement keys.
+ *
+ * File layout (big-endian): magic "MRRP", format version byte, seed (long), map id (UTF),
+ * end tick (varint), edge count (varint), then per edge the tick delta from the previous edge
+ * (varint) and one byte holding key * 2 + pressed.
+ */
+public class Replay {
+    public static final int KEY_UP = 0;
+    public static final int KEY_DOWN = 1;
+    public static final int KEY_LEFT = 2;
+    public static final int KEY_RIGHT = 3;
+
+    private static final int MAGIC = 0x4D525250; // "MRRP"
+    private static final int FORMAT_VERSION = 1;
+
+    private final long seed;
+    private final String mapId;
+    private final long endTick;
+    private final long[] edgeTicks;
+    private final byte[] edges;
+
+    /**
+     * Replay constructor.
+     * @param seed seed of the match's random number generator
+     * @param mapId id of the map the match was played on
+     * @param endTick game tick count when the match ended
+     * @param edgeTicks tick of each key edge, in order
+     * @param edges key * 2 + (1 if pressed) for each edge
+     */
+    public Replay(long seed, String mapId, long endTick, long[] edgeTicks, byte[] edges) {
+        if (edgeTicks.length != edges.length) {
+            throw new IllegalArgumentException("Edge ticks and edges differ in length");
+        }
+        this.seed = seed;
+        this.mapId = mapId;
+        this.endTick = endTick;
+        this.edgeTicks = edgeTicks;
+        this.edges = edges;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public String getMapId() {
+        return mapId;
+    }
+
+    /**
+     * Get the game tick count when the match ended (a replay should end on the same tick).
+     * @return end tick
+     */
+    public long getEndTick() {
+        return endTick;
+    }
+
+    /**
+     * Get the number of key edges.
+     * @return edge count
+     */
+    public int getEdgeCount() {
+        return edges.length;
+    }
+
+    /**
+     * Get the tick of an edge.
+     * @param i edge number
+     * @return tick the edge takes effect on
+     */
+    public long getEdgeTick(int i) {
+        return edgeTicks[i];
+    }
+
+    /**
+     * Get the key of an edge.
+     * @param i edge number
+     * @return one of the KEY_ constants
+     */
+    public int getEdgeKey(int i) {
+        return edges[i] >> 1;
+    }
+
+    /**
+     * Check if an edge is a press.
+     * @param i edge number
+     * @return true for a press, false for a release
+     */
+    public boolean isEdgePress(int i) {
+        return (edges[i] & 1) != 0;
+    }
+
+    /**
+     * Write the replay in its compact binary form.
+     * @param out stream to write to (not closed)
+     * @throws IOException if writing fails
+     */
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeByte(FORMAT_VERSION);
+        data.writeLong(seed);
+        data.writeUTF(mapId);
+        writeVarLong(data, endTick);
+        writeVarLong(data, edges.length);
+        long previous = 0;
+        for (int i = 0; i < edges.length; i++) {
+            writeVarLong(data, edgeTicks[i] - previous);
+            data.writeByte(edges[i]);
+            previous = edgeTicks[i];
+        }
+        data.flush();
+    }
+
+    /**
+     * Read a replay written by write().
+     * @param in stream to read from (not closed)
+     * @return the replay
+     * @throws IOException if reading fails or the data is not a replay
+     */
+    public static Replay read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a replay file");
+        }
+        int version = data.readUnsignedByte();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported replay version " + version);
+        }
+        long seed = data.readLong();
+        String mapId = data.readUTF();
+        long endTick = readVarLong(data);
+        long count = readVarLong(data);
+        if (count > Integer.MAX_VALUE) {
+            throw new IOException("Replay has too many edges");
+        }
+        long[] edgeTicks = new long[(int) count];
+        byte[] edges = new byte[(int) count];
+        long tick = 0;
+        for (int i = 0; i < count; i++) {
+            tick += readVarLong(data);
+            edgeTicks[i] = tick;
+            edges[i] = data.readByte();
+        }
+        return new Replay(seed, mapId, endTick, edgeTicks, edges);
+    }
+
+    /**
+     * Save the replay to a file.
+     * @param file path to write
+     * @throws IOException if writing fails
+     */
+    public void save(Path file) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            write(out);
+        }
+    }
+
+    /**
+     * Load a replay from a file.
+     * @param file path to read
+     * @return the replay
+     * @throws IOException if reading fails
+     */
+    public static Replay load(Path file) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            return read(in);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Replay)) return false;
+        Replay r = (Replay) o;
+        return seed == r.seed && endTick == r.endTick && mapId.equals(r.mapId)
+                && Arrays.equals(edgeTicks, r.edgeTicks) && Arrays.equals(edges, r.edges);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(seed) * 31 + Arrays.hashCode(edges);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Malformed varint in replay");
+    }
+}
@@ -0,0 +1,56 @@
+package maisraiders.replay;
+
+import maisraiders.movement.InputSource;
+
+/**
+ * Input source that plays back the key edges of a recorded replay.
+ */
+public class ReplayInput implements InputSource {
+    private final Replay replay;
+    private final boolean[] held = new boolean[4];
+    private int nextEdge = 0;
+
+    /**
+     * ReplayInput constructor.
+     * @param replay recording to play back
+     */
+    public ReplayInput(Replay replay) {
+        this.replay = replay;
+    }
+
+    @Override
+    public void poll(long tick) {
+        while (nextEdge < replay.getEdgeCount() && replay.getEdgeTick(nextEdge) <= tick) {
+            held[replay.getEdgeKey(nextEdge)] = replay.isEdgePress(nextEdge);
+            nextEdge++;
+        }
+    }
+
+    /**
+     * Check if every recorded edge has been played.
+     * @return true once the last edge has been applied
+     */
+    public boolean isFinished() {
+        return nextEdge >= replay.getEdgeCount();
+    }
+
+    @Override
+    public boolean isUpPressed() {
+        return held[Replay.KEY_UP];
+    }
+
+    @Override
+    public boolean isDownPressed() {
+        return held[Replay.KEY_DOWN];
+    }
+
+    @Override
+    public boolean isLeftPressed() {
+        return held[Replay.KEY_LEFT];
+    }
+
+    @Override
+    public boolean isRightPressed() {
+        return held[Replay.KEY_RIGHT];
+    }
+}
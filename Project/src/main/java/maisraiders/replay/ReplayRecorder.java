@@ -0,0 +1,108 @@
+package maisraiders.replay;
+
+import java.util.Arrays;
+
+import maisraiders.movement.InputSource;
+
+/**
+ * Input source that samples another source once per tick and records every change as a
+ * tick-indexed key edge. The game reads the sampled flags, so what the game saw and what was
+ * recorded are always the same even if keys change part way through a tick.
+ */
+public class ReplayRecorder implements InputSource {
+    private InputSource source;
+    private final boolean[] held = new boolean[4];
+    private long[] edgeTicks = new long[64];
+    private byte[] edges = new byte[64];
+    private int edgeCount;
+    private long seed;
+    private String mapId;
+    private boolean recording = false;
+
+    /**
+     * Set where the input really comes from.
+     * @param source input to sample
+     */
+    public void setSource(InputSource source) {
+        this.source = source;
+    }
+
+    /**
+     * Start a new recording (all keys start released).
+     * @param seed seed of the match's random number generator
+     * @param mapId id of the map being played
+     */
+    public void start(long seed, String mapId) {
+        this.seed = seed;
+        this.mapId = mapId;
+        edgeCount = 0;
+        Arrays.fill(held, false);
+        recording = true;
+    }
+
+    /**
+     * Stop recording.
+     * @param endTick game tick count when the match ended
+     * @return the finished replay, or null if nothing was being recorded
+     */
+    public Replay finish(long endTick) {
+        if (!recording) return null;
+        recording = false;
+        return new Replay(seed, mapId, endTick,
+                Arrays.copyOf(edgeTicks, edgeCount), Arrays.copyOf(edges, edgeCount));
+    }
+
+    /**
+     * Check if a recording is in progress.
+     * @return true while recording
+     */
+    public boolean isRecording() {
+        return recording;
+    }
+
+    @Override
+    public void poll(long tick) {
+        if (source == null) return;
+        source.poll(tick);
+        sample(Replay.KEY_UP, source.isUpPressed(), tick);
+        sample(Replay.KEY_DOWN, source.isDownPressed(), tick);
+        sample(Replay.KEY_LEFT, source.isLeftPressed(), tick);
+        sample(Replay.KEY_RIGHT, source.isRightPressed(), tick);
+    }
+
+    /**
+     * Take the current state of one key and record it if it changed.
+     */
+    private void sample(int key, boolean pressed, long tick) {
+        if (held[key] == pressed) return;
+        held[key] = pressed;
+        if (!recording) return;
+        if (edgeCount == edges.length) {
+            edgeTicks = Arrays.copyOf(edgeTicks, edgeCount * 2);
+            edges = Arrays.copyOf(edges, edgeCount * 2);
+        }
+        edgeTicks[edgeCount] = tick;
+        edges[edgeCount] = (byte) (key * 2 + (pressed ? 1 : 0));
+        edgeCount++;
+    }
+
+    @Override
+    public boolean isUpPressed() {
+        return held[Replay.KEY_UP];
+    }
+
+    @Override
+    public boolean isDownPressed() {
+        return held[Replay.KEY_DOWN];
+    }
+
+    @Override
+    public boolean isLeftPressed() {
+        return held[Replay.KEY_LEFT];
+    }
+
+    @Override
+    public boolean isRightPressed() {
+        return held[Replay.KEY_RIGHT];
+    }
+}
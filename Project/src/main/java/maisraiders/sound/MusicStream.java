@@ -0,0 +1,272 @@
+package maisraiders.sound;
+
+import java.io.IOException;
+import java.net.URL;
+
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+ * Streams looping background music from its file to one reusable line.
+ *
+ * Only a small ring buffer of decoded audio is held in memory. The music thread keeps the ring
+ * filled from the file, reopening it at the end so the loop has no gap, and writes blocks from the
+ * ring to a line that is opened once and kept for every track. Pausing keeps the line's buffered
+ * audio so resuming carries on where it stopped.
+ */
+public class MusicStream implements Runnable {
+    // about a quarter of a second of decoded music
+    private static final int RING_BYTES = 48000;
+    // about 20 ms per write
+    private static final int BLOCK_BYTES = 960 * 4;
+    private static final int LINE_BUFFER_BYTES = BLOCK_BYTES * 6;
+    // the Clip version played music 10 dB down
+    private static final double GAIN = Math.pow(10, -10.0 / 20);
+
+    private static MusicStream shared;
+
+    private final byte[] ring = new byte[RING_BYTES];
+    private final byte[] block = new byte[BLOCK_BYTES];
+    private int ringStart = 0;
+    private int ringCount = 0;
+    private URL source;
+    private AudioInputStream input;
+
+    // requests from the game thread, guarded by this
+    private URL track;
+    private boolean paused = false;
+    private boolean restart = false;
+    private boolean running = false;
+    private Thread musicThread;
+
+    private SourceDataLine line;
+    private boolean unavailable = false;
+
+    /**
+     * Get the game's music player.
+     * @return shared music stream
+     */
+    public static synchronized MusicStream shared() {
+        if (shared == null) {
+            shared = new MusicStream();
+        }
+        return shared;
+    }
+
+    /**
+     * Play a track from the start, or resume it if it is the paused track.
+     * @param url music file
+     */
+    public synchronized void play(URL url) {
+        if (url == null) return;
+        if (!url.equals(track)) {
+            track = url;
+            restart = true;
+        }
+        paused = false;
+        if (!running) {
+            running = true;
+            musicThread = new Thread(this, "music-stream");
+            musicThread.setDaemon(true);
+            musicThread.start();
+        }
+        notifyAll();
+    }
+
+    /**
+     * Pause the current track, keeping its position.
+     */
+    public synchronized void pause() {
+        paused = true;
+    }
+
+    /**
+     * Stop the current track; the next play starts from the beginning.
+     */
+    public synchronized void stop() {
+        track = null;
+        notifyAll();
+    }
+
+    /**
+     * Check if music is being played.
+     * @return true if a track is playing and not paused
+     */
+    public synchronized boolean isPlaying() {
+        return track != null && !paused;
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            boolean reload;
+            URL next;
+            synchronized (this) {
+                while (track == null || paused) {
+                    if (line != null) {
+                        // a stop also drops what is buffered, a pause keeps it for resume
+                        line.stop();
+                        if (track == null) line.flush();
+                    }
+                    if (track == null) {
+                        closeInput();
+                        source = null;
+                    }
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        running = false;
+                        return;
+                    }
+                }
+                reload = restart;
+                restart = false;
+                next = track;
+            }
+            if (!openLine()) {
+                synchronized (this) {
+                    track = null;
+                }
+                continue;
+            }
+            if (reload) {
+                line.stop();
+                line.flush();
+                load(next);
+            }
+            int count = read(block);
+            if (count == 0) {
+                // nothing left to play (unreadable or empty file)
+                synchronized (this) {
+                    if (track == next) track = null;
+                }
+                continue;
+            }
+            applyGain(block, count);
+            line.start();
+            line.write(block, 0, count);
+        }
+    }
+
+    /**
+     * Start reading a track from the beginning, dropping anything buffered.
+     * The music thread calls this; it is public so streaming can be checked without a device.
+     * @param url music file
+     */
+    public void load(URL url) {
+        closeInput();
+        source = url;
+        ringStart = 0;
+        ringCount = 0;
+        openInput();
+    }
+
+    /**
+     * Take the next bytes of the loaded track, topping up the ring buffer from the file and
+     * looping back to the start at the end.
+     * @param out buffer to fill with SoundMixer.FORMAT samples
+     * @return number of bytes copied (whole frames; fewer than requested only if the file is unreadable)
+     */
+    public int read(byte[] out) {
+        int frameSize = SoundMixer.FORMAT.getFrameSize();
+        int wanted = out.length - out.length % frameSize;
+        // keep the whole ring topped up so a slow reopen at the loop point is covered
+        while (ringCount < ring.length && fill()) {
+            // fill() returns false once nothing more can be read
+        }
+        int count = Math.min(wanted, ringCount - ringCount % frameSize);
+        int first = Math.min(count, ring.length - ringStart);
+        System.arraycopy(ring, ringStart, out, 0, first);
+        System.arraycopy(ring, 0, out, first, count - first);
+        ringStart = (ringStart + count) % ring.length;
+        ringCount -= count;
+        return count;
+    }
+
+    /**
+     * Read from the file into the free part of the ring, reopening the file at its end.
+     * @return false if no data could be read
+     */
+    private boolean fill() {
+        if (input == null || ringCount == ring.length) return false;
+        int end = (ringStart + ringCount) % ring.length;
+        int space = end >= ringStart ? ring.length - end : ringStart - end;
+        space = Math.min(space, ring.length - ringCount);
+        try {
+            int n = input.read(ring, end, space);
+            if (n > 0) {
+                ringCount += n;
+                return true;
+            }
+            // end of the file: loop by reading it again from the start
+            closeInput();
+            openInput();
+            if (input == null) return false;
+            n = input.read(ring, end, space);
+            if (n <= 0) {
+                closeInput();
+                return false;
+            }
+            ringCount += n;
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            closeInput();
+            return false;
+        }
+    }
+
+    private void openInput() {
+        if (source == null) return;
+        try {
+            AudioInputStream ais = AudioSystem.getAudioInputStream(source);
+            if (!ais.getFormat().matches(SoundMixer.FORMAT)) {
+                ais = AudioSystem.getAudioInputStream(SoundMixer.FORMAT, ais);
+            }
+            input = ais;
+        } catch (IOException | UnsupportedAudioFileException | IllegalArgumentException e) {
+            e.printStackTrace();
+            input = null;
+        }
+    }
+
+    private void closeInput() {
+        if (input == null) return;
+        try {
+            input.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        input = null;
+    }
+
+    /**
+     * Open the output line the first time it is needed (only tried once).
+     * @return true if the line is open
+     */
+    private boolean openLine() {
+        if (line != null) return true;
+        if (unavailable) return false;
+        try {
+            line = AudioSystem.getSourceDataLine(SoundMixer.FORMAT);
+            line.open(SoundMixer.FORMAT, LINE_BUFFER_BYTES);
+            return true;
+        } catch (LineUnavailableException | IllegalArgumentException | SecurityException e) {
+            unavailable = true;
+            line = null;
+            return false;
+        }
+    }
+
+    private static void applyGain(byte[] pcm, int count) {
+        for (int i = 0; i + 1 < count; i += 2) {
+            int sample = (short) ((pcm[i] & 0xFF) | (pcm[i + 1] << 8));
+            sample = (int) (sample * GAIN);
+            pcm[i] = (byte) sample;
+            pcm[i + 1] = (byte) (sample >> 8);
+        }
+    }
+}
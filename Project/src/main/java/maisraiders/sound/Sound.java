@@ -4,86 +4,149 @@ import java.io.IOException;
 
 import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
-import javax.sound.sampled.Clip;
-import javax.sound.sampled.FloatControl;
 
 import java.net.URL;
 
-import javax.sound.sampled.LineUnavailableException;
 import javax.sound.sampled.UnsupportedAudioFileException;
 
 /**
  * A class to play sound effects during the game
  */
 public class Sound {
-    Clip clip; // to open audio files
-    Clip musicClip;
     URL soundURL[] = new URL[15];
+    private boolean muted = false;
+
+    private static final String[] SOUND_PATHS = {
+        "/sound/maintheme.wav", // main game theme
+        "/sound/collect.wav", // collecting corn
+        "/sound/blocked.wav", //walking into barrier
+        "/sound/steps.wav", // stepping through mud
+        "/sound/parry.wav", // avoiding alien
+        "/sound/gameover.wav", // game over
+        "/sound/fanfare.wav", // game won
+        "/sound/cursor.wav", // cursor
+        "/sound/powerup.wav", // collecting pitchfork
+        "/sound/doorclose.wav", // door sound (closed)
+    };
+    // tracks played by MusicStream, never decoded into memory
+    private static final int MUSIC_TRACKS = 1;
+    // sound files decoded ahead of time by preload(), shared by every Sound
+    private static final byte[][] decodedData = new byte[SOUND_PATHS.length][];
+
     // load the sound files into the array
     public Sound() {
-        this.clip = null;
-        this.musicClip = null;
-        soundURL[0] = getClass().getResource("/sound/maintheme.wav"); // main game theme
-        soundURL[1] = getClass().getResource("/sound/collect.wav"); // collecting corn
-        soundURL[2] = getClass().getResource("/sound/blocked.wav"); //walking into barrier
-        soundURL[3] = getClass().getResource("/sound/steps.wav"); // stepping through mud
-        soundURL[4] = getClass().getResource("/sound/parry.wav"); // avoiding alien
-        soundURL[5] = getClass().getResource("/sound/gameover.wav"); // game over
-        soundURL[6] = getClass().getResource("/sound/fanfare.wav"); // game won
-        soundURL[7] = getClass().getResource("/sound/cursor.wav"); // cursor
-        soundURL[8] = getClass().getResource("/sound/powerup.wav"); // collecting pitchfork
-        soundURL[9] = getClass().getResource("/sound/doorclose.wav"); // door sound (closed)
+        for (int i = 0; i < SOUND_PATHS.length; i++) {
+            soundURL[i] = getClass().getResource(SOUND_PATHS[i]);
+        }
     }
 
-    public  void setFile(int i) {
-        try {
-            AudioInputStream ais = AudioSystem.getAudioInputStream(soundURL[i]);
-            clip = AudioSystem.getClip();
-            clip.open(ais);
-        }catch (IOException | LineUnavailableException | UnsupportedAudioFileException e){
-            e.printStackTrace();
-        }
+    /**
+     * Get the number of sounds.
+     * @return sound count
+     */
+    public static int getSoundCount() {
+        return SOUND_PATHS.length;
     }
 
-    public void play() {
-        if (clip != null) {
-            clip.start();
-        }
+    /**
+     * Get the resource path of a sound.
+     * @param i sound number
+     * @return resource path
+     */
+    public static String getSoundPath(int i) {
+        return SOUND_PATHS[i];
     }
 
-    public void loop() {
-        if (clip != null) {
-            clip.loop(Clip.LOOP_CONTINUOUSLY);
+    /**
+     * Check if a sound is a music track (streamed, not an effect).
+     * @param i sound number
+     * @return true for music
+     */
+    public static boolean isMusic(int i) {
+        return i < MUSIC_TRACKS;
+    }
+
+    /**
+     * Decode a sound effect into memory so playing it later doesn't touch the file. Music tracks
+     * are left to MusicStream.
+     * @param i sound number
+     * @return true if the sound is decoded (false for music, or if the file is missing or unreadable)
+     */
+    public static boolean preload(int i) {
+        if (isMusic(i)) return false;
+        synchronized (decodedData) {
+            if (decodedData[i] != null) return true;
+        }
+        URL url = Sound.class.getResource(SOUND_PATHS[i]);
+        if (url == null) return false;
+        try (AudioInputStream ais = AudioSystem.getAudioInputStream(url)) {
+            AudioInputStream pcm = ais;
+            // the mixer only takes one format, so anything else is converted once here
+            if (!ais.getFormat().matches(SoundMixer.FORMAT)) {
+                pcm = AudioSystem.getAudioInputStream(SoundMixer.FORMAT, ais);
+            }
+            byte[] data = pcm.readAllBytes();
+            synchronized (decodedData) {
+                decodedData[i] = data;
+            }
+            return true;
+        } catch (IOException | UnsupportedAudioFileException | IllegalArgumentException e) {
+            e.printStackTrace();
+            return false;
         }
     }
 
-    public void stop() {
-        if (clip != null) {
-            clip.stop();
+    /**
+     * Silence all music and sound effects (headless runs have no audio device).
+     * @param muted true to stop opening any audio lines
+     */
+    public void setMuted(boolean muted) {
+        this.muted = muted;
+        if (muted) {
+            stopMusic();
         }
     }
 
+    public boolean isMuted() {
+        return muted;
+    }
+
+    /**
+     * Stream a looping music track, resuming it if it was paused.
+     * @param i sound number
+     */
     public void playMusic(int i) {
-        try {
-            AudioInputStream ais = AudioSystem.getAudioInputStream(soundURL[i]);
-            musicClip = AudioSystem.getClip();
-            musicClip.open(ais);
-            FloatControl gainControl = (FloatControl) musicClip.getControl(FloatControl.Type.MASTER_GAIN);
-            gainControl.setValue(-10.0f); // Reduce volume by 10 decibels.
-            musicClip.loop(Clip.LOOP_CONTINUOUSLY);  // Loop the music indefinitely
-            musicClip.start();
-        }catch (IOException | LineUnavailableException | UnsupportedAudioFileException e){
-            e.printStackTrace();
-        }
+        if (muted) return;
+        MusicStream.shared().play(soundURL[i]);
     }
+
+    /**
+     * Pause the music; playMusic with the same track resumes it.
+     */
+    public void pauseMusic() {
+        MusicStream.shared().pause();
+    }
+
     public void stopMusic(){
-        if (musicClip != null) {
-            musicClip.stop();
-        }
+        MusicStream.shared().stop();
     }
-    public void playSE(int i) {
-        setFile(i);
-        play();
 
+    /**
+     * Queue a sound effect on the shared mixer. Never opens a line or reads a file: the mixer is
+     * started and the effects decoded at start-up by the asset preloader, and an effect that is
+     * not decoded yet, or played with no audio device, is skipped.
+     * @param i sound number
+     */
+    public void playSE(int i) {
+        if (muted) return;
+        SoundMixer mixer = SoundMixer.shared();
+        if (!mixer.isRunning()) return;
+        byte[] data;
+        synchronized (decodedData) {
+            data = decodedData[i];
+        }
+        if (data != null) {
+            mixer.play(data);
+        }
     }
 }
@@ -0,0 +1,196 @@
+package maisraiders.sound;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+
+/**
+ * Plays sound effects from memory on its own audio thread.
+ *
+ * Effects are already-decoded PCM in FORMAT. play() only queues the sample, so the game thread
+ * never opens files or lines. The audio thread starts queued samples on a fixed pool of voices,
+ * mixes the voices in software and writes the result to one line opened at start-up. When every
+ * voice is busy the voice that has played longest is reused.
+ */
+public class SoundMixer implements Runnable {
+    /** Format every effect is decoded to (the format of the game's WAV files). */
+    public static final AudioFormat FORMAT = new AudioFormat(48000f, 16, 2, true, false);
+    public static final int VOICES = 8;
+    // frames mixed per write, about 5 ms
+    private static final int BLOCK_FRAMES = 256;
+    // line buffer, about 40 ms: the most an effect can lag behind its play() call
+    private static final int LINE_BUFFER_FRAMES = BLOCK_FRAMES * 8;
+    private static final int PENDING_LIMIT = 32;
+
+    private static SoundMixer shared;
+
+    private final int channels = FORMAT.getChannels();
+    private final int frameSize = FORMAT.getFrameSize();
+    private final ArrayBlockingQueue<byte[]> pending = new ArrayBlockingQueue<>(PENDING_LIMIT);
+    // voice state, touched only by the thread that mixes
+    private final byte[][] voiceSample = new byte[VOICES][];
+    private final int[] voicePosition = new int[VOICES];
+    private final int[] mixBuffer = new int[BLOCK_FRAMES * 2];
+    private final byte[] outBuffer = new byte[BLOCK_FRAMES * FORMAT.getFrameSize()];
+
+    private SourceDataLine line;
+    private Thread audioThread;
+    private volatile boolean running = false;
+    private boolean unavailable = false;
+
+    /**
+     * Get the game's mixer (not started until the first effect plays).
+     * @return shared mixer
+     */
+    public static synchronized SoundMixer shared() {
+        if (shared == null) {
+            shared = new SoundMixer();
+        }
+        return shared;
+    }
+
+    /**
+     * Open the output line and start the audio thread (only tried once).
+     * @return true if the mixer is running
+     */
+    public synchronized boolean start() {
+        if (running) return true;
+        if (unavailable) return false;
+        try {
+            line = AudioSystem.getSourceDataLine(FORMAT);
+            line.open(FORMAT, LINE_BUFFER_FRAMES * frameSize);
+            line.start();
+        } catch (LineUnavailableException | IllegalArgumentException | SecurityException e) {
+            // no audio device (e.g. a server): effects are silently dropped
+            unavailable = true;
+            line = null;
+            return false;
+        }
+        running = true;
+        audioThread = new Thread(this, "audio-mixer");
+        audioThread.setDaemon(true);
+        audioThread.setPriority(Thread.MAX_PRIORITY);
+        audioThread.start();
+        return true;
+    }
+
+    /**
+     * Stop the audio thread and close the line.
+     */
+    public synchronized void close() {
+        if (!running) return;
+        running = false;
+        try {
+            audioThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        line.stop();
+        line.close();
+        line = null;
+    }
+
+    /**
+     * Check if the audio thread is running.
+     * @return true while effects are being played
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Queue an effect. Never blocks: if too many effects are waiting the new one is dropped.
+     * @param pcm samples in FORMAT
+     */
+    public void play(byte[] pcm) {
+        if (pcm == null || pcm.length < frameSize) return;
+        pending.offer(pcm);
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            int bytes = mix(outBuffer);
+            // blocks while the line's buffer is full, which paces the loop
+            line.write(outBuffer, 0, bytes);
+        }
+        line.drain();
+    }
+
+    /**
+     * Start queued effects and mix the next block of every voice into out.
+     * The audio thread calls this; it is public so mixing can be checked without a device.
+     * @param out buffer receiving little-endian FORMAT samples (whole frames, at most one block)
+     * @return number of bytes written
+     */
+    public int mix(byte[] out) {
+        startPending();
+        int frames = Math.min(BLOCK_FRAMES, out.length / frameSize);
+        int samples = frames * channels;
+        Arrays.fill(mixBuffer, 0, samples, 0);
+
+        for (int v = 0; v < VOICES; v++) {
+            byte[] pcm = voiceSample[v];
+            if (pcm == null) continue;
+            int position = voicePosition[v];
+            int available = (pcm.length - position) / 2;
+            int count = Math.min(samples, available);
+            for (int i = 0; i < count; i++) {
+                int at = position + i * 2;
+                mixBuffer[i] += (short) ((pcm[at] & 0xFF) | (pcm[at + 1] << 8));
+            }
+            position += count * 2;
+            if (pcm.length - position < frameSize) {
+                voiceSample[v] = null;
+            } else {
+                voicePosition[v] = position;
+            }
+        }
+
+        for (int i = 0; i < samples; i++) {
+            int value = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, mixBuffer[i]));
+            out[i * 2] = (byte) value;
+            out[i * 2 + 1] = (byte) (value >> 8);
+        }
+        return frames * frameSize;
+    }
+
+    /**
+     * Get how many voices are playing.
+     * @return active voice count
+     */
+    public int getActiveVoices() {
+        int active = 0;
+        for (byte[] pcm : voiceSample) {
+            if (pcm != null) active++;
+        }
+        return active;
+    }
+
+    /**
+     * Move queued effects onto free voices, reusing the one furthest along when none is free.
+     */
+    private void startPending() {
+        byte[] pcm;
+        while ((pcm = pending.poll()) != null) {
+            int voice = -1;
+            int furthest = -1;
+            for (int v = 0; v < VOICES; v++) {
+                if (voiceSample[v] == null) {
+                    voice = v;
+                    break;
+                }
+                if (furthest < 0 || voicePosition[v] > voicePosition[furthest]) {
+                    furthest = v;
+                }
+            }
+            if (voice < 0) voice = furthest;
+            voiceSample[voice] = pcm;
+            voicePosition[voice] = 0;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package maisraiders.ui;
+
+/**
+ * The part of the level shown in the window, kept centred on a target (the farmer) and clamped
+ * to the level's edges. Positions are world pixels; drawing at (x - getX(), y - getY()) puts a
+ * world point on screen.
+ */
+public final class Camera {
+    private int x = 0;
+    private int y = 0;
+    private int viewportWidth;
+    private int viewportHeight;
+
+    /**
+     * Camera constructor.
+     * @param viewportWidth width of the view in pixels
+     * @param viewportHeight height of the view in pixels
+     */
+    public Camera(int viewportWidth, int viewportHeight) {
+        this.viewportWidth = viewportWidth;
+        this.viewportHeight = viewportHeight;
+    }
+
+    /**
+     * Change the size of the view (e.g. when the window is resized).
+     * @param width width of the view in pixels
+     * @param height height of the view in pixels
+     */
+    public void setViewport(int width, int height) {
+        this.viewportWidth = width;
+        this.viewportHeight = height;
+    }
+
+    /**
+     * Centre the view on a point, without showing anything past the edges of the world.
+     * A world smaller than the view stays at the top-left corner.
+     * @param targetX world pixel X to centre on
+     * @param targetY world pixel Y to centre on
+     * @param worldWidth world width in pixels
+     * @param worldHeight world height in pixels
+     */
+    public void follow(int targetX, int targetY, int worldWidth, int worldHeight) {
+        x = clamp(targetX - viewportWidth / 2, worldWidth - viewportWidth);
+        y = clamp(targetY - viewportHeight / 2, worldHeight - viewportHeight);
+    }
+
+    private static int clamp(int value, int max) {
+        return Math.max(0, Math.min(value, max));
+    }
+
+    /**
+     * Get the world pixel X at the left edge of the view.
+     * @return view X
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Get the world pixel Y at the top edge of the view.
+     * @return view Y
+     */
+    public int getY() {
+        return y;
+    }
+
+    public int getViewportWidth() {
+        return viewportWidth;
+    }
+
+    public int getViewportHeight() {
+        return viewportHeight;
+    }
+
+    /**
+     * Check if a point is in view, or within a margin of it (for sprites drawn around the point).
+     * @param worldX world pixel X
+     * @param worldY world pixel Y
+     * @param margin extra pixels around the view that still count
+     * @return true if something at the point could be visible
+     */
+    public boolean isVisible(int worldX, int worldY, int margin) {
+        return worldX >= x - margin && worldX < x + viewportWidth + margin
+                && worldY >= y - margin && worldY < y + viewportHeight + margin;
+    }
+}
@@ -0,0 +1,298 @@
+package maisraiders.ui;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Every sprite, tile and UI image the game draws, decoded once and packed into one atlas.
+ *
+ * Two atlases are kept: the decoded source images at their original size, and a copy where every
+ * sprite is already scaled to the size it is drawn at (a number of tiles at the current tile
+ * size) in the screen's compatible image format. get() hands out views into the scaled copy, so
+ * drawing a sprite at its usual size is a plain unscaled blit instead of a scaled drawImage
+ * from a freshly decoded PNG.
+ */
+public final class SpriteAtlas {
+    public static final int DEFAULT_TILE_SIZE = 64;
+    private static final int MAX_ATLAS_WIDTH = 2048;
+
+    // resource path, drawn width in tiles, drawn height in tiles
+    private static final Object[][] SPRITES = {
+        // farmer
+        {"/sprites/farmer/farmer-bw1.png", 1, 1}, {"/sprites/farmer/farmer-bw2.png", 1, 1},
+        {"/sprites/farmer/farmer-bw3.png", 1, 1}, {"/sprites/farmer/farmer-bw4.png", 1, 1},
+        {"/sprites/farmer/farmer-fw1.png", 1, 1}, {"/sprites/farmer/farmer-fw2.png", 1, 1},
+        {"/sprites/farmer/farmer-fw3.png", 1, 1}, {"/sprites/farmer/farmer-fw4.png", 1, 1},
+        {"/sprites/farmer/farmer-rw1.png", 1, 1}, {"/sprites/farmer/farmer-rw2.png", 1, 1},
+        {"/sprites/farmer/farmer-rw3.png", 1, 1}, {"/sprites/farmer/farmer-rw4.png", 1, 1},
+        {"/sprites/farmer/farmer-lw1.png", 1, 1}, {"/sprites/farmer/farmer-lw2.png", 1, 1},
+        {"/sprites/farmer/farmer-lw3.png", 1, 1}, {"/sprites/farmer/farmer-lw4.png", 1, 1},
+        // alien
+        {"/sprites/alien/alien-bw1.png", 1, 1}, {"/sprites/alien/alien-bw2.png", 1, 1},
+        {"/sprites/alien/alien-bw3.png", 1, 1}, {"/sprites/alien/alien-bw4.png", 1, 1},
+        {"/sprites/alien/alien-fw1.png", 1, 1}, {"/sprites/alien/alien-fw2.png", 1, 1},
+        {"/sprites/alien/alien-fw3.png", 1, 1}, {"/sprites/alien/alien-fw4.png", 1, 1},
+        {"/sprites/alien/alien-rw1.png", 1, 1}, {"/sprites/alien/alien-rw2.png", 1, 1},
+        {"/sprites/alien/alien-rw3.png", 1, 1}, {"/sprites/alien/alien-rw4.png", 1, 1},
+        {"/sprites/alien/alien-lw1.png", 1, 1}, {"/sprites/alien/alien-lw2.png", 1, 1},
+        {"/sprites/alien/alien-lw3.png", 1, 1}, {"/sprites/alien/alien-lw4.png", 1, 1},
+        // tiles
+        {"/tiles/dirt2.png", 1, 1}, {"/tiles/grass.png", 1, 1}, {"/tiles/exit.png", 1, 1},
+        {"/tiles/doorB.png", 1, 1}, {"/tiles/lhs-houseB.png", 1, 1},
+        {"/tiles/rhs-house-inB.png", 1, 1}, {"/tiles/rhs-house-outB.png", 1, 1},
+        {"/tiles/bordB.png", 1, 1}, {"/tiles/bordT.png", 1, 1},
+        {"/tiles/bordR.png", 1, 1}, {"/tiles/bordL.png", 1, 1},
+        // objects
+        {"/objects/haybale.png", 1, 1}, {"/objects/tractor.png", 1, 1},
+        {"/objects/corn3.png", 1, 1}, {"/objects/rainbowcorn.png", 1, 1},
+        {"/objects/pitchfork2.png", 1, 1}, {"/traps/mudtrap.png", 1, 1},
+        // title screen
+        {"/objects/corn-side-bar-lhs.png", 6, 12}, {"/objects/corn-side-bar-rhs.png", 6, 12},
+        {"/objects/alien-side-bar-lhs.png", 4, 8}, {"/objects/alien-side-bar-rhs.png", 4, 8},
+        {"/sprites/titlescreen/farmer-title.png", 8, 8},
+        {"/sprites/titlescreen/title-bkg-house.png", 20, 16},
+    };
+
+    private static SpriteAtlas shared;
+
+    private final GraphicsConfiguration configuration;
+    private final BufferedImage sourceAtlas;
+    private final Map<String, Rectangle> sourceRegions = new HashMap<>();
+    private final Map<String, int[]> tileSpans = new HashMap<>();
+
+    private int tileSize = 0;
+    private BufferedImage scaledAtlas;
+    private Map<String, BufferedImage> scaledSprites = new HashMap<>();
+
+    /**
+     * Get the game's atlas, decoding and packing every sprite on first use.
+     * @return shared atlas
+     */
+    public static synchronized SpriteAtlas shared() {
+        if (shared == null) {
+            shared = new SpriteAtlas(defaultConfiguration(), DEFAULT_TILE_SIZE, Map.of());
+        }
+        return shared;
+    }
+
+    /**
+     * Check whether the shared atlas has been built yet (a headless match never builds it).
+     * @return true once shared() or install() has run
+     */
+    public static synchronized boolean isLoaded() {
+        return shared != null;
+    }
+
+    /**
+     * Build the shared atlas from images that were already decoded (e.g. in parallel at startup).
+     * Sprites missing from the map are decoded here. Does nothing if the atlas already exists.
+     * @param decoded decoded images by resource path
+     * @return true if the atlas was built from these images
+     */
+    public static synchronized boolean install(Map<String, BufferedImage> decoded) {
+        if (shared != null) return false;
+        shared = new SpriteAtlas(defaultConfiguration(), DEFAULT_TILE_SIZE, decoded);
+        return true;
+    }
+
+    /**
+     * Get the resource path of every sprite in the atlas.
+     * @return sprite paths
+     */
+    public static List<String> getSpritePaths() {
+        List<String> paths = new ArrayList<>();
+        for (Object[] sprite : SPRITES) {
+            paths.add((String) sprite[0]);
+        }
+        return paths;
+    }
+
+    private static GraphicsConfiguration defaultConfiguration() {
+        if (GraphicsEnvironment.isHeadless()) return null;
+        return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                .getDefaultConfiguration();
+    }
+
+    /**
+     * SpriteAtlas constructor: decode and pack the sprites, then scale them.
+     * @param configuration screen the scaled atlas should be compatible with, or null when headless
+     * @param tileSize tile size in pixels to scale for
+     * @param decoded images already decoded, by resource path (the rest are decoded here)
+     */
+    SpriteAtlas(GraphicsConfiguration configuration, int tileSize, Map<String, BufferedImage> decoded) {
+        this.configuration = configuration;
+        List<String> paths = new ArrayList<>();
+        List<BufferedImage> images = new ArrayList<>();
+        for (Object[] sprite : SPRITES) {
+            String path = (String) sprite[0];
+            BufferedImage image = decoded.get(path);
+            if (image == null) image = decode(path);
+            tileSpans.put(path, new int[] {(Integer) sprite[1], (Integer) sprite[2]});
+            if (image == null) continue;
+            paths.add(path);
+            images.add(image);
+        }
+
+        List<Rectangle> regions = new ArrayList<>();
+        for (BufferedImage image : images) {
+            regions.add(new Rectangle(image.getWidth(), image.getHeight()));
+        }
+        Rectangle bounds = pack(regions);
+        sourceAtlas = new BufferedImage(bounds.width, bounds.height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2 = sourceAtlas.createGraphics();
+        g2.setComposite(AlphaComposite.Src);
+        for (int i = 0; i < images.size(); i++) {
+            Rectangle r = regions.get(i);
+            g2.drawImage(images.get(i), r.x, r.y, null);
+            sourceRegions.put(paths.get(i), r);
+        }
+        g2.dispose();
+        setTileSize(tileSize);
+    }
+
+    /**
+     * Get a sprite already scaled to its drawn size at the current tile size.
+     * The image is a view into the atlas; after setTileSize() changes the size, get it again.
+     * @param path resource path of the sprite, e.g. "/objects/corn3.png"
+     * @return scaled sprite, or null if the resource could not be loaded
+     * @throws IllegalArgumentException if the path is not one of the atlas sprites
+     */
+    public synchronized BufferedImage get(String path) {
+        if (!tileSpans.containsKey(path)) {
+            throw new IllegalArgumentException("Not an atlas sprite: " + path);
+        }
+        return scaledSprites.get(path);
+    }
+
+    /**
+     * Get the tile size the sprites are currently scaled for.
+     * @return tile size in pixels
+     */
+    public synchronized int getTileSize() {
+        return tileSize;
+    }
+
+    /**
+     * Scale every sprite again for a new tile size (nothing happens if the size is unchanged).
+     * Only the scaled copy is rebuilt, the PNGs are never decoded again.
+     * @param newTileSize tile size in pixels
+     */
+    public synchronized void setTileSize(int newTileSize) {
+        if (newTileSize == tileSize) return;
+        List<String> paths = new ArrayList<>(sourceRegions.keySet());
+        List<Rectangle> regions = new ArrayList<>();
+        for (String path : paths) {
+            int[] span = tileSpans.get(path);
+            regions.add(new Rectangle(span[0] * newTileSize, span[1] * newTileSize));
+        }
+        Rectangle bounds = pack(regions);
+        BufferedImage atlas = configuration != null
+                ? configuration.createCompatibleImage(bounds.width, bounds.height, Transparency.TRANSLUCENT)
+                : new BufferedImage(bounds.width, bounds.height, BufferedImage.TYPE_INT_ARGB_PRE);
+
+        Map<String, BufferedImage> sprites = new HashMap<>();
+        Graphics2D g2 = atlas.createGraphics();
+        g2.setComposite(AlphaComposite.Src);
+        for (int i = 0; i < paths.size(); i++) {
+            Rectangle src = sourceRegions.get(paths.get(i));
+            Rectangle dst = regions.get(i);
+            // default (nearest neighbour) scaling, same as the scaled drawImage calls it replaces
+            g2.drawImage(sourceAtlas, dst.x, dst.y, dst.x + dst.width, dst.y + dst.height,
+                    src.x, src.y, src.x + src.width, src.y + src.height, null);
+            sprites.put(paths.get(i), atlas.getSubimage(dst.x, dst.y, dst.width, dst.height));
+        }
+        g2.dispose();
+
+        scaledAtlas = atlas;
+        scaledSprites = sprites;
+        tileSize = newTileSize;
+    }
+
+    /**
+     * Get the packed atlas of scaled sprites.
+     * @return scaled atlas image
+     */
+    public synchronized BufferedImage getScaledAtlas() {
+        return scaledAtlas;
+    }
+
+    /**
+     * Draw a sprite, as a plain copy when it already has the requested size and scaled otherwise.
+     * @param g2 graphics to draw on
+     * @param sprite sprite to draw (null draws nothing)
+     * @param x left pixel
+     * @param y top pixel
+     * @param width drawn width
+     * @param height drawn height
+     */
+    public static void draw(Graphics2D g2, BufferedImage sprite, int x, int y, int width, int height) {
+        if (sprite == null) return;
+        if (sprite.getWidth() == width && sprite.getHeight() == height) {
+            g2.drawImage(sprite, x, y, null);
+        } else {
+            g2.drawImage(sprite, x, y, width, height, null);
+        }
+    }
+
+    /**
+     * Decode one PNG from the classpath.
+     * @param path resource path
+     * @return decoded image, or null if it is missing or broken
+     */
+    public static BufferedImage decode(String path) {
+        try (InputStream input = SpriteAtlas.class.getResourceAsStream(path)) {
+            if (input == null) {
+                throw new IOException("Resource not found on classpath: " + path);
+            }
+            return ImageIO.read(input);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Place rectangles on shelves: tallest first, left to right, a new shelf when a row is full.
+     * Sets x/y of every rectangle.
+     * @param regions rectangles with their sizes set
+     * @return size of the packed area
+     */
+    static Rectangle pack(List<Rectangle> regions) {
+        List<Rectangle> byHeight = new ArrayList<>(regions);
+        byHeight.sort((a, b) -> b.height != a.height ? b.height - a.height : b.width - a.width);
+        int atlasWidth = MAX_ATLAS_WIDTH;
+        for (Rectangle r : byHeight) {
+            atlasWidth = Math.max(atlasWidth, r.width);
+        }
+        int x = 0;
+        int y = 0;
+        int shelfHeight = 0;
+        int usedWidth = 1;
+        for (Rectangle r : byHeight) {
+            if (x + r.width > atlasWidth) {
+                x = 0;
+                y += shelfHeight;
+                shelfHeight = 0;
+            }
+            r.x = x;
+            r.y = y;
+            x += r.width;
+            shelfHeight = Math.max(shelfHeight, r.height);
+            usedWidth = Math.max(usedWidth, x);
+        }
+        return new Rectangle(usedWidth, Math.max(1, y + shelfHeight));
+    }
+}
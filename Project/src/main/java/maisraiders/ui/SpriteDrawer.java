@@ -3,13 +3,17 @@ package maisraiders.ui;
 
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.Point;
+import java.util.ArrayList;
 import java.util.List;
 
 import javax.swing.JPanel;
 
 import maisraiders.entities.Alien;
+import maisraiders.entities.AlienSwarm;
 import maisraiders.entities.Farmer;
 import maisraiders.enums.GameState;
+import maisraiders.enums.TickPhase;
 import maisraiders.object.GameObject;
 import maisraiders.panel.Board;
 import maisraiders.panel.Game;
@@ -18,15 +22,26 @@ import maisraiders.panel.GameLoop;
 public class SpriteDrawer extends JPanel {
     int spriteSize;
     Farmer farmer;
-    Alien alien1;
-    Alien alien2;
+    // every alien on the level, drawn in order
+    transient List<Alien> aliens = new ArrayList<>();
+    // swarm aliens, drawn after the others
+    transient AlienSwarm swarm;
     public List<GameObject> objects;
+    // holder whose object index is asked for the objects in view, and the list it fills
+    private transient GameObject objectHolder;
+    private final transient List<GameObject> visibleObjects = new ArrayList<>();
     GameLoop gl;
     Ui ui;
     Game game;
     Board gameBoard;
     TileRenderer tileRenderer;
+    // board tiles rasterised once, blitted every frame
+    transient StaticBoardLayer boardLayer;
+    // follows the farmer on levels bigger than the window
+    final transient Camera camera = new Camera(0, 0);
     Graphics2D g2;
+    // fraction of a tick between the last update and this frame, for interpolated movement
+    double renderAlpha = 1.0;
     
     public void setSpriteDrawer(GameLoop gameLoop, Game game, Ui ui) {
         gl = gameLoop;
@@ -35,11 +50,20 @@ public class SpriteDrawer extends JPanel {
         
         // Initialize the tile renderer
         tileRenderer = new TileRenderer(gl.tileSize);
+        boardLayer = new StaticBoardLayer(tileRenderer);
     }
     
     public void setBoard(Board board) {
         this.gameBoard = board;
     }
+
+    /**
+     * Set the level's swarm aliens to draw.
+     * @param swarm swarm store
+     */
+    public void setSwarm(AlienSwarm swarm) {
+        this.swarm = swarm;
+    }
     public void resetSprites(){
         // 2. Draw objects (corn, traps, pitchfork)
         if (objects != null) {
@@ -50,30 +74,54 @@ public class SpriteDrawer extends JPanel {
 
         // 3. Draw player
         if (farmer != null){
-            farmer.draw(g2, spriteSize);
-        }
-
-        // 4. Draw 1st alien
-        if (alien1 != null) {
-            alien1.draw(g2, spriteSize);
+            farmer.draw(g2, spriteSize, renderAlpha);
         }
 
-        // 5. Draw 2nd alien
-        if (alien2 != null) {
-            alien2.draw(g2, spriteSize);
+        // 4. Draw aliens
+        for (Alien alien : aliens) {
+            alien.draw(g2, spriteSize, renderAlpha);
         }
 
-        // 6. Draw UI on top
+        // 5. Draw UI on top
         if (ui != null) {
             ui.draw(g2);
         }
     }
     public void drawSprite(Farmer farmer, Alien alien1, Alien alien2,int size, GameObject obj) {
+        drawSprite(farmer, alien1, alien2, size, obj, 1.0);
+    }
+
+    /**
+     * Queue a repaint that draws moving entities part way between their last two tick positions.
+     * @param farmer The player
+     * @param alien1 first alien
+     * @param alien2 second alien
+     * @param size sprite size
+     * @param obj object list holder
+     * @param alpha interpolation factor in [0, 1]
+     */
+    public void drawSprite(Farmer farmer, Alien alien1, Alien alien2, int size, GameObject obj, double alpha) {
+        List<Alien> both = new ArrayList<>();
+        if (alien1 != null) both.add(alien1);
+        if (alien2 != null) both.add(alien2);
+        drawSprite(farmer, both, size, obj, alpha);
+    }
+
+    /**
+     * Queue a repaint of the farmer and any number of aliens, interpolated between ticks.
+     * @param farmer The player
+     * @param aliens every alien on the level
+     * @param size sprite size
+     * @param obj object list holder
+     * @param alpha interpolation factor in [0, 1]
+     */
+    public void drawSprite(Farmer farmer, List<Alien> aliens, int size, GameObject obj, double alpha) {
+        this.renderAlpha = alpha;
         this.farmer = farmer;
-        this.alien1 = alien1;
-        this.alien2 = alien2;
+        this.aliens = aliens;
         spriteSize = size;
         objects = obj.getInstances();
+        objectHolder = obj;
         repaint();
     }
 
@@ -83,45 +131,65 @@ public class SpriteDrawer extends JPanel {
         super.paintComponent(g);
         this.g2 = (Graphics2D) g;
         if (game != null) {
+            long paintStart = gl.getProfiler().begin();
             if (game.getGameState() == GameState.TITLE) {
                 ui.draw(g2);
             } else {
                 // DRAW ORDER (back to front):
 
+                // The level is drawn in world pixels shifted by the camera, so the clip is the
+                // camera's view and only what is in it gets drawn
+                int tileSize = gl.tileSize;
+                camera.setViewport(getWidth(), getHeight());
+                if (gameBoard != null && farmer != null) {
+                    camera.follow(farmer.getRenderX(renderAlpha), farmer.getRenderY(renderAlpha),
+                            gameBoard.getCols() * tileSize, gameBoard.getRows() * tileSize);
+                }
+                g2.translate(-camera.getX(), -camera.getY());
+
                 // 1. Draw the board tiles (walls, grass, exit)
-                if (gameBoard != null && tileRenderer != null) {
-                    tileRenderer.drawBoard(g2, gameBoard);
+                if (gameBoard != null && boardLayer != null) {
+                    boardLayer.draw(g2, gameBoard, getGraphicsConfiguration());
                 }
 
-                // 2. Draw objects (corn, traps, pitchfork)
-                if (objects != null) {
-                    for (int i = 0; i < objects.size(); i++) {
-                        objects.get(i).draw(g2, gl);
+                // 2. Draw objects (corn, traps, pitchfork), asking the object index for the
+                // tiles in view rather than walking every object on the level
+                if (objectHolder != null) {
+                    objectHolder.getObjectsIn(camera.getX() - tileSize, camera.getY() - tileSize,
+                            camera.getX() + camera.getViewportWidth() + tileSize,
+                            camera.getY() + camera.getViewportHeight() + tileSize, visibleObjects);
+                    for (int i = 0; i < visibleObjects.size(); i++) {
+                        GameObject object = visibleObjects.get(i);
+                        Point at = object.getPosition();
+                        if (camera.isVisible(at.x, at.y, tileSize)) {
+                            object.draw(g2, gl);
+                        }
                     }
                 }
 
                 // 3. Draw player
                 if (farmer != null) {
-                    farmer.draw(g2, spriteSize);
+                    farmer.draw(g2, spriteSize, renderAlpha);
                 }
 
-                // 4. Draw 1st alien
-                if (alien1 != null) {
-                    alien1.draw(g2, spriteSize);
+                // 4. Draw aliens
+                for (Alien alien : aliens) {
+                    if (camera.isVisible(alien.getRenderX(renderAlpha), alien.getRenderY(renderAlpha), tileSize)) {
+                        alien.draw(g2, spriteSize, renderAlpha);
+                    }
                 }
-
-                // 5. Draw 2nd alien
-                if (alien2 != null) {
-                    alien2.draw(g2, spriteSize);
+                if (swarm != null) {
+                    swarm.draw(g2, spriteSize, renderAlpha, camera);
                 }
+                g2.translate(camera.getX(), camera.getY());
 
-                // 6. Draw UI on top
+                // 5. Draw UI on top
                 if (ui != null) {
                     ui.draw(g2);
                 }
             }
 
-
+            gl.getProfiler().end(TickPhase.PAINT, paintStart);
             g2.dispose();
         }
     }
@@ -0,0 +1,227 @@
+package maisraiders.ui;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import maisraiders.panel.Board;
+
+/**
+ * The board tiles rasterised into offscreen images and copied to the screen each frame.
+ * The tiles only change when the board does, so instead of hundreds of drawImage calls per frame
+ * the window does a few blits.
+ *
+ * The board is cut into square blocks of TILES_PER_IMAGE tiles, each cached in its own image, and
+ * only the blocks inside the graphics clip (the camera's view) are drawn or even created, so the
+ * cost per frame doesn't grow with the size of the level. A block is drawn again only when its
+ * board chunk changes, the board or tile size changes, or the video memory behind it is lost.
+ * Blocks that scrolled out of view are kept up to a limit, least recently drawn dropped first.
+ *
+ * With a screen available the blocks are VolatileImages compatible with the window (so the copy
+ * can stay on the graphics card); headless they fall back to plain BufferedImages.
+ */
+public class StaticBoardLayer {
+    /** Tiles per side of one cached image; divides Board.CHUNK_SIZE so each lies in one chunk. */
+    public static final int TILES_PER_IMAGE = 8;
+    // about four screens' worth of blocks at the default window and tile size
+    private static final int MAX_CACHED_IMAGES = 96;
+
+    private final TileRenderer tileRenderer;
+    private final LinkedHashMap<Integer, Block> blocks = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Block> eldest) {
+            if (size() <= MAX_CACHED_IMAGES) return false;
+            eldest.getValue().flush();
+            return true;
+        }
+    };
+
+    // what the cached blocks show
+    private Board renderedBoard;
+    private int renderedTileSize;
+    private GraphicsConfiguration configuration;
+    private int renderCount = 0;
+    private int blockRenderCount = 0;
+
+    /**
+     * One cached square of tiles.
+     */
+    private static class Block {
+        VolatileImage volatileImage;
+        BufferedImage bufferedImage;
+        int chunkVersion;
+        boolean current = false;
+
+        void flush() {
+            if (volatileImage != null) volatileImage.flush();
+            if (bufferedImage != null) bufferedImage.flush();
+        }
+    }
+
+    /**
+     * StaticBoardLayer constructor.
+     * @param tileRenderer renderer used to draw the tiles into the layer
+     */
+    public StaticBoardLayer(TileRenderer tileRenderer) {
+        this.tileRenderer = tileRenderer;
+    }
+
+    /**
+     * Draw the board at the origin, rasterising blocks again first if they are out of date.
+     * Only the part of the board inside the graphics clip is drawn.
+     * @param g2 graphics to draw on
+     * @param board board to show
+     * @param gc configuration of the target component, or null when there is no screen
+     */
+    public void draw(Graphics2D g2, Board board, GraphicsConfiguration gc) {
+        if (board == null) return;
+        int tileSize = tileRenderer.getTileSize();
+        if (board != renderedBoard || tileSize != renderedTileSize || gc != configuration) {
+            clear();
+            renderedBoard = board;
+            renderedTileSize = tileSize;
+            configuration = gc;
+        }
+
+        int span = TILES_PER_IMAGE * tileSize;
+        int blockCols = (board.getCols() + TILES_PER_IMAGE - 1) / TILES_PER_IMAGE;
+        int blockRows = (board.getRows() + TILES_PER_IMAGE - 1) / TILES_PER_IMAGE;
+        int firstCol = 0;
+        int firstRow = 0;
+        int endCol = blockCols;
+        int endRow = blockRows;
+        Rectangle clip = g2.getClipBounds();
+        if (clip != null) {
+            firstCol = Math.max(0, Math.floorDiv(clip.x, span));
+            firstRow = Math.max(0, Math.floorDiv(clip.y, span));
+            endCol = Math.min(blockCols, Math.floorDiv(clip.x + clip.width - 1, span) + 1);
+            endRow = Math.min(blockRows, Math.floorDiv(clip.y + clip.height - 1, span) + 1);
+        }
+
+        boolean rendered = false;
+        for (int row = firstRow; row < endRow; row++) {
+            for (int col = firstCol; col < endCol; col++) {
+                rendered |= drawBlock(g2, board, gc, col, row, row * blockCols + col);
+            }
+        }
+        if (rendered) renderCount++;
+    }
+
+    /**
+     * Forget the cached images so the next draw rasterises the board again.
+     */
+    public void invalidate() {
+        renderedBoard = null;
+    }
+
+    /**
+     * Get how many draws had to rasterise tiles into the layer.
+     * @return render count
+     */
+    public int getRenderCount() {
+        return renderCount;
+    }
+
+    /**
+     * Get how many blocks have been rasterised in total.
+     * @return block render count
+     */
+    public int getBlockRenderCount() {
+        return blockRenderCount;
+    }
+
+    /**
+     * Get how many block images are cached.
+     * @return cached image count
+     */
+    public int getCachedImageCount() {
+        return blocks.size();
+    }
+
+    private void clear() {
+        for (Iterator<Block> it = blocks.values().iterator(); it.hasNext();) {
+            it.next().flush();
+            it.remove();
+        }
+    }
+
+    /**
+     * Draw one block, rasterising it first if needed.
+     * @return true if the block was rasterised
+     */
+    private boolean drawBlock(Graphics2D g2, Board board, GraphicsConfiguration gc, int blockCol, int blockRow, int key) {
+        Block block = blocks.get(key);
+        if (block == null) {
+            block = new Block();
+            blocks.put(key, block);
+        }
+        int tileSize = renderedTileSize;
+        int col = blockCol * TILES_PER_IMAGE;
+        int row = blockRow * TILES_PER_IMAGE;
+        int width = Math.min(TILES_PER_IMAGE, board.getCols() - col) * tileSize;
+        int height = Math.min(TILES_PER_IMAGE, board.getRows() - row) * tileSize;
+        int x = col * tileSize;
+        int y = row * tileSize;
+        int version = board.getChunkVersion(col >> Board.CHUNK_SHIFT, row >> Board.CHUNK_SHIFT);
+
+        boolean rendered = false;
+        if (gc == null) {
+            if (block.bufferedImage == null) {
+                block.bufferedImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            }
+            if (!block.current || block.chunkVersion != version) {
+                render(block, block.bufferedImage, board, col, row, width, height, version);
+                rendered = true;
+            }
+            g2.drawImage(block.bufferedImage, x, y, null);
+            return rendered;
+        }
+
+        // volatile contents can vanish at any time (display change, other app), so the copy
+        // is retried until the image survived it
+        do {
+            if (block.volatileImage == null) {
+                block.volatileImage = gc.createCompatibleVolatileImage(width, height, Transparency.OPAQUE);
+                block.current = false;
+            }
+            int status = block.volatileImage.validate(gc);
+            if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+                block.volatileImage.flush();
+                block.volatileImage = gc.createCompatibleVolatileImage(width, height, Transparency.OPAQUE);
+                block.current = false;
+            } else if (status == VolatileImage.IMAGE_RESTORED) {
+                block.current = false;
+            }
+            if (!block.current || block.chunkVersion != version) {
+                render(block, block.volatileImage, board, col, row, width, height, version);
+                rendered = true;
+            }
+            g2.drawImage(block.volatileImage, x, y, null);
+        } while (block.volatileImage.contentsLost());
+        return rendered;
+    }
+
+    private void render(Block block, Image target, Board board, int col, int row, int width, int height, int version) {
+        Graphics2D g2 = (Graphics2D) target.getGraphics();
+        try {
+            // same black background the panel clears to before drawing the tiles
+            g2.setColor(Color.BLACK);
+            g2.fillRect(0, 0, width, height);
+            g2.translate(-col * renderedTileSize, -row * renderedTileSize);
+            tileRenderer.drawRegion(g2, board, col, row, col + TILES_PER_IMAGE, row + TILES_PER_IMAGE);
+        } finally {
+            g2.dispose();
+        }
+        block.current = true;
+        block.chunkVersion = version;
+        blockRenderCount++;
+    }
+}
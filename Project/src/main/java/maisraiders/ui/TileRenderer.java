@@ -3,16 +3,11 @@ package maisraiders.ui;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
-import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
 import maisraiders.enums.CellFill;
 import maisraiders.panel.Board;
-import maisraiders.panel.Cell;
-import maisraiders.util.Point;
-
-import javax.imageio.ImageIO;
 
 /**
  * REFACTORED: Beautiful tile renderer with improved code quality
@@ -95,6 +90,14 @@ public class TileRenderer {
         initializeTileArrays();
         initializeTileDrawers();
     }
+
+    /**
+     * Get the size tiles are drawn at.
+     * @return tile size in pixels
+     */
+    public int getTileSize() {
+        return tileSize;
+    }
     
     /**
      * REFACTORED: Load all images using configuration
@@ -124,18 +127,16 @@ public class TileRenderer {
      *         Cleaner, more maintainable code
      */
     private void loadImages() {
-        try {
-            // NEW: Loop through configuration instead of 13 individual lines
-            for (String[] config : IMAGE_CONFIGS) {
-                String fieldName = config[0];
-                String path = config[1];
-                BufferedImage image = ImageIO.read(getClass().getResourceAsStream(path));
-                
-                // Assign to appropriate field using reflection alternative
-                assignImageToField(fieldName, image);
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
+        // Images come decoded and pre-scaled from the shared sprite atlas
+        SpriteAtlas atlas = SpriteAtlas.shared();
+        // NEW: Loop through configuration instead of 13 individual lines
+        for (String[] config : IMAGE_CONFIGS) {
+            String fieldName = config[0];
+            String path = config[1];
+            BufferedImage image = atlas.get(path);
+            
+            // Assign to appropriate field using reflection alternative
+            assignImageToField(fieldName, image);
         }
     }
     
@@ -218,20 +219,27 @@ public class TileRenderer {
      * NO CHANGES - method is already clean
      */
     public void drawBoard(Graphics2D g2, Board board) {
+        drawRegion(g2, board, 0, 0, board.getCols(), board.getRows());
+    }
+
+    /**
+     * Draw the tiles of part of the board, each at its usual place on the whole board.
+     * @param g2 graphics to draw on
+     * @param board board to draw
+     * @param firstCol first column to draw
+     * @param firstRow first row to draw
+     * @param endCol column after the last one to draw (clamped to the board)
+     * @param endRow row after the last one to draw (clamped to the board)
+     */
+    public void drawRegion(Graphics2D g2, Board board, int firstCol, int firstRow, int endCol, int endRow) {
         g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         g2.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-        
-        int cols = board.getCols();
-        int rows = board.getRows();
-        
-        for (int c = 0; c < cols; c++) {
-            for (int r = 0; r < rows; r++) {
-                Point pos = new Point(c, r);
-                Cell cell = board.getCell(pos);
-                
-                if (cell != null) {
-                    drawTile(g2, cell, c, r);
-                }
+
+        endCol = Math.min(endCol, board.getCols());
+        endRow = Math.min(endRow, board.getRows());
+        for (int c = Math.max(0, firstCol); c < endCol; c++) {
+            for (int r = Math.max(0, firstRow); r < endRow; r++) {
+                drawTile(g2, board.getCellFill(c, r), c, r);
             }
         }
     }
@@ -275,10 +283,9 @@ public class TileRenderer {
      *         Follows Open/Closed Principle
      *         Cleaner, more maintainable code (64 lines → 8 lines)
      */
-    private void drawTile(Graphics2D g2, Cell cell, int col, int row) {
+    private void drawTile(Graphics2D g2, CellFill fillType, int col, int row) {
         int x = col * tileSize;
         int y = row * tileSize;
-        CellFill fillType = cell.getCellFill();
         
         // NEW: Use strategy map instead of switch
         TileDrawer drawer = tileDrawers.getOrDefault(fillType, this::drawDirtTile);
@@ -308,23 +315,23 @@ public class TileRenderer {
      * REASON: Follows Java conventions, easier to read and debug
      */
     private void drawExitTile(Graphics2D g2, int x, int y) {
-        g2.drawImage(exit, x, y, tileSize, tileSize, null);
+        SpriteAtlas.draw(g2, exit, x, y, tileSize, tileSize);
     }
     
     private void drawWallTile(Graphics2D g2, int x, int y) {
-        g2.drawImage(cornWall, x, y, tileSize, tileSize, null);
+        SpriteAtlas.draw(g2, cornWall, x, y, tileSize, tileSize);
     }
     
     private void drawHay(Graphics2D g2, int x, int y) {
-        g2.drawImage(hay, x, y, tileSize, tileSize, null);
+        SpriteAtlas.draw(g2, hay, x, y, tileSize, tileSize);
     }
     
     private void drawTractor(Graphics2D g2, int x, int y) {
-        g2.drawImage(tractor, x, y, tileSize, tileSize, null);
+        SpriteAtlas.draw(g2, tractor, x, y, tileSize, tileSize);
     }
     
     private void drawDirtTile(Graphics2D g2, int x, int y) {
-        g2.drawImage(dirt, x, y, tileSize, tileSize, null);
+        SpriteAtlas.draw(g2, dirt, x, y, tileSize, tileSize);
     }
     
     /**
@@ -381,7 +388,7 @@ public class TileRenderer {
      */
     private void drawTileFromArray(Graphics2D g2, int x, int y, BufferedImage[] images, int index) {
         if (index > 0 && index < images.length && images[index] != null) {
-            g2.drawImage(images[index], x, y, tileSize, tileSize, null);
+            SpriteAtlas.draw(g2, images[index], x, y, tileSize, tileSize);
         }
     }
 }
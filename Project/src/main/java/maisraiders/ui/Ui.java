@@ -1,10 +1,12 @@
 package maisraiders.ui;
 
 import maisraiders.enums.GameState;
+import maisraiders.enums.TickPhase;
 import maisraiders.panel.Game;
 import maisraiders.panel.GameLoop;
+import maisraiders.util.LatencyHistogram;
+import maisraiders.util.TickProfiler;
 
-import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
@@ -16,10 +18,16 @@ public class Ui {
 
     GameLoop gl;
     Font maruMonica;
+    // parsed once, shared by every Ui
+    private static Font gameFont;
     Font ariel50;
     Game game;
     public boolean messageOn = false;
     public String message = "";
+    // performance overlay (F3 while playing)
+    public boolean profilerOn = false;
+    private static final Font PROFILER_FONT = new Font(Font.MONOSPACED, Font.PLAIN, 16);
+    private static final Color PROFILER_BACKGROUND = new Color(0, 0, 0, 170);
     int messageCounter = 0;
     double playTime;
     public int commandNum;
@@ -34,23 +42,34 @@ public class Ui {
         this.gl = gl;
         this.game = game;
         ariel50 = new Font("Ariel", Font.PLAIN, 50);
-        try {
-            //get font package
-            InputStream is = getClass().getResourceAsStream("/font/x12y16pxMaruMonica.ttf");
-            maruMonica = Font.createFont(Font.TRUETYPE_FONT, is);
-            //get images for title screen
-            cornLHS = ImageIO.read(getClass().getResourceAsStream("/objects/corn-side-bar-lhs.png"));
-            cornRHS = ImageIO.read(getClass().getResourceAsStream("/objects/corn-side-bar-rhs.png"));
-            alienLHS = ImageIO.read(getClass().getResourceAsStream("/objects/alien-side-bar-lhs.png"));
-            alienRHS = ImageIO.read(getClass().getResourceAsStream("/objects/alien-side-bar-rhs.png"));
-            bkg = ImageIO.read(getClass().getResourceAsStream("/sprites/titlescreen/title-bkg-house.png"));
-            farmerbkg = ImageIO.read(getClass().getResourceAsStream("/sprites/titlescreen/farmer-title.png"));
-        }catch(FontFormatException e){
-            e.printStackTrace();
-        }catch(IOException e){
-            e.printStackTrace();
+        maruMonica = loadFont();
+        //get images for title screen
+        SpriteAtlas atlas = SpriteAtlas.shared();
+        cornLHS = atlas.get("/objects/corn-side-bar-lhs.png");
+        cornRHS = atlas.get("/objects/corn-side-bar-rhs.png");
+        alienLHS = atlas.get("/objects/alien-side-bar-lhs.png");
+        alienRHS = atlas.get("/objects/alien-side-bar-rhs.png");
+        bkg = atlas.get("/sprites/titlescreen/title-bkg-house.png");
+        farmerbkg = atlas.get("/sprites/titlescreen/farmer-title.png");
+    }
+    /**
+     * Get the game font, parsing the TTF on first use (the asset preloader calls this early).
+     * @return the game font, or null if it could not be loaded
+     */
+    public static synchronized Font loadFont() {
+        if (gameFont == null) {
+            try (InputStream is = Ui.class.getResourceAsStream("/font/x12y16pxMaruMonica.ttf")) {
+                //get font package
+                gameFont = Font.createFont(Font.TRUETYPE_FONT, is);
+            }catch(FontFormatException e){
+                e.printStackTrace();
+            }catch(IOException e){
+                e.printStackTrace();
+            }
         }
+        return gameFont;
     }
+
     public void showMessage(String text) {
         message = text;
         messageOn = true;
@@ -95,7 +114,7 @@ public class Ui {
         g2.setColor(Color.BLACK);
         g2.fillRect(0,0,1280, 1024);
         // main background image:
-        g2.drawImage(bkg,0,0, 1280, 1024, null);
+        SpriteAtlas.draw(g2, bkg, 0, 0, 1280, 1024);
 
         //TITLE NAME
         g2.setFont(g2.getFont().deriveFont(Font.BOLD, 135F));
@@ -115,24 +134,24 @@ public class Ui {
         x = gl.screenWidth/2 - (gl.tileSize*8)/2;
         y -= gl.tileSize*2;
         //g2.drawImage(gl.gameFarmer.down1, x, y, gl.tileSize*4, gl.tileSize*4,null); // (image, x,y, width,height (of img), observer)
-        g2.drawImage(farmerbkg, x, y, gl.tileSize*8, gl.tileSize*8,null);
+        SpriteAtlas.draw(g2, farmerbkg, x, y, gl.tileSize*8, gl.tileSize*8);
         //left side panel
         int xSide = 0;
         int ySide = gl.tileSize*4;
-        g2.drawImage(cornLHS, xSide, ySide, gl.tileSize*6, gl.tileSize*12, null);
+        SpriteAtlas.draw(g2, cornLHS, xSide, ySide, gl.tileSize*6, gl.tileSize*12);
 
         xSide = gl.tileSize;
         ySide = gl.tileSize;
-        g2.drawImage(alienLHS,xSide, ySide, gl.tileSize*4, gl.tileSize*8, null);
+        SpriteAtlas.draw(g2, alienLHS, xSide, ySide, gl.tileSize*4, gl.tileSize*8);
 
         //right side panel
         xSide = gl.tileSize*14;
         ySide = gl.tileSize*4;
-        g2.drawImage(cornRHS,xSide, ySide, gl.tileSize*6, gl.tileSize*12, null);
+        SpriteAtlas.draw(g2, cornRHS, xSide, ySide, gl.tileSize*6, gl.tileSize*12);
 
         xSide = gl.tileSize*15;
         ySide = gl.tileSize;
-        g2.drawImage(alienRHS,xSide, ySide, gl.tileSize*4, gl.tileSize*8, null);
+        SpriteAtlas.draw(g2, alienRHS, xSide, ySide, gl.tileSize*4, gl.tileSize*8);
 
         //MENU
         g2.setFont(g2.getFont().deriveFont(Font.BOLD, 50F));
@@ -157,26 +176,52 @@ public class Ui {
 
         g2.setFont(ariel50);
         g2.setColor(Color.white);
-        g2.drawString("Corn "+ game.getCollectedRegular() + " / 8", 60, 55);
+        g2.drawString("Corn "+ game.getCollectedRegular() + " / " + game.getRequiredRegular(), 60, 55);
         g2.drawString("Points: "+ game.getScore(), 525,55);
 
         // TIME
-        playTime +=(double)1/60; //called 60 times per second
         g2.drawString("Time:"+ dFormat.format(playTime), gl.tileSize*16, 55);
         //MESSAGES
         if(messageOn) {
             g2.setFont(maruMonica);
             g2.setFont(g2.getFont().deriveFont(50F)); //make text smaller
             g2.drawString(message, getXforCenteredText(message), gl.tileSize * 3);
-
-            messageCounter++;
-            if (messageCounter > 120) { // 2 seconds
-                messageCounter = 0;
-                messageOn = false;
-            }
+        }
+        if (profilerOn) {
+            drawProfilerOverlay(gl.getProfiler());
         }
 
     }
+
+    /**
+     * Draw p50/p99/max per tick phase over the last second, with GC and allocation figures.
+     * @param profiler the game loop's tick profiler
+     */
+    public void drawProfilerOverlay(TickProfiler profiler) {
+        TickPhase[] phases = TickPhase.values();
+        int lineHeight = 18;
+        int x = 20;
+        int y = 80;
+        g2.setColor(PROFILER_BACKGROUND);
+        g2.fillRect(x - 10, y - 4, 330, (phases.length + 3) * lineHeight + 8);
+        g2.setFont(PROFILER_FONT);
+        g2.setColor(Color.white);
+        y += lineHeight - 4;
+        g2.drawString(String.format("%-8s %7s %7s %7s", "us", "p50", "p99", "max"), x, y);
+        for (TickPhase phase : phases) {
+            LatencyHistogram histogram = profiler.getLastInterval(phase);
+            y += lineHeight;
+            g2.drawString(String.format("%-8s %7.1f %7.1f %7.1f", phase.getLabel(),
+                    histogram.getValueAtPercentile(50) / 1000.0,
+                    histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getMax() / 1000.0), x, y);
+        }
+        y += lineHeight;
+        g2.drawString(String.format("gc %d in %d ms", profiler.getGcCount(), profiler.getGcMillis()), x, y);
+        y += lineHeight;
+        long rate = profiler.getAllocationRate();
+        g2.drawString(rate < 0 ? "alloc n/a" : String.format("alloc %.1f MB/s", rate / 1_000_000.0), x, y);
+    }
     public void drawPauseScreen(){
         g2.setColor( new Color(0,0,0,150));
         g2.fillRect(0,0, 1280, 1024);
@@ -320,6 +365,21 @@ public class Ui {
          return gl.screenWidth/2 - length/2;
 
     }
+    /**
+     * Advance the play clock and the message timer by one game tick
+     * (done per tick rather than per frame so they don't depend on the display rate).
+     * @param ticksPerSecond game tick rate
+     */
+    public void updateTimers(int ticksPerSecond) {
+        playTime += 1.0 / ticksPerSecond;
+        if (messageOn) {
+            messageCounter++;
+            if (messageCounter > ticksPerSecond * 2) { // 2 seconds
+                messageCounter = 0;
+                messageOn = false;
+            }
+        }
+    }
     public void resetPlayTime() {
     playTime = 0;
 }
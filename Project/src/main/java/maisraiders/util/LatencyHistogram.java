@@ -0,0 +1,117 @@
+package maisraiders.util;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size histogram of nanosecond timings with HDR-style log-linear buckets: every power of
+ * two is split into SUB_BUCKETS equal buckets, so any recorded value is known to within about
+ * 3% whatever its size. Recording is a few shifts and an array increment and never allocates.
+ * Safe to record from several threads.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // values above 2^40 ns (about 18 minutes) are clamped into the top bucket
+    private static final int MAX_EXPONENT = 40;
+    private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+    private static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long totalCount = 0;
+    private long sum = 0;
+    private long max = 0;
+
+    /**
+     * Record one timing.
+     * @param nanos elapsed time in nanoseconds (negative values count as 0)
+     */
+    public synchronized void record(long nanos) {
+        long value = Math.max(0, Math.min(nanos, MAX_VALUE));
+        counts[bucketOf(value)]++;
+        totalCount++;
+        sum += value;
+        if (value > max) max = value;
+    }
+
+    /**
+     * Get the value below which the given share of recorded timings fall (to bucket precision).
+     * @param percentile percentile between 0 and 100
+     * @return timing in nanoseconds, 0 if nothing was recorded
+     */
+    public synchronized long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValueIn(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Get the largest recorded timing.
+     * @return timing in nanoseconds, 0 if nothing was recorded
+     */
+    public synchronized long getMax() {
+        return max;
+    }
+
+    /**
+     * Get # of timings recorded.
+     * @return recorded count
+     */
+    public synchronized long getCount() {
+        return totalCount;
+    }
+
+    /**
+     * Get the total of every recorded timing.
+     * @return sum in nanoseconds
+     */
+    public synchronized long getSum() {
+        return sum;
+    }
+
+    /**
+     * Forget every timing.
+     */
+    public synchronized void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        sum = 0;
+        max = 0;
+    }
+
+    /**
+     * Replace another histogram's contents with this one's and reset this one, so a reader
+     * can look at the last interval while the next one is recorded.
+     * @param target histogram receiving the timings
+     */
+    public synchronized void moveTo(LatencyHistogram target) {
+        synchronized (target) {
+            System.arraycopy(counts, 0, target.counts, 0, BUCKET_COUNT);
+            target.totalCount = totalCount;
+            target.sum = sum;
+            target.max = max;
+        }
+        reset();
+    }
+
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int sub = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long highestValueIn(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int shift = bucket / SUB_BUCKETS - 1;
+        long sub = bucket % SUB_BUCKETS;
+        return ((SUB_BUCKETS + sub + 1) << shift) - 1;
+    }
+}
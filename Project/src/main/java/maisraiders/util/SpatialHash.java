@@ -0,0 +1,188 @@
+package maisraiders.util;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Uniform spatial hash over pixel coordinates. Items sit in square cells (normally one tile)
+ * and a query only visits the 3x3 cells around a point, so collision checks cost the same
+ * however many items the level holds.
+ * Any item within one cell size of the query point (on both axes) is guaranteed to be returned,
+ * so callers must keep their hit radius below the cell size. Items are matched by identity.
+ * @param <T> type of item stored
+ */
+public class SpatialHash<T> {
+    private final int cellSize;
+    private final int mask;
+    private final List<Entry<T>>[] buckets;
+    private final Map<T, Entry<T>> entries = new IdentityHashMap<>();
+    private final int[] visited = new int[9];
+
+    /**
+     * Where one item currently sits.
+     */
+    private static final class Entry<T> {
+        final T item;
+        int cellX;
+        int cellY;
+        int bucket;
+
+        Entry(T item) {
+            this.item = item;
+        }
+    }
+
+    /**
+     * SpatialHash constructor.
+     * @param cellSize cell width and height in pixels
+     * @param expectedCells roughly how many cells will be occupied (sizes the table)
+     */
+    @SuppressWarnings("unchecked")
+    public SpatialHash(int cellSize, int expectedCells) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("Cell size must be positive");
+        }
+        this.cellSize = cellSize;
+        int size = Integer.highestOneBit(Math.max(16, expectedCells - 1)) << 1;
+        this.mask = size - 1;
+        this.buckets = (List<Entry<T>>[]) new List<?>[size];
+    }
+
+    /**
+     * Add an item at a pixel position, or move it there if it is already stored.
+     * @param item item to place
+     * @param x pixel X position
+     * @param y pixel Y position
+     */
+    public void put(T item, int x, int y) {
+        int cellX = Math.floorDiv(x, cellSize);
+        int cellY = Math.floorDiv(y, cellSize);
+        Entry<T> entry = entries.get(item);
+        if (entry == null) {
+            entry = new Entry<>(item);
+            entries.put(item, entry);
+        } else if (entry.cellX == cellX && entry.cellY == cellY) {
+            return;
+        } else {
+            buckets[entry.bucket].remove(entry);
+        }
+        entry.cellX = cellX;
+        entry.cellY = cellY;
+        entry.bucket = bucketOf(cellX, cellY);
+        List<Entry<T>> bucket = buckets[entry.bucket];
+        if (bucket == null) {
+            bucket = new ArrayList<>(4);
+            buckets[entry.bucket] = bucket;
+        }
+        bucket.add(entry);
+    }
+
+    /**
+     * Remove an item.
+     * @param item item to remove
+     * @return true if the item was stored
+     */
+    public boolean remove(T item) {
+        Entry<T> entry = entries.remove(item);
+        if (entry == null) return false;
+        buckets[entry.bucket].remove(entry);
+        return true;
+    }
+
+    /**
+     * Remove every item.
+     */
+    public void clear() {
+        for (List<Entry<T>> bucket : buckets) {
+            if (bucket != null) bucket.clear();
+        }
+        entries.clear();
+    }
+
+    /**
+     * Get the number of items stored.
+     * @return item count
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Collect the items in the cell containing a point and the eight cells around it.
+     * @param x pixel X position
+     * @param y pixel Y position
+     * @param out list to fill (cleared first), so callers can reuse it every tick
+     * @return out
+     */
+    public List<T> queryNear(int x, int y, List<T> out) {
+        out.clear();
+        int cellX = Math.floorDiv(x, cellSize);
+        int cellY = Math.floorDiv(y, cellSize);
+        int visitedCount = 0;
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                int bucketIndex = bucketOf(cellX + dx, cellY + dy);
+                // Different cells can share a bucket, scan each bucket once
+                boolean seen = false;
+                for (int i = 0; i < visitedCount; i++) {
+                    if (visited[i] == bucketIndex) {
+                        seen = true;
+                        break;
+                    }
+                }
+                if (seen) continue;
+                visited[visitedCount++] = bucketIndex;
+
+                List<Entry<T>> bucket = buckets[bucketIndex];
+                if (bucket == null) continue;
+                for (int i = 0; i < bucket.size(); i++) {
+                    Entry<T> entry = bucket.get(i);
+                    if (Math.abs(entry.cellX - cellX) <= 1 && Math.abs(entry.cellY - cellY) <= 1) {
+                        out.add(entry.item);
+                    }
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Collect the items whose cell overlaps a pixel rectangle. Costs one bucket lookup per cell
+     * in the rectangle, however many items are stored elsewhere.
+     * @param minX left pixel X
+     * @param minY top pixel Y
+     * @param maxX right pixel X (inclusive)
+     * @param maxY bottom pixel Y (inclusive)
+     * @param out list to fill (cleared first), so callers can reuse it every frame
+     * @return out
+     */
+    public List<T> queryRect(int minX, int minY, int maxX, int maxY, List<T> out) {
+        out.clear();
+        int fromX = Math.floorDiv(minX, cellSize);
+        int fromY = Math.floorDiv(minY, cellSize);
+        int toX = Math.floorDiv(maxX, cellSize);
+        int toY = Math.floorDiv(maxY, cellSize);
+        for (int cellY = fromY; cellY <= toY; cellY++) {
+            for (int cellX = fromX; cellX <= toX; cellX++) {
+                List<Entry<T>> bucket = buckets[bucketOf(cellX, cellY)];
+                if (bucket == null) continue;
+                // Each item sits in exactly one cell, so matching the cell exactly never
+                // returns an item twice even when cells share a bucket
+                for (int i = 0; i < bucket.size(); i++) {
+                    Entry<T> entry = bucket.get(i);
+                    if (entry.cellX == cellX && entry.cellY == cellY) {
+                        out.add(entry.item);
+                    }
+                }
+            }
+        }
+        return out;
+    }
+
+    private int bucketOf(int cellX, int cellY) {
+        int h = cellX * 0x9E3779B1 ^ cellY * 0x85EBCA77;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,177 @@
+package maisraiders.util;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+
+import maisraiders.enums.TickPhase;
+
+/**
+ * Times the phases of a game tick into one LatencyHistogram per phase. Timings are gathered over
+ * one-second intervals; the overlay reads the last finished interval while the next is recorded.
+ * Each interval also notes how many garbage collections ran, how long they took, and how fast
+ * the game thread allocated.
+ *
+ * Phases are timed with begin()/end(); when the profiler is off, both are a field read.
+ * end() may be called from any thread, intervalTick() only from the game thread.
+ */
+public class TickProfiler {
+    private static final long INTERVAL_NANOS = 1_000_000_000L;
+
+    private final LatencyHistogram[] current = new LatencyHistogram[TickPhase.values().length];
+    private final LatencyHistogram[] last = new LatencyHistogram[TickPhase.values().length];
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private final com.sun.management.ThreadMXBean allocations;
+    private volatile boolean enabled = false;
+
+    // game thread only: 0 until the first tick after the profiler was turned on
+    private long intervalStart = 0L;
+    private long gcCountAtStart;
+    private long gcMillisAtStart;
+    private long allocatedAtStart;
+    private volatile long lastGcCount = 0;
+    private volatile long lastGcMillis = 0;
+    private volatile long lastAllocationRate = -1;
+
+    /**
+     * TickProfiler constructor (starts off).
+     */
+    public TickProfiler() {
+        for (int i = 0; i < current.length; i++) {
+            current[i] = new LatencyHistogram();
+            last[i] = new LatencyHistogram();
+        }
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        com.sun.management.ThreadMXBean hotspot = null;
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            hotspot = (com.sun.management.ThreadMXBean) threads;
+            if (!hotspot.isThreadAllocatedMemorySupported()) hotspot = null;
+        }
+        allocations = hotspot;
+    }
+
+    /**
+     * Turn timing on or off. Turning it on starts a fresh interval on the next tick.
+     * @param enabled true to time phases
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Check if phases are being timed.
+     * @return true if on
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Mark the start of a phase.
+     * @return start time to pass to end(), 0 if the profiler is off
+     */
+    public long begin() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Mark the end of a phase and record its duration.
+     * @param phase phase that finished
+     * @param startNanos value returned by begin()
+     */
+    public void end(TickPhase phase, long startNanos) {
+        if (startNanos == 0L || !enabled) return;
+        current[phase.ordinal()].record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Called by the game thread once per tick: closes the interval once a second has passed.
+     */
+    public void intervalTick() {
+        if (!enabled) {
+            intervalStart = 0L;
+            return;
+        }
+        long now = System.nanoTime();
+        if (intervalStart == 0L) {
+            // just turned on: drop anything timed before this tick
+            for (LatencyHistogram histogram : current) {
+                histogram.reset();
+            }
+            startInterval(now);
+            return;
+        }
+        long elapsed = now - intervalStart;
+        if (elapsed < INTERVAL_NANOS) return;
+
+        for (int i = 0; i < current.length; i++) {
+            current[i].moveTo(last[i]);
+        }
+        lastGcCount = gcCount() - gcCountAtStart;
+        lastGcMillis = gcMillis() - gcMillisAtStart;
+        lastAllocationRate = allocations == null ? -1
+                : (allocatedBytes() - allocatedAtStart) * INTERVAL_NANOS / elapsed;
+        startInterval(now);
+    }
+
+    private void startInterval(long now) {
+        intervalStart = now;
+        gcCountAtStart = gcCount();
+        gcMillisAtStart = gcMillis();
+        allocatedAtStart = allocatedBytes();
+    }
+
+    private long gcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            total += Math.max(0, collector.getCollectionCount());
+        }
+        return total;
+    }
+
+    private long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            total += Math.max(0, collector.getCollectionTime());
+        }
+        return total;
+    }
+
+    private long allocatedBytes() {
+        return allocations == null ? 0 : allocations.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Get the last interval's timings for a phase.
+     * @param phase tick phase
+     * @return histogram of the last finished interval (do not record into it)
+     */
+    public LatencyHistogram getLastInterval(TickPhase phase) {
+        return last[phase.ordinal()];
+    }
+
+    /**
+     * Get # of garbage collections in the last interval.
+     * @return collection count
+     */
+    public long getGcCount() {
+        return lastGcCount;
+    }
+
+    /**
+     * Get time spent collecting garbage in the last interval.
+     * @return milliseconds
+     */
+    public long getGcMillis() {
+        return lastGcMillis;
+    }
+
+    /**
+     * Get how fast the game thread allocated during the last interval.
+     * @return bytes per second, -1 if the JVM can't tell
+     */
+    public long getAllocationRate() {
+        return lastAllocationRate;
+    }
+}
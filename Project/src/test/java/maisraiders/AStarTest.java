@@ -0,0 +1,148 @@
+package maisraiders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import maisraiders.entities.AStar;
+import maisraiders.entities.FlowField;
+import maisraiders.panel.Board;
+import maisraiders.util.Point;
+
+/**
+ * Tests for the reusable AStar search arena.
+ */
+public class AStarTest {
+
+    private static Board randomBoard(int side, long seed) {
+        Random random = new Random(seed);
+        int[][] layout = new int[side][side];
+        for (int c = 0; c < side; c++) {
+            for (int r = 0; r < side; r++) {
+                layout[c][r] = random.nextInt(100) < 25 ? 1 : 0;
+            }
+        }
+        return new Board(layout);
+    }
+
+    private static double cost(Board board, int[] path, int length) {
+        double total = 0;
+        for (int i = 1; i < length; i++) {
+            boolean diagonal = path[i] % board.getCols() != path[i - 1] % board.getCols()
+                    && path[i] / board.getCols() != path[i - 1] / board.getCols();
+            total += diagonal ? Math.sqrt(2.0) : 1.0;
+        }
+        return total;
+    }
+
+    private static double cost(List<Point> path) {
+        double total = 0;
+        for (int i = 1; i < path.size(); i++) {
+            boolean diagonal = path.get(i).getCol() != path.get(i - 1).getCol()
+                    && path.get(i).getRow() != path.get(i - 1).getRow();
+            total += diagonal ? Math.sqrt(2.0) : 1.0;
+        }
+        return total;
+    }
+
+    /**
+     * One arena reused for many searches should give the same optimal costs as findPath and
+     * the flow field, with no state leaking from one search into the next.
+     */
+    @Test
+    void testReusedArenaMatchesFindPath() {
+        int side = 48;
+        Board board = randomBoard(side, 5L);
+        AStar arena = new AStar(board);
+        int[] path = AStar.newPathBuffer(board);
+        FlowField field = new FlowField();
+        Random random = new Random(9L);
+
+        int searched = 0;
+        for (int i = 0; i < 300; i++) {
+            int start = random.nextInt(side * side);
+            int goal = random.nextInt(side * side);
+            if (board.isBlocked(start) || board.isBlocked(goal)) continue;
+            Point startPoint = new Point(start % side, start / side);
+            Point goalPoint = new Point(goal % side, goal / side);
+
+            int length = arena.search(start, goal, AStar.octileHeuristic, path);
+            List<Point> baseline = AStar.findPath(board, startPoint, goalPoint);
+            field.update(board, goalPoint);
+            double optimal = field.distanceFrom(start);
+            if (Double.isInfinite(optimal)) {
+                assertEquals(0, length, "No path should be found to an unreachable goal");
+                assertTrue(baseline.isEmpty());
+                continue;
+            }
+            assertEquals(start, path[0]);
+            assertEquals(goal, path[length - 1]);
+            assertEquals(optimal, cost(board, path, length), 1e-9, "search " + i);
+            assertEquals(cost(baseline), cost(board, path, length), 1e-9, "search " + i);
+            searched++;
+        }
+        assertTrue(searched > 100, "Too few reachable pairs: " + searched);
+    }
+
+    /**
+     * A thread should keep getting the same arena for a board, and a new one for another board.
+     */
+    @Test
+    void testArenaForReusesArena() {
+        Board board = randomBoard(16, 1L);
+        AStar arena = AStar.arenaFor(board);
+        assertSame(arena, AStar.arenaFor(board));
+        assertSame(board, arena.getBoard());
+
+        Board other = randomBoard(16, 2L);
+        assertSame(other, AStar.arenaFor(other).getBoard());
+    }
+
+    /**
+     * Once warmed up, repeated searches in one arena should allocate next to nothing.
+     */
+    @Test
+    void testSearchAllocationStaysFlat() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        int side = 64;
+        Board board = randomBoard(side, 13L);
+        AStar arena = new AStar(board);
+        int[] path = AStar.newPathBuffer(board);
+        int[] pairs = new int[400];
+        Random random = new Random(17L);
+        for (int i = 0; i < pairs.length; i++) {
+            int cell;
+            do {
+                cell = random.nextInt(side * side);
+            } while (board.isBlocked(cell));
+            pairs[i] = cell;
+        }
+
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < pairs.length; i += 2) {
+                arena.search(pairs[i], pairs[i + 1], AStar.octileHeuristic, path);
+            }
+        }
+
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < pairs.length; i += 2) {
+                arena.search(pairs[i], pairs[i + 1], AStar.octileHeuristic, path);
+            }
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+        assertTrue(allocated < 64 * 1024, "1000 searches allocated " + allocated + " bytes");
+    }
+}
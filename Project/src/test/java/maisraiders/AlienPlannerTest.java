@@ -0,0 +1,127 @@
+package maisraiders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import maisraiders.entities.AStar;
+import maisraiders.entities.Alien;
+import maisraiders.entities.AlienPlanner;
+import maisraiders.entities.FlowField;
+import maisraiders.entities.PathService;
+import maisraiders.entities.TimeSlicedPlanner;
+import maisraiders.enums.PursuitMode;
+import maisraiders.panel.Board;
+import maisraiders.util.Point;
+
+/**
+ * Tests for the parallel plan / ordered commit alien update.
+ */
+public class AlienPlannerTest {
+    private static final Point[] STARTS = {
+        new Point(1, 1), new Point(15, 5), new Point(2, 14), new Point(17, 10),
+        new Point(3, 3), new Point(18, 1), new Point(1, 9), new Point(12, 12)
+    };
+
+    private SampleGame game;
+    private Board board;
+    private ForkJoinPool pool;
+
+    @BeforeEach
+    void setUp() {
+        System.setProperty("java.awt.headless", "true");
+        game = SampleGame.simple();
+        board = game.board;
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Planning in parallel should give exactly the positions of updating each alien in turn,
+     * in every pursuit mode.
+     */
+    @Test
+    void testParallelMatchesSequential() {
+        for (PursuitMode mode : PursuitMode.values()) {
+            FlowField sequentialField = new FlowField();
+            FlowField parallelField = new FlowField();
+            List<Alien> sequential = createAliens(mode, sequentialField);
+            List<Alien> parallel = createAliens(mode, parallelField);
+            AlienPlanner planner = new AlienPlanner(pool, 1);
+
+            for (int tick = 0; tick < 300; tick++) {
+                for (Alien alien : sequential) {
+                    alien.update(board, game.farmer);
+                }
+                planner.update(parallel, board, game.farmer, parallelField);
+                for (int i = 0; i < sequential.size(); i++) {
+                    Alien expected = sequential.get(i);
+                    Alien actual = parallel.get(i);
+                    String where = mode + " alien " + i + " at tick " + tick;
+                    assertEquals(expected.getSubPositionX(), actual.getSubPositionX(), where);
+                    assertEquals(expected.getSubPositionY(), actual.getSubPositionY(), where);
+                    assertEquals(expected.getPosition(), actual.getPosition(), where);
+                }
+            }
+        }
+    }
+
+    /**
+     * Aliens planned in parallel should still queue their path requests in list order, so a
+     * time-sliced planner hands out paths on the same ticks every run.
+     */
+    @Test
+    void testPathRequestsQueuedInAlienOrder() {
+        for (int run = 0; run < 20; run++) {
+            TimeSlicedPlanner sliced = new TimeSlicedPlanner(TimeSlicedPlanner.DEFAULT_BUDGET);
+            List<Integer> starts = Collections.synchronizedList(new ArrayList<>());
+            PathService service = (b, start, goal, heuristic, pathSearch) -> {
+                starts.add(start);
+                return sliced.request(b, start, goal, heuristic, pathSearch);
+            };
+            List<Alien> aliens = createAliens(PursuitMode.PATH, null);
+            List<Integer> expected = new ArrayList<>();
+            for (Alien alien : aliens) {
+                alien.setPathService(service);
+                expected.add(board.index(alien.getPosition()));
+            }
+            new AlienPlanner(pool, 1).update(aliens, board, game.farmer, null);
+            assertEquals(expected, starts, "run " + run);
+        }
+    }
+
+    /**
+     * A paralysed alien plans no move, so committing leaves it where it was.
+     */
+    @Test
+    void testParalyzedAlienCommitsNothing() {
+        Alien alien = new Alien(new Point(1, 1), 3);
+        alien.paralyze(250);
+        alien.plan(board, game.farmer);
+        alien.commit(board);
+        assertEquals(96, alien.getSubPositionX());
+        assertEquals(96, alien.getSubPositionY());
+    }
+
+    private List<Alien> createAliens(PursuitMode mode, FlowField field) {
+        List<Alien> aliens = new ArrayList<>();
+        for (int i = 0; i < STARTS.length; i++) {
+            Alien alien = i % 2 == 0 ? new Alien(STARTS[i], 3) : new Alien(STARTS[i], 3, AStar.manhattanHeuristic);
+            alien.setFlowField(field);
+            alien.setPursuitMode(mode);
+            aliens.add(alien);
+        }
+        return aliens;
+    }
+}
@@ -0,0 +1,100 @@
+package maisraiders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import maisraiders.entities.Alien;
+import maisraiders.entities.AlienSwarm;
+import maisraiders.entities.FlowField;
+import maisraiders.enums.PursuitMode;
+import maisraiders.panel.Board;
+import maisraiders.util.Point;
+
+/**
+ * Tests for the struct-of-arrays alien swarm.
+ */
+public class AlienSwarmTest {
+    private SampleGame game;
+    private Board board;
+    private FlowField field;
+    private AlienSwarm swarm;
+
+    @BeforeEach
+    void setUp() {
+        System.setProperty("java.awt.headless", "true");
+        game = SampleGame.simple();
+        board = game.board;
+        field = new FlowField();
+        swarm = new AlienSwarm();
+    }
+
+    /**
+     * A swarm alien should move exactly like an Alien object following the same flow field.
+     */
+    @Test
+    void testMovesLikeFlowFieldAlien() {
+        Point[] starts = {new Point(1, 1), new Point(15, 5), new Point(2, 14), new Point(17, 10)};
+        Alien[] aliens = new Alien[starts.length];
+        for (int i = 0; i < starts.length; i++) {
+            aliens[i] = new Alien(starts[i], 3);
+            aliens[i].setFlowField(field);
+            aliens[i].setPursuitMode(PursuitMode.FLOW_FIELD);
+            swarm.add(starts[i], 3);
+        }
+
+        for (int tick = 0; tick < 400; tick++) {
+            for (Alien alien : aliens) {
+                alien.update(board, game.farmer);
+            }
+            swarm.update(board, game.farmer, field, Integer.MAX_VALUE);
+            for (int i = 0; i < aliens.length; i++) {
+                assertEquals(aliens[i].getSubPositionX(), swarm.getSubPositionX(i), "x of alien " + i + " at tick " + tick);
+                assertEquals(aliens[i].getSubPositionY(), swarm.getSubPositionY(i), "y of alien " + i + " at tick " + tick);
+                assertEquals(aliens[i].getPosition(), new Point(swarm.getCol(i), swarm.getRow(i)));
+            }
+        }
+        assertTrue(swarm.collidesWith(game.farmer), "The swarm should have caught the farmer");
+    }
+
+    /**
+     * Paralysed swarm aliens stay put until the freeze runs out.
+     */
+    @Test
+    void testParalyzeFreezesSwarm() {
+        swarm.add(new Point(1, 1), 3);
+        swarm.paralyze(250);
+        for (int tick = 0; tick < 15; tick++) {
+            swarm.update(board, game.farmer, field, Integer.MAX_VALUE);
+        }
+        assertEquals(1 * 64 + 32, swarm.getSubPositionX(0));
+        assertEquals(1 * 64 + 32, swarm.getSubPositionY(0));
+        swarm.update(board, game.farmer, field, Integer.MAX_VALUE);
+        assertTrue(swarm.getSubPositionX(0) != 96 || swarm.getSubPositionY(0) != 96, "Freeze should have ended");
+    }
+
+    /**
+     * The store grows past its initial capacity and reset puts every alien back at its start.
+     */
+    @Test
+    void testGrowAndReset() {
+        for (int i = 0; i < 1000; i++) {
+            swarm.add(new Point(1 + i % 5, 1), 3);
+        }
+        assertEquals(1000, swarm.size());
+        for (int tick = 0; tick < 30; tick++) {
+            swarm.update(board, game.farmer, field, Integer.MAX_VALUE);
+        }
+        assertFalse(swarm.getSubPositionX(999) == (1 + 999 % 5) * 64 + 32
+                && swarm.getSubPositionY(999) == 96, "Aliens should have moved");
+        swarm.reset();
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(1 + i % 5, swarm.getCol(i));
+            assertEquals(1, swarm.getRow(i));
+            assertEquals((1 + i % 5) * 64 + 32, swarm.getSubPositionX(i));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package maisraiders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import maisraiders.assets.AssetPreloader;
+import maisraiders.assets.AssetTiming;
+import maisraiders.ui.SpriteAtlas;
+
+/**
+ * Tests for loading assets in parallel at startup.
+ */
+public class AssetPreloaderTest {
+
+    @BeforeEach
+    void setUp() {
+        System.setProperty("java.awt.headless", "true");
+    }
+
+    /**
+     * Every sprite, the atlas and the font should be loaded and timed; the report lists them all.
+     */
+    @Test
+    void testLoadsAndTimesEveryAsset() {
+        AssetPreloader preloader = AssetPreloader.startGameAssets();
+        assertTrue(preloader.awaitAll(30_000));
+
+        Map<String, AssetTiming> byName = new HashMap<>();
+        for (AssetTiming timing : preloader.getTimings()) {
+            byName.put(timing.getName(), timing);
+        }
+        for (String path : SpriteAtlas.getSpritePaths()) {
+            assertTrue(byName.get(path).isLoaded(), path + " should be loaded");
+            assertTrue(byName.get(path).isCritical());
+        }
+        assertTrue(byName.get("sprite atlas").isLoaded());
+        assertTrue(byName.get("/font/x12y16pxMaruMonica.ttf").isLoaded());
+        assertTrue(byName.get("/sound/collect.wav").isLoaded());
+        assertFalse(byName.get("/sound/collect.wav").isCritical());
+        assertFalse(byName.containsKey("/sound/maintheme.wav"), "Music should only be streamed");
+        assertTrue(preloader.report().contains("sprite atlas"));
+    }
+
+    /**
+     * Waiting for critical assets should give up at the budget, and failed loads should be reported.
+     */
+    @Test
+    void testCriticalBudget() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        AssetPreloader preloader = new AssetPreloader(2);
+        preloader.submit("slow", true, () -> {
+            release.await();
+            return "done";
+        });
+        preloader.submit("broken", false, () -> null);
+        preloader.shutdown();
+
+        long start = System.nanoTime();
+        assertFalse(preloader.awaitCritical(50));
+        assertTrue((System.nanoTime() - start) / 1_000_000 < 5_000, "Should stop waiting at the budget");
+
+        release.countDown();
+        assertTrue(preloader.awaitAll(5_000));
+        assertEquals(2, preloader.getTimings().size());
+        for (AssetTiming timing : preloader.getTimings()) {
+            assertEquals(timing.getName().equals("slow"), timing.isLoaded());
+        }
+    }
+}
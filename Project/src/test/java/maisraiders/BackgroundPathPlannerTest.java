@@ -0,0 +1,117 @@
+package maisraiders;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import maisraiders.entities.AStar;
+import maisraiders.entities.Alien;
+import maisraiders.entities.BackgroundPathPlanner;
+import maisraiders.entities.PathRequest;
+import maisraiders.enums.CellFill;
+import maisraiders.enums.PathSearch;
+import maisraiders.panel.Board;
+import maisraiders.util.Point;
+
+/**
+ * Tests for path searches on worker threads.
+ */
+public class BackgroundPathPlannerTest {
+    private static final int SIDE = 48;
+    private Board board;
+    private BackgroundPathPlanner planner;
+
+    @BeforeEach
+    void setUp() {
+        System.setProperty("java.awt.headless", "true");
+        int[][] layout = new int[SIDE][SIDE];
+        Random random = new Random(23L);
+        for (int c = 0; c < SIDE; c++) {
+            for (int r = 0; r < SIDE; r++) {
+                layout[c][r] = random.nextInt(100) < 25 ? 1 : 0;
+            }
+        }
+        layout[1][1] = 0;
+        layout[SIDE - 2][SIDE - 2] = 0;
+        board = new Board(layout);
+        planner = new BackgroundPathPlanner(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        planner.close();
+    }
+
+    /**
+     * A worker delivers the same path as A* on the calling thread.
+     */
+    @Test
+    void testDeliversSamePath() throws InterruptedException {
+        int start = board.index(1, 1);
+        int goal = board.index(SIDE - 2, SIDE - 2);
+        int[] expected = AStar.newPathBuffer(board);
+        int expectedLength = new AStar(board).search(start, goal, AStar.octileHeuristic, expected);
+        assertTrue(expectedLength > 0);
+
+        PathRequest request = planner.request(board, start, goal, AStar.octileHeuristic, PathSearch.ASTAR);
+        await(request);
+        int[] path = AStar.newPathBuffer(board);
+        int length = request.copyPath(path);
+        assertArrayEquals(Arrays.copyOf(expected, expectedLength), Arrays.copyOf(path, length));
+        assertFalse(request.isStale(board, goal));
+        assertEquals(1, planner.getDeliveredCount());
+    }
+
+    /**
+     * A path searched before the board changed, or leading to a cell the farmer has left, is stale.
+     */
+    @Test
+    void testStaleResults() throws InterruptedException {
+        int start = board.index(1, 1);
+        int goal = board.index(SIDE - 2, SIDE - 2);
+        PathRequest request = planner.request(board, start, goal, AStar.octileHeuristic, PathSearch.JUMP_POINT);
+        await(request);
+        assertFalse(request.isStale(board, goal));
+        assertTrue(request.isStale(board, board.index(SIDE - 3, SIDE - 2)), "Farmer moved");
+
+        board.setCellFill(new Point(SIDE / 2, SIDE / 2), CellFill.BARRIER);
+        assertTrue(request.isStale(board, goal), "Board changed");
+    }
+
+    /**
+     * An alien planning on the workers still reaches the farmer.
+     */
+    @Test
+    void testAlienReachesFarmer() throws InterruptedException {
+        SampleGame game = SampleGame.simple();
+        Alien alien = new Alien(new Point(1, 1), 3);
+        alien.setPathService(planner);
+
+        boolean caught = false;
+        for (int tick = 0; tick < 2000 && !caught; tick++) {
+            alien.update(game.board, game.farmer);
+            while (planner.getPendingCount() > 0) {
+                Thread.sleep(1);
+            }
+            caught = alien.getPosition().equals(game.farmer.getPosition());
+        }
+        assertTrue(caught, "Alien should reach the farmer");
+        assertTrue(planner.getDeliveredCount() > 0);
+    }
+
+    private static void await(PathRequest request) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!request.isDone()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Path never arrived");
+            Thread.sleep(1);
+        }
+    }
+}
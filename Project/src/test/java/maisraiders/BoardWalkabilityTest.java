@@ -0,0 +1,115 @@
+package maisraiders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import maisraiders.entities.Farmer;
+import maisraiders.enums.CellFill;
+import maisraiders.enums.Direction;
+import maisraiders.panel.Board;
+import maisraiders.panel.Cell;
+import maisraiders.util.Point;
+
+/**
+ * Tests that the Board's packed walkability bitset and neighbour masks agree with the Cell grid.
+ */
+public class BoardWalkabilityTest {
+    private Board board;
+
+    @BeforeEach
+    void setUp() {
+        board = SampleMap.createDefault();
+    }
+
+    /**
+     * Every bit in the bitset should match Cell.isBlocked() for that cell.
+     */
+    @Test
+    void testBitsetMatchesCells() {
+        for (int c = 0; c < board.getCols(); c++) {
+            for (int r = 0; r < board.getRows(); r++) {
+                Cell cell = board.getCell(new Point(c, r));
+                assertEquals(cell.isBlocked(), board.isBlocked(board.index(c, r)),
+                        "Bitset disagrees with cell at (" + c + "," + r + ")");
+                assertEquals(cell.isBlocked(), board.isBlocked(new Point(c, r)),
+                        "isBlocked(Point) disagrees with cell at (" + c + "," + r + ")");
+            }
+        }
+    }
+
+    /**
+     * Each neighbour mask bit should be set exactly when that neighbour exists and is walkable.
+     */
+    @Test
+    void testNeighbourMasksMatchCells() {
+        for (int c = 0; c < board.getCols(); c++) {
+            for (int r = 0; r < board.getRows(); r++) {
+                int mask = board.neighbourMask(board.index(c, r));
+                for (Direction d : Direction.values()) {
+                    if (d == Direction.NONE) continue;
+                    Cell n = board.getCell(c + d.getColStep(), r + d.getRowStep());
+                    boolean expected = n != null && !n.isBlocked();
+                    assertEquals(expected, (mask & (1 << d.ordinal())) != 0,
+                            "Mask bit " + d + " wrong at (" + c + "," + r + ")");
+                }
+            }
+        }
+    }
+
+    /**
+     * Moving with the board's masks should give the same result as moving with a Cell array.
+     */
+    @Test
+    void testMaskMoveMatchesCellMove() {
+        for (Direction d : Direction.values()) {
+            Farmer viaCells = new Farmer(new Point(1, 1), 4);
+            Farmer viaBoard = new Farmer(new Point(1, 1), 4);
+            for (int i = 0; i < 40; i++) {
+                viaCells.move(d, board.getNeighbours(viaCells.getPosition()));
+                viaBoard.move(d, board);
+            }
+            assertEquals(viaCells.getPosition(), viaBoard.getPosition(), "Grid position differs moving " + d);
+            assertEquals(viaCells.getSubPositionX(), viaBoard.getSubPositionX(), "Pixel X differs moving " + d);
+            assertEquals(viaCells.getSubPositionY(), viaBoard.getSubPositionY(), "Pixel Y differs moving " + d);
+        }
+    }
+
+    /**
+     * A board built from a custom layout should take its size and cells from that layout.
+     */
+    @Test
+    void testCustomLayout() {
+        int[][] layout = new int[40][3]; // all grass
+        layout[20][1] = 1; // barrier
+        Board custom = new Board(layout);
+        assertEquals(40, custom.getCols());
+        assertEquals(3, custom.getRows());
+        assertTrue(custom.isBlocked(new Point(20, 1)));
+        assertFalse(custom.isBlocked(new Point(21, 1)));
+        assertTrue(custom.isBlocked(custom.index(20, 1)));
+    }
+
+    /**
+     * getCell should hand out the same Cell until the tile changes, then one with the new fill.
+     */
+    @Test
+    void testCellsAreCachedUntilTileChanges() {
+        Cell before = board.getCell(2, 2);
+        assertSame(before, board.getCell(new Point(2, 2)));
+
+        board.setCellFill(new Point(2, 2), CellFill.HAYBALE);
+        Cell after = board.getCell(2, 2);
+        assertNotSame(before, after);
+        assertEquals(CellFill.HAYBALE, after.getCellFill());
+        assertEquals(new Point(2, 2), after.getPosition());
+        assertTrue(after.isBlocked());
+        assertTrue(board.isBlocked(new Point(2, 2)));
+        assertSame(board.getCell(3, 2), board.getCell(3, 2));
+    }
+}
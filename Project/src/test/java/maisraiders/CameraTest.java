@@ -0,0 +1,48 @@
+package maisraiders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import maisraiders.ui.Camera;
+
+/**
+ * Tests for the camera that follows the farmer.
+ */
+public class CameraTest {
+
+    /**
+     * The view should centre on the target, but never show past the edges of the world.
+     */
+    @Test
+    void testFollowsAndClamps() {
+        Camera camera = new Camera(1280, 1024);
+        camera.follow(5000, 4000, 64 * 200, 64 * 100);
+        assertEquals(5000 - 640, camera.getX());
+        assertEquals(4000 - 512, camera.getY());
+
+        camera.follow(100, 100, 64 * 200, 64 * 100);
+        assertEquals(0, camera.getX());
+        assertEquals(0, camera.getY());
+
+        camera.follow(64 * 200 - 10, 64 * 100 - 10, 64 * 200, 64 * 100);
+        assertEquals(64 * 200 - 1280, camera.getX());
+        assertEquals(64 * 100 - 1024, camera.getY());
+    }
+
+    /**
+     * The stock level is exactly one window in size, so the view should never move on it.
+     */
+    @Test
+    void testStockLevelDoesNotScroll() {
+        Camera camera = new Camera(1280, 1024);
+        camera.follow(1200, 900, 1280, 1024);
+        assertEquals(0, camera.getX());
+        assertEquals(0, camera.getY());
+        assertTrue(camera.isVisible(1279, 1023, 0));
+        assertFalse(camera.isVisible(1280, 0, 0));
+        assertTrue(camera.isVisible(1300, 0, 64));
+    }
+}
@@ -0,0 +1,147 @@
+package maisraiders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import maisraiders.entities.AStar;
+import maisraiders.entities.DStarLite;
+import maisraiders.entities.FlowField;
+import maisraiders.enums.CellFill;
+import maisraiders.panel.Board;
+import maisraiders.util.Point;
+
+/**
+ * Tests that the incremental D* Lite planner keeps giving optimal paths as things change.
+ */
+public class DStarLiteTest {
+    private Board board;
+    private DStarLite planner;
+    private int[] path;
+
+    @BeforeEach
+    void setUp() {
+        board = SampleMap.createDefault();
+        planner = new DStarLite(AStar.octileHeuristic);
+        path = AStar.newPathBuffer(board);
+    }
+
+    /**
+     * Cost of a path written as cell indices.
+     */
+    private double cost(int length) {
+        return cost(board, path, length);
+    }
+
+    private static double cost(Board board, int[] path, int length) {
+        double total = 0;
+        for (int i = 1; i < length; i++) {
+            boolean diagonal = path[i] % board.getCols() != path[i - 1] % board.getCols()
+                    && path[i] / board.getCols() != path[i - 1] / board.getCols();
+            total += diagonal ? Math.sqrt(2.0) : 1.0;
+        }
+        return total;
+    }
+
+    /**
+     * Optimal cost from a cell to a goal, taken from a fresh flow field.
+     */
+    private double optimal(Point start, Point goal) {
+        return optimal(board, start, goal);
+    }
+
+    private static double optimal(Board board, Point start, Point goal) {
+        FlowField field = new FlowField();
+        field.update(board, goal);
+        return field.distanceFrom(board.index(start));
+    }
+
+    /**
+     * First plan should match the optimal cost.
+     */
+    @Test
+    void testInitialPlanIsOptimal() {
+        Point start = new Point(1, 1);
+        Point goal = new Point(9, 7);
+        int length = planner.plan(board, board.index(start), board.index(goal), path);
+        assertEquals(board.index(start), path[0]);
+        assertEquals(board.index(goal), path[length - 1]);
+        assertEquals(optimal(start, goal), cost(length), 1e-9);
+    }
+
+    /**
+     * After the alien takes one step and the farmer moves one tile, the repair should stay optimal
+     * and expand fewer cells than the first plan.
+     */
+    @Test
+    void testRepairAfterOneTileMoves() {
+        planner.plan(board, board.index(1, 1), board.index(9, 7), path);
+        int initialExpansions = planner.getLastExpansions();
+
+        Point nextStart = new Point(path[1] % board.getCols(), path[1] / board.getCols());
+        Point nextGoal = new Point(10, 7);
+        int length = planner.plan(board, board.index(nextStart), board.index(nextGoal), path);
+        assertEquals(board.index(nextStart), path[0]);
+        assertEquals(board.index(nextGoal), path[length - 1]);
+        assertEquals(optimal(nextStart, nextGoal), cost(length), 1e-9);
+        assertTrue(planner.getLastExpansions() < initialExpansions,
+                "Repair should expand fewer cells than a fresh plan");
+    }
+
+    /**
+     * Blocking and unblocking cells on the current path should be repaired.
+     */
+    @Test
+    void testRepairAfterCellFillChanges() {
+        Point start = new Point(1, 1);
+        Point goal = new Point(9, 7);
+        planner.plan(board, board.index(start), board.index(goal), path);
+
+        Point blocked = new Point(path[2] % board.getCols(), path[2] / board.getCols());
+        board.setCellFill(blocked, CellFill.BARRIER);
+        int length = planner.plan(board, board.index(start), board.index(goal), path);
+        for (int i = 0; i < length; i++) {
+            assertTrue(path[i] != board.index(blocked), "Path should avoid the new barrier");
+        }
+        assertEquals(optimal(start, goal), cost(length), 1e-9);
+
+        board.setCellFill(blocked, CellFill.NULL);
+        length = planner.plan(board, board.index(start), board.index(goal), path);
+        assertEquals(optimal(start, goal), cost(length), 1e-9);
+    }
+
+    /**
+     * On a large board, following the path while the goal wanders should stay optimal and only
+     * ever hold the searched neighbourhood, not the board.
+     */
+    @Test
+    void testMovesOnLargeBoardStayLocal() {
+        int[][] layout = new int[512][512];
+        for (int r = 100; r < 140; r++) {
+            layout[120][r] = 1;
+        }
+        Board large = new Board(layout);
+        DStarLite local = new DStarLite(AStar.octileHeuristic);
+        int[] buffer = AStar.newPathBuffer(large);
+        Random random = new Random(3);
+        Point start = new Point(100, 110);
+        Point goal = new Point(140, 120);
+        for (int step = 0; step < 40; step++) {
+            int length = local.plan(large, large.index(start), large.index(goal), buffer);
+            assertEquals(large.index(start), buffer[0]);
+            assertEquals(large.index(goal), buffer[length - 1]);
+            assertEquals(optimal(large, start, goal), cost(large, buffer, length), 1e-9, "step " + step);
+            assertTrue(local.getReachedCount() < large.getCellCount() / 20,
+                    "Search should stay local, holds " + local.getReachedCount() + " cells");
+
+            start = new Point(buffer[1] % large.getCols(), buffer[1] / large.getCols());
+            if (step % 5 == 4) {
+                goal = new Point(goal.getCol() + random.nextInt(3) - 1, goal.getRow() + random.nextInt(3) - 1);
+            }
+        }
+    }
+}
@@ -1,11 +1,18 @@
 package maisraiders;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 
 import maisraiders.entities.Farmer;
 import maisraiders.enums.GameState;
+import maisraiders.panel.Board;
 import maisraiders.panel.Game;
+import maisraiders.util.Point;
 
 /**
  * Simple, focused tests for exit / win behaviour.
@@ -58,4 +65,22 @@ public class ExitTest {
         // now the game should be in WIN state
         assertEquals(GameState.WIN, game.getGameState());
     }
-}
\ No newline at end of file
+
+    /**
+     * The farmer is at the exit when standing on whichever tile the board marks as EXIT.
+     */
+    @Test
+    void exitComesFromTheBoard() {
+        int[][] layout = new int[6][6];
+        layout[4][1] = 2; // EXIT
+        Board board = new Board(layout);
+
+        Farmer onExit = new Farmer(new Point(4, 1), 4);
+        onExit.update(List.of(), board);
+        assertTrue(onExit.getExitStatus());
+
+        Farmer elsewhere = new Farmer(new Point(3, 1), 4);
+        elsewhere.update(List.of(), board);
+        assertFalse(elsewhere.getExitStatus());
+    }
+}
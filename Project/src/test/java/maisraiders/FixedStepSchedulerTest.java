@@ -0,0 +1,76 @@
+package maisraiders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import maisraiders.entities.Farmer;
+import maisraiders.enums.Direction;
+import maisraiders.panel.FixedStepScheduler;
+import maisraiders.util.Point;
+
+/**
+ * Tests for the fixed-timestep scheduler and interpolated drawing positions.
+ */
+public class FixedStepSchedulerTest {
+    private FixedStepScheduler scheduler;
+    private long tick;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new FixedStepScheduler(60, 5);
+        tick = scheduler.getTickNanos();
+        scheduler.reset(0);
+    }
+
+    /**
+     * Each tick length of real time should give exactly one tick, whatever the frame rate.
+     */
+    @Test
+    void testTicksFollowRealTime() {
+        assertEquals(0, scheduler.advance(tick / 2));
+        assertEquals(1, scheduler.advance(tick));
+        assertEquals(2, scheduler.advance(3 * tick));
+
+        int total = 0;
+        for (int frame = 1; frame <= 144; frame++) {
+            total += scheduler.advance(3 * tick + frame * 1_000_000_000L / 144);
+        }
+        assertEquals(60, total, "One second of 144 Hz frames should run 60 ticks");
+    }
+
+    /**
+     * A long stall should only run a bounded number of catch-up ticks and drop the rest.
+     */
+    @Test
+    void testCatchUpIsBounded() {
+        assertEquals(5, scheduler.advance(20 * tick));
+        assertEquals(15, scheduler.getDroppedTicks());
+        assertEquals(0, scheduler.advance(20 * tick + tick / 2));
+    }
+
+    /**
+     * The leftover time should become the interpolation factor.
+     */
+    @Test
+    void testAlphaIsLeftoverFraction() {
+        scheduler.advance(tick + tick / 4);
+        assertEquals(0.25, scheduler.getAlpha(), 1e-6);
+    }
+
+    /**
+     * Drawing positions should blend between the last two tick positions.
+     */
+    @Test
+    void testRenderPositionInterpolates() {
+        Farmer farmer = new Farmer(new Point(5, 5), 4);
+        int startX = farmer.getSubPositionX();
+        farmer.savePreviousPosition();
+        farmer.move(Direction.E, SampleMap.createDefault());
+
+        assertEquals(startX, farmer.getRenderX(0.0));
+        assertEquals(startX + 2, farmer.getRenderX(0.5));
+        assertEquals(farmer.getSubPositionX(), farmer.getRenderX(1.0));
+    }
+}
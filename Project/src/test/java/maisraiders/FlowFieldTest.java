@@ -0,0 +1,105 @@
+package maisraiders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import maisraiders.entities.AStar;
+import maisraiders.entities.Alien;
+import maisraiders.entities.Farmer;
+import maisraiders.entities.FlowField;
+import maisraiders.enums.PursuitMode;
+import maisraiders.panel.Board;
+import maisraiders.util.Point;
+
+/**
+ * Tests for the shared flow-field pursuit mode.
+ */
+public class FlowFieldTest {
+    private SampleGame game;
+    private Board board;
+    private FlowField field;
+
+    @BeforeEach
+    void setUp() {
+        System.setProperty("java.awt.headless", "true");
+        game = SampleGame.simple();
+        board = game.board;
+        field = new FlowField();
+    }
+
+    /**
+     * Flow field distances should equal the cost of the optimal A* path.
+     */
+    @Test
+    void testDistanceMatchesAStar() {
+        Point goal = new Point(9, 7);
+        field.update(board, goal);
+
+        Point[] starts = {new Point(1, 1), new Point(15, 5), new Point(2, 14), new Point(17, 10)};
+        for (Point start : starts) {
+            List<Point> path = AStar.findPath(board, start, goal, AStar.octileHeuristic);
+            double cost = 0;
+            for (int i = 1; i < path.size(); i++) {
+                boolean diagonal = path.get(i).getCol() != path.get(i - 1).getCol()
+                        && path.get(i).getRow() != path.get(i - 1).getRow();
+                cost += diagonal ? Math.sqrt(2.0) : 1.0;
+            }
+            assertEquals(cost, field.distanceFrom(board.index(start)), 1e-9, "Distance wrong from " + start);
+        }
+    }
+
+    /**
+     * The field should only be rebuilt when the goal cell changes.
+     */
+    @Test
+    void testRebuildOnlyWhenGoalMoves() {
+        assertTrue(field.update(board, new Point(9, 7)));
+        assertFalse(field.update(board, new Point(9, 7)), "Same goal should reuse the field");
+        assertTrue(field.update(board, new Point(10, 7)), "New goal should rebuild the field");
+        assertEquals(2, field.getVersion());
+    }
+
+    /**
+     * Following the next cells from any reachable cell should end at the goal.
+     */
+    @Test
+    void testNextCellsLeadToGoal() {
+        Point goal = new Point(9, 7);
+        field.update(board, goal);
+        int goalIdx = board.index(goal);
+
+        int cur = board.index(1, 1);
+        int steps = 0;
+        while (cur != goalIdx && steps < board.getCellCount()) {
+            cur = field.nextCell(cur);
+            assertTrue(cur >= 0 && !board.isBlocked(cur), "Flow field stepped onto a blocked cell");
+            steps++;
+        }
+        assertEquals(goalIdx, cur);
+    }
+
+    /**
+     * An alien in flow-field mode should catch a nearby farmer.
+     */
+    @Test
+    void testFlowFieldAlienCatchesFarmer() {
+        Alien alien = game.aliens.get(0);
+        Farmer farmer = game.farmer;
+        alien.setFlowField(field);
+        alien.setPursuitMode(PursuitMode.FLOW_FIELD);
+        alien._test_setPosition(new Point(1, 1));
+        farmer._test_setPosition(new Point(3, 1));
+
+        for (int i = 0; i < 80; i++) {
+            alien.update(board, farmer);
+        }
+
+        assertEquals(farmer.getPosition(), alien.getPosition());
+    }
+}
@@ -0,0 +1,125 @@
+package maisraiders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import maisraiders.enums.Direction;
+import maisraiders.enums.GameState;
+import maisraiders.map.Level;
+import maisraiders.movement.ScriptedInput;
+import maisraiders.panel.Game;
+import maisraiders.panel.GameLoop;
+import maisraiders.ui.SpriteAtlas;
+
+/**
+ * Tests for running the game logic without a window.
+ */
+public class HeadlessGameTest {
+    private Game game;
+    private ScriptedInput input;
+    private GameLoop loop;
+
+    @BeforeEach
+    void setUp() {
+        System.setProperty("java.awt.headless", "true");
+        game = new Game();
+        input = new ScriptedInput();
+        loop = game.startHeadless(input);
+    }
+
+    /**
+     * A headless match starts running with no window and counts its ticks.
+     */
+    @Test
+    void testHeadlessMatchSteps() {
+        assertTrue(loop.isHeadless());
+        assertNull(loop._test_getGameWindow());
+        assertEquals(GameState.RUNNING, game.getGameState());
+
+        for (int i = 0; i < 10; i++) {
+            loop.step();
+        }
+        assertEquals(10, game.getTick());
+    }
+
+    /**
+     * Scripted input should move the farmer like the keyboard would.
+     */
+    @Test
+    void testScriptedInputMovesFarmer() {
+        int startY = loop._test_getGameFarmer().getSubPositionY();
+        input.setDirection(Direction.N);
+        for (int i = 0; i < 10; i++) {
+            loop.step();
+        }
+        assertTrue(loop._test_getGameFarmer().getSubPositionY() < startY, "Farmer should have moved up");
+    }
+
+    /**
+     * A farmer that stands still should get caught by the aliens.
+     */
+    @Test
+    void testIdleFarmerGetsCaught() {
+        GameState state = game.getGameState();
+        while (state == GameState.RUNNING && game.getTick() < 5000) {
+            state = loop.step();
+        }
+        assertEquals(GameState.LOSE, state);
+    }
+
+    /**
+     * The corn needed to win is every regular corn the level places.
+     */
+    @Test
+    void testRequiredCornFromLevel() {
+        Level level = loop.getLevel();
+        int corn = 0;
+        for (int i = 0; i < level.getObjectCount(); i++) {
+            if (level.getObjectKind(i) == Level.OBJECT_CORN) corn++;
+        }
+        assertTrue(corn > 0);
+        assertEquals(corn, game.getRequiredRegular());
+    }
+
+    /**
+     * A headless match in a fresh JVM with java.awt.headless=true should never build the sprite
+     * atlas or a Ui, even while the farmer walks over pickups.
+     */
+    @Test
+    void testHeadlessMatchLoadsNoSprites() throws Exception {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process process = new ProcessBuilder(java, "-Djava.awt.headless=true",
+                "-cp", System.getProperty("java.class.path"), HeadlessMatch.class.getName())
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertEquals(0, process.waitFor(), output);
+        assertTrue(output.contains("atlas loaded: false"), output);
+        assertTrue(output.contains("ui: null"), output);
+    }
+
+    /**
+     * Plays a short headless match and reports whether the sprite atlas and Ui were created.
+     */
+    static class HeadlessMatch {
+        public static void main(String[] args) {
+            ScriptedInput input = new ScriptedInput();
+            Game game = new Game();
+            GameLoop loop = game.startHeadless(input, 5);
+            Direction[] walk = {Direction.N, Direction.E, Direction.S, Direction.W};
+            for (int i = 0; i < 600 && game.getGameState() == GameState.RUNNING; i++) {
+                input.setDirection(walk[(i / 40) % walk.length]);
+                loop.step();
+            }
+            System.out.println("atlas loaded: " + SpriteAtlas.isLoaded());
+            System.out.println("ui: " + loop.ui);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package maisraiders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import maisraiders.entities.AStar;
+import maisraiders.entities.HierarchicalPathfinder;
+import maisraiders.enums.CellFill;
+import maisraiders.panel.Board;
+import maisraiders.util.Point;
+
+/**
+ * Tests for the hierarchical (HPA*) planner.
+ */
+public class HierarchicalPathfinderTest {
+    private static final int SIDE = 96;
+
+    private Board board;
+    private HierarchicalPathfinder planner;
+    private AStar astar;
+    private int[] path;
+    private int[] optimal;
+
+    @BeforeEach
+    void setUp() {
+        // open field with scattered walls and a few long walls with gaps
+        int[][] layout = new int[SIDE][SIDE];
+        Random random = new Random(3L);
+        for (int c = 0; c < SIDE; c++) {
+            for (int r = 0; r < SIDE; r++) {
+                boolean wall = random.nextInt(100) < 20 || (c % 24 == 12 && r % 30 != 5);
+                layout[c][r] = wall ? 1 : 0;
+            }
+        }
+        board = new Board(layout);
+        planner = new HierarchicalPathfinder(board, 16);
+        astar = new AStar(board);
+        path = AStar.newPathBuffer(board);
+        optimal = AStar.newPathBuffer(board);
+    }
+
+    /**
+     * Paths should be walkable step by step, reach the goal whenever A* does and stay
+     * close to the optimal cost.
+     */
+    @Test
+    void testPathsAreValidAndNearOptimal() {
+        Random random = new Random(11L);
+        int checked = 0;
+        while (checked < 40) {
+            int start = randomOpenCell(random);
+            int goal = randomOpenCell(random);
+            int best = astar.search(start, goal, AStar.octileHeuristic, optimal);
+            int length = planner.search(start, goal, AStar.octileHeuristic, path);
+            assertEquals(best == 0, length == 0, "Reachability differs for " + start + " -> " + goal);
+            if (best == 0) continue;
+
+            assertEquals(start, path[0]);
+            assertEquals(goal, path[length - 1]);
+            for (int i = 1; i < length; i++) {
+                assertFalse(board.isBlocked(path[i]), "Path goes through a wall");
+                int dc = Math.abs(path[i] % SIDE - path[i - 1] % SIDE);
+                int dr = Math.abs(path[i] / SIDE - path[i - 1] / SIDE);
+                assertTrue(dc <= 1 && dr <= 1 && dc + dr > 0, "Path jumps at step " + i);
+            }
+            assertTrue(cost(path, length) <= cost(optimal, best) * 1.3 + 2,
+                    "Path much longer than optimal: " + cost(path, length) + " vs " + cost(optimal, best));
+            checked++;
+        }
+    }
+
+    /**
+     * Changing a cell rebuilds the abstract graph so paths avoid the new wall.
+     */
+    @Test
+    void testBoardChangeRebuilds() {
+        int start = randomOpenCell(new Random(5L));
+        int goal = randomOpenCell(new Random(6L));
+        int length = planner.search(start, goal, AStar.octileHeuristic, path);
+        assertTrue(length > 2);
+        assertTrue(planner.getNodeCount() > 0);
+
+        int blocked = path[length / 2];
+        board.setCellFill(new Point(blocked % SIDE, blocked / SIDE), CellFill.BARRIER);
+        length = planner.search(start, goal, AStar.octileHeuristic, path);
+        for (int i = 0; i < length; i++) {
+            assertTrue(path[i] != blocked, "Path still uses the new wall");
+        }
+    }
+
+    private int randomOpenCell(Random random) {
+        while (true) {
+            int cell = random.nextInt(SIDE * SIDE);
+            if (!board.isBlocked(cell)) return cell;
+        }
+    }
+
+    private static double cost(int[] cells, int length) {
+        double total = 0;
+        for (int i = 1; i < length; i++) {
+            boolean diagonal = cells[i] % SIDE != cells[i - 1] % SIDE && cells[i] / SIDE != cells[i - 1] / SIDE;
+            total += diagonal ? Math.sqrt(2.0) : 1.0;
+        }
+        return total;
+    }
+}
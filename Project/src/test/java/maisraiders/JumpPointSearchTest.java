@@ -0,0 +1,99 @@
+package maisraiders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import maisraiders.entities.AStar;
+import maisraiders.panel.Board;
+
+/**
+ * Tests for the Jump Point Search mode of AStar.
+ */
+public class JumpPointSearchTest {
+
+    /**
+     * Jump Point Search finds paths of exactly the optimal A* cost, step by step walkable.
+     */
+    @Test
+    void testSameCostAsAStar() {
+        int side = 64;
+        Random random = new Random(21L);
+        int[][] layout = new int[side][side];
+        for (int c = 0; c < side; c++) {
+            for (int r = 0; r < side; r++) {
+                layout[c][r] = random.nextInt(100) < 25 ? 1 : 0;
+            }
+        }
+        Board board = new Board(layout);
+        AStar arena = new AStar(board);
+        int[] path = AStar.newPathBuffer(board);
+        int[] optimal = AStar.newPathBuffer(board);
+
+        for (int i = 0; i < 200; i++) {
+            int start = random.nextInt(side * side);
+            int goal = random.nextInt(side * side);
+            if (board.isBlocked(start) || board.isBlocked(goal)) continue;
+            int best = arena.search(start, goal, AStar.octileHeuristic, optimal);
+            int length = arena.jumpSearch(start, goal, AStar.octileHeuristic, path);
+            assertEquals(best == 0, length == 0, "Reachability differs");
+            if (best == 0) continue;
+
+            assertEquals(start, path[0]);
+            assertEquals(goal, path[length - 1]);
+            for (int k = 1; k < length; k++) {
+                assertFalse(board.isBlocked(path[k]), "Path goes through a wall");
+                int dc = Math.abs(path[k] % side - path[k - 1] % side);
+                int dr = Math.abs(path[k] / side - path[k - 1] / side);
+                assertTrue(dc <= 1 && dr <= 1 && dc + dr > 0, "Path jumps at step " + k);
+            }
+            assertEquals(cost(optimal, best, side), cost(path, length, side), 1e-9);
+        }
+    }
+
+    /**
+     * On an open arena with a few pillars, far fewer nodes are expanded than by plain A*.
+     */
+    @Test
+    void testFewerExpansionsOnOpenField() {
+        int side = 64;
+        int[][] layout = new int[side][side];
+        for (int c = 8; c < side - 8; c += 12) {
+            for (int r = 8; r < side - 8; r += 12) {
+                layout[c][r] = 1;
+                layout[c + 1][r] = 1;
+                layout[c][r + 1] = 1;
+                layout[c + 1][r + 1] = 1;
+            }
+        }
+        Board board = new Board(layout);
+        AStar arena = new AStar(board);
+        int[] path = AStar.newPathBuffer(board);
+
+        long plain = 0;
+        long jumping = 0;
+        int[][] trips = {{1, 1, 62, 50}, {60, 3, 2, 58}, {5, 40, 58, 12}, {30, 2, 33, 61}};
+        for (int[] trip : trips) {
+            int start = board.index(trip[0], trip[1]);
+            int goal = board.index(trip[2], trip[3]);
+            arena.search(start, goal, AStar.octileHeuristic, path);
+            plain += arena.getExpandedCount();
+            arena.jumpSearch(start, goal, AStar.octileHeuristic, path);
+            jumping += arena.getExpandedCount();
+        }
+        assertTrue(jumping * 5 <= plain, "Expected 5x fewer expansions, got " + plain + " vs " + jumping);
+    }
+
+    private static double cost(int[] cells, int length, int side) {
+        double total = 0;
+        for (int i = 1; i < length; i++) {
+            boolean diagonal = cells[i] % side != cells[i - 1] % side && cells[i] / side != cells[i - 1] / side;
+            total += diagonal ? Math.sqrt(2.0) : 1.0;
+        }
+        return total;
+    }
+}
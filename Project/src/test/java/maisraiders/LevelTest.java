@@ -0,0 +1,120 @@
+package maisraiders;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import maisraiders.map.Level;
+import maisraiders.map.MapLoader;
+import maisraiders.panel.Board;
+import maisraiders.util.Point;
+
+/**
+ * Tests for the binary level format.
+ */
+public class LevelTest {
+
+    /**
+     * The shipped default level should be exactly what MapLoader generates, and build the stock board.
+     */
+    @Test
+    void testDefaultLevelMatchesMapLoader() throws IOException {
+        ByteArrayOutputStream generated = new ByteArrayOutputStream();
+        MapLoader.writeDefaultLevel(generated);
+        try (InputStream in = getClass().getResourceAsStream(Level.DEFAULT_RESOURCE)) {
+            assertArrayEquals(generated.toByteArray(), in.readAllBytes(),
+                    "default.mrl is stale, regenerate it with MapLoader.main");
+        }
+
+        Level level = Level.getDefault();
+        Board fromLevel = new Board(level);
+        Board stock = new Board(20, 16);
+        assertEquals(stock.getCols(), fromLevel.getCols());
+        assertEquals(stock.getRows(), fromLevel.getRows());
+        for (int c = 0; c < stock.getCols(); c++) {
+            for (int r = 0; r < stock.getRows(); r++) {
+                assertEquals(stock.getCell(c, r).getCellFill(), fromLevel.getCell(c, r).getCellFill());
+            }
+        }
+        assertEquals(Level.ENTITY_FARMER, level.getEntityKind(0));
+        assertEquals(new Point(9, 7), level.getEntityPosition(0));
+    }
+
+    /**
+     * A large level written to disk should map back with the same size, tiles and spawns.
+     */
+    @Test
+    void testLargeLevelRoundTrip(@TempDir Path dir) throws IOException {
+        int cols = 1500;
+        int rows = 1200;
+        int[][] layout = new int[cols][rows];
+        for (int c = 0; c < cols; c++) {
+            for (int r = 0; r < rows; r++) {
+                layout[c][r] = (c * 7 + r * 3) % 11 == 0 ? 1 : 0;
+            }
+        }
+        int[][] objects = {{Level.OBJECT_CORN, 1499, 0}, {Level.OBJECT_MUD_TRAP, 3, 1199}};
+        int[][] entities = {{Level.ENTITY_FARMER, 2, 2}, {Level.ENTITY_ALIEN, 700, 800}};
+        Path file = dir.resolve("big.mrl");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            Level.write(out, layout, objects, entities);
+        }
+
+        Level level = Level.open(file);
+        assertEquals(cols, level.getCols());
+        assertEquals(rows, level.getRows());
+        assertEquals(2, level.getObjectCount());
+        assertEquals(Level.OBJECT_MUD_TRAP, level.getObjectKind(1));
+        assertEquals(new Point(3, 1199), level.getObjectPosition(1));
+        assertEquals(Level.ENTITY_ALIEN, level.getEntityKind(1));
+        assertEquals(new Point(700, 800), level.getEntityPosition(1));
+        assertEquals(layout[1234][567], level.getTile(1234, 567));
+
+        Board board = new Board(level);
+        assertEquals(cols * rows, board.getCellCount());
+        assertEquals(layout[0][0] == 1, board.isBlocked(board.index(0, 0)));
+        assertEquals(layout[cols - 1][rows - 1] == 1, board.isBlocked(board.index(cols - 1, rows - 1)));
+    }
+
+    /**
+     * Data that isn't a level, or whose size doesn't match its header, should be rejected.
+     */
+    @Test
+    void testRejectsBadFiles() throws IOException {
+        assertThrows(IOException.class, () -> new Level(ByteBuffer.wrap(new byte[] {1, 2, 3, 4})));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MapLoader.writeDefaultLevel(out);
+        byte[] truncated = Arrays.copyOf(out.toByteArray(), out.size() - 1);
+        assertThrows(IOException.class, () -> new Level(ByteBuffer.wrap(truncated)));
+    }
+
+    /**
+     * Levels with more than MAX_TILES tiles should be refused with a clear error, before
+     * anything is sized to them.
+     */
+    @Test
+    void testRejectsOversizedLevels() {
+        ByteBuffer header = ByteBuffer.allocate(24);
+        header.putInt(0x4D524C56).putInt(1).putInt(10_000).putInt(10_000).putInt(0).putInt(0);
+        IOException e = assertThrows(IOException.class, () -> new Level(header));
+        assertTrue(e.getMessage().contains("at most"), e.getMessage());
+
+        int[][] layout = new int[Level.MAX_TILES / 1024 + 1][1024];
+        assertThrows(IOException.class,
+                () -> Level.write(new ByteArrayOutputStream(), layout, new int[0][], new int[0][]));
+    }
+}
@@ -0,0 +1,109 @@
+package maisraiders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import jdk.jfr.Recording;
+
+import maisraiders.entities.AStar;
+import maisraiders.metrics.GameMetrics;
+import maisraiders.metrics.MetricsRegistry;
+import maisraiders.metrics.MetricsServer;
+import maisraiders.metrics.TickEvent;
+import maisraiders.metrics.TickRecorder;
+import maisraiders.object.GameObject;
+import maisraiders.panel.Board;
+import maisraiders.util.LatencyHistogram;
+
+/**
+ * Tests for the metrics registry and its HTTP endpoint.
+ */
+public class MetricsTest {
+
+    /**
+     * Counters, gauges and summaries are written in the Prometheus text format.
+     */
+    @Test
+    void testTextFormat() {
+        MetricsRegistry registry = new MetricsRegistry();
+        LatencyHistogram timings = new LatencyHistogram();
+        timings.record(2_000_000);
+        timings.record(4_000_000);
+        registry.counter("test_events_total", "Events seen.", () -> 7);
+        registry.gauge("test_level", "Current level.", () -> 1.5);
+        registry.gauge("test_things", "Things by kind.", "kind", () -> Map.of("Corn", 3));
+        registry.summary("test_duration_seconds", "Durations.", timings);
+
+        String text = registry.scrape();
+        assertTrue(text.contains("# TYPE test_events_total counter\ntest_events_total 7\n"), text);
+        assertTrue(text.contains("# HELP test_level Current level.\n# TYPE test_level gauge\ntest_level 1.5\n"), text);
+        assertTrue(text.contains("test_things{kind=\"Corn\"} 3.0\n"), text);
+        assertTrue(text.contains("test_duration_seconds{quantile=\"0.5\"} "), text);
+        assertTrue(text.contains("test_duration_seconds_sum 0.006\n"), text);
+        assertTrue(text.contains("test_duration_seconds_count 2\n"), text);
+    }
+
+    /**
+     * The endpoint serves the game metrics, and A* searches show up in the counters.
+     */
+    @Test
+    void testEndpointServesGameMetrics() throws IOException {
+        Board board = new Board(new int[16][16]);
+        long before = AStar.getTotalSearches();
+        new AStar(board).search(board.index(0, 0), board.index(15, 15), AStar.octileHeuristic,
+                AStar.newPathBuffer(board));
+        assertTrue(AStar.getTotalSearches() > before);
+
+        MetricsServer server = new MetricsServer(0, GameMetrics.shared().getRegistry());
+        try {
+            URL url = URI.create("http://127.0.0.1:" + server.getPort() + "/metrics").toURL();
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            assertEquals(200, connection.getResponseCode());
+            assertTrue(connection.getContentType().startsWith("text/plain"));
+            String body;
+            try (InputStream in = connection.getInputStream()) {
+                body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            assertTrue(body.contains("# TYPE maisraiders_tick_duration_seconds summary"), body);
+            assertTrue(body.contains("maisraiders_path_searches_total "), body);
+            assertTrue(body.contains("maisraiders_path_nodes_expanded_total "), body);
+            assertTrue(body.contains("maisraiders_sound_voices_active "), body);
+        } finally {
+            server.close();
+        }
+    }
+
+    /**
+     * Ticks only create a JFR event while a recording has tick events enabled.
+     */
+    @Test
+    void testTickEventOnlyWhileRecording() {
+        TickRecorder recorder = new TickRecorder(new GameMetrics());
+        GameObject objects = new GameObject();
+        TickEvent untraced = recorder.beginTick();
+        assertNull(untraced);
+        recorder.recordTick(1000, 1, objects, untraced);
+
+        try (Recording recording = new Recording()) {
+            recording.enable("maisraiders.Tick");
+            recording.start();
+            TickEvent traced = recorder.beginTick();
+            assertNotNull(traced);
+            recorder.recordTick(1000, 2, objects, traced);
+            recording.stop();
+        }
+        assertNull(recorder.beginTick());
+    }
+}
@@ -0,0 +1,70 @@
+package maisraiders;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Arrays;
+
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+import org.junit.jupiter.api.Test;
+
+import maisraiders.sound.MusicStream;
+
+/**
+ * Tests for streaming music through a ring buffer.
+ */
+public class MusicStreamTest {
+
+    private static byte[] decode(URL url) throws IOException, UnsupportedAudioFileException {
+        try (AudioInputStream ais = AudioSystem.getAudioInputStream(url)) {
+            return ais.readAllBytes();
+        }
+    }
+
+    /**
+     * Reading past the end of a track should continue from its start with no gap.
+     */
+    @Test
+    void testLoopsSeamlessly() throws IOException, UnsupportedAudioFileException {
+        URL url = getClass().getResource("/sound/collect.wav");
+        byte[] expected = decode(url);
+        MusicStream stream = new MusicStream();
+        stream.load(url);
+
+        // an odd block size makes the reads straddle the ring's wrap point and the loop point
+        byte[] block = new byte[4 * 997];
+        byte[] played = new byte[expected.length * 2 + block.length];
+        int total = 0;
+        while (total < played.length - block.length) {
+            int n = stream.read(block);
+            assertEquals(block.length, n);
+            System.arraycopy(block, 0, played, total, n);
+            total += n;
+        }
+        assertArrayEquals(expected, Arrays.copyOfRange(played, 0, expected.length));
+        assertArrayEquals(expected, Arrays.copyOfRange(played, expected.length, expected.length * 2));
+    }
+
+    /**
+     * Loading a track again should restart it and drop what was buffered from the old position.
+     */
+    @Test
+    void testLoadRestarts() throws IOException, UnsupportedAudioFileException {
+        URL url = getClass().getResource("/sound/cursor.wav");
+        byte[] expected = decode(url);
+        MusicStream stream = new MusicStream();
+        stream.load(url);
+        byte[] block = new byte[4 * 100];
+        stream.read(block);
+        stream.read(block);
+
+        stream.load(url);
+        assertEquals(block.length, stream.read(block));
+        assertArrayEquals(Arrays.copyOfRange(expected, 0, block.length), block);
+    }
+}
@@ -0,0 +1,83 @@
+package maisraiders;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import maisraiders.entities.AStar;
+import maisraiders.entities.PathCache;
+import maisraiders.enums.CellFill;
+import maisraiders.panel.Board;
+import maisraiders.util.Point;
+
+/**
+ * Tests for the LRU A* result cache.
+ */
+public class PathCacheTest {
+    private Board board;
+    private PathCache cache;
+    private int[] buffer;
+
+    @BeforeEach
+    void setUp() {
+        board = SampleMap.createDefault();
+        cache = new PathCache(4);
+        buffer = AStar.newPathBuffer(board);
+    }
+
+    /**
+     * A repeated search is a hit and returns the same path A* finds.
+     */
+    @Test
+    void testRepeatedSearchHits() {
+        int start = board.index(1, 1);
+        int goal = board.index(9, 7);
+        int[] expected = new int[board.getCellCount()];
+        int expectedLength = new AStar(board).search(start, goal, AStar.octileHeuristic, expected);
+
+        assertEquals(expectedLength, cache.search(board, start, goal, AStar.octileHeuristic, buffer));
+        int length = cache.search(board, start, goal, AStar.octileHeuristic, buffer);
+        assertArrayEquals(Arrays.copyOf(expected, expectedLength), Arrays.copyOf(buffer, length));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        // a different heuristic is a different search
+        cache.search(board, start, goal, AStar.manhattanHeuristic, buffer);
+        assertEquals(2, cache.getMisses());
+    }
+
+    /**
+     * Changing a cell drops every cached path.
+     */
+    @Test
+    void testBoardChangeInvalidates() {
+        int start = board.index(1, 1);
+        int goal = board.index(9, 7);
+        cache.search(board, start, goal, AStar.octileHeuristic, buffer);
+        board.setCellFill(new Point(5, 5), CellFill.BARRIER);
+        cache.search(board, start, goal, AStar.octileHeuristic, buffer);
+        assertEquals(0, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(1, cache.size());
+    }
+
+    /**
+     * Only the most recently used paths are kept.
+     */
+    @Test
+    void testLeastRecentlyUsedIsDropped() {
+        int goal = board.index(9, 7);
+        for (int col = 1; col <= 5; col++) {
+            cache.search(board, board.index(col, 1), goal, AStar.octileHeuristic, buffer);
+        }
+        assertEquals(4, cache.size());
+        cache.search(board, board.index(5, 1), goal, AStar.octileHeuristic, buffer);
+        assertEquals(1, cache.getHits());
+        cache.search(board, board.index(1, 1), goal, AStar.octileHeuristic, buffer);
+        assertEquals(1, cache.getHits(), "Oldest path should have been dropped");
+    }
+}
@@ -0,0 +1,177 @@
+package maisraiders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import maisraiders.entities.Alien;
+import maisraiders.enums.Direction;
+import maisraiders.enums.GameState;
+import maisraiders.movement.ScriptedInput;
+import maisraiders.panel.Game;
+import maisraiders.panel.GameLoop;
+import maisraiders.replay.Replay;
+import maisraiders.replay.ReplayRecorder;
+import maisraiders.util.Point;
+
+/**
+ * Tests for recording matches and replaying them exactly.
+ */
+public class ReplayTest {
+
+    @BeforeEach
+    void setUp() {
+        System.setProperty("java.awt.headless", "true");
+    }
+
+    /**
+     * Input that wanders in a random direction, changing every few ticks.
+     */
+    private static ScriptedInput wanderer(long seed) {
+        Random random = new Random(seed);
+        Direction[] held = {Direction.NONE};
+        return new ScriptedInput(tick -> {
+            if (tick % 20 == 0) {
+                held[0] = Direction.values()[random.nextInt(Direction.values().length)];
+            }
+            return held[0];
+        });
+    }
+
+    /**
+     * Summary of everything a replay has to reproduce.
+     */
+    private static String snapshot(Game game, GameLoop loop) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(game.getGameState()).append(' ').append(game.getTick()).append(' ')
+                .append(game.getScore()).append(' ').append(game.getCollectedRegular()).append(' ')
+                .append(loop._test_getGameFarmer().getSubPositionX()).append(',')
+                .append(loop._test_getGameFarmer().getSubPositionY());
+        for (Alien alien : new Alien[] {loop.alien1, loop.alien2}) {
+            sb.append(' ').append(alien.getSubPositionX()).append(',').append(alien.getSubPositionY());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * A recorded match played back from its replay should end in exactly the same state,
+     * and recording the playback should give the same replay again.
+     */
+    @Test
+    void testReplayReproducesMatch() throws IOException {
+        Game game = new Game();
+        GameLoop loop = game.startHeadless(wanderer(11), 42);
+        while (game.getGameState() == GameState.RUNNING && game.getTick() < 20000) {
+            loop.step();
+        }
+        Replay replay = loop.getLastReplay();
+        assertNotNull(replay, "Match should have ended and produced a replay");
+        assertTrue(replay.getEdgeCount() > 0);
+        String original = snapshot(game, loop);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        replay.write(bytes);
+        Replay loaded = Replay.read(new ByteArrayInputStream(bytes.toByteArray()));
+
+        Game replayGame = new Game();
+        GameLoop replayLoop = replayGame.startReplay(loaded);
+        while (replayGame.getGameState() == GameState.RUNNING && replayGame.getTick() < loaded.getEndTick()) {
+            replayLoop.step();
+        }
+        assertEquals(original, snapshot(replayGame, replayLoop));
+        assertEquals(replay, replayLoop.getLastReplay());
+    }
+
+    /**
+     * Pausing mid-match, and pressing keys while paused, should not throw the replay out of
+     * step: paused ticks don't count, so playback reaches the same final state.
+     */
+    @Test
+    void testReplayWithPauseReproducesMatch() {
+        ScriptedInput input = new ScriptedInput();
+        Random random = new Random(5);
+        Game game = new Game();
+        GameLoop loop = game.startHeadless(input, 7);
+        boolean paused = false;
+        while (game.getGameState() == GameState.RUNNING && game.getTick() < 20000) {
+            if (game.getTick() % 20 == 0) {
+                input.setDirection(Direction.values()[random.nextInt(Direction.values().length)]);
+            }
+            if (!paused && game.getTick() == 150) {
+                paused = true;
+                game.setGameState(GameState.PAUSE);
+                for (int i = 0; i < 37; i++) {
+                    input.setDirection(Direction.values()[random.nextInt(Direction.values().length)]);
+                    loop.step();
+                }
+                assertEquals(150, game.getTick(), "Paused ticks should not count");
+                game.setGameState(GameState.RUNNING);
+            }
+            loop.step();
+        }
+        Replay replay = loop.getLastReplay();
+        assertNotNull(replay, "Match should have ended and produced a replay");
+        String original = snapshot(game, loop);
+
+        Game replayGame = new Game();
+        GameLoop replayLoop = replayGame.startReplay(replay);
+        while (replayGame.getGameState() == GameState.RUNNING && replayGame.getTick() < replay.getEndTick()) {
+            replayLoop.step();
+        }
+        assertEquals(original, snapshot(replayGame, replayLoop));
+    }
+
+    /**
+     * Replays should survive a write/read round trip and only store key changes.
+     */
+    @Test
+    void testBinaryRoundTrip() throws IOException {
+        ScriptedInput input = new ScriptedInput();
+        ReplayRecorder recorder = new ReplayRecorder();
+        recorder.setSource(input);
+        recorder.start(-5L, "default");
+        for (long tick = 0; tick < 1000; tick++) {
+            input.setDirection(tick < 300 ? Direction.NE : tick < 700 ? Direction.NONE : Direction.W);
+            recorder.poll(tick);
+        }
+        Replay replay = recorder.finish(1000);
+        // NE press (2 keys), release both, W press
+        assertEquals(5, replay.getEdgeCount());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        replay.write(bytes);
+        assertTrue(bytes.size() < 40, "Replay should be compact, was " + bytes.size() + " bytes");
+        assertEquals(replay, Replay.read(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    /**
+     * Paralysis should last a fixed number of ticks, not wall-clock time.
+     */
+    @Test
+    void testParalysisCountsTicks() {
+        SampleGame sample = SampleGame.simple();
+        Alien alien = sample.aliens.get(0);
+        sample.farmer._test_setPosition(new Point(3, 1));
+        alien.paralyze(250);
+        Point start = alien.getPosition();
+        int startX = alien.getSubPositionX();
+        for (int i = 0; i < 15; i++) {
+            alien.update(sample.board, sample.farmer);
+        }
+        assertEquals(start, alien.getPosition());
+        assertEquals(startX, alien.getSubPositionX());
+
+        alien.update(sample.board, sample.farmer);
+        alien.update(sample.board, sample.farmer);
+        assertNotEquals(startX, alien.getSubPositionX(), "Alien should move again after 15 ticks");
+    }
+}
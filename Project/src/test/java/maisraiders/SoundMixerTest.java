@@ -0,0 +1,96 @@
+package maisraiders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+import org.junit.jupiter.api.Test;
+
+import maisraiders.sound.Sound;
+import maisraiders.sound.SoundMixer;
+
+/**
+ * Tests for mixing sound effects in software.
+ */
+public class SoundMixerTest {
+    private static final int FRAME = SoundMixer.FORMAT.getFrameSize();
+
+    /**
+     * Build a sample where every channel of every frame has the same value.
+     */
+    private static byte[] constant(int frames, int value) {
+        byte[] pcm = new byte[frames * FRAME];
+        for (int i = 0; i < pcm.length; i += 2) {
+            pcm[i] = (byte) value;
+            pcm[i + 1] = (byte) (value >> 8);
+        }
+        return pcm;
+    }
+
+    private static int sampleAt(byte[] out, int index) {
+        return (short) ((out[index * 2] & 0xFF) | (out[index * 2 + 1] << 8));
+    }
+
+    /**
+     * One effect should come out unchanged, then its voice should be freed and the output silent.
+     */
+    @Test
+    void testSingleVoicePassesThrough() {
+        SoundMixer mixer = new SoundMixer();
+        mixer.play(constant(10, -1234));
+        byte[] out = new byte[16 * FRAME];
+
+        assertEquals(out.length, mixer.mix(out));
+        for (int i = 0; i < 20; i++) {
+            assertEquals(-1234, sampleAt(out, i));
+        }
+        assertEquals(0, sampleAt(out, 20));
+        assertEquals(0, mixer.getActiveVoices());
+
+        mixer.mix(out);
+        assertEquals(0, sampleAt(out, 0));
+    }
+
+    /**
+     * Overlapping effects should be summed and clipped to the 16-bit range.
+     */
+    @Test
+    void testVoicesSumAndClip() {
+        SoundMixer mixer = new SoundMixer();
+        mixer.play(constant(4, 1000));
+        mixer.play(constant(4, 2000));
+        byte[] out = new byte[4 * FRAME];
+        mixer.mix(out);
+        assertEquals(3000, sampleAt(out, 0));
+
+        mixer.play(constant(4, 30000));
+        mixer.play(constant(4, 30000));
+        mixer.mix(out);
+        assertEquals(Short.MAX_VALUE, sampleAt(out, 0));
+    }
+
+    /**
+     * More effects than voices should reuse voices rather than pile up.
+     */
+    @Test
+    void testVoiceLimit() {
+        SoundMixer mixer = new SoundMixer();
+        for (int i = 0; i < SoundMixer.VOICES + 3; i++) {
+            mixer.play(constant(1000, 100));
+        }
+        byte[] out = new byte[4 * FRAME];
+        mixer.mix(out);
+        assertEquals(SoundMixer.VOICES, mixer.getActiveVoices());
+        assertEquals(100 * SoundMixer.VOICES, sampleAt(out, 0));
+    }
+
+    /**
+     * Playing an effect never opens the output line itself; that is done at start-up.
+     */
+    @Test
+    void testPlayDoesNotStartMixer() {
+        assumeFalse(SoundMixer.shared().isRunning());
+        new Sound().playSE(1);
+        assertFalse(SoundMixer.shared().isRunning());
+    }
+}
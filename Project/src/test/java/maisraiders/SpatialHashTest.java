@@ -0,0 +1,162 @@
+package maisraiders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import maisraiders.object.GameObject;
+import maisraiders.util.SpatialHash;
+
+/**
+ * Tests for the tile-bucketed spatial hash.
+ */
+public class SpatialHashTest {
+
+    /**
+     * Queries should return exactly the items in the 3x3 cells around the point, even with a
+     * table so small that many cells share buckets.
+     */
+    @Test
+    void testQueryMatchesBruteForce() {
+        SpatialHash<Integer> hash = new SpatialHash<>(64, 1);
+        Random random = new Random(7);
+        int count = 2000;
+        // items are matched by identity, so keep one boxed object per item
+        Integer[] items = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            items[i] = Integer.valueOf(i);
+        }
+        int[] xs = new int[count];
+        int[] ys = new int[count];
+        for (int i = 0; i < count; i++) {
+            xs[i] = random.nextInt(64 * 100);
+            ys[i] = random.nextInt(64 * 100);
+            hash.put(items[i], xs[i], ys[i]);
+        }
+        // move half of them
+        for (int i = 0; i < count; i += 2) {
+            xs[i] = random.nextInt(64 * 100);
+            ys[i] = random.nextInt(64 * 100);
+            hash.put(items[i], xs[i], ys[i]);
+        }
+
+        List<Integer> out = new ArrayList<>();
+        for (int q = 0; q < 200; q++) {
+            int x = random.nextInt(64 * 100);
+            int y = random.nextInt(64 * 100);
+            Set<Integer> expected = new HashSet<>();
+            for (int i = 0; i < count; i++) {
+                if (Math.abs(xs[i] / 64 - x / 64) <= 1 && Math.abs(ys[i] / 64 - y / 64) <= 1) {
+                    expected.add(i);
+                }
+            }
+            hash.queryNear(x, y, out);
+            assertEquals(expected.size(), out.size(), "Query returned duplicates or missed items");
+            assertEquals(expected, new HashSet<>(out));
+        }
+    }
+
+    /**
+     * A rectangle query should return each item whose cell overlaps the rectangle exactly once,
+     * even with a table so small that many cells share buckets.
+     */
+    @Test
+    void testQueryRectMatchesBruteForce() {
+        SpatialHash<Integer> hash = new SpatialHash<>(64, 1);
+        Random random = new Random(11);
+        int count = 1000;
+        Integer[] items = new Integer[count];
+        int[] xs = new int[count];
+        int[] ys = new int[count];
+        for (int i = 0; i < count; i++) {
+            items[i] = Integer.valueOf(i);
+            xs[i] = random.nextInt(64 * 60);
+            ys[i] = random.nextInt(64 * 60);
+            hash.put(items[i], xs[i], ys[i]);
+        }
+
+        List<Integer> out = new ArrayList<>();
+        for (int q = 0; q < 100; q++) {
+            int minX = random.nextInt(64 * 60);
+            int minY = random.nextInt(64 * 60);
+            int maxX = minX + random.nextInt(64 * 20);
+            int maxY = minY + random.nextInt(64 * 12);
+            Set<Integer> expected = new HashSet<>();
+            for (int i = 0; i < count; i++) {
+                if (xs[i] / 64 >= minX / 64 && xs[i] / 64 <= maxX / 64
+                        && ys[i] / 64 >= minY / 64 && ys[i] / 64 <= maxY / 64) {
+                    expected.add(i);
+                }
+            }
+            hash.queryRect(minX, minY, maxX, maxY, out);
+            assertEquals(expected.size(), out.size(), "Query returned duplicates or missed items");
+            assertEquals(expected, new HashSet<>(out));
+        }
+    }
+
+    /**
+     * Anything within one cell size on both axes must be found.
+     */
+    @Test
+    void testFindsEverythingWithinOneCell() {
+        SpatialHash<String> hash = new SpatialHash<>(64, 16);
+        hash.put("corn", 100, 100);
+        List<String> out = new ArrayList<>();
+        assertTrue(hash.queryNear(100 + 63, 100 - 63, out).contains("corn"));
+        assertFalse(hash.queryNear(100 + 200, 100, out).contains("corn"));
+    }
+
+    /**
+     * Removed items should no longer be returned.
+     */
+    @Test
+    void testRemove() {
+        SpatialHash<String> hash = new SpatialHash<>(64, 16);
+        hash.put("trap", 10, 10);
+        assertTrue(hash.remove("trap"));
+        assertFalse(hash.remove("trap"));
+        assertEquals(0, hash.size());
+        assertTrue(hash.queryNear(10, 10, new ArrayList<>()).isEmpty());
+    }
+
+    /**
+     * Each loop's object holder has its own index, and objects removing themselves leave the
+     * holder they were added to.
+     */
+    @Test
+    void testObjectIndexPerHolder() {
+        GameObject first = new GameObject();
+        GameObject second = new GameObject();
+        GameObject corn = objectAt(100, 100);
+        GameObject trap = objectAt(100, 100);
+        first.addObject(corn);
+        second.addObject(trap);
+        try {
+            List<GameObject> near = first.getObjectsNear(132, 132, new ArrayList<>());
+            assertEquals(List.of(corn), near);
+
+            corn.removeObject(corn);
+            assertTrue(first.getObjectsNear(132, 132, near).isEmpty());
+            assertEquals(List.of(trap), second.getObjectsNear(132, 132, near));
+        } finally {
+            first.removeObject(corn);
+            second.removeObject(trap);
+        }
+    }
+
+    private static GameObject objectAt(int x, int y) {
+        GameObject object = new GameObject();
+        object.setPosition(new Point(x, y));
+        object.setSubPosition(object.getPosition());
+        return object;
+    }
+}
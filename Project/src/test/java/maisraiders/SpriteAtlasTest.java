@@ -0,0 +1,91 @@
+package maisraiders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import maisraiders.object.Corn;
+import maisraiders.ui.SpriteAtlas;
+
+/**
+ * Tests for the shared sprite atlas.
+ */
+public class SpriteAtlasTest {
+
+    @BeforeEach
+    void setUp() {
+        System.setProperty("java.awt.headless", "true");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SpriteAtlas.shared().setTileSize(SpriteAtlas.DEFAULT_TILE_SIZE);
+    }
+
+    /**
+     * A sprite from the atlas should be the PNG scaled to one tile.
+     */
+    @Test
+    void testSpriteMatchesScaledResource() throws IOException {
+        BufferedImage sprite = SpriteAtlas.shared().get("/objects/corn3.png");
+        BufferedImage source = ImageIO.read(getClass().getResourceAsStream("/objects/corn3.png"));
+        int size = SpriteAtlas.DEFAULT_TILE_SIZE;
+        assertEquals(size, sprite.getWidth());
+        assertEquals(size, sprite.getHeight());
+
+        int scale = size / source.getWidth();
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                int expected = source.getRGB(x / scale, y / scale);
+                int actual = sprite.getRGB(x, y);
+                if ((expected >>> 24) == 0) {
+                    assertEquals(0, actual >>> 24, "Pixel should be transparent at " + x + "," + y);
+                } else {
+                    // premultiplied storage may round half-transparent colours by a step
+                    for (int shift = 0; shift < 32; shift += 8) {
+                        int e = (expected >>> shift) & 0xFF;
+                        int a = (actual >>> shift) & 0xFF;
+                        assertTrue(Math.abs(e - a) <= 2, "Pixel differs at " + x + "," + y);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Objects created again on restart should share the atlas sprite instead of decoding their own.
+     */
+    @Test
+    void testObjectsShareSprites() {
+        Corn first = new Corn(new java.awt.Point(0, 0));
+        Corn second = new Corn(new java.awt.Point(64, 0));
+        assertNotNull(first.getImage());
+        assertSame(first.getImage(), second.getImage());
+    }
+
+    /**
+     * Changing the tile size should rescale every sprite, including multi-tile UI images.
+     */
+    @Test
+    void testRescaleForTileSize() {
+        SpriteAtlas atlas = SpriteAtlas.shared();
+        atlas.setTileSize(48);
+        assertEquals(48, atlas.get("/tiles/dirt2.png").getWidth());
+        BufferedImage sideBar = atlas.get("/objects/corn-side-bar-lhs.png");
+        assertEquals(48 * 6, sideBar.getWidth());
+        assertEquals(48 * 12, sideBar.getHeight());
+
+        assertThrows(IllegalArgumentException.class, () -> atlas.get("/objects/missing.png"));
+    }
+}
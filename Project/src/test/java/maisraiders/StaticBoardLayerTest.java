@@ -0,0 +1,114 @@
+package maisraiders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import maisraiders.enums.CellFill;
+import maisraiders.panel.Board;
+import maisraiders.ui.StaticBoardLayer;
+import maisraiders.ui.TileRenderer;
+import maisraiders.util.Point;
+
+/**
+ * Tests for the cached board tile layer.
+ */
+public class StaticBoardLayerTest {
+    private static final int TILE_SIZE = 16;
+
+    private Board board;
+    private TileRenderer renderer;
+    private StaticBoardLayer layer;
+    private BufferedImage screen;
+
+    @BeforeEach
+    void setUp() {
+        System.setProperty("java.awt.headless", "true");
+        board = SampleMap.createDefault();
+        renderer = new TileRenderer(TILE_SIZE);
+        layer = new StaticBoardLayer(renderer);
+        screen = new BufferedImage(board.getCols() * TILE_SIZE, board.getRows() * TILE_SIZE,
+                BufferedImage.TYPE_INT_RGB);
+    }
+
+    private void drawLayer() {
+        Graphics2D g2 = screen.createGraphics();
+        layer.draw(g2, board, null);
+        g2.dispose();
+    }
+
+    /**
+     * The cached layer should look exactly like drawing the tiles directly.
+     */
+    @Test
+    void testMatchesDirectDrawing() {
+        drawLayer();
+
+        BufferedImage direct = new BufferedImage(screen.getWidth(), screen.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = direct.createGraphics();
+        g2.setColor(Color.BLACK);
+        g2.fillRect(0, 0, direct.getWidth(), direct.getHeight());
+        renderer.drawBoard(g2, board);
+        g2.dispose();
+
+        for (int y = 0; y < screen.getHeight(); y++) {
+            for (int x = 0; x < screen.getWidth(); x++) {
+                assertEquals(direct.getRGB(x, y), screen.getRGB(x, y), "Pixel differs at " + x + "," + y);
+            }
+        }
+    }
+
+    /**
+     * The tiles should only be rasterised again when the board changes.
+     */
+    @Test
+    void testRendersOnlyWhenBoardChanges() {
+        for (int i = 0; i < 5; i++) {
+            drawLayer();
+        }
+        assertEquals(1, layer.getRenderCount());
+
+        board.setCellFill(new Point(3, 3), CellFill.BARRIER);
+        drawLayer();
+        drawLayer();
+        assertEquals(2, layer.getRenderCount());
+
+        board = new Board(board.getCols(), board.getRows());
+        drawLayer();
+        assertEquals(3, layer.getRenderCount());
+
+        layer.invalidate();
+        drawLayer();
+        assertEquals(4, layer.getRenderCount());
+    }
+
+    /**
+     * With a clip (the camera's view) only the blocks in view should be rasterised, and a change
+     * in a chunk out of view shouldn't redraw anything.
+     */
+    @Test
+    void testDrawsOnlyBlocksInView() {
+        int[][] layout = new int[300][200];
+        Board large = new Board(layout);
+        int span = StaticBoardLayer.TILES_PER_IMAGE * TILE_SIZE;
+        BufferedImage view = new BufferedImage(2 * span, 2 * span, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = view.createGraphics();
+        g2.setClip(0, 0, view.getWidth(), view.getHeight());
+        // a view that starts half way into a block overlaps 3 x 3 blocks
+        g2.translate(-(20 * span + span / 2), -(10 * span + span / 2));
+        layer.draw(g2, large, null);
+        assertEquals(9, layer.getCachedImageCount());
+        assertEquals(9, layer.getBlockRenderCount());
+
+        large.setCellFill(new Point(0, 0), CellFill.BARRIER);
+        layer.draw(g2, large, null);
+        g2.dispose();
+        assertEquals(9, layer.getBlockRenderCount());
+        assertEquals(1, layer.getRenderCount());
+    }
+}
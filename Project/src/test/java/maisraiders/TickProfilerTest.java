@@ -0,0 +1,58 @@
+package maisraiders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import maisraiders.enums.TickPhase;
+import maisraiders.util.LatencyHistogram;
+import maisraiders.util.TickProfiler;
+
+/**
+ * Tests for the tick-phase profiler and its histograms.
+ */
+public class TickProfilerTest {
+
+    /**
+     * Percentiles come back within bucket precision and the max is exact.
+     */
+    @Test
+    void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histogram.record(micros * 1000);
+        }
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(10_000_000, histogram.getMax());
+        assertNear(5_000_000, histogram.getValueAtPercentile(50));
+        assertNear(9_900_000, histogram.getValueAtPercentile(99));
+        assertEquals(10_000_000, histogram.getValueAtPercentile(100));
+
+        LatencyHistogram last = new LatencyHistogram();
+        histogram.moveTo(last);
+        assertEquals(0, histogram.getCount());
+        assertEquals(10_000, last.getCount());
+        assertNear(5_000_000, last.getValueAtPercentile(50));
+    }
+
+    /**
+     * A profiler that is off records nothing.
+     */
+    @Test
+    void testDisabledRecordsNothing() {
+        TickProfiler profiler = new TickProfiler();
+        long start = profiler.begin();
+        assertEquals(0L, start);
+        profiler.end(TickPhase.TICK, start);
+        profiler.intervalTick();
+        assertEquals(0, profiler.getLastInterval(TickPhase.TICK).getCount());
+
+        profiler.setEnabled(true);
+        assertTrue(profiler.begin() != 0L);
+    }
+
+    private static void assertNear(long expected, long actual) {
+        assertTrue(Math.abs(actual - expected) <= expected / 32 + 1, "Expected ~" + expected + ", got " + actual);
+    }
+}
@@ -0,0 +1,113 @@
+package maisraiders;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import maisraiders.entities.AStar;
+import maisraiders.entities.Alien;
+import maisraiders.entities.PathRequest;
+import maisraiders.entities.TimeSlicedPlanner;
+import maisraiders.panel.Board;
+import maisraiders.util.Point;
+
+/**
+ * Tests for path searches spread over ticks.
+ */
+public class TimeSlicedPlannerTest {
+    private static final int SIDE = 128;
+    private Board board;
+
+    @BeforeEach
+    void setUp() {
+        System.setProperty("java.awt.headless", "true");
+        int[][] layout = new int[SIDE][SIDE];
+        Random random = new Random(9L);
+        for (int c = 0; c < SIDE; c++) {
+            for (int r = 0; r < SIDE; r++) {
+                layout[c][r] = random.nextInt(100) < 25 ? 1 : 0;
+            }
+        }
+        layout[1][1] = 0;
+        layout[SIDE - 2][SIDE - 2] = 0;
+        board = new Board(layout);
+    }
+
+    /**
+     * A long search takes several ticks within the budget and delivers the same path as A*.
+     */
+    @Test
+    void testLongSearchSpreadOverTicks() {
+        int start = board.index(1, 1);
+        int goal = board.index(SIDE - 2, SIDE - 2);
+        AStar arena = new AStar(board);
+        int[] expected = AStar.newPathBuffer(board);
+        int expectedLength = arena.search(start, goal, AStar.octileHeuristic, expected);
+        int expansions = arena.getExpandedCount();
+        assertTrue(expectedLength > 0);
+
+        int budget = 200;
+        TimeSlicedPlanner planner = new TimeSlicedPlanner(budget);
+        PathRequest request = planner.request(board, start, goal, AStar.octileHeuristic);
+        int ticks = 0;
+        while (!request.isDone()) {
+            planner.tick();
+            ticks++;
+            assertTrue(ticks <= expansions / budget + 2, "Search took too many ticks");
+        }
+        assertTrue(ticks >= expansions / budget, "Budget was exceeded: " + ticks + " ticks for " + expansions);
+
+        int[] path = AStar.newPathBuffer(board);
+        int length = request.copyPath(path);
+        assertArrayEquals(Arrays.copyOf(expected, expectedLength), Arrays.copyOf(path, length));
+        assertEquals(0, planner.getPendingCount());
+    }
+
+    /**
+     * A cancelled request is never searched.
+     */
+    @Test
+    void testCancelledRequestIsSkipped() {
+        TimeSlicedPlanner planner = new TimeSlicedPlanner(TimeSlicedPlanner.DEFAULT_BUDGET);
+        PathRequest dropped = planner.request(board, board.index(1, 1), board.index(SIDE - 2, SIDE - 2),
+                AStar.octileHeuristic);
+        PathRequest kept = planner.request(board, board.index(1, 1), board.index(1, 1),
+                AStar.octileHeuristic);
+        dropped.cancel();
+        planner.tick();
+        assertFalse(dropped.isDone());
+        assertTrue(kept.isDone());
+        assertEquals(1, planner.getDeliveredCount());
+    }
+
+    /**
+     * An alien keeps moving while its path is being planned, then follows the path to the farmer.
+     */
+    @Test
+    void testAlienMovesWhileWaiting() {
+        SampleGame game = SampleGame.simple();
+        TimeSlicedPlanner planner = new TimeSlicedPlanner(5);
+        Alien alien = new Alien(new Point(1, 1), 3);
+        alien.setPathService(planner);
+
+        alien.update(game.board, game.farmer);
+        assertEquals(1, planner.getPendingCount(), "Path should have been requested");
+        assertTrue(alien.getSubPositionX() != 96 || alien.getSubPositionY() != 96, "Alien should move without a path");
+
+        boolean caught = false;
+        for (int tick = 0; tick < 2000 && !caught; tick++) {
+            planner.tick();
+            alien.update(game.board, game.farmer);
+            caught = alien.getPosition().equals(game.farmer.getPosition());
+        }
+        assertTrue(caught, "Alien should reach the farmer");
+        assertTrue(planner.getDeliveredCount() > 0);
+    }
+}